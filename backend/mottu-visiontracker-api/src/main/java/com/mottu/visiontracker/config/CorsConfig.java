@@ -19,6 +19,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("*")
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag")
                 .allowCredentials(false)
                 .maxAge(3600);
     }
@@ -46,6 +47,7 @@ public class CorsConfig implements WebMvcConfigurer {
             "Authorization", 
             "Cache-Control", 
             "Content-Type",
+            "ETag",
             "Access-Control-Allow-Origin",
             "Access-Control-Allow-Headers"
         ));
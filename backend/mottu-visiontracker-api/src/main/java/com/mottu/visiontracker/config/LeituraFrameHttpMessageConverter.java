@@ -0,0 +1,53 @@
+package com.mottu.visiontracker.config;
+
+import com.mottu.visiontracker.protocol.LeituraFrame;
+import com.mottu.visiontracker.protocol.LeituraFrameDecoder;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Converte corpos {@value LeituraFrame#MEDIA_TYPE} em um {@link LeituraFrameDecoder} ligado ao
+ * InputStream da requisição. Nada é lido aqui: o controller consome os frames sob demanda.
+ * O buffer do decoder é reaproveitado por thread do servidor.
+ */
+public class LeituraFrameHttpMessageConverter extends AbstractHttpMessageConverter<LeituraFrameDecoder> {
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(LeituraFrame.MEDIA_TYPE);
+
+    private static final ThreadLocal<byte[]> BUFFERS =
+            ThreadLocal.withInitial(() -> new byte[LeituraFrame.MAX_TAMANHO_PAYLOAD]);
+
+    public LeituraFrameHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return LeituraFrameDecoder.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected LeituraFrameDecoder readInternal(Class<? extends LeituraFrameDecoder> clazz, HttpInputMessage inputMessage) {
+        try {
+            return new LeituraFrameDecoder(inputMessage.getBody(), BUFFERS.get());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException(
+                    "Erro ao abrir corpo da requisição", e, inputMessage);
+        }
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(LeituraFrameDecoder decoder, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("Leituras binárias são somente de entrada");
+    }
+}
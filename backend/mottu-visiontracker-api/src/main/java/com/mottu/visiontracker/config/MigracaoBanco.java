@@ -0,0 +1,156 @@
+package com.mottu.visiontracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Migrações versionadas do esquema (db/migracao/V{versao}__{descricao}.sql).
+ *
+ * Rodam antes do EntityManagerFactory, que só valida o esquema (ddl-auto=validate). Cada script é
+ * aplicado uma vez, em ordem de versão e na própria transação, e registrado em migracoes_esquema
+ * com o checksum; alterar um script já aplicado impede a subida. Os índices são declarados só nas
+ * migrações (as entidades não repetem @Index) e o PlanoConsultasTest confere que as consultas os usam.
+ */
+@Configuration
+public class MigracaoBanco {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracaoBanco.class);
+
+    private static final String LOCAL_SCRIPTS = "classpath:db/migracao/V*__*.sql";
+    private static final Pattern NOME_SCRIPT = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Faz o EntityManagerFactory esperar as migrações
+     */
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor migracaoAntesDoJpa() {
+        return new EntityManagerFactoryDependsOnPostProcessor(MigracaoBanco.class);
+    }
+
+    @PostConstruct
+    public void migrar() throws IOException, SQLException {
+        Resource[] scripts = new PathMatchingResourcePatternResolver().getResources(LOCAL_SCRIPTS);
+        Arrays.sort(scripts, Comparator.comparingInt(script -> versao(script.getFilename())));
+
+        try (Connection conexao = dataSource.getConnection()) {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+            try {
+                criarTabelaControle(conexao);
+                Map<Integer, Long> aplicadas = carregarAplicadas(conexao);
+                int quantidade = 0;
+                for (Resource script : scripts) {
+                    int versao = versao(script.getFilename());
+                    long checksum = checksum(script);
+                    Long aplicada = aplicadas.get(versao);
+                    if (aplicada != null) {
+                        if (aplicada != checksum) {
+                            throw new IllegalStateException("Migração V" + versao + " foi alterada depois de aplicada: "
+                                    + script.getFilename());
+                        }
+                        continue;
+                    }
+                    aplicar(conexao, script, versao, checksum);
+                    quantidade++;
+                }
+                log.info("Esquema do banco na versão {} ({} migrações aplicadas agora)",
+                        scripts.length > 0 ? versao(scripts[scripts.length - 1].getFilename()) : 0, quantidade);
+            } finally {
+                conexao.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void aplicar(Connection conexao, Resource script, int versao, long checksum) throws SQLException {
+        try {
+            ScriptUtils.executeSqlScript(conexao, script);
+            try (PreparedStatement insert = conexao.prepareStatement(
+                    "INSERT INTO migracoes_esquema (versao, descricao, checksum, aplicada_em) VALUES (?, ?, ?, ?)")) {
+                insert.setInt(1, versao);
+                insert.setString(2, descricao(script.getFilename()));
+                insert.setLong(3, checksum);
+                insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                insert.executeUpdate();
+            }
+            conexao.commit();
+            log.info("Migração aplicada: {}", script.getFilename());
+        } catch (RuntimeException | SQLException e) {
+            conexao.rollback();
+            throw e;
+        }
+    }
+
+    private void criarTabelaControle(Connection conexao) throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS migracoes_esquema ("
+                    + "versao INTEGER NOT NULL PRIMARY KEY, descricao VARCHAR(200) NOT NULL, "
+                    + "checksum BIGINT NOT NULL, aplicada_em TIMESTAMP NOT NULL)");
+        }
+        conexao.commit();
+    }
+
+    private Map<Integer, Long> carregarAplicadas(Connection conexao) throws SQLException {
+        Map<Integer, Long> aplicadas = new HashMap<>();
+        try (Statement statement = conexao.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT versao, checksum FROM migracoes_esquema")) {
+            while (rs.next()) {
+                aplicadas.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return aplicadas;
+    }
+
+    private static int versao(String nome) {
+        return Integer.parseInt(nomeScript(nome).group(1));
+    }
+
+    private static String descricao(String nome) {
+        return nomeScript(nome).group(2).replace('_', ' ');
+    }
+
+    private static Matcher nomeScript(String nome) {
+        Matcher matcher = NOME_SCRIPT.matcher(nome != null ? nome : "");
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Nome de migração inválido: " + nome);
+        }
+        return matcher;
+    }
+
+    private static long checksum(Resource script) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = script.getInputStream()) {
+            crc.update(StreamUtils.copyToByteArray(in));
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,17 @@
+package com.mottu.visiontracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Formato binário dos leitores, ao lado dos conversores Jackson padrão
+        converters.add(new LeituraFrameHttpMessageConverter());
+    }
+}
@@ -1,15 +1,20 @@
 package com.mottu.visiontracker.controller;
 
 import com.mottu.visiontracker.dto.AlertaDTO;
+import com.mottu.visiontracker.dto.FiltroAlertasDTO;
+import com.mottu.visiontracker.dto.PaginaDTO;
 import com.mottu.visiontracker.dto.ApiResponse;
 import com.mottu.visiontracker.entity.Alerta;
 import com.mottu.visiontracker.service.AlertaService;
+import com.mottu.visiontracker.util.EtagLista;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
@@ -25,30 +30,58 @@ public class AlertaController {
     private AlertaService alertaService;
 
     /**
-     * GET /api/alertas - Lista todos os alertas
+     * GET /api/alertas - Lista os alertas (com ETag; 304 se a lista não mudou).
+     * Os filtros são opcionais e combináveis: resolvido, tipo, motoId, setor da moto e período
+     * (inicio/fim); limite e ordem (DESC, o padrão, ou ASC por data) também vão para o banco.
      */
     @GetMapping
     public ResponseEntity<ApiResponse<List<AlertaDTO>>> getAllAlertas(
             @RequestParam(required = false) Boolean resolvido,
             @RequestParam(required = false) Alerta.TipoAlerta tipo,
-            @RequestParam(required = false) Long motoId) {
-        
+            @RequestParam(required = false) Long motoId,
+            @RequestParam(required = false) String setor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(defaultValue = "DESC") String ordem,
+            WebRequest request) {
+        // A versão é lida antes da consulta; se o cliente já tem esta lista, nem a consulta nem o JSON são feitos
+        if (request.checkNotModified(EtagLista.de("alertas", alertaService.getVersaoLista(),
+                resolvido, tipo, motoId, setor, inicio, fim, limite, ordem))) {
+            return null;
+        }
+
         try {
-            List<AlertaDTO> alertas;
-            
-            if (resolvido != null && !resolvido) {
-                alertas = alertaService.findUnresolved();
-            } else if (resolvido != null && resolvido) {
-                alertas = alertaService.findResolved();
-            } else if (tipo != null) {
-                alertas = alertaService.findByTipo(tipo);
-            } else if (motoId != null) {
-                alertas = alertaService.findByMotoId(motoId);
-            } else {
-                alertas = alertaService.findAll();
-            }
-            
+            FiltroAlertasDTO filtro = new FiltroAlertasDTO(resolvido, tipo, motoId, setor, inicio, fim, limite,
+                    Sort.Direction.fromString(ordem));
+            List<AlertaDTO> alertas = alertaService.filtrar(filtro);
             return ResponseEntity.ok(ApiResponse.success("Alertas carregados com sucesso", alertas));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Erro de validação", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao carregar alertas", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/alertas/pagina - Alertas em páginas por cursor, mais recentes primeiro.
+     * Envie o proximoCursor recebido para buscar a página seguinte.
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<ApiResponse<PaginaDTO<AlertaDTO>>> getPagina(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite,
+            WebRequest request) {
+        if (request.checkNotModified(EtagLista.de("alertas-pagina", alertaService.getVersaoLista(), cursor, limite))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Alertas carregados com sucesso", alertaService.findPagina(cursor, limite)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Erro de validação", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Erro ao carregar alertas", e.getMessage()));
@@ -79,7 +112,10 @@ public class AlertaController {
      * GET /api/alertas/unresolved - Lista alertas não resolvidos
      */
     @GetMapping("/unresolved")
-    public ResponseEntity<ApiResponse<List<AlertaDTO>>> getUnresolvedAlertas() {
+    public ResponseEntity<ApiResponse<List<AlertaDTO>>> getUnresolvedAlertas(WebRequest request) {
+        if (request.checkNotModified(EtagLista.de("alertas-unresolved", alertaService.getVersaoLista()))) {
+            return null;
+        }
         try {
             List<AlertaDTO> alertas = alertaService.findUnresolved();
             return ResponseEntity.ok(ApiResponse.success("Alertas não resolvidos carregados", alertas));
@@ -93,7 +129,10 @@ public class AlertaController {
      * GET /api/alertas/critical - Lista alertas críticos não resolvidos
      */
     @GetMapping("/critical")
-    public ResponseEntity<ApiResponse<List<AlertaDTO>>> getCriticalAlertas() {
+    public ResponseEntity<ApiResponse<List<AlertaDTO>>> getCriticalAlertas(WebRequest request) {
+        if (request.checkNotModified(EtagLista.de("alertas-critical", alertaService.getVersaoLista()))) {
+            return null;
+        }
         try {
             List<AlertaDTO> alertas = alertaService.findCriticalUnresolved();
             return ResponseEntity.ok(ApiResponse.success("Alertas críticos carregados", alertas));
@@ -107,7 +146,10 @@ public class AlertaController {
      * GET /api/alertas/moto/{motoId} - Lista alertas de uma moto específica
      */
     @GetMapping("/moto/{motoId}")
-    public ResponseEntity<ApiResponse<List<AlertaDTO>>> getAlertasByMoto(@PathVariable Long motoId) {
+    public ResponseEntity<ApiResponse<List<AlertaDTO>>> getAlertasByMoto(@PathVariable Long motoId, WebRequest request) {
+        if (request.checkNotModified(EtagLista.de("alertas-moto", alertaService.getVersaoLista(), motoId))) {
+            return null;
+        }
         try {
             List<AlertaDTO> alertas = alertaService.findByMotoId(motoId);
             return ResponseEntity.ok(ApiResponse.success("Alertas da moto carregados", alertas));
@@ -123,8 +165,12 @@ public class AlertaController {
     @GetMapping("/periodo")
     public ResponseEntity<ApiResponse<List<AlertaDTO>>> getAlertasByPeriod(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
-        
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            WebRequest request) {
+        if (request.checkNotModified(EtagLista.de("alertas-periodo", alertaService.getVersaoLista(), inicio, fim))) {
+            return null;
+        }
+
         try {
             List<AlertaDTO> alertas = alertaService.findByPeriod(inicio, fim);
             return ResponseEntity.ok(ApiResponse.success("Alertas do período carregados", alertas));
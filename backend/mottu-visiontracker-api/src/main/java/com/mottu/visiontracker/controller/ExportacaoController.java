@@ -0,0 +1,75 @@
+package com.mottu.visiontracker.controller;
+
+import com.mottu.visiontracker.dto.ApiResponse;
+import com.mottu.visiontracker.service.ExportacaoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*")
+public class ExportacaoController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacaoController.class);
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
+    /**
+     * GET /api/export/motos?formato=ndjson|csv - Todas as motos, escritas conforme são lidas do banco
+     */
+    @GetMapping("/motos")
+    public ResponseEntity<StreamingResponseBody> exportarMotos(@RequestParam(defaultValue = "ndjson") String formato) {
+        ExportacaoService.Formato tipo = formato(formato);
+        return resposta("motos", tipo, saida -> {
+            long quantidade = exportacaoService.exportarMotos(saida, tipo);
+            log.info("Exportação de motos ({}) concluída: {} registros", tipo, quantidade);
+        });
+    }
+
+    /**
+     * GET /api/export/alertas?formato=ndjson|csv - Todos os alertas com a moto, escritos conforme são lidos do banco
+     */
+    @GetMapping("/alertas")
+    public ResponseEntity<StreamingResponseBody> exportarAlertas(@RequestParam(defaultValue = "ndjson") String formato) {
+        ExportacaoService.Formato tipo = formato(formato);
+        return resposta("alertas", tipo, saida -> {
+            long quantidade = exportacaoService.exportarAlertas(saida, tipo);
+            log.info("Exportação de alertas ({}) concluída: {} registros", tipo, quantidade);
+        });
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiResponse<Void>> formatoInvalido(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiResponse.error("Erro de validação", e.getMessage()));
+    }
+
+    private static ExportacaoService.Formato formato(String formato) {
+        try {
+            return ExportacaoService.Formato.valueOf(formato.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato inválido: " + formato + " (use ndjson ou csv)");
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> resposta(String nome, ExportacaoService.Formato formato,
+                                                                  StreamingResponseBody corpo) {
+        String arquivo = nome + "-" + LocalDate.now() + "." + formato.getExtensao();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + arquivo + "\"")
+                .contentType(MediaType.parseMediaType(formato.getContentType() + ";charset=UTF-8"))
+                .body(corpo);
+    }
+}
@@ -1,6 +1,7 @@
 package com.mottu.visiontracker.controller;
 
 import com.mottu.visiontracker.dto.ApiResponse;
+import com.mottu.visiontracker.service.EstatisticasService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -22,6 +23,9 @@ public class HealthController {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private EstatisticasService estatisticasService;
+
     /**
      * GET /api/health - Verifica o status da API
      */
@@ -122,4 +126,24 @@ public class HealthController {
                     .body(ApiResponse.<Map<String, Object>>error("Erro na conexão com o banco"));
         }
     }
+
+    /**
+     * GET /api/health/estatisticas - Confere os contadores dos /stats com o banco (GROUP BY) e corrige divergências
+     */
+    @GetMapping("/estatisticas")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> verificarEstatisticas() {
+        try {
+            EstatisticasService.Reconciliacao reconciliacao = estatisticasService.reconciliar();
+            Map<String, Object> dados = new HashMap<>();
+            dados.put("reconciliacao", reconciliacao);
+            dados.put("contadores", estatisticasService.getStats());
+            String mensagem = !reconciliacao.isExecutada() ? "Escritas em andamento; conferência adiada"
+                    : reconciliacao.isConsistente() ? "Contadores consistentes com o banco"
+                    : "Contadores divergiam do banco e foram corrigidos";
+            return ResponseEntity.ok(ApiResponse.success(mensagem, dados));
+        } catch (Exception e) {
+            return ResponseEntity.status(503)
+                    .body(ApiResponse.<Map<String, Object>>error("Erro ao conferir as estatísticas: " + e.getMessage()));
+        }
+    }
 }
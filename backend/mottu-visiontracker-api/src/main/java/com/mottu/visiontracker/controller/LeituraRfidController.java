@@ -0,0 +1,138 @@
+package com.mottu.visiontracker.controller;
+
+import com.mottu.visiontracker.dto.ApiResponse;
+import com.mottu.visiontracker.dto.LeituraRfidDTO;
+import com.mottu.visiontracker.dto.LoteLeiturasDTO;
+import com.mottu.visiontracker.protocol.LeituraFrame;
+import com.mottu.visiontracker.protocol.LeituraFrameDecoder;
+import com.mottu.visiontracker.service.LeituraPipeline;
+import com.mottu.visiontracker.service.LeituraRfidService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leituras")
+@CrossOrigin(origins = "*")
+public class LeituraRfidController {
+
+    @Autowired
+    private LeituraRfidService leituraRfidService;
+
+    @Autowired
+    private LeituraPipeline leituraPipeline;
+
+    /**
+     * GET /api/leituras - Lista as leituras mais recentes
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<LeituraRfidDTO>>> getLeituras(
+            @RequestParam(required = false) String tag) {
+        try {
+            List<LeituraRfidDTO> leituras = leituraRfidService.findRecentes(tag);
+            return ResponseEntity.ok(ApiResponse.success("Leituras carregadas com sucesso", leituras));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao carregar leituras", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/leituras/lote - Registra um lote de leituras RFID
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<ApiResponse<LeituraRfidService.ResultadoLote>> registrarLote(
+            @Valid @RequestBody LoteLeiturasDTO lote, BindingResult result) {
+        if (result.hasErrors()) {
+            StringBuilder errors = new StringBuilder();
+            result.getAllErrors().forEach(error -> errors.append(error.getDefaultMessage()).append("; "));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Dados inválidos", errors.toString()));
+        }
+
+        try {
+            LeituraRfidService.ResultadoLote resultado = leituraRfidService.registrarLote(lote.getLeituras());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Leituras registradas com sucesso", resultado));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao registrar leituras", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/leituras/fila - Enfileira leituras no pipeline assíncrono.
+     * Responde 202 quando todas foram aceitas, ou 429 com Retry-After quando a fila está cheia;
+     * nesse caso só as últimas "rejeitadas" leituras do lote devem ser reenviadas.
+     */
+    @PostMapping("/fila")
+    public ResponseEntity<ApiResponse<LeituraPipeline.ResultadoPublicacao>> enfileirar(
+            @Valid @RequestBody LoteLeiturasDTO lote, BindingResult result) {
+        if (result.hasErrors()) {
+            StringBuilder errors = new StringBuilder();
+            result.getAllErrors().forEach(error -> errors.append(error.getDefaultMessage()).append("; "));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Dados inválidos", errors.toString()));
+        }
+
+        try {
+            LeituraPipeline.ResultadoPublicacao resultado = leituraPipeline.publicar(lote.getLeituras());
+            return respostaPublicacao(resultado, "Reenvie as " + resultado.getRejeitadas() + " últimas leituras do lote");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao enfileirar leituras", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/leituras/fila (application/x-mottu-leituras) - Enfileira leituras no formato binário
+     * dos gateways. Com a fila cheia responde 429: o corpo é lido até o fim, "rejeitadas" conta
+     * todas as leituras depois das "aceitas" e o gateway reenvia a partir da seguinte a elas.
+     */
+    @PostMapping(value = "/fila", consumes = LeituraFrame.MEDIA_TYPE)
+    public ResponseEntity<ApiResponse<LeituraPipeline.ResultadoPublicacao>> enfileirarBinario(
+            @RequestBody LeituraFrameDecoder decoder) {
+        try {
+            LeituraPipeline.ResultadoPublicacao resultado = leituraPipeline.publicar(decoder);
+            return respostaPublicacao(resultado, "Reenvie a partir da leitura " + (resultado.getAceitas() + 1));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Frame inválido", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao enfileirar leituras", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<ApiResponse<LeituraPipeline.ResultadoPublicacao>> respostaPublicacao(
+            LeituraPipeline.ResultadoPublicacao resultado, String instrucaoReenvio) {
+        if (resultado.getRejeitadas() > 0) {
+            ApiResponse<LeituraPipeline.ResultadoPublicacao> resposta = new ApiResponse<>(false, "Fila de leituras cheia", resultado);
+            resposta.setError(instrucaoReenvio);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(resposta);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Leituras enfileiradas com sucesso", resultado));
+    }
+
+    /**
+     * GET /api/leituras/pipeline - Obtém a ocupação da fila e os contadores do pipeline
+     */
+    @GetMapping("/pipeline")
+    public ResponseEntity<ApiResponse<LeituraPipeline.PipelineStats>> getPipelineStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Estatísticas do pipeline carregadas", leituraPipeline.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao carregar estatísticas do pipeline", e.getMessage()));
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.mottu.visiontracker.controller;
 
 import com.mottu.visiontracker.dto.ApiResponse;
+import com.mottu.visiontracker.dto.LoteAtualizacaoMotosDTO;
 import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.dto.PaginaDTO;
 import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.service.HistoricoPosicaoService;
 import com.mottu.visiontracker.service.MotoService;
+import com.mottu.visiontracker.service.OcupacaoService;
+import com.mottu.visiontracker.service.SnapshotFrotaService;
+import com.mottu.visiontracker.util.EtagLista;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,16 +31,30 @@ public class MotoController {
     @Autowired
     private MotoService motoService;
 
+    @Autowired
+    private OcupacaoService ocupacaoService;
+
+    @Autowired
+    private HistoricoPosicaoService historicoPosicaoService;
+
+    @Autowired
+    private SnapshotFrotaService snapshotFrotaService;
+
     /**
-     * GET /api/motos - Lista todas as motos
+     * GET /api/motos - Lista todas as motos (com ETag; 304 se a lista não mudou)
      */
     @GetMapping
     public ResponseEntity<ApiResponse<List<MotoDTO>>> getAllMotos(
             @RequestParam(required = false) String placa,
             @RequestParam(required = false) String modelo,
             @RequestParam(required = false) String proprietario,
-            @RequestParam(required = false) Moto.StatusMoto status) {
-        
+            @RequestParam(required = false) Moto.StatusMoto status,
+            WebRequest request) {
+        // A versão é lida antes da consulta; se o cliente já tem esta lista, nem a consulta nem o JSON são feitos
+        if (request.checkNotModified(EtagLista.de("motos", motoService.getVersaoLista(), placa, modelo, proprietario, status))) {
+            return null;
+        }
+
         try {
             List<MotoDTO> motos;
             
@@ -48,6 +71,46 @@ public class MotoController {
         }
     }
 
+    /**
+     * GET /api/motos/busca?q=trecho - Busca enquanto o usuário digita, na placa, modelo ou proprietário
+     */
+    @GetMapping("/busca")
+    public ResponseEntity<ApiResponse<List<MotoDTO>>> buscar(@RequestParam String q,
+                                                             @RequestParam(defaultValue = "20") int limite) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Motos encontradas", motoService.buscar(q, limite)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Erro de validação", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao buscar motos", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/motos/pagina - Motos em páginas por cursor, mais recentes primeiro.
+     * Envie o proximoCursor recebido para buscar a página seguinte.
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<ApiResponse<PaginaDTO<MotoDTO>>> getPagina(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite,
+            WebRequest request) {
+        if (request.checkNotModified(EtagLista.de("motos-pagina", motoService.getVersaoLista(), cursor, limite))) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Motos carregadas com sucesso", motoService.findPagina(cursor, limite)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Erro de validação", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao carregar motos", e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/motos/{id} - Busca uma moto por ID
      */
@@ -92,7 +155,11 @@ public class MotoController {
      * GET /api/motos/status/{status} - Busca motos por status
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<ApiResponse<List<MotoDTO>>> getMotosByStatus(@PathVariable Moto.StatusMoto status) {
+    public ResponseEntity<ApiResponse<List<MotoDTO>>> getMotosByStatus(@PathVariable Moto.StatusMoto status,
+                                                                       WebRequest request) {
+        if (request.checkNotModified(EtagLista.de("motos-status", motoService.getVersaoLista(), status))) {
+            return null;
+        }
         try {
             List<MotoDTO> motos = motoService.findByStatus(status);
             return ResponseEntity.ok(ApiResponse.success("Motos encontradas", motos));
@@ -155,13 +222,16 @@ public class MotoController {
 
     /**
      * PATCH /api/motos/{id}/position - Atualiza a posição de uma moto
+     * (x e y opcionais, em metros no pátio)
      */
     @PatchMapping("/{id}/position")
     public ResponseEntity<ApiResponse<MotoDTO>> updateMotoPosition(@PathVariable Long id,
                                                                    @RequestParam String setor,
-                                                                   @RequestParam String posicao) {
+                                                                   @RequestParam String posicao,
+                                                                   @RequestParam(required = false) Double x,
+                                                                   @RequestParam(required = false) Double y) {
         try {
-            MotoDTO updatedMoto = motoService.updatePosition(id, setor, posicao);
+            MotoDTO updatedMoto = motoService.updatePosition(id, setor, posicao, x, y);
             return ResponseEntity.ok(ApiResponse.success("Posição da moto atualizada", updatedMoto));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -190,6 +260,30 @@ public class MotoController {
         }
     }
 
+    /**
+     * PATCH /api/motos/lote - Atualiza setor, posição e status de várias motos em uma transação.
+     * Responde 200 com o resultado de cada item; itens com falha não impedem os demais.
+     */
+    @PatchMapping("/lote")
+    public ResponseEntity<ApiResponse<MotoService.ResultadoLote>> updateMotosLote(
+            @Valid @RequestBody LoteAtualizacaoMotosDTO lote, BindingResult result) {
+        if (result.hasErrors()) {
+            StringBuilder errors = new StringBuilder();
+            result.getAllErrors().forEach(error -> errors.append(error.getDefaultMessage()).append("; "));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Dados inválidos", errors.toString()));
+        }
+
+        try {
+            MotoService.ResultadoLote resultado = motoService.updateLote(lote.getItens());
+            return ResponseEntity.ok(ApiResponse.success(
+                    resultado.getSucessos() + " de " + resultado.getTotal() + " motos atualizadas", resultado));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao atualizar motos", e.getMessage()));
+        }
+    }
+
     /**
      * DELETE /api/motos/{id} - Remove uma moto
      */
@@ -207,6 +301,48 @@ public class MotoController {
         }
     }
 
+    /**
+     * GET /api/motos/{id}/trajetoria - Posições da moto no período (padrão: últimas 24 horas)
+     */
+    @GetMapping("/{id}/trajetoria")
+    public ResponseEntity<ApiResponse<List<HistoricoPosicaoService.PontoTrajetoria>>> getTrajetoria(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        try {
+            LocalDateTime ate = fim != null ? fim : LocalDateTime.now();
+            LocalDateTime de = inicio != null ? inicio : ate.minusHours(24);
+            if (de.isAfter(ate)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("Erro de validação", "O início deve ser anterior ao fim"));
+            }
+            List<HistoricoPosicaoService.PontoTrajetoria> pontos = historicoPosicaoService.getTrajetoria(id, de, ate);
+            return ResponseEntity.ok(ApiResponse.success("Trajetória carregada", pontos));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao carregar trajetória", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/motos/snapshot - Setor, posição e status de todas as motos em um instante passado
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<ApiResponse<SnapshotFrotaService.SnapshotFrota>> getSnapshot(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime instante,
+            @RequestParam(required = false) String setor) {
+        try {
+            SnapshotFrotaService.SnapshotFrota snapshot = snapshotFrotaService.getSnapshot(instante, setor);
+            return ResponseEntity.ok(ApiResponse.success("Snapshot do pátio carregado", snapshot));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Erro de validação", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao carregar snapshot", e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/motos/stats - Obtém estatísticas das motos
      */
@@ -220,4 +356,17 @@ public class MotoController {
                     .body(ApiResponse.error("Erro ao carregar estatísticas", e.getMessage()));
         }
     }
+
+    /**
+     * GET /api/motos/ocupacao - Obtém a ocupação de vagas por setor (mantida em memória)
+     */
+    @GetMapping("/ocupacao")
+    public ResponseEntity<ApiResponse<List<OcupacaoService.OcupacaoSetor>>> getOcupacao() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Ocupação carregada", ocupacaoService.getOcupacao()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao carregar ocupação", e.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.mottu.visiontracker.controller;
+
+import com.mottu.visiontracker.dto.ApiResponse;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.service.StreamAlteracoesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin(origins = "*")
+public class StreamController {
+
+    @Autowired
+    private StreamAlteracoesService streamAlteracoesService;
+
+    /**
+     * GET /api/stream - Abre um stream SSE com as motos ("moto") e alertas ("alerta") alterados.
+     * Filtros opcionais, separados por vírgula: canal (motos, alertas), setor, status e tipo.
+     * Conecte antes de carregar as listas para não perder alterações entre a carga e a conexão.
+     */
+    @GetMapping
+    public ResponseEntity<SseEmitter> assinar(@RequestParam(required = false) List<String> canal,
+                                              @RequestParam(required = false) List<String> setor,
+                                              @RequestParam(required = false) List<Moto.StatusMoto> status,
+                                              @RequestParam(required = false) List<Alerta.TipoAlerta> tipo) {
+        Set<String> canais = new HashSet<>();
+        if (canal != null) {
+            for (String c : canal) {
+                String nome = c.trim().toLowerCase(Locale.ROOT);
+                if (!nome.equals("motos") && !nome.equals("alertas")) {
+                    throw new IllegalArgumentException("Canal inválido: " + c + " (use motos ou alertas)");
+                }
+                canais.add(nome);
+            }
+        }
+        StreamAlteracoesService.Filtro filtro = new StreamAlteracoesService.Filtro(
+                canais.isEmpty() || canais.contains("motos"),
+                canais.isEmpty() || canais.contains("alertas"),
+                conjunto(setor), conjunto(status), conjunto(tipo));
+        return ResponseEntity.ok(streamAlteracoesService.assinar(filtro));
+    }
+
+    /**
+     * GET /api/stream/stats - Conexões abertas e alterações enviadas
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<StreamAlteracoesService.StreamStats>> getStats() {
+        return ResponseEntity.ok(ApiResponse.success("Estatísticas do stream", streamAlteracoesService.getStats()));
+    }
+
+    // O SseEmitter precisa ser o tipo declarado do retorno, então os erros da assinatura vêm por exceção
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiResponse<Void>> handleFiltroInvalido(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("Erro de validação", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ApiResponse<Void>> handleLimiteAtingido(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error("Stream indisponível", e.getMessage()));
+    }
+
+    private static <T> Set<T> conjunto(List<T> valores) {
+        return valores != null ? new HashSet<>(valores) : Collections.emptySet();
+    }
+}
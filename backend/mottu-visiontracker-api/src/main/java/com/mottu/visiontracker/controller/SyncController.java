@@ -0,0 +1,38 @@
+package com.mottu.visiontracker.controller;
+
+import com.mottu.visiontracker.dto.ApiResponse;
+import com.mottu.visiontracker.service.SincronizacaoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@CrossOrigin(origins = "*")
+public class SyncController {
+
+    @Autowired
+    private SincronizacaoService sincronizacaoService;
+
+    /**
+     * GET /api/sync?since=N - Motos, alertas e remoções alterados depois do cursor N, e o próximo cursor.
+     * Sem cursor (ou com um de outra execução) vem a carga completa, marcada com completo=true.
+     * Com temMais=true, chame de novo com o cursor devolvido.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<SincronizacaoService.Alteracoes>> getAlteracoes(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "1000") int limite) {
+        try {
+            SincronizacaoService.Alteracoes alteracoes = sincronizacaoService.getAlteracoes(since, limite);
+            return ResponseEntity.ok(ApiResponse.success("Alterações carregadas", alteracoes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Erro de validação", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erro ao carregar alterações", e.getMessage()));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mottu.visiontracker.dto;
 
 import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -26,6 +27,7 @@ public class AlertaDTO {
     private Boolean resolvido;
     private LocalDateTime timestamp;
     private LocalDateTime resolvedAt;
+    private Long versao;
 
     // Construtores
     public AlertaDTO() {}
@@ -39,6 +41,26 @@ public class AlertaDTO {
         this.resolvido = alerta.getResolvido();
         this.timestamp = alerta.getTimestamp();
         this.resolvedAt = alerta.getResolvedAt();
+        this.versao = alerta.getVersao();
+    }
+
+    // Projeção das consultas (AlertaRepository.SELECT_DTO): colunas do alerta e depois as da moto,
+    // na ordem da projeção de MotoDTO
+    public AlertaDTO(Long id, Alerta.TipoAlerta tipo, String descricao, Boolean resolvido, LocalDateTime timestamp,
+                     LocalDateTime resolvedAt, Long versao, Long motoId, String placa, String modelo, String cor,
+                     String proprietario, String numeroSerie, String tagRFID, Moto.StatusMoto status, String setor,
+                     String posicao, Double coordenadaX, Double coordenadaY, LocalDateTime motoCreatedAt,
+                     LocalDateTime motoUpdatedAt, Long motoVersao) {
+        this.id = id;
+        this.motoId = motoId;
+        this.moto = new MotoDTO(motoId, placa, modelo, cor, proprietario, numeroSerie, tagRFID, status, setor, posicao,
+                coordenadaX, coordenadaY, motoCreatedAt, motoUpdatedAt, motoVersao);
+        this.tipo = tipo;
+        this.descricao = descricao;
+        this.resolvido = resolvido;
+        this.timestamp = timestamp;
+        this.resolvedAt = resolvedAt;
+        this.versao = versao;
     }
 
     // Método para converter DTO em entidade (sem a moto, que deve ser definida separadamente)
@@ -121,4 +143,12 @@ public class AlertaDTO {
     public void setResolvedAt(LocalDateTime resolvedAt) {
         this.resolvedAt = resolvedAt;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
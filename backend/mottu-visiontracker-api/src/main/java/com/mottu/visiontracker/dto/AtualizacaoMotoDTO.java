@@ -0,0 +1,66 @@
+package com.mottu.visiontracker.dto;
+
+import com.mottu.visiontracker.entity.Moto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * Item de uma atualização em lote: campos nulos mantêm o valor atual da moto
+ */
+public class AtualizacaoMotoDTO {
+
+    @NotNull(message = "ID da moto é obrigatório")
+    private Long id;
+
+    @Size(max = 10, message = "Setor deve ter no máximo 10 caracteres")
+    private String setor;
+
+    @Size(max = 10, message = "Posição deve ter no máximo 10 caracteres")
+    private String posicao;
+
+    private Moto.StatusMoto status;
+
+    // Construtores
+    public AtualizacaoMotoDTO() {}
+
+    public AtualizacaoMotoDTO(Long id, String setor, String posicao, Moto.StatusMoto status) {
+        this.id = id;
+        this.setor = setor;
+        this.posicao = posicao;
+        this.status = status;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSetor() {
+        return setor;
+    }
+
+    public void setSetor(String setor) {
+        this.setor = setor;
+    }
+
+    public String getPosicao() {
+        return posicao;
+    }
+
+    public void setPosicao(String posicao) {
+        this.posicao = posicao;
+    }
+
+    public Moto.StatusMoto getStatus() {
+        return status;
+    }
+
+    public void setStatus(Moto.StatusMoto status) {
+        this.status = status;
+    }
+}
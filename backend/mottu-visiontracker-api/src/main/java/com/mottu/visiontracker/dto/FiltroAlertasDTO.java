@@ -0,0 +1,101 @@
+package com.mottu.visiontracker.dto;
+
+import com.mottu.visiontracker.entity.Alerta;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros combináveis da listagem de alertas; campo null não filtra
+ */
+public class FiltroAlertasDTO {
+
+    private Boolean resolvido;
+    private Alerta.TipoAlerta tipo;
+    private Long motoId;
+    private String setor;
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+    private Integer limite;
+    private Sort.Direction ordem = Sort.Direction.DESC;
+
+    // Construtores
+    public FiltroAlertasDTO() {}
+
+    public FiltroAlertasDTO(Boolean resolvido, Alerta.TipoAlerta tipo, Long motoId, String setor,
+                            LocalDateTime inicio, LocalDateTime fim, Integer limite, Sort.Direction ordem) {
+        this.resolvido = resolvido;
+        this.tipo = tipo;
+        this.motoId = motoId;
+        this.setor = setor;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.limite = limite;
+        this.ordem = ordem != null ? ordem : Sort.Direction.DESC;
+    }
+
+    // Getters e Setters
+    public Boolean getResolvido() {
+        return resolvido;
+    }
+
+    public void setResolvido(Boolean resolvido) {
+        this.resolvido = resolvido;
+    }
+
+    public Alerta.TipoAlerta getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(Alerta.TipoAlerta tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getMotoId() {
+        return motoId;
+    }
+
+    public void setMotoId(Long motoId) {
+        this.motoId = motoId;
+    }
+
+    public String getSetor() {
+        return setor;
+    }
+
+    public void setSetor(String setor) {
+        this.setor = setor;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public void setInicio(LocalDateTime inicio) {
+        this.inicio = inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public void setFim(LocalDateTime fim) {
+        this.fim = fim;
+    }
+
+    public Integer getLimite() {
+        return limite;
+    }
+
+    public void setLimite(Integer limite) {
+        this.limite = limite;
+    }
+
+    public Sort.Direction getOrdem() {
+        return ordem;
+    }
+
+    public void setOrdem(Sort.Direction ordem) {
+        this.ordem = ordem;
+    }
+}
@@ -0,0 +1,148 @@
+package com.mottu.visiontracker.dto;
+
+import com.mottu.visiontracker.entity.LeituraRfid;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+
+public class LeituraRfidDTO {
+
+    private Long id;
+
+    @NotBlank(message = "Tag RFID é obrigatória")
+    @Size(max = 50, message = "Tag RFID deve ter no máximo 50 caracteres")
+    @Pattern(regexp = "^[\\x21-\\x7E]+$", message = "Tag RFID deve conter apenas caracteres ASCII imprimíveis")
+    private String tagRFID;
+
+    private Long motoId;
+
+    @NotNull(message = "Antena é obrigatória")
+    @Min(value = 0, message = "Antena deve ser um número entre 0 e 255")
+    @Max(value = 255, message = "Antena deve ser um número entre 0 e 255")
+    private Integer antena;
+
+    @Size(max = 10, message = "Setor deve ter no máximo 10 caracteres")
+    private String setor;
+
+    @DecimalMin(value = "-200.0", message = "RSSI deve estar entre -200 e 50 dBm")
+    @DecimalMax(value = "50.0", message = "RSSI deve estar entre -200 e 50 dBm")
+    private Double rssi;
+
+    @NotNull(message = "Timestamp da leitura é obrigatório")
+    private LocalDateTime timestamp;
+
+    private LocalDateTime ultimaLeitura;
+    private Integer quantidade;
+    private LocalDateTime recebidaEm;
+
+    // Construtores
+    public LeituraRfidDTO() {}
+
+    public LeituraRfidDTO(LeituraRfid leitura) {
+        this.id = leitura.getId();
+        this.tagRFID = leitura.getTagRFID();
+        this.motoId = leitura.getMotoId();
+        this.antena = leitura.getAntena();
+        this.setor = leitura.getSetor();
+        this.rssi = leitura.getRssi();
+        this.timestamp = leitura.getTimestamp();
+        this.ultimaLeitura = leitura.getUltimaLeitura();
+        this.quantidade = leitura.getQuantidade();
+        this.recebidaEm = leitura.getRecebidaEm();
+    }
+
+    // Método para converter DTO em entidade
+    public LeituraRfid toEntity() {
+        LeituraRfid leitura = new LeituraRfid(this.tagRFID, this.antena, this.setor, this.timestamp);
+        leitura.setRssi(this.rssi);
+        return leitura;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTagRFID() {
+        return tagRFID;
+    }
+
+    public void setTagRFID(String tagRFID) {
+        this.tagRFID = tagRFID;
+    }
+
+    public Long getMotoId() {
+        return motoId;
+    }
+
+    public void setMotoId(Long motoId) {
+        this.motoId = motoId;
+    }
+
+    public Integer getAntena() {
+        return antena;
+    }
+
+    public void setAntena(Integer antena) {
+        this.antena = antena;
+    }
+
+    public String getSetor() {
+        return setor;
+    }
+
+    public void setSetor(String setor) {
+        this.setor = setor;
+    }
+
+    public Double getRssi() {
+        return rssi;
+    }
+
+    public void setRssi(Double rssi) {
+        this.rssi = rssi;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public LocalDateTime getUltimaLeitura() {
+        return ultimaLeitura;
+    }
+
+    public void setUltimaLeitura(LocalDateTime ultimaLeitura) {
+        this.ultimaLeitura = ultimaLeitura;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public LocalDateTime getRecebidaEm() {
+        return recebidaEm;
+    }
+
+    public void setRecebidaEm(LocalDateTime recebidaEm) {
+        this.recebidaEm = recebidaEm;
+    }
+}
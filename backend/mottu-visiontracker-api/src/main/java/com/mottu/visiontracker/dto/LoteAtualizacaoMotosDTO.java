@@ -0,0 +1,29 @@
+package com.mottu.visiontracker.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class LoteAtualizacaoMotosDTO {
+
+    @NotEmpty(message = "O lote deve conter ao menos uma atualização")
+    @Size(max = 5000, message = "O lote deve ter no máximo 5000 atualizações")
+    private List<@Valid AtualizacaoMotoDTO> itens;
+
+    // Construtores
+    public LoteAtualizacaoMotosDTO() {}
+
+    public LoteAtualizacaoMotosDTO(List<AtualizacaoMotoDTO> itens) {
+        this.itens = itens;
+    }
+
+    // Getters e Setters
+    public List<AtualizacaoMotoDTO> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<AtualizacaoMotoDTO> itens) {
+        this.itens = itens;
+    }
+}
@@ -0,0 +1,29 @@
+package com.mottu.visiontracker.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class LoteLeiturasDTO {
+
+    @NotEmpty(message = "O lote deve conter ao menos uma leitura")
+    @Size(max = 5000, message = "O lote deve ter no máximo 5000 leituras")
+    private List<@Valid LeituraRfidDTO> leituras;
+
+    // Construtores
+    public LoteLeiturasDTO() {}
+
+    public LoteLeiturasDTO(List<LeituraRfidDTO> leituras) {
+        this.leituras = leituras;
+    }
+
+    // Getters e Setters
+    public List<LeituraRfidDTO> getLeituras() {
+        return leituras;
+    }
+
+    public void setLeituras(List<LeituraRfidDTO> leituras) {
+        this.leituras = leituras;
+    }
+}
@@ -33,8 +33,11 @@ public class MotoDTO {
     private Moto.StatusMoto status;
     private String setor;
     private String posicao;
+    private Double coordenadaX;
+    private Double coordenadaY;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long versao;
 
     // Construtores
     public MotoDTO() {}
@@ -50,8 +53,32 @@ public class MotoDTO {
         this.status = moto.getStatus();
         this.setor = moto.getSetor();
         this.posicao = moto.getPosicao();
+        this.coordenadaX = moto.getCoordenadaX();
+        this.coordenadaY = moto.getCoordenadaY();
         this.createdAt = moto.getCreatedAt();
         this.updatedAt = moto.getUpdatedAt();
+        this.versao = moto.getVersao();
+    }
+
+    // Projeção das consultas (MotoRepository.SELECT_DTO), na ordem das colunas
+    public MotoDTO(Long id, String placa, String modelo, String cor, String proprietario, String numeroSerie,
+                   String tagRFID, Moto.StatusMoto status, String setor, String posicao, Double coordenadaX,
+                   Double coordenadaY, LocalDateTime createdAt, LocalDateTime updatedAt, Long versao) {
+        this.id = id;
+        this.placa = placa;
+        this.modelo = modelo;
+        this.cor = cor;
+        this.proprietario = proprietario;
+        this.numeroSerie = numeroSerie;
+        this.tagRFID = tagRFID;
+        this.status = status;
+        this.setor = setor;
+        this.posicao = posicao;
+        this.coordenadaX = coordenadaX;
+        this.coordenadaY = coordenadaY;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.versao = versao;
     }
 
     // Método para converter DTO em entidade
@@ -67,6 +94,8 @@ public class MotoDTO {
         moto.setStatus(this.status != null ? this.status : Moto.StatusMoto.ATIVA);
         moto.setSetor(this.setor != null ? this.setor : "A1");
         moto.setPosicao(this.posicao != null ? this.posicao : "1");
+        moto.setCoordenadaX(this.coordenadaX);
+        moto.setCoordenadaY(this.coordenadaY);
         return moto;
     }
 
@@ -151,6 +180,22 @@ public class MotoDTO {
         this.posicao = posicao;
     }
 
+    public Double getCoordenadaX() {
+        return coordenadaX;
+    }
+
+    public void setCoordenadaX(Double coordenadaX) {
+        this.coordenadaX = coordenadaX;
+    }
+
+    public Double getCoordenadaY() {
+        return coordenadaY;
+    }
+
+    public void setCoordenadaY(Double coordenadaY) {
+        this.coordenadaY = coordenadaY;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -166,4 +211,12 @@ public class MotoDTO {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
@@ -0,0 +1,57 @@
+package com.mottu.visiontracker.dto;
+
+import com.mottu.visiontracker.entity.Moto;
+
+/**
+ * Setor, posição e status de uma moto em um snapshot do pátio
+ */
+public class MotoSnapshotDTO {
+
+    private Long id;
+    private String setor;
+    private String posicao;
+    private Moto.StatusMoto status;
+
+    // Construtores
+    public MotoSnapshotDTO() {}
+
+    public MotoSnapshotDTO(Long id, String setor, String posicao, Moto.StatusMoto status) {
+        this.id = id;
+        this.setor = setor;
+        this.posicao = posicao;
+        this.status = status;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSetor() {
+        return setor;
+    }
+
+    public void setSetor(String setor) {
+        this.setor = setor;
+    }
+
+    public String getPosicao() {
+        return posicao;
+    }
+
+    public void setPosicao(String posicao) {
+        this.posicao = posicao;
+    }
+
+    public Moto.StatusMoto getStatus() {
+        return status;
+    }
+
+    public void setStatus(Moto.StatusMoto status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,47 @@
+package com.mottu.visiontracker.dto;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem por cursor: os itens e o cursor a enviar para buscar a próxima
+ */
+public class PaginaDTO<T> {
+
+    private List<T> itens;
+    private String proximoCursor;
+    private boolean temMais;
+
+    // Construtores
+    public PaginaDTO() {}
+
+    public PaginaDTO(List<T> itens, String proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+        this.temMais = proximoCursor != null;
+    }
+
+    // Getters e Setters
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+
+    public boolean isTemMais() {
+        return temMais;
+    }
+
+    public void setTemMais(boolean temMais) {
+        this.temMais = temMais;
+    }
+}
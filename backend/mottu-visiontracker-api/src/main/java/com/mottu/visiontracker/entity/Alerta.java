@@ -7,7 +7,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "alertas")
-public class Alerta {
+@EntityListeners(VersaoListener.class)
+public class Alerta implements Versionado {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,6 +36,10 @@ public class Alerta {
     @Column(name = "resolved_at")
     private LocalDateTime resolvedAt;
 
+    // Versão de sincronização, renovada a cada escrita (ver VersaoService)
+    @Column(name = "versao")
+    private Long versao;
+
     // Enum para Tipo de Alerta
     public enum TipoAlerta {
         MOVIMENTO_NAO_AUTORIZADO("Movimento não autorizado"),
@@ -125,4 +130,14 @@ public class Alerta {
     public void setResolvedAt(LocalDateTime resolvedAt) {
         this.resolvedAt = resolvedAt;
     }
+
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
+    @Override
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
@@ -0,0 +1,86 @@
+package com.mottu.visiontracker.entity;
+
+import javax.persistence.*;
+
+/**
+ * Bloco do histórico de posições de uma moto: até algumas centenas de mudanças de setor/posição
+ * codificadas por {@link com.mottu.visiontracker.util.BlocoPosicoes}, em vez de uma linha por mudança.
+ * Os instantes são epoch em milissegundos, para que a consulta por intervalo compare números.
+ * Não há chave estrangeira para motos: o histórico continua disponível depois que a moto é removida.
+ */
+@Entity
+@Table(name = "historico_posicoes_blocos")
+public class HistoricoPosicaoBloco {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "moto_id", nullable = false)
+    private Long motoId;
+
+    // Menor e maior instante dos pontos do bloco
+    @Column(nullable = false)
+    private Long inicio;
+
+    @Column(nullable = false)
+    private Long fim;
+
+    @Column(nullable = false)
+    private Integer quantidade;
+
+    @Column(nullable = false, length = 4096)
+    private byte[] dados;
+
+    // Construtores
+    public HistoricoPosicaoBloco() {}
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getMotoId() {
+        return motoId;
+    }
+
+    public void setMotoId(Long motoId) {
+        this.motoId = motoId;
+    }
+
+    public Long getInicio() {
+        return inicio;
+    }
+
+    public void setInicio(Long inicio) {
+        this.inicio = inicio;
+    }
+
+    public Long getFim() {
+        return fim;
+    }
+
+    public void setFim(Long fim) {
+        this.fim = fim;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public byte[] getDados() {
+        return dados;
+    }
+
+    public void setDados(byte[] dados) {
+        this.dados = dados;
+    }
+}
@@ -0,0 +1,143 @@
+package com.mottu.visiontracker.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Leitura de uma tag RFID feita por um portal do pátio.
+ * Leituras repetidas da mesma tag e antena dentro da janela de deduplicação viram uma única linha,
+ * com a quantidade e o horário da primeira e da última leitura.
+ * A tabela é somente de inserção: leituras nunca são alteradas ou removidas pela API.
+ */
+@Entity
+@Table(name = "leituras_rfid")
+public class LeituraRfid {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tag_rfid", nullable = false, length = 50)
+    private String tagRFID;
+
+    // Moto resolvida pelo índice de tags no momento da leitura (null para tags não cadastradas)
+    @Column(name = "moto_id")
+    private Long motoId;
+
+    @Column(nullable = false)
+    private Integer antena;
+
+    @Column(name = "setor", length = 10)
+    private String setor;
+
+    // Maior RSSI (dBm) entre as leituras agregadas; null quando o leitor não informa
+    @Column(name = "rssi")
+    private Double rssi;
+
+    @Column(name = "lida_em", nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "ultima_leitura", nullable = false)
+    private LocalDateTime ultimaLeitura;
+
+    @Column(nullable = false)
+    private Integer quantidade = 1;
+
+    @Column(name = "recebida_em", nullable = false)
+    private LocalDateTime recebidaEm;
+
+    // Construtores
+    public LeituraRfid() {
+        this.recebidaEm = LocalDateTime.now();
+    }
+
+    public LeituraRfid(String tagRFID, Integer antena, String setor, LocalDateTime timestamp) {
+        this();
+        this.tagRFID = tagRFID;
+        this.antena = antena;
+        this.setor = setor;
+        this.timestamp = timestamp;
+        this.ultimaLeitura = timestamp;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTagRFID() {
+        return tagRFID;
+    }
+
+    public void setTagRFID(String tagRFID) {
+        this.tagRFID = tagRFID;
+    }
+
+    public Long getMotoId() {
+        return motoId;
+    }
+
+    public void setMotoId(Long motoId) {
+        this.motoId = motoId;
+    }
+
+    public Integer getAntena() {
+        return antena;
+    }
+
+    public void setAntena(Integer antena) {
+        this.antena = antena;
+    }
+
+    public String getSetor() {
+        return setor;
+    }
+
+    public void setSetor(String setor) {
+        this.setor = setor;
+    }
+
+    public Double getRssi() {
+        return rssi;
+    }
+
+    public void setRssi(Double rssi) {
+        this.rssi = rssi;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public LocalDateTime getUltimaLeitura() {
+        return ultimaLeitura;
+    }
+
+    public void setUltimaLeitura(LocalDateTime ultimaLeitura) {
+        this.ultimaLeitura = ultimaLeitura;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public LocalDateTime getRecebidaEm() {
+        return recebidaEm;
+    }
+
+    public void setRecebidaEm(LocalDateTime recebidaEm) {
+        this.recebidaEm = recebidaEm;
+    }
+}
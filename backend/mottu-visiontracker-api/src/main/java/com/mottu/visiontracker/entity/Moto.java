@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "motos")
-public class Moto {
+@EntityListeners(VersaoListener.class)
+public class Moto implements Versionado {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -51,12 +52,23 @@ public class Moto {
     @Column(name = "posicao", length = 10)
     private String posicao = "1";
 
+    // Coordenadas no pátio em metros, quando informadas pelo operador ou pelo leitor
+    @Column(name = "coordenada_x")
+    private Double coordenadaX;
+
+    @Column(name = "coordenada_y")
+    private Double coordenadaY;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Versão de sincronização, renovada a cada escrita (ver VersaoService)
+    @Column(name = "versao")
+    private Long versao;
+
 
 
     // Enum para Status
@@ -168,6 +180,22 @@ public class Moto {
         this.updatedAt = LocalDateTime.now();
     }
 
+    public Double getCoordenadaX() {
+        return coordenadaX;
+    }
+
+    public void setCoordenadaX(Double coordenadaX) {
+        this.coordenadaX = coordenadaX;
+    }
+
+    public Double getCoordenadaY() {
+        return coordenadaY;
+    }
+
+    public void setCoordenadaY(Double coordenadaY) {
+        this.coordenadaY = coordenadaY;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -184,6 +212,16 @@ public class Moto {
         this.updatedAt = updatedAt;
     }
 
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
+    @Override
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
 
 
     @PreUpdate
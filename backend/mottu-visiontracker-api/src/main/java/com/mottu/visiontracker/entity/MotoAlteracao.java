@@ -0,0 +1,100 @@
+package com.mottu.visiontracker.entity;
+
+import javax.persistence.*;
+
+/**
+ * Log de alterações de setor, posição e status das motos, base das consultas de snapshot.
+ * Cada escrita confirmada em uma moto gera uma linha na mesma transação; remoções ficam com status nulo.
+ * Os instantes são epoch em milissegundos.
+ */
+@Entity
+@Table(name = "motos_alteracoes")
+public class MotoAlteracao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "moto_id", nullable = false)
+    private Long motoId;
+
+    @Column(nullable = false)
+    private Long instante;
+
+    @Column(name = "setor", length = 10)
+    private String setor;
+
+    @Column(name = "posicao", length = 10)
+    private String posicao;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Moto.StatusMoto status;
+
+    // Construtores
+    public MotoAlteracao() {}
+
+    public MotoAlteracao(Long motoId, Long instante, String setor, String posicao, Moto.StatusMoto status) {
+        this.motoId = motoId;
+        this.instante = instante;
+        this.setor = setor;
+        this.posicao = posicao;
+        this.status = status;
+    }
+
+    /**
+     * A moto foi removida nesta alteração
+     */
+    public boolean isRemocao() {
+        return status == null;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getMotoId() {
+        return motoId;
+    }
+
+    public void setMotoId(Long motoId) {
+        this.motoId = motoId;
+    }
+
+    public Long getInstante() {
+        return instante;
+    }
+
+    public void setInstante(Long instante) {
+        this.instante = instante;
+    }
+
+    public String getSetor() {
+        return setor;
+    }
+
+    public void setSetor(String setor) {
+        this.setor = setor;
+    }
+
+    public String getPosicao() {
+        return posicao;
+    }
+
+    public void setPosicao(String posicao) {
+        this.posicao = posicao;
+    }
+
+    public Moto.StatusMoto getStatus() {
+        return status;
+    }
+
+    public void setStatus(Moto.StatusMoto status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,88 @@
+package com.mottu.visiontracker.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marca deixada pela remoção de uma moto ou alerta, para que a sincronização incremental
+ * avise os clientes que ainda têm o registro em cache.
+ */
+@Entity
+@Table(name = "registros_remocao")
+@EntityListeners(VersaoListener.class)
+public class RegistroRemocao implements Versionado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Entidade entidade;
+
+    @Column(name = "entidade_id", nullable = false)
+    private Long entidadeId;
+
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
+    @Column(name = "removido_em", nullable = false)
+    private LocalDateTime removidoEm;
+
+    // Enum para a entidade removida
+    public enum Entidade {
+        MOTO, ALERTA
+    }
+
+    // Construtores
+    public RegistroRemocao() {}
+
+    public RegistroRemocao(Entidade entidade, Long entidadeId) {
+        this.entidade = entidade;
+        this.entidadeId = entidadeId;
+        this.removidoEm = LocalDateTime.now();
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Entidade getEntidade() {
+        return entidade;
+    }
+
+    public void setEntidade(Entidade entidade) {
+        this.entidade = entidade;
+    }
+
+    public Long getEntidadeId() {
+        return entidadeId;
+    }
+
+    public void setEntidadeId(Long entidadeId) {
+        this.entidadeId = entidadeId;
+    }
+
+    @Override
+    public Long getVersao() {
+        return versao;
+    }
+
+    @Override
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public LocalDateTime getRemovidoEm() {
+        return removidoEm;
+    }
+
+    public void setRemovidoEm(LocalDateTime removidoEm) {
+        this.removidoEm = removidoEm;
+    }
+}
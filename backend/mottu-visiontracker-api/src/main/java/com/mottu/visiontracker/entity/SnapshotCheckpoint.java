@@ -0,0 +1,70 @@
+package com.mottu.visiontracker.entity;
+
+import javax.persistence.*;
+
+/**
+ * Estado completo (setor, posição e status) de todas as motos em um instante, codificado por
+ * {@link com.mottu.visiontracker.util.CheckpointFrota}. Um snapshot parte do checkpoint mais recente
+ * anterior ao instante pedido e aplica só as alterações registradas depois dele.
+ */
+@Entity
+@Table(name = "snapshot_checkpoints")
+public class SnapshotCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Epoch em milissegundos; o checkpoint inclui as alterações até este instante, inclusive
+    @Column(nullable = false)
+    private Long instante;
+
+    @Column(nullable = false)
+    private Integer quantidade;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] dados;
+
+    // Construtores
+    public SnapshotCheckpoint() {}
+
+    public SnapshotCheckpoint(Long instante, Integer quantidade, byte[] dados) {
+        this.instante = instante;
+        this.quantidade = quantidade;
+        this.dados = dados;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getInstante() {
+        return instante;
+    }
+
+    public void setInstante(Long instante) {
+        this.instante = instante;
+    }
+
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public byte[] getDados() {
+        return dados;
+    }
+
+    public void setDados(byte[] dados) {
+        this.dados = dados;
+    }
+}
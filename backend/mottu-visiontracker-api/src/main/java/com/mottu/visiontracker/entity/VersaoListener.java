@@ -0,0 +1,37 @@
+package com.mottu.visiontracker.entity;
+
+import com.mottu.visiontracker.service.VersaoService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * Dá uma nova versão de sincronização a cada inserção ou atualização feita pelo JPA,
+ * na coleção da entidade (remoções contam para a coleção do registro removido).
+ * Em atualizações o @PreUpdate só roda no flush, por isso os serviços usam saveAndFlush antes
+ * de montar o DTO de resposta e o evento.
+ * Instanciado pelo Hibernate através do contêiner de beans do Spring, por isso aceita injeção.
+ */
+public class VersaoListener {
+
+    @Autowired
+    private VersaoService versaoService;
+
+    @PrePersist
+    @PreUpdate
+    public void versionar(Versionado entidade) {
+        entidade.setVersao(versaoService.proxima(colecao(entidade)));
+    }
+
+    private static VersaoService.Colecao colecao(Versionado entidade) {
+        if (entidade instanceof Alerta) {
+            return VersaoService.Colecao.ALERTAS;
+        }
+        if (entidade instanceof RegistroRemocao
+                && ((RegistroRemocao) entidade).getEntidade() == RegistroRemocao.Entidade.ALERTA) {
+            return VersaoService.Colecao.ALERTAS;
+        }
+        return VersaoService.Colecao.MOTOS;
+    }
+}
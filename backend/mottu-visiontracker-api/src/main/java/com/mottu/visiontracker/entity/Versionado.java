@@ -0,0 +1,11 @@
+package com.mottu.visiontracker.entity;
+
+/**
+ * Entidade com versão de sincronização, atribuída pelo {@link VersaoListener} a cada escrita
+ */
+public interface Versionado {
+
+    Long getVersao();
+
+    void setVersao(Long versao);
+}
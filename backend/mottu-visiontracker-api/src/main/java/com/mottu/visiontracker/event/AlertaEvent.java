@@ -0,0 +1,53 @@
+package com.mottu.visiontracker.event;
+
+import com.mottu.visiontracker.dto.AlertaDTO;
+
+/**
+ * Evento publicado pelo AlertaService a cada escrita em um alerta.
+ * Carrega o estado depois da escrita, ou o último estado quando o alerta foi removido;
+ * nas atualizações, também o estado anterior.
+ */
+public class AlertaEvent {
+
+    public enum Tipo {
+        CRIADO, ATUALIZADO, REMOVIDO
+    }
+
+    private final Tipo tipo;
+    private final AlertaDTO antes;
+    private final AlertaDTO alerta;
+
+    public AlertaEvent(Tipo tipo, AlertaDTO antes, AlertaDTO alerta) {
+        this.tipo = tipo;
+        this.antes = antes;
+        this.alerta = alerta;
+    }
+
+    public static AlertaEvent criado(AlertaDTO alerta) {
+        return new AlertaEvent(Tipo.CRIADO, null, alerta);
+    }
+
+    public static AlertaEvent atualizado(AlertaDTO antes, AlertaDTO alerta) {
+        return new AlertaEvent(Tipo.ATUALIZADO, antes, alerta);
+    }
+
+    public static AlertaEvent removido(AlertaDTO alerta) {
+        return new AlertaEvent(Tipo.REMOVIDO, null, alerta);
+    }
+
+    // Getters
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Estado antes da atualização; null em CRIADO e REMOVIDO
+     */
+    public AlertaDTO getAntes() {
+        return antes;
+    }
+
+    public AlertaDTO getAlerta() {
+        return alerta;
+    }
+}
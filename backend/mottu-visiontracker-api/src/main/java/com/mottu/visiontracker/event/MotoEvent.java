@@ -0,0 +1,70 @@
+package com.mottu.visiontracker.event;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado pelo MotoService a cada escrita em uma moto.
+ * Carrega o estado anterior e o novo para que os índices em memória possam se ajustar sem consultar o banco.
+ */
+public class MotoEvent {
+
+    public enum Tipo {
+        CRIADA, ATUALIZADA, REMOVIDA
+    }
+
+    private final Tipo tipo;
+    private final MotoDTO antes;
+    private final MotoDTO depois;
+    private final LocalDateTime instante;
+
+    public MotoEvent(Tipo tipo, MotoDTO antes, MotoDTO depois) {
+        this.tipo = tipo;
+        this.antes = antes;
+        this.depois = depois;
+        this.instante = depois != null && depois.getUpdatedAt() != null ? depois.getUpdatedAt() : LocalDateTime.now();
+    }
+
+    public static MotoEvent criada(MotoDTO depois) {
+        return new MotoEvent(Tipo.CRIADA, null, depois);
+    }
+
+    public static MotoEvent atualizada(MotoDTO antes, MotoDTO depois) {
+        return new MotoEvent(Tipo.ATUALIZADA, antes, depois);
+    }
+
+    public static MotoEvent removida(MotoDTO antes) {
+        return new MotoEvent(Tipo.REMOVIDA, antes, null);
+    }
+
+    public Long getMotoId() {
+        return depois != null ? depois.getId() : antes.getId();
+    }
+
+    // Getters
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Momento da escrita: o updated_at gravado, ou o horário da publicação quando a moto foi removida
+     */
+    public LocalDateTime getInstante() {
+        return instante;
+    }
+
+    /**
+     * Estado antes da escrita (null quando a moto foi criada)
+     */
+    public MotoDTO getAntes() {
+        return antes;
+    }
+
+    /**
+     * Estado depois da escrita (null quando a moto foi removida)
+     */
+    public MotoDTO getDepois() {
+        return depois;
+    }
+}
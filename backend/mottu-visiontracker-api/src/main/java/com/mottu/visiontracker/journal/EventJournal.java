@@ -0,0 +1,395 @@
+package com.mottu.visiontracker.journal;
+
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.repository.LoteLeituras;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Journal somente de anexação com as leituras RFID gravadas e as escritas em motos.
+ *
+ * Os registros vão para segmentos de tamanho fixo mapeados em memória: anexar é serializar em um
+ * buffer reutilizado e copiá-lo para o mapeamento, sem transação nem chamada de sistema. Uma thread
+ * de fundo força as páginas para o disco a cada intervalo, então uma queda do processo não perde
+ * nada e uma queda da máquina perde no máximo esse intervalo. Como o banco H2 é em memória, o
+ * journal é a fonte da verdade entre reinícios e é reaplicado pelo {@link JournalReplay}.
+ *
+ * Retenção: cada subida começa um segmento novo e, depois do replay, grava um checkpoint com o
+ * estado restaurado (ver {@link Checkpoint}) em checkpoint-{indice}/. O checkpoint cobre todos os
+ * segmentos com índice menor, que são apagados; a subida seguinte reaplica só o checkpoint e os
+ * segmentos escritos depois dele. O checkpoint é montado em um diretório .tmp e renomeado ao
+ * final, então uma queda no meio dele mantém o checkpoint e os segmentos anteriores.
+ */
+@Component
+public class EventJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    private static final String EXTENSAO = ".journal";
+    private static final String PREFIXO_CHECKPOINT = "checkpoint-";
+    private static final String SUFIXO_TEMPORARIO = ".tmp";
+
+    @Value("${visiontracker.journal.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${visiontracker.journal.diretorio:data/journal}")
+    private String diretorio;
+
+    @Value("${visiontracker.journal.tamanho-segmento-mb:64}")
+    private int tamanhoSegmentoMb;
+
+    @Value("${visiontracker.journal.intervalo-sync-ms:1000}")
+    private long intervaloSyncMs;
+
+    @Value("${visiontracker.journal.retencao-horas:168}")
+    private long retencaoHoras;
+
+    private Path pasta;
+    private JournalSegmento atual;
+    private ByteBuffer escrita = ByteBuffer.allocate(64 * 1024);
+
+    // Arquivos reaplicados na subida: os do último checkpoint e depois os segmentos escritos após ele
+    private final List<Path> segmentosReplay = new ArrayList<>();
+    private Path checkpointSubida;
+
+    private Thread sincronizador;
+    private volatile boolean ativo;
+
+    @PostConstruct
+    public void abrir() throws IOException {
+        if (!habilitado) {
+            return;
+        }
+        pasta = Paths.get(diretorio);
+        Files.createDirectories(pasta);
+
+        checkpointSubida = limparCheckpoints();
+        long inicio = 0;
+        if (checkpointSubida != null) {
+            inicio = indiceCheckpoint(checkpointSubida);
+            segmentosReplay.addAll(listarSegmentos(checkpointSubida));
+        }
+        long proximo = inicio;
+        int segmentos = 0;
+        for (Path arquivo : listarSegmentos(pasta)) {
+            long indice = indiceSegmento(arquivo);
+            if (indice < inicio) {
+                // Já coberto pelo checkpoint (a subida anterior caiu antes de apagá-lo)
+                Files.delete(arquivo);
+                continue;
+            }
+            segmentosReplay.add(arquivo);
+            segmentos++;
+            proximo = indice + 1;
+        }
+        // Os registros desta execução vão para um segmento novo, fora do que será reaplicado
+        atual = JournalSegmento.criar(arquivoSegmento(pasta, proximo), proximo, tamanhoSegmento());
+        log.info("Journal aberto em {}: checkpoint {}, {} segmento(s) para reaplicar", pasta.toAbsolutePath(),
+                checkpointSubida != null ? checkpointSubida.getFileName() : "nenhum", segmentos);
+
+        ativo = true;
+        sincronizador = new Thread(this::sincronizarPeriodicamente, "journal-sync");
+        sincronizador.setDaemon(true);
+        sincronizador.start();
+    }
+
+    @PreDestroy
+    public void fechar() throws InterruptedException {
+        if (!habilitado) {
+            return;
+        }
+        ativo = false;
+        LockSupport.unpark(sincronizador);
+        sincronizador.join(TimeUnit.SECONDS.toMillis(5));
+        synchronized (this) {
+            atual.fechar();
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Anexa um lote de leituras já gravado no banco. Dentro de uma transação o registro só é anexado
+     * depois do commit, para que o replay nunca restaure leituras que o banco descartou.
+     */
+    public void registrarLeituras(LoteLeituras lote) {
+        if (!habilitado || lote.isVazio()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (this) {
+                escrita = codificarLeituras(lote, escrita);
+                escrita.flip();
+                anexar(JournalCodec.TIPO_LEITURAS, escrita);
+            }
+            return;
+        }
+        // O chamador reaproveita o lote, então o registro é codificado agora em um buffer próprio
+        ByteBuffer registro = codificarLeituras(lote, ByteBuffer.allocate(4 + lote.size() * 96));
+        registro.flip();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                anexar(JournalCodec.TIPO_LEITURAS, registro);
+            }
+        });
+    }
+
+    /**
+     * Anexa o novo estado da moto depois que a escrita foi confirmada
+     */
+    @TransactionalEventListener
+    public synchronized void onMotoEvent(MotoEvent event) {
+        if (!habilitado) {
+            return;
+        }
+        escrita.clear();
+        JournalCodec.codificarMoto(event, escrita);
+        escrita.flip();
+        anexar(JournalCodec.TIPO_MOTO, escrita);
+    }
+
+    private static ByteBuffer codificarLeituras(LoteLeituras lote, ByteBuffer destino) {
+        while (true) {
+            try {
+                destino.clear();
+                JournalCodec.codificarLeituras(lote, destino);
+                return destino;
+            } catch (BufferOverflowException e) {
+                destino = ByteBuffer.allocate(destino.capacity() * 2);
+            }
+        }
+    }
+
+    private synchronized void anexar(byte tipo, ByteBuffer registro) {
+        try {
+            if (!atual.anexar(tipo, registro)) {
+                rolar();
+                if (!atual.anexar(tipo, registro)) {
+                    log.error("Registro de {} bytes não cabe em um segmento do journal", registro.remaining());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Falha ao anexar registro no journal", e);
+        }
+    }
+
+    private void rolar() throws IOException {
+        JournalSegmento anterior = atual;
+        long proximo = anterior.getIndice() + 1;
+        atual = JournalSegmento.criar(arquivoSegmento(pasta, proximo), proximo, tamanhoSegmento());
+        anterior.fechar();
+        log.info("Journal rolado para o segmento {}", atual.getArquivo().getFileName());
+    }
+
+    /**
+     * Percorre, em ordem, todos os registros que existiam quando o journal foi aberto
+     */
+    void reproduzir(JournalSegmento.Leitor leitor) throws IOException {
+        for (Path arquivo : segmentosReplay) {
+            JournalSegmento segmento = JournalSegmento.abrir(arquivo, indiceSegmento(arquivo));
+            try {
+                segmento.percorrer(segmento.capacidade(), leitor);
+            } finally {
+                segmento.fechar();
+            }
+        }
+    }
+
+    /**
+     * Registros anteriores a este instante podem ser descartados no checkpoint, ou null se a
+     * retenção estiver desligada
+     */
+    LocalDateTime getCorteRetencao() {
+        return retencaoHoras > 0 ? LocalDateTime.now().minusHours(retencaoHoras) : null;
+    }
+
+    /**
+     * Começa o checkpoint que vai substituir tudo o que foi reaplicado na subida
+     */
+    Checkpoint iniciarCheckpoint() throws IOException {
+        Path destino = pasta.resolve(String.format("%s%020d", PREFIXO_CHECKPOINT, atual.getIndice()));
+        Path temporario = pasta.resolve(destino.getFileName() + SUFIXO_TEMPORARIO);
+        Files.createDirectories(temporario);
+        return new Checkpoint(temporario, destino, atual.getIndice());
+    }
+
+    /**
+     * Checkpoint em construção: os registros anexados aqui substituem, na próxima subida, o
+     * checkpoint anterior e todos os segmentos com índice menor que {@code indice}. Usado só pela
+     * thread do replay; se uma gravação falhar, o checkpoint é abandonado e nada é apagado.
+     */
+    class Checkpoint {
+        private final Path temporario;
+        private final Path destino;
+        private final long indice;
+        private JournalSegmento segmento;
+        private ByteBuffer escritaCheckpoint = ByteBuffer.allocate(64 * 1024);
+        private long registros;
+        private boolean falhou;
+
+        private Checkpoint(Path temporario, Path destino, long indice) throws IOException {
+            this.temporario = temporario;
+            this.destino = destino;
+            this.indice = indice;
+            this.segmento = JournalSegmento.criar(arquivoSegmento(temporario, 0), 0, tamanhoSegmento());
+        }
+
+        /**
+         * Copia um registro lido no replay sem decodificá-lo
+         */
+        void anexar(byte tipo, ByteBuffer payload) {
+            if (falhou) {
+                return;
+            }
+            try {
+                if (!segmento.anexar(tipo, payload)) {
+                    segmento.fechar();
+                    long proximo = segmento.getIndice() + 1;
+                    segmento = JournalSegmento.criar(arquivoSegmento(temporario, proximo), proximo, tamanhoSegmento());
+                    if (!segmento.anexar(tipo, payload)) {
+                        throw new IOException("Registro de " + payload.remaining() + " bytes não cabe em um segmento");
+                    }
+                }
+                registros++;
+            } catch (IOException e) {
+                falhou = true;
+                log.error("Falha ao gravar o checkpoint do journal; os segmentos atuais serão mantidos", e);
+            }
+        }
+
+        void registrarLeituras(LoteLeituras lote) {
+            escritaCheckpoint = codificarLeituras(lote, escritaCheckpoint);
+            escritaCheckpoint.flip();
+            anexar(JournalCodec.TIPO_LEITURAS, escritaCheckpoint);
+        }
+
+        /**
+         * Torna o checkpoint definitivo e apaga o que ele cobre. Retorna false se ele foi abandonado.
+         */
+        boolean concluir() {
+            // Fechado antes de renomear ou apagar o diretório, que no Windows falham com o arquivo mapeado
+            segmento.fechar();
+            try {
+                if (falhou) {
+                    apagarDiretorio(temporario);
+                    return false;
+                }
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.error("Falha ao concluir o checkpoint do journal; os segmentos atuais serão mantidos", e);
+                return false;
+            }
+
+            try {
+                if (checkpointSubida != null) {
+                    apagarDiretorio(checkpointSubida);
+                }
+                for (Path arquivo : listarSegmentos(pasta)) {
+                    if (indiceSegmento(arquivo) < indice) {
+                        Files.delete(arquivo);
+                    }
+                }
+            } catch (IOException e) {
+                // O que sobrar é apagado na próxima subida, que já parte deste checkpoint
+                log.warn("Falha ao apagar segmentos cobertos pelo checkpoint {}", destino.getFileName(), e);
+            }
+            return true;
+        }
+
+        long getRegistros() { return registros; }
+    }
+
+    /**
+     * Apaga checkpoints incompletos e os substituídos, retornando o mais recente (ou null)
+     */
+    private Path limparCheckpoints() throws IOException {
+        List<Path> completos = new ArrayList<>();
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            for (Path arquivo : (Iterable<Path>) arquivos::iterator) {
+                String nome = arquivo.getFileName().toString();
+                if (!nome.startsWith(PREFIXO_CHECKPOINT) || !Files.isDirectory(arquivo)) {
+                    continue;
+                }
+                if (nome.endsWith(SUFIXO_TEMPORARIO)) {
+                    apagarDiretorio(arquivo);
+                } else {
+                    completos.add(arquivo);
+                }
+            }
+        }
+        completos.sort(null);
+        for (int i = 0; i < completos.size() - 1; i++) {
+            apagarDiretorio(completos.get(i));
+        }
+        return completos.isEmpty() ? null : completos.get(completos.size() - 1);
+    }
+
+    private static List<Path> listarSegmentos(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(p -> p.getFileName().toString().endsWith(EXTENSAO))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void apagarDiretorio(Path diretorio) throws IOException {
+        for (Path arquivo : listarSegmentos(diretorio)) {
+            Files.delete(arquivo);
+        }
+        Files.delete(diretorio);
+    }
+
+    private void sincronizarPeriodicamente() {
+        while (ativo) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(intervaloSyncMs));
+            JournalSegmento segmento;
+            synchronized (this) {
+                segmento = atual;
+            }
+            // O force roda fora do lock para não bloquear quem está anexando
+            segmento.sincronizar();
+        }
+    }
+
+    private int tamanhoSegmento() {
+        return tamanhoSegmentoMb * 1024 * 1024;
+    }
+
+    private static Path arquivoSegmento(Path diretorio, long indice) {
+        return diretorio.resolve(String.format("%020d%s", indice, EXTENSAO));
+    }
+
+    private static long indiceSegmento(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(0, nome.length() - EXTENSAO.length()));
+    }
+
+    private static long indiceCheckpoint(Path checkpoint) {
+        return Long.parseLong(checkpoint.getFileName().toString().substring(PREFIXO_CHECKPOINT.length()));
+    }
+}
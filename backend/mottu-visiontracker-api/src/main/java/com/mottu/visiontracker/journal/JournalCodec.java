@@ -0,0 +1,160 @@
+package com.mottu.visiontracker.journal;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.repository.LoteLeituras;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Serialização dos registros do journal. Datas vão como epoch millis no fuso da JVM,
+ * o mesmo usado na gravação das leituras via JDBC.
+ */
+final class JournalCodec {
+
+    static final byte TIPO_LEITURAS = 1;
+    static final byte TIPO_MOTO = 2;
+
+    private static final long DATA_AUSENTE = Long.MIN_VALUE;
+
+    private JournalCodec() {
+    }
+
+    // Leituras RFID: um registro por lote gravado
+
+    static void codificarLeituras(LoteLeituras lote, ByteBuffer out) {
+        out.putInt(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            putString(out, lote.getTag(i));
+            out.putLong(lote.getMotoId(i));
+            out.put((byte) lote.getAntena(i));
+            putString(out, lote.getSetor(i));
+            out.putShort((short) lote.getRssi(i));
+            out.putLong(lote.getLidaEm(i));
+            out.putLong(lote.getUltimaLeitura(i));
+            out.putInt(lote.getQuantidade(i));
+            out.putLong(lote.getRecebidaEm(i));
+        }
+    }
+
+    static LoteLeituras decodificarLeituras(ByteBuffer in) {
+        int quantidade = in.getInt();
+        LoteLeituras lote = new LoteLeituras(Math.max(1, quantidade));
+        for (int i = 0; i < quantidade; i++) {
+            String tag = getString(in);
+            long motoId = in.getLong();
+            int antena = in.get() & 0xFF;
+            String setor = getString(in);
+            int rssi = in.getShort();
+            long lidaEm = in.getLong();
+            long ultimaLeitura = in.getLong();
+            int contagem = in.getInt();
+            long recebidaEm = in.getLong();
+            lote.adicionar(tag, motoId, antena, setor, rssi, lidaEm, ultimaLeitura, contagem, recebidaEm);
+        }
+        return lote;
+    }
+
+    // Motos: estado completo depois de cada escrita (ou só o id e o instante, quando removida)
+
+    static void codificarMoto(MotoEvent event, ByteBuffer out) {
+        out.put((byte) event.getTipo().ordinal());
+        out.putLong(event.getMotoId());
+        MotoDTO moto = event.getDepois();
+        if (moto == null) {
+            putData(out, event.getInstante());
+            return;
+        }
+        putString(out, moto.getPlaca());
+        putString(out, moto.getModelo());
+        putString(out, moto.getCor());
+        putString(out, moto.getProprietario());
+        putString(out, moto.getNumeroSerie());
+        putString(out, moto.getTagRFID());
+        putString(out, moto.getStatus() != null ? moto.getStatus().name() : null);
+        putString(out, moto.getSetor());
+        putString(out, moto.getPosicao());
+        putData(out, moto.getCreatedAt());
+        putData(out, moto.getUpdatedAt());
+        putCoordenada(out, moto.getCoordenadaX());
+        putCoordenada(out, moto.getCoordenadaY());
+    }
+
+    /**
+     * Retorna o estado da moto, ou um MotoDTO só com o id e o instante da remoção (em updatedAt)
+     * quando ela foi removida
+     */
+    static MotoDTO decodificarMoto(ByteBuffer in) {
+        MotoEvent.Tipo tipo = MotoEvent.Tipo.values()[in.get()];
+        MotoDTO moto = new MotoDTO();
+        moto.setId(in.getLong());
+        if (tipo == MotoEvent.Tipo.REMOVIDA) {
+            // Remoções gravadas antes do instante existir terminam no id
+            if (in.hasRemaining()) {
+                moto.setUpdatedAt(getData(in));
+            }
+            return moto;
+        }
+        moto.setPlaca(getString(in));
+        moto.setModelo(getString(in));
+        moto.setCor(getString(in));
+        moto.setProprietario(getString(in));
+        moto.setNumeroSerie(getString(in));
+        moto.setTagRFID(getString(in));
+        String status = getString(in);
+        moto.setStatus(status != null ? Moto.StatusMoto.valueOf(status) : null);
+        moto.setSetor(getString(in));
+        moto.setPosicao(getString(in));
+        moto.setCreatedAt(getData(in));
+        moto.setUpdatedAt(getData(in));
+        // Registros gravados antes das coordenadas existirem terminam aqui
+        if (in.hasRemaining()) {
+            moto.setCoordenadaX(getCoordenada(in));
+            moto.setCoordenadaY(getCoordenada(in));
+        }
+        return moto;
+    }
+
+    private static void putString(ByteBuffer out, String valor) {
+        if (valor == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putCoordenada(ByteBuffer out, Double valor) {
+        out.putDouble(valor != null ? valor : Double.NaN);
+    }
+
+    private static Double getCoordenada(ByteBuffer in) {
+        double valor = in.getDouble();
+        return Double.isNaN(valor) ? null : valor;
+    }
+
+    private static void putData(ByteBuffer out, LocalDateTime data) {
+        out.putLong(data != null ? data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : DATA_AUSENTE);
+    }
+
+    private static LocalDateTime getData(ByteBuffer in) {
+        long millis = in.getLong();
+        return millis != DATA_AUSENTE ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()) : null;
+    }
+}
@@ -0,0 +1,220 @@
+package com.mottu.visiontracker.journal;
+
+import com.mottu.visiontracker.config.DataInitializer;
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.MotoAlteracao;
+import com.mottu.visiontracker.repository.LeituraRfidJdbcRepository;
+import com.mottu.visiontracker.repository.LoteLeituras;
+import com.mottu.visiontracker.repository.MotoJdbcRepository;
+import com.mottu.visiontracker.service.HistoricoPosicaoService;
+import com.mottu.visiontracker.service.SnapshotFrotaService;
+import com.mottu.visiontracker.service.VersaoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reaplica o journal no banco quando a aplicação sobe.
+ *
+ * Roda ao fim da criação dos beans, antes de o servidor web aceitar conexões, para que nenhuma
+ * requisição veja o estado pela metade ou receba um id que o journal ainda vai restaurar. Os dados de
+ * exemplo do DataInitializer são criados antes, já que o journal registra alterações sobre eles; os
+ * índices em memória (TagIndexService etc.) carregam depois e já enxergam o estado restaurado. As leituras são regravadas lote a lote; as motos são
+ * reduzidas ao último estado de cada id e aplicadas de uma vez. A restauração usa JDBC direto,
+ * sem publicar MotoEvent, então nada é anexado de novo ao journal; o histórico de posições e o log
+ * de alterações dos snapshots são reconstruídos aqui a partir de cada registro de moto. As motos
+ * restauradas recebem versões de sincronização novas; as removidas não deixam registro de remoção,
+ * já que todo cliente de uma execução anterior recebe a carga completa (ver VersaoService).
+ *
+ * Depois do replay o journal é compactado em um checkpoint (ver EventJournal): entram as leituras
+ * recebidas dentro da retenção, todos os registros de moto dentro dela e, de cada moto, o último
+ * registro anterior ao corte, que é o estado dela naquele instante. O estado final restaurado é o
+ * mesmo; o histórico de posições e os snapshots só ficam completos dentro da retenção.
+ */
+@Component
+public class JournalReplay implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReplay.class);
+
+    @Autowired
+    private EventJournal eventJournal;
+
+    @Autowired
+    private LeituraRfidJdbcRepository leituraRfidJdbcRepository;
+
+    @Autowired
+    private MotoJdbcRepository motoJdbcRepository;
+
+    @Autowired
+    private HistoricoPosicaoService historicoPosicaoService;
+
+    @Autowired
+    private SnapshotFrotaService snapshotFrotaService;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private VersaoService versaoService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!eventJournal.isHabilitado()) {
+            return;
+        }
+        try {
+            // Quando rodar de novo como CommandLineRunner, o DataInitializer vê o banco populado e pula
+            dataInitializer.run();
+        } catch (Exception e) {
+            throw new IllegalStateException("Falha ao criar os dados iniciais antes do replay", e);
+        }
+        // Os snapshots partem do estado dos dados iniciais, antes de qualquer alteração do journal
+        snapshotFrotaService.criarCheckpointInicial();
+        reproduzir();
+    }
+
+    private void reproduzir() {
+        long inicio = System.currentTimeMillis();
+        LocalDateTime corte = eventJournal.getCorteRetencao();
+        Map<Long, Long> ultimoAntesDoCorte = new HashMap<>();
+        Set<Long> dentroDaRetencao = new HashSet<>();
+        long[] registrosMoto = new long[1];
+        Map<Long, MotoDTO> motos = new LinkedHashMap<>();
+        Set<Long> removidas = new LinkedHashSet<>();
+        long[] leituras = new long[1];
+        long[] maiorId = new long[1];
+        List<MotoAlteracao> alteracoes = new ArrayList<>();
+
+        try {
+            eventJournal.reproduzir((tipo, payload) -> {
+                switch (tipo) {
+                    case JournalCodec.TIPO_LEITURAS:
+                        leituras[0] += leituraRfidJdbcRepository.inserirLote(JournalCodec.decodificarLeituras(payload));
+                        break;
+                    case JournalCodec.TIPO_MOTO:
+                        MotoDTO moto = JournalCodec.decodificarMoto(payload);
+                        if (!dentroDaRetencao(moto, corte, dentroDaRetencao)) {
+                            ultimoAntesDoCorte.put(moto.getId(), registrosMoto[0]);
+                        }
+                        registrosMoto[0]++;
+                        maiorId[0] = Math.max(maiorId[0], moto.getId());
+                        if (moto.getPlaca() == null) {
+                            motos.remove(moto.getId());
+                            removidas.add(moto.getId());
+                            historicoPosicaoService.encerrar(moto.getId());
+                            alteracoes.add(SnapshotFrotaService.alteracao(moto.getId(), moto.getUpdatedAt(), null));
+                        } else {
+                            removidas.remove(moto.getId());
+                            motos.put(moto.getId(), moto);
+                            historicoPosicaoService.registrar(moto);
+                            alteracoes.add(SnapshotFrotaService.alteracao(moto.getId(), moto.getUpdatedAt(), moto));
+                        }
+                        if (alteracoes.size() >= LeituraRfidJdbcRepository.TAMANHO_LOTE_JDBC) {
+                            snapshotFrotaService.registrarAlteracoes(alteracoes);
+                            alteracoes.clear();
+                        }
+                        break;
+                    default:
+                        log.warn("Tipo de registro desconhecido no journal: {}", tipo);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao reaplicar o journal", e);
+        }
+
+        snapshotFrotaService.registrarAlteracoes(alteracoes);
+        if (!motos.isEmpty() || !removidas.isEmpty()) {
+            for (MotoDTO moto : motos.values()) {
+                moto.setVersao(versaoService.proxima(VersaoService.Colecao.MOTOS));
+            }
+            motoJdbcRepository.restaurar(new ArrayList<>(motos.values()), removidas, maiorId[0]);
+        }
+        log.info("Journal reaplicado em {} ms: {} leituras, {} motos gravadas, {} removidas",
+                System.currentTimeMillis() - inicio, leituras[0], motos.size(), removidas.size());
+
+        compactar(corte, ultimoAntesDoCorte);
+    }
+
+    /**
+     * Segunda passada pelo journal, copiando para o checkpoint só o que a retenção mantém
+     */
+    private void compactar(LocalDateTime corte, Map<Long, Long> ultimoAntesDoCorte) {
+        long inicio = System.currentTimeMillis();
+        long corteLeituras = corte != null ? corte.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : Long.MIN_VALUE;
+        Set<Long> dentroDaRetencao = new HashSet<>();
+        long[] registrosMoto = new long[1];
+        long[] descartados = new long[2];
+
+        try {
+            EventJournal.Checkpoint checkpoint = eventJournal.iniciarCheckpoint();
+            eventJournal.reproduzir((tipo, payload) -> {
+                switch (tipo) {
+                    case JournalCodec.TIPO_LEITURAS:
+                        LoteLeituras lote = JournalCodec.decodificarLeituras(payload.duplicate());
+                        LoteLeituras retidas = new LoteLeituras(Math.max(1, lote.size()));
+                        for (int i = 0; i < lote.size(); i++) {
+                            if (lote.getRecebidaEm(i) >= corteLeituras) {
+                                retidas.adicionar(lote.getTag(i), lote.getMotoId(i), lote.getAntena(i), lote.getSetor(i),
+                                        lote.getRssi(i), lote.getLidaEm(i), lote.getUltimaLeitura(i), lote.getQuantidade(i),
+                                        lote.getRecebidaEm(i));
+                            }
+                        }
+                        descartados[0] += lote.size() - retidas.size();
+                        if (retidas.size() == lote.size()) {
+                            checkpoint.anexar(tipo, payload);
+                        } else if (!retidas.isVazio()) {
+                            checkpoint.registrarLeituras(retidas);
+                        }
+                        break;
+                    case JournalCodec.TIPO_MOTO:
+                        MotoDTO moto = JournalCodec.decodificarMoto(payload.duplicate());
+                        long registro = registrosMoto[0]++;
+                        Long ultimo = ultimoAntesDoCorte.get(moto.getId());
+                        if (dentroDaRetencao(moto, corte, dentroDaRetencao) || (ultimo != null && ultimo == registro)) {
+                            checkpoint.anexar(tipo, payload);
+                        } else {
+                            descartados[1]++;
+                        }
+                        break;
+                    default:
+                        checkpoint.anexar(tipo, payload);
+                }
+            });
+            if (checkpoint.concluir()) {
+                log.info("Checkpoint do journal gravado em {} ms: {} registros, {} leituras e {} registros de moto "
+                                + "descartados pela retenção", System.currentTimeMillis() - inicio,
+                        checkpoint.getRegistros(), descartados[0], descartados[1]);
+            }
+        } catch (IOException e) {
+            log.error("Falha ao compactar o journal; os segmentos atuais serão mantidos", e);
+        }
+    }
+
+    /**
+     * Um registro de moto fica no checkpoint se for posterior ao corte, ou se um registro anterior
+     * da mesma moto já foi (assim a ordem dos registros mantidos não depende dos relógios)
+     */
+    private static boolean dentroDaRetencao(MotoDTO moto, LocalDateTime corte, Set<Long> dentroDaRetencao) {
+        if (corte == null || dentroDaRetencao.contains(moto.getId())
+                || (moto.getUpdatedAt() != null && !moto.getUpdatedAt().isBefore(corte))) {
+            dentroDaRetencao.add(moto.getId());
+            return true;
+        }
+        return false;
+    }
+}
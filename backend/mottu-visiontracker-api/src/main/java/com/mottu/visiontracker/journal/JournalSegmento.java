@@ -0,0 +1,204 @@
+package com.mottu.visiontracker.journal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Arquivo de segmento do journal, mapeado em memória com tamanho fixo.
+ *
+ * <pre>
+ * segmento = MAGIC:int32 | VERSAO:int32 | registro* | 0:int32
+ * registro = tamanho:int32 | crc32:int32 | tipo:uint8 | payload
+ * </pre>
+ * O tamanho e o CRC cobrem tipo + payload. O arquivo é criado preenchido com zeros, então um
+ * tamanho 0 marca o fim dos registros; um registro com CRC inválido (escrita interrompida por
+ * queda do processo) também encerra a leitura do segmento.
+ *
+ * Sem {@link #fechar()}, o mapeamento só seria desfeito pelo GC: no Windows o arquivo não pode ser
+ * apagado enquanto isso, e no Linux o espaço de endereços continua reservado. Quem abre um segmento
+ * o fecha antes de rolar para o próximo ou de apagar o arquivo.
+ */
+class JournalSegmento {
+
+    static final int MAGIC = 0x4D56544A; // "MVTJ"
+    static final int VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 8;
+    static final int TAMANHO_CABECALHO_REGISTRO = 8;
+
+    // Unsafe.invokeCleaner, para desfazer o mapeamento sem esperar o GC (null se a JVM não tiver)
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> classe = Class.forName("sun.misc.Unsafe");
+            Field instancia = classe.getDeclaredField("theUnsafe");
+            instancia.setAccessible(true);
+            unsafe = instancia.get(null);
+            invokeCleaner = classe.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JVM sem Unsafe: os mapeamentos são liberados pelo GC
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * Recebe cada registro válido; o payload só é válido durante a chamada
+     */
+    interface Leitor {
+        void ler(byte tipo, ByteBuffer payload);
+    }
+
+    private final Path arquivo;
+    private final long indice;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private int posicaoEscrita;
+    private volatile boolean sujo;
+    private boolean fechado;
+
+    private JournalSegmento(Path arquivo, long indice, MappedByteBuffer buffer) {
+        this.arquivo = arquivo;
+        this.indice = indice;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Cria um segmento novo, já dimensionado e com cabeçalho
+     */
+    static JournalSegmento criar(Path arquivo, long indice, int tamanho) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            raf.setLength(tamanho);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, tamanho);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSAO);
+            JournalSegmento segmento = new JournalSegmento(arquivo, indice, buffer);
+            segmento.posicaoEscrita = TAMANHO_CABECALHO;
+            segmento.sujo = true;
+            return segmento;
+        }
+    }
+
+    /**
+     * Abre um segmento existente e posiciona a escrita depois do último registro válido
+     */
+    static JournalSegmento abrir(Path arquivo, long indice) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+            if (buffer.capacity() < TAMANHO_CABECALHO || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSAO) {
+                liberar(buffer);
+                throw new IOException("Segmento de journal inválido: " + arquivo);
+            }
+            JournalSegmento segmento = new JournalSegmento(arquivo, indice, buffer);
+            segmento.posicaoEscrita = segmento.percorrer(segmento.capacidade(), (tipo, payload) -> { });
+            return segmento;
+        }
+    }
+
+    /**
+     * Copia o registro para o arquivo. Retorna false se não couber (o segmento deve ser rolado).
+     */
+    boolean anexar(byte tipo, ByteBuffer payload) {
+        int tamanho = 1 + payload.remaining();
+        // Mantém sempre 4 bytes zerados depois do último registro como marca de fim
+        if (posicaoEscrita + TAMANHO_CABECALHO_REGISTRO + tamanho + 4 > buffer.capacity()) {
+            return false;
+        }
+
+        crc.reset();
+        crc.update(tipo);
+        crc.update(payload.duplicate());
+
+        int inicio = posicaoEscrita;
+        buffer.position(inicio + TAMANHO_CABECALHO_REGISTRO);
+        buffer.put(tipo);
+        buffer.put(payload);
+        buffer.putInt(inicio + 4, (int) crc.getValue());
+        // O tamanho é gravado por último: um registro pela metade fica com tamanho 0 ou CRC inválido
+        buffer.putInt(inicio, tamanho);
+
+        posicaoEscrita = inicio + TAMANHO_CABECALHO_REGISTRO + tamanho;
+        sujo = true;
+        return true;
+    }
+
+    /**
+     * Lê os registros válidos até {@code limite} e retorna a posição logo após o último
+     */
+    int percorrer(int limite, Leitor leitor) {
+        ByteBuffer leitura = buffer.duplicate();
+        CRC32 crcLeitura = new CRC32();
+        int posicao = TAMANHO_CABECALHO;
+        while (posicao + TAMANHO_CABECALHO_REGISTRO <= limite) {
+            int tamanho = leitura.getInt(posicao);
+            if (tamanho <= 0 || posicao + TAMANHO_CABECALHO_REGISTRO + tamanho > limite) {
+                break;
+            }
+            int inicioDados = posicao + TAMANHO_CABECALHO_REGISTRO;
+            leitura.limit(inicioDados + tamanho).position(inicioDados);
+            crcLeitura.reset();
+            crcLeitura.update(leitura.duplicate());
+            if ((int) crcLeitura.getValue() != leitura.getInt(posicao + 4)) {
+                break;
+            }
+
+            byte tipo = leitura.get();
+            leitor.ler(tipo, leitura.slice());
+            leitura.limit(leitura.capacity());
+            posicao = inicioDados + tamanho;
+        }
+        return posicao;
+    }
+
+    /**
+     * Força a gravação das páginas alteradas no disco
+     */
+    synchronized void sincronizar() {
+        if (sujo && !fechado) {
+            sujo = false;
+            buffer.force();
+        }
+    }
+
+    /**
+     * Grava as páginas pendentes e desfaz o mapeamento. O segmento não pode mais ser usado depois disso;
+     * o lock espera um force em andamento na thread de sincronização.
+     */
+    synchronized void fechar() {
+        if (fechado) {
+            return;
+        }
+        sincronizar();
+        fechado = true;
+        liberar(buffer);
+    }
+
+    /**
+     * Desfaz o mapeamento na hora via Unsafe.invokeCleaner (Java 9+); sem ele, fica para o GC
+     */
+    private static void liberar(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // O mapeamento continua válido até ser coletado
+        }
+    }
+
+    Path getArquivo() { return arquivo; }
+    long getIndice() { return indice; }
+    int getPosicaoEscrita() { return posicaoEscrita; }
+    int capacidade() { return buffer.capacity(); }
+}
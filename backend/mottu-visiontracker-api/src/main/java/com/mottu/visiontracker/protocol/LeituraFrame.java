@@ -0,0 +1,40 @@
+package com.mottu.visiontracker.protocol;
+
+/**
+ * Formato binário usado pelos gateways dos leitores para enviar leituras RFID.
+ *
+ * O corpo da requisição é uma sequência de frames, cada um prefixado pelo seu tamanho:
+ * <pre>
+ * frame    = tamanho:int32 | payload
+ * payload  = versao:uint8 | quantidade:uint16 | registro * quantidade
+ * registro = tag:24 bytes | antena:uint8 | setor:5 bytes | timestamp:int64 | rssi:int16   (40 bytes)
+ * </pre>
+ * Inteiros em big-endian. Tag e setor são ASCII preenchidos com zeros à direita; a tag, como no JSON,
+ * só aceita caracteres imprimíveis (0x21-0x7E). O timestamp é epoch em milissegundos e o RSSI é em
+ * décimos de dBm ({@link #RSSI_AUSENTE} quando o leitor não informa).
+ */
+public final class LeituraFrame {
+
+    public static final String MEDIA_TYPE = "application/x-mottu-leituras";
+
+    public static final int VERSAO = 1;
+
+    public static final int TAMANHO_TAG = 24;
+    public static final int TAMANHO_SETOR = 5;
+    public static final int TAMANHO_REGISTRO = TAMANHO_TAG + 1 + TAMANHO_SETOR + 8 + 2;
+    public static final int TAMANHO_CABECALHO = 1 + 2;
+    public static final int MAX_REGISTROS_POR_FRAME = 1024;
+    public static final int MAX_TAMANHO_PAYLOAD = TAMANHO_CABECALHO + MAX_REGISTROS_POR_FRAME * TAMANHO_REGISTRO;
+
+    public static final short RSSI_AUSENTE = Short.MIN_VALUE;
+
+    // Deslocamentos dentro de um registro
+    static final int OFFSET_TAG = 0;
+    static final int OFFSET_ANTENA = OFFSET_TAG + TAMANHO_TAG;
+    static final int OFFSET_SETOR = OFFSET_ANTENA + 1;
+    static final int OFFSET_TIMESTAMP = OFFSET_SETOR + TAMANHO_SETOR;
+    static final int OFFSET_RSSI = OFFSET_TIMESTAMP + 8;
+
+    private LeituraFrame() {
+    }
+}
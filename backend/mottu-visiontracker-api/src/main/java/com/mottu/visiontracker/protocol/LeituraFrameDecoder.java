@@ -0,0 +1,194 @@
+package com.mottu.visiontracker.protocol;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodificador do formato {@link LeituraFrame} que lê direto do InputStream para um buffer
+ * reutilizado. Os campos de cada registro são lidos do buffer sob demanda, sem criar objetos
+ * por leitura. Não é thread-safe.
+ *
+ * <pre>
+ * while (decoder.proximoFrame()) {
+ *     for (int i = 0; i &lt; decoder.getQuantidade(); i++) { ... decoder.getTimestamp(i) ... }
+ * }
+ * </pre>
+ */
+public class LeituraFrameDecoder {
+
+    private static final int TAMANHO_CACHE_SETORES = 16;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int quantidade;
+
+    // Setores se repetem muito (um portal envia sempre o mesmo), então as Strings são reaproveitadas
+    private final byte[][] cacheSetorBytes = new byte[TAMANHO_CACHE_SETORES][];
+    private final String[] cacheSetor = new String[TAMANHO_CACHE_SETORES];
+
+    public LeituraFrameDecoder(InputStream in) {
+        this(in, new byte[LeituraFrame.MAX_TAMANHO_PAYLOAD]);
+    }
+
+    /**
+     * Usa um buffer fornecido pelo chamador, com pelo menos {@link LeituraFrame#MAX_TAMANHO_PAYLOAD} bytes
+     */
+    public LeituraFrameDecoder(InputStream in, byte[] buffer) {
+        if (buffer.length < LeituraFrame.MAX_TAMANHO_PAYLOAD) {
+            throw new IllegalArgumentException("Buffer deve ter ao menos " + LeituraFrame.MAX_TAMANHO_PAYLOAD + " bytes");
+        }
+        this.in = in;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Lê o próximo frame. Retorna false quando o stream terminou.
+     */
+    public boolean proximoFrame() throws IOException {
+        int b0 = in.read();
+        if (b0 < 0) {
+            quantidade = 0;
+            return false;
+        }
+        lerCompleto(buffer, 0, 3);
+        int tamanho = (b0 << 24) | ((buffer[0] & 0xFF) << 16) | ((buffer[1] & 0xFF) << 8) | (buffer[2] & 0xFF);
+        if (tamanho < LeituraFrame.TAMANHO_CABECALHO || tamanho > LeituraFrame.MAX_TAMANHO_PAYLOAD) {
+            throw new IllegalArgumentException("Tamanho de frame inválido: " + tamanho);
+        }
+
+        lerCompleto(buffer, 0, tamanho);
+        int versao = buffer[0] & 0xFF;
+        if (versao != LeituraFrame.VERSAO) {
+            throw new IllegalArgumentException("Versão de frame não suportada: " + versao);
+        }
+        int registros = ((buffer[1] & 0xFF) << 8) | (buffer[2] & 0xFF);
+        if (tamanho != LeituraFrame.TAMANHO_CABECALHO + registros * LeituraFrame.TAMANHO_REGISTRO) {
+            throw new IllegalArgumentException("Frame com " + registros + " registros não pode ter " + tamanho + " bytes");
+        }
+        for (int i = 0; i < registros; i++) {
+            validarTag(i);
+        }
+        quantidade = registros;
+        return true;
+    }
+
+    /**
+     * Quantidade de registros do frame atual
+     */
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Copia os bytes da tag do registro para o destino e retorna o tamanho (sem o preenchimento).
+     * As tags já foram validadas em {@link #proximoFrame()}.
+     */
+    public int copiarTag(int registro, byte[] destino) {
+        int offset = offset(registro) + LeituraFrame.OFFSET_TAG;
+        int length = tamanhoAscii(offset, LeituraFrame.TAMANHO_TAG);
+        System.arraycopy(buffer, offset, destino, 0, length);
+        return length;
+    }
+
+    public int getAntena(int registro) {
+        return buffer[offset(registro) + LeituraFrame.OFFSET_ANTENA] & 0xFF;
+    }
+
+    /**
+     * Setor do registro, ou null quando vazio
+     */
+    public String getSetor(int registro) {
+        int offset = offset(registro) + LeituraFrame.OFFSET_SETOR;
+        int length = tamanhoAscii(offset, LeituraFrame.TAMANHO_SETOR);
+        if (length == 0) {
+            return null;
+        }
+        int slot = (buffer[offset] * 31 + buffer[offset + length - 1] + length) & (TAMANHO_CACHE_SETORES - 1);
+        byte[] emCache = cacheSetorBytes[slot];
+        if (emCache != null && emCache.length == length && igual(emCache, offset)) {
+            return cacheSetor[slot];
+        }
+        String setor = new String(buffer, offset, length, StandardCharsets.US_ASCII);
+        cacheSetorBytes[slot] = setor.getBytes(StandardCharsets.US_ASCII);
+        cacheSetor[slot] = setor;
+        return setor;
+    }
+
+    public long getTimestamp(int registro) {
+        int offset = offset(registro) + LeituraFrame.OFFSET_TIMESTAMP;
+        long valor = 0;
+        for (int i = 0; i < 8; i++) {
+            valor = (valor << 8) | (buffer[offset + i] & 0xFF);
+        }
+        return valor;
+    }
+
+    /**
+     * RSSI em décimos de dBm, ou {@link LeituraFrame#RSSI_AUSENTE}
+     */
+    public short getRssi(int registro) {
+        int offset = offset(registro) + LeituraFrame.OFFSET_RSSI;
+        return (short) (((buffer[offset] & 0xFF) << 8) | (buffer[offset + 1] & 0xFF));
+    }
+
+    /**
+     * Aplica à tag as mesmas regras do JSON (LeituraRfidDTO): não vazia e só ASCII imprimível
+     * (0x21-0x7E), seguida apenas do preenchimento com zeros. Um registro inválido rejeita o frame
+     * inteiro, assim como um item inválido rejeita o lote JSON.
+     */
+    private void validarTag(int registro) {
+        int offset = offset(registro) + LeituraFrame.OFFSET_TAG;
+        int length = tamanhoAscii(offset, LeituraFrame.TAMANHO_TAG);
+        if (length == 0) {
+            throw new IllegalArgumentException("Registro " + registro + " do frame sem tag RFID");
+        }
+        for (int i = 0; i < length; i++) {
+            int b = buffer[offset + i] & 0xFF;
+            if (b < 0x21 || b > 0x7E) {
+                throw new IllegalArgumentException("Tag RFID do registro " + registro
+                        + " do frame deve conter apenas caracteres ASCII imprimíveis (byte 0x"
+                        + Integer.toHexString(b) + " na posição " + i + ")");
+            }
+        }
+        for (int i = length; i < LeituraFrame.TAMANHO_TAG; i++) {
+            if (buffer[offset + i] != 0) {
+                throw new IllegalArgumentException("Tag RFID do registro " + registro
+                        + " do frame tem bytes depois do preenchimento com zeros");
+            }
+        }
+    }
+
+    private static int offset(int registro) {
+        return LeituraFrame.TAMANHO_CABECALHO + registro * LeituraFrame.TAMANHO_REGISTRO;
+    }
+
+    private int tamanhoAscii(int offset, int largura) {
+        int length = 0;
+        while (length < largura && buffer[offset + length] != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private boolean igual(byte[] valor, int offset) {
+        for (int i = 0; i < valor.length; i++) {
+            if (valor[i] != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void lerCompleto(byte[] destino, int offset, int length) throws IOException {
+        int lidos = 0;
+        while (lidos < length) {
+            int n = in.read(destino, offset + lidos, length - lidos);
+            if (n < 0) {
+                throw new EOFException("Stream terminou no meio de um frame");
+            }
+            lidos += n;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.mottu.visiontracker.protocol;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Codificador do formato {@link LeituraFrame}, para uso nos gateways dos leitores.
+ * Acumula registros em um buffer reutilizado e escreve um frame a cada {@code registrosPorFrame}
+ * leituras ou quando {@link #flush()} é chamado. Não é thread-safe.
+ *
+ * <pre>
+ * try (LeituraFrameEncoder encoder = new LeituraFrameEncoder(conexao.getOutputStream())) {
+ *     encoder.adicionar("E2801160600002", 1, "A1", System.currentTimeMillis(), (short) -655);
+ * }
+ * </pre>
+ */
+public class LeituraFrameEncoder implements Flushable, Closeable {
+
+    private final OutputStream out;
+    private final ByteBuffer buffer;
+    private final int registrosPorFrame;
+    private int quantidade;
+
+    public LeituraFrameEncoder(OutputStream out) {
+        this(out, LeituraFrame.MAX_REGISTROS_POR_FRAME);
+    }
+
+    public LeituraFrameEncoder(OutputStream out, int registrosPorFrame) {
+        if (registrosPorFrame < 1 || registrosPorFrame > LeituraFrame.MAX_REGISTROS_POR_FRAME) {
+            throw new IllegalArgumentException("Registros por frame deve estar entre 1 e " + LeituraFrame.MAX_REGISTROS_POR_FRAME);
+        }
+        this.out = out;
+        this.registrosPorFrame = registrosPorFrame;
+        this.buffer = ByteBuffer.allocate(4 + LeituraFrame.TAMANHO_CABECALHO + registrosPorFrame * LeituraFrame.TAMANHO_REGISTRO);
+        iniciarFrame();
+    }
+
+    /**
+     * Adiciona uma leitura; o RSSI é em décimos de dBm ou {@link LeituraFrame#RSSI_AUSENTE}
+     */
+    public void adicionar(String tag, int antena, String setor, long timestampMillis, short rssiDecimos) throws IOException {
+        if (tag == null || tag.isEmpty() || tag.length() > LeituraFrame.TAMANHO_TAG) {
+            throw new IllegalArgumentException("Tag deve ter entre 1 e " + LeituraFrame.TAMANHO_TAG + " caracteres");
+        }
+        if (antena < 0 || antena > 255) {
+            throw new IllegalArgumentException("Antena deve estar entre 0 e 255");
+        }
+        if (setor != null && setor.length() > LeituraFrame.TAMANHO_SETOR) {
+            throw new IllegalArgumentException("Setor deve ter no máximo " + LeituraFrame.TAMANHO_SETOR + " caracteres");
+        }
+
+        escreverAscii(tag, LeituraFrame.TAMANHO_TAG);
+        buffer.put((byte) antena);
+        escreverAscii(setor, LeituraFrame.TAMANHO_SETOR);
+        buffer.putLong(timestampMillis);
+        buffer.putShort(rssiDecimos);
+
+        if (++quantidade == registrosPorFrame) {
+            escreverFrame();
+        }
+    }
+
+    /**
+     * Escreve o frame em andamento (se houver registros) e descarrega o stream
+     */
+    @Override
+    public void flush() throws IOException {
+        if (quantidade > 0) {
+            escreverFrame();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    private void escreverFrame() throws IOException {
+        int tamanhoPayload = buffer.position() - 4;
+        buffer.putInt(0, tamanhoPayload);
+        buffer.putShort(5, (short) quantidade);
+        out.write(buffer.array(), 0, buffer.position());
+        iniciarFrame();
+    }
+
+    private void iniciarFrame() {
+        buffer.clear();
+        buffer.putInt(0);
+        buffer.put((byte) LeituraFrame.VERSAO);
+        buffer.putShort((short) 0);
+        quantidade = 0;
+    }
+
+    private void escreverAscii(String valor, int largura) {
+        int length = valor != null ? valor.length() : 0;
+        for (int i = 0; i < largura; i++) {
+            char c = i < length ? valor.charAt(i) : 0;
+            if (c > 0x7E) {
+                throw new IllegalArgumentException("Apenas caracteres ASCII são aceitos: " + valor);
+            }
+            buffer.put((byte) c);
+        }
+    }
+}
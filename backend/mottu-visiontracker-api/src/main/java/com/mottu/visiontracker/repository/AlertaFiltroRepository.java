@@ -0,0 +1,80 @@
+package com.mottu.visiontracker.repository;
+
+import com.mottu.visiontracker.dto.AlertaDTO;
+import com.mottu.visiontracker.dto.FiltroAlertasDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listagem de alertas com filtros combináveis montada com a Criteria API: só os filtros informados
+ * entram no WHERE, tudo em um único SELECT com a moto, ordenação e LIMIT no banco. As colunas são
+ * projetadas direto em AlertaDTO, na mesma ordem de AlertaRepository.SELECT_DTO.
+ * Os índices (resolvido, created_at), (moto_id, resolvido) e (tipo, resolvido) cobrem os filtros.
+ */
+@Repository
+public class AlertaFiltroRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<AlertaDTO> buscar(FiltroAlertasDTO filtro) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AlertaDTO> query = cb.createQuery(AlertaDTO.class);
+        Root<Alerta> alerta = query.from(Alerta.class);
+        Join<Alerta, Moto> moto = alerta.join("moto");
+
+        List<Predicate> condicoes = new ArrayList<>();
+        if (filtro.getResolvido() != null) {
+            condicoes.add(cb.equal(alerta.get("resolvido"), filtro.getResolvido()));
+        }
+        if (filtro.getTipo() != null) {
+            condicoes.add(cb.equal(alerta.get("tipo"), filtro.getTipo()));
+        }
+        if (filtro.getMotoId() != null) {
+            // Pela FK em alertas (moto_id), não pela tabela da moto
+            condicoes.add(cb.equal(alerta.get("moto").get("id"), filtro.getMotoId()));
+        }
+        if (filtro.getSetor() != null) {
+            condicoes.add(cb.equal(moto.get("setor"), filtro.getSetor()));
+        }
+        if (filtro.getInicio() != null) {
+            condicoes.add(cb.greaterThanOrEqualTo(alerta.get("timestamp"), filtro.getInicio()));
+        }
+        if (filtro.getFim() != null) {
+            condicoes.add(cb.lessThanOrEqualTo(alerta.get("timestamp"), filtro.getFim()));
+        }
+        query.select(cb.construct(AlertaDTO.class,
+                alerta.get("id"), alerta.get("tipo"), alerta.get("descricao"), alerta.get("resolvido"),
+                alerta.get("timestamp"), alerta.get("resolvedAt"), alerta.get("versao"),
+                moto.get("id"), moto.get("placa"), moto.get("modelo"), moto.get("cor"), moto.get("proprietario"),
+                moto.get("numeroSerie"), moto.get("tagRFID"), moto.get("status"), moto.get("setor"), moto.get("posicao"),
+                moto.get("coordenadaX"), moto.get("coordenadaY"), moto.get("createdAt"), moto.get("updatedAt"),
+                moto.get("versao")))
+                .where(condicoes.toArray(new Predicate[0]));
+
+        if (filtro.getOrdem() == Sort.Direction.ASC) {
+            query.orderBy(cb.asc(alerta.get("timestamp")), cb.asc(alerta.get("id")));
+        } else {
+            query.orderBy(cb.desc(alerta.get("timestamp")), cb.desc(alerta.get("id")));
+        }
+
+        TypedQuery<AlertaDTO> consulta = entityManager.createQuery(query);
+        if (filtro.getLimite() != null) {
+            consulta.setMaxResults(filtro.getLimite());
+        }
+        return consulta.getResultList();
+    }
+}
@@ -1,57 +1,93 @@
 package com.mottu.visiontracker.repository;
 
+import com.mottu.visiontracker.dto.AlertaDTO;
 import com.mottu.visiontracker.entity.Alerta;
 import com.mottu.visiontracker.entity.Moto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AlertaRepository extends JpaRepository<Alerta, Long> {
 
+    // As buscas que viram AlertaDTO (que inclui a moto) trazem a moto no mesmo SELECT,
+    // por JOIN FETCH ou @EntityGraph, em vez de um SELECT por moto ao converter
+
+    // Projeção direto no DTO para as listagens: as colunas do alerta e da moto viram AlertaDTO
+    // sem passar por entidades gerenciadas
+    String SELECT_DTO = "SELECT new com.mottu.visiontracker.dto.AlertaDTO(a.id, a.tipo, a.descricao, a.resolvido, "
+            + "a.timestamp, a.resolvedAt, a.versao, m.id, m.placa, m.modelo, m.cor, m.proprietario, m.numeroSerie, "
+            + "m.tagRFID, m.status, m.setor, m.posicao, m.coordenadaX, m.coordenadaY, m.createdAt, m.updatedAt, "
+            + "m.versao) FROM Alerta a JOIN a.moto m ";
+
+    /**
+     * Busca um alerta por ID, já com a moto carregada
+     */
+    @Override
+    @EntityGraph(attributePaths = "moto")
+    Optional<Alerta> findById(Long id);
+
     /**
      * Busca alertas por moto
      */
+    @EntityGraph(attributePaths = "moto")
     List<Alerta> findByMoto(Moto moto);
 
     /**
-     * Busca alertas por ID da moto
+     * Busca alertas por ID da moto (filtra pela FK em alertas, não pela tabela da moto)
      */
-    List<Alerta> findByMotoId(Long motoId);
+    @Query("SELECT a FROM Alerta a JOIN FETCH a.moto WHERE a.moto.id = :motoId")
+    List<Alerta> findByMotoId(@Param("motoId") Long motoId);
 
     /**
      * Busca alertas por tipo
      */
+    @EntityGraph(attributePaths = "moto")
     List<Alerta> findByTipo(Alerta.TipoAlerta tipo);
 
     /**
      * Busca alertas não resolvidos
      */
+    @EntityGraph(attributePaths = "moto")
     List<Alerta> findByResolvidoFalse();
 
     /**
      * Busca alertas resolvidos
      */
+    @EntityGraph(attributePaths = "moto")
     List<Alerta> findByResolvidoTrue();
 
     /**
      * Busca alertas não resolvidos por moto
      */
+    @EntityGraph(attributePaths = "moto")
     List<Alerta> findByMotoAndResolvidoFalse(Moto moto);
 
     /**
      * Busca alertas não resolvidos por ID da moto
      */
+    @EntityGraph(attributePaths = "moto")
     List<Alerta> findByMotoIdAndResolvidoFalse(Long motoId);
 
+    /**
+     * Verifica se a moto já tem um alerta não resolvido do tipo especificado
+     */
+    boolean existsByMotoIdAndTipoAndResolvidoFalse(Long motoId, Alerta.TipoAlerta tipo);
+
     /**
      * Busca alertas por período
      */
-    @Query("SELECT a FROM Alerta a WHERE a.timestamp BETWEEN :inicio AND :fim")
+    @Query("SELECT a FROM Alerta a JOIN FETCH a.moto WHERE a.timestamp BETWEEN :inicio AND :fim")
     List<Alerta> findByTimestampBetween(@Param("inicio") LocalDateTime inicio, 
                                         @Param("fim") LocalDateTime fim);
 
@@ -77,23 +113,108 @@ public interface AlertaRepository extends JpaRepository<Alerta, Long> {
     /**
      * Busca todos os alertas ordenados por timestamp (mais recentes primeiro)
      */
+    @EntityGraph(attributePaths = "moto")
     List<Alerta> findAllByOrderByTimestampDesc();
 
     /**
      * Busca alertas não resolvidos ordenados por timestamp (mais recentes primeiro)
      */
+    @EntityGraph(attributePaths = "moto")
     List<Alerta> findByResolvidoFalseOrderByTimestampDesc();
 
     /**
      * Busca alertas por moto ordenados por timestamp (mais recentes primeiro)
      */
+    @EntityGraph(attributePaths = "moto")
     List<Alerta> findByMotoOrderByTimestampDesc(Moto moto);
 
     /**
      * Busca alertas críticos (movimento não autorizado e fora da área) não resolvidos
      */
-    @Query("SELECT a FROM Alerta a WHERE a.resolvido = false AND " +
+    @Query("SELECT a FROM Alerta a JOIN FETCH a.moto WHERE a.resolvido = false AND " +
            "(a.tipo = 'MOVIMENTO_NAO_AUTORIZADO' OR a.tipo = 'FORA_DA_AREA') " +
            "ORDER BY a.timestamp DESC")
     List<Alerta> findCriticalUnresolvedAlerts();
+
+    /**
+     * Alertas com versão no intervalo (desde, ate], em ordem de versão, já com a moto carregada
+     */
+    @Query("SELECT a FROM Alerta a JOIN FETCH a.moto WHERE a.versao > :desde AND a.versao <= :ate ORDER BY a.versao")
+    List<Alerta> findAlterados(@Param("desde") Long desde, @Param("ate") Long ate, Pageable pagina);
+
+    /**
+     * Primeira página dos alertas, mais recentes primeiro (índice created_at, id)
+     */
+    @Query("SELECT a FROM Alerta a JOIN FETCH a.moto ORDER BY a.timestamp DESC, a.id DESC")
+    List<Alerta> findPrimeiraPagina(Pageable pagina);
+
+    /**
+     * Página seguinte ao par (timestamp, id): continua o índice a partir da chave, sem OFFSET
+     */
+    @Query("SELECT a FROM Alerta a JOIN FETCH a.moto WHERE a.timestamp <= :data AND (a.timestamp < :data OR a.id < :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<Alerta> findPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Lista todos os alertas como DTO, mais recentes primeiro
+     */
+    @Query(SELECT_DTO + "ORDER BY a.timestamp DESC")
+    List<AlertaDTO> listarDTOs();
+
+    /**
+     * Lista os alertas não resolvidos como DTO, mais recentes primeiro
+     */
+    @Query(SELECT_DTO + "WHERE a.resolvido = false ORDER BY a.timestamp DESC")
+    List<AlertaDTO> listarDTOsNaoResolvidos();
+
+    /**
+     * Lista os alertas resolvidos como DTO
+     */
+    @Query(SELECT_DTO + "WHERE a.resolvido = true")
+    List<AlertaDTO> listarDTOsResolvidos();
+
+    /**
+     * Lista os alertas não resolvidos da moto como DTO (filtra pela FK em alertas)
+     */
+    @Query(SELECT_DTO + "WHERE a.moto.id = :motoId AND a.resolvido = false")
+    List<AlertaDTO> listarDTOsNaoResolvidosPorMoto(@Param("motoId") Long motoId);
+
+    /**
+     * Lista os alertas do tipo como DTO
+     */
+    @Query(SELECT_DTO + "WHERE a.tipo = :tipo")
+    List<AlertaDTO> listarDTOsPorTipo(@Param("tipo") Alerta.TipoAlerta tipo);
+
+    /**
+     * Lista os alertas do período como DTO
+     */
+    @Query(SELECT_DTO + "WHERE a.timestamp BETWEEN :inicio AND :fim")
+    List<AlertaDTO> listarDTOsPorPeriodo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    /**
+     * Lista os alertas críticos não resolvidos como DTO, mais recentes primeiro
+     */
+    @Query(SELECT_DTO + "WHERE a.resolvido = false AND "
+            + "(a.tipo = 'MOVIMENTO_NAO_AUTORIZADO' OR a.tipo = 'FORA_DA_AREA') ORDER BY a.timestamp DESC")
+    List<AlertaDTO> listarDTOsCriticosNaoResolvidos();
+
+    /**
+     * Primeira página dos alertas como DTO (índice created_at, id)
+     */
+    @Query(SELECT_DTO + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AlertaDTO> listarDTOsPrimeiraPagina(Pageable pagina);
+
+    /**
+     * Página de DTOs seguinte ao par (timestamp, id)
+     */
+    @Query(SELECT_DTO + "WHERE a.timestamp <= :data AND (a.timestamp < :data OR a.id < :id) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AlertaDTO> listarDTOsPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Todos os alertas com a moto, em ordem de id, lidos do cursor do banco aos poucos (exige transação aberta)
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT a FROM Alerta a JOIN FETCH a.moto ORDER BY a.id")
+    Stream<Alerta> streamAll();
 }
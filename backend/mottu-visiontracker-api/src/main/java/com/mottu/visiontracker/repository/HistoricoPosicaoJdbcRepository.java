@@ -0,0 +1,59 @@
+package com.mottu.visiontracker.repository;
+
+import com.mottu.visiontracker.util.BlocoPosicoes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gravação e leitura dos blocos do histórico de posições via JDBC
+ */
+@Repository
+public class HistoricoPosicaoJdbcRepository {
+
+    private static final String SQL_INSERT =
+            "INSERT INTO historico_posicoes_blocos (moto_id, inicio, fim, quantidade, dados) VALUES (?, ?, ?, ?, ?)";
+
+    // Só os blocos que se sobrepõem ao intervalo são lidos e decodificados
+    private static final String SQL_INTERVALO =
+            "SELECT inicio, dados FROM historico_posicoes_blocos "
+            + "WHERE moto_id = ? AND inicio <= ? AND fim >= ? ORDER BY inicio";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insere os blocos fechados de várias motos em um único batch
+     */
+    @Transactional
+    public int inserir(Map<Long, List<BlocoPosicoes>> blocosPorMoto) {
+        List<Object[]> valores = new ArrayList<>();
+        blocosPorMoto.forEach((motoId, blocos) -> {
+            for (BlocoPosicoes bloco : blocos) {
+                valores.add(new Object[] {motoId, bloco.getInicio(), bloco.getFim(), bloco.getQuantidade(), bloco.getBytes()});
+            }
+        });
+        if (valores.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERT, valores);
+        return valores.size();
+    }
+
+    /**
+     * Decodifica os pontos da moto entre de e ate (epoch ms) gravados no banco
+     */
+    public void buscar(long motoId, long de, long ate, BlocoPosicoes.Leitor leitor) {
+        jdbcTemplate.query(SQL_INTERVALO,
+                rs -> {
+                    byte[] dados = rs.getBytes(2);
+                    BlocoPosicoes.decodificar(dados, dados.length, rs.getLong(1), de, ate, leitor);
+                },
+                motoId, ate, de);
+    }
+}
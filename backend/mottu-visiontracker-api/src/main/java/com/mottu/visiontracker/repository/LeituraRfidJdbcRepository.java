@@ -0,0 +1,89 @@
+package com.mottu.visiontracker.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Gravação de leituras RFID em lote via JDBC.
+ * O JPA não agrupa inserts de entidades com id IDENTITY, por isso o lote vai direto pelo JdbcTemplate.
+ */
+@Repository
+public class LeituraRfidJdbcRepository {
+
+    private static final String SQL_INSERT =
+            "INSERT INTO leituras_rfid (tag_rfid, moto_id, antena, setor, rssi, lida_em, ultima_leitura, quantidade, recebida_em) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Quantidade de linhas enviadas por executeBatch
+     */
+    public static final int TAMANHO_LOTE_JDBC = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Mesmo fuso usado pelo Hibernate, para que as datas gravadas aqui sejam lidas corretamente pelo JPA
+    @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}")
+    private String fusoJdbc;
+
+    /**
+     * Insere o lote em um único executeBatch e retorna a quantidade gravada
+     */
+    @Transactional
+    public int inserirLote(LoteLeituras lote) {
+        if (lote.isVazio()) {
+            return 0;
+        }
+        Calendar calendario = calendarioJdbc();
+        int[] resultado = jdbcTemplate.batchUpdate(SQL_INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long motoId = lote.getMotoId(i);
+                ps.setString(1, lote.getTag(i));
+                if (motoId != LoteLeituras.SEM_MOTO) {
+                    ps.setLong(2, motoId);
+                } else {
+                    ps.setNull(2, Types.BIGINT);
+                }
+                ps.setInt(3, lote.getAntena(i));
+                ps.setString(4, lote.getSetor(i));
+                if (lote.getRssi(i) != LoteLeituras.SEM_RSSI) {
+                    ps.setDouble(5, lote.getRssi(i) / 10.0);
+                } else {
+                    ps.setNull(5, Types.DOUBLE);
+                }
+                ps.setTimestamp(6, new Timestamp(lote.getLidaEm(i)), calendario);
+                ps.setTimestamp(7, new Timestamp(lote.getUltimaLeitura(i)), calendario);
+                ps.setInt(8, lote.getQuantidade(i));
+                ps.setTimestamp(9, new Timestamp(lote.getRecebidaEm(i)), calendario);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lote.size();
+            }
+        });
+
+        int gravadas = 0;
+        for (int linhas : resultado) {
+            // Alguns drivers retornam SUCCESS_NO_INFO (-2) em vez da contagem
+            gravadas += linhas >= 0 ? linhas : 1;
+        }
+        return gravadas;
+    }
+
+    private Calendar calendarioJdbc() {
+        return fusoJdbc.isEmpty() ? Calendar.getInstance() : Calendar.getInstance(TimeZone.getTimeZone(fusoJdbc));
+    }
+}
@@ -0,0 +1,21 @@
+package com.mottu.visiontracker.repository;
+
+import com.mottu.visiontracker.entity.LeituraRfid;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LeituraRfidRepository extends JpaRepository<LeituraRfid, Long> {
+
+    /**
+     * Busca as 100 leituras mais recentes de uma tag
+     */
+    List<LeituraRfid> findTop100ByTagRFIDOrderByTimestampDesc(String tagRFID);
+
+    /**
+     * Busca as 100 leituras mais recentes
+     */
+    List<LeituraRfid> findTop100ByOrderByTimestampDesc();
+}
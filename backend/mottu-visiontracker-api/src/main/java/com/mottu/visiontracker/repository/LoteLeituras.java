@@ -0,0 +1,101 @@
+package com.mottu.visiontracker.repository;
+
+import java.util.Arrays;
+
+/**
+ * Buffer reutilizável com as colunas de um lote de leituras RFID em arrays paralelos.
+ * Evita criar uma entidade por leitura no caminho de gravação em lote.
+ */
+public class LoteLeituras {
+
+    public static final long SEM_MOTO = -1L;
+    public static final int SEM_RSSI = Short.MIN_VALUE;
+
+    private final String[] tags;
+    private final long[] motoIds;
+    private final int[] antenas;
+    private final String[] setores;
+    private final int[] rssis;
+    private final long[] lidasEm;
+    private final long[] ultimasLeituras;
+    private final int[] quantidades;
+    private final long[] recebidasEm;
+    private int tamanho;
+
+    public LoteLeituras(int capacidade) {
+        this.tags = new String[capacidade];
+        this.motoIds = new long[capacidade];
+        this.antenas = new int[capacidade];
+        this.setores = new String[capacidade];
+        this.rssis = new int[capacidade];
+        this.lidasEm = new long[capacidade];
+        this.ultimasLeituras = new long[capacidade];
+        this.quantidades = new int[capacidade];
+        this.recebidasEm = new long[capacidade];
+    }
+
+    /**
+     * Adiciona uma leitura única ao lote (datas em epoch millis, RSSI em décimos de dBm ou {@link #SEM_RSSI}).
+     * Retorna false se o lote estiver cheio.
+     */
+    public boolean adicionar(String tag, long motoId, int antena, String setor, int rssi, long lidaEm, long recebidaEm) {
+        return adicionar(tag, motoId, antena, setor, rssi, lidaEm, lidaEm, 1, recebidaEm);
+    }
+
+    /**
+     * Adiciona um agregado de leituras repetidas, com a primeira e a última leitura da janela e o maior RSSI
+     */
+    public boolean adicionar(String tag, long motoId, int antena, String setor, int rssi,
+                             long primeiraLeitura, long ultimaLeitura, int quantidade, long recebidaEm) {
+        if (isCheio()) {
+            return false;
+        }
+        tags[tamanho] = tag;
+        motoIds[tamanho] = motoId;
+        antenas[tamanho] = antena;
+        setores[tamanho] = setor;
+        rssis[tamanho] = rssi;
+        lidasEm[tamanho] = primeiraLeitura;
+        ultimasLeituras[tamanho] = ultimaLeitura;
+        quantidades[tamanho] = quantidade;
+        recebidasEm[tamanho] = recebidaEm;
+        tamanho++;
+        return true;
+    }
+
+    /**
+     * Converte o RSSI em dBm para décimos de dBm, usando {@link #SEM_RSSI} quando ausente
+     */
+    public static int rssiDecimos(Double rssiDbm) {
+        return rssiDbm != null ? (int) Math.round(rssiDbm * 10) : SEM_RSSI;
+    }
+
+    public void limpar() {
+        Arrays.fill(tags, 0, tamanho, null);
+        Arrays.fill(setores, 0, tamanho, null);
+        tamanho = 0;
+    }
+
+    public int size() {
+        return tamanho;
+    }
+
+    public boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    public boolean isCheio() {
+        return tamanho == tags.length;
+    }
+
+    // Getters por posição
+    public String getTag(int i) { return tags[i]; }
+    public long getMotoId(int i) { return motoIds[i]; }
+    public int getAntena(int i) { return antenas[i]; }
+    public String getSetor(int i) { return setores[i]; }
+    public int getRssi(int i) { return rssis[i]; }
+    public long getLidaEm(int i) { return lidasEm[i]; }
+    public long getUltimaLeitura(int i) { return ultimasLeituras[i]; }
+    public int getQuantidade(int i) { return quantidades[i]; }
+    public long getRecebidaEm(int i) { return recebidasEm[i]; }
+}
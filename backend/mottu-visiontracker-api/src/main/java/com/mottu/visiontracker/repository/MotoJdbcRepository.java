@@ -0,0 +1,154 @@
+package com.mottu.visiontracker.repository;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Moto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Acesso a motos via JDBC, sem carregar entidades. As escritas daqui não publicam MotoEvent;
+ * quem as usa fora da restauração do journal (como a atualização em lote) publica os eventos.
+ */
+@Repository
+public class MotoJdbcRepository {
+
+    private static final String SQL_UPDATE =
+            "UPDATE motos SET placa = ?, modelo = ?, cor = ?, proprietario = ?, numero_serie = ?, tag_rfid = ?, "
+            + "status = ?, setor = ?, posicao = ?, coordenada_x = ?, coordenada_y = ?, created_at = ?, updated_at = ?, versao = ? "
+            + "WHERE id = ?";
+
+    private static final String SQL_INSERT =
+            "INSERT INTO motos (placa, modelo, cor, proprietario, numero_serie, tag_rfid, status, setor, posicao, "
+            + "coordenada_x, coordenada_y, created_at, updated_at, versao, id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_SELECT =
+            "SELECT id, placa, modelo, cor, proprietario, numero_serie, tag_rfid, status, setor, posicao, "
+            + "coordenada_x, coordenada_y, created_at, updated_at, versao FROM motos";
+
+    private static final String SQL_UPDATE_POSICAO =
+            "UPDATE motos SET status = ?, setor = ?, posicao = ?, coordenada_x = ?, coordenada_y = ?, updated_at = ?, versao = ? "
+            + "WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Mesmo fuso usado pelo Hibernate, para que as datas gravadas aqui sejam lidas corretamente pelo JPA
+    @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}")
+    private String fusoJdbc;
+
+    /**
+     * Restaura o estado final das motos reconstruído a partir do journal, preservando os ids.
+     * Quem chama define a versão de sincronização de cada moto.
+     * As remoções são aplicadas antes das gravações para liberar placas reutilizadas.
+     */
+    @Transactional
+    public void restaurar(Collection<MotoDTO> motos, Collection<Long> removidas, long maiorId) {
+        for (Long id : removidas) {
+            jdbcTemplate.update("DELETE FROM alertas WHERE moto_id = ?", id);
+            jdbcTemplate.update("DELETE FROM motos WHERE id = ?", id);
+        }
+
+        Calendar calendario = calendarioJdbc();
+        for (MotoDTO moto : motos) {
+            Object[] valores = {
+                    moto.getPlaca(), moto.getModelo(), moto.getCor(), moto.getProprietario(), moto.getNumeroSerie(),
+                    moto.getTagRFID(), moto.getStatus() != null ? moto.getStatus().name() : null,
+                    moto.getSetor(), moto.getPosicao(), moto.getCoordenadaX(), moto.getCoordenadaY(),
+                    timestamp(moto.getCreatedAt(), calendario), timestamp(moto.getUpdatedAt(), calendario),
+                    moto.getVersao(), moto.getId()
+            };
+            if (jdbcTemplate.update(SQL_UPDATE, valores) == 0) {
+                jdbcTemplate.update(SQL_INSERT, valores);
+            }
+        }
+
+        // Novos cadastros não podem reaproveitar ids que já aparecem no journal
+        Long maiorNaTabela = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM motos", Long.class);
+        long proximoId = Math.max(maiorId, maiorNaTabela != null ? maiorNaTabela : 0) + 1;
+        jdbcTemplate.execute("ALTER TABLE motos ALTER COLUMN id RESTART WITH " + proximoId);
+    }
+
+    /**
+     * Estado atual das motos informadas em uma única consulta, indexado por id
+     */
+    public Map<Long, MotoDTO> findByIds(Collection<Long> ids) {
+        Map<Long, MotoDTO> motos = new HashMap<>();
+        if (ids.isEmpty()) {
+            return motos;
+        }
+        String parametros = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Calendar calendario = calendarioJdbc();
+        jdbcTemplate.query(SQL_SELECT + " WHERE id IN (" + parametros + ")",
+                rs -> {
+                    MotoDTO moto = new MotoDTO();
+                    moto.setId(rs.getLong("id"));
+                    moto.setPlaca(rs.getString("placa"));
+                    moto.setModelo(rs.getString("modelo"));
+                    moto.setCor(rs.getString("cor"));
+                    moto.setProprietario(rs.getString("proprietario"));
+                    moto.setNumeroSerie(rs.getString("numero_serie"));
+                    moto.setTagRFID(rs.getString("tag_rfid"));
+                    String status = rs.getString("status");
+                    moto.setStatus(status != null ? Moto.StatusMoto.valueOf(status) : null);
+                    moto.setSetor(rs.getString("setor"));
+                    moto.setPosicao(rs.getString("posicao"));
+                    moto.setCoordenadaX(rs.getObject("coordenada_x", Double.class));
+                    moto.setCoordenadaY(rs.getObject("coordenada_y", Double.class));
+                    moto.setCreatedAt(dataHora(rs.getTimestamp("created_at", calendario)));
+                    moto.setUpdatedAt(dataHora(rs.getTimestamp("updated_at", calendario)));
+                    moto.setVersao(rs.getObject("versao", Long.class));
+                    motos.put(moto.getId(), moto);
+                },
+                ids.toArray());
+        return motos;
+    }
+
+    /**
+     * Grava status, setor, posição, coordenadas, updated_at e versão das motos em um único batch.
+     * Retorna as linhas afetadas por moto, na mesma ordem da lista.
+     */
+    public int[] atualizarPosicoes(List<MotoDTO> motos) {
+        Calendar calendario = calendarioJdbc();
+        List<Object[]> valores = new ArrayList<>(motos.size());
+        for (MotoDTO moto : motos) {
+            valores.add(new Object[] {
+                    moto.getStatus() != null ? moto.getStatus().name() : null,
+                    moto.getSetor(), moto.getPosicao(), moto.getCoordenadaX(), moto.getCoordenadaY(),
+                    timestamp(moto.getUpdatedAt(), calendario), moto.getVersao(), moto.getId()
+            });
+        }
+        return jdbcTemplate.batchUpdate(SQL_UPDATE_POSICAO, valores);
+    }
+
+    private static LocalDateTime dataHora(Timestamp valor) {
+        return valor != null ? valor.toLocalDateTime() : null;
+    }
+
+    private static Object timestamp(LocalDateTime data, Calendar calendario) {
+        if (data == null) {
+            return null;
+        }
+        // Converte para o fuso do JDBC como o Hibernate faz com hibernate.jdbc.time_zone
+        Calendar valor = (Calendar) calendario.clone();
+        valor.setTimeInMillis(Timestamp.valueOf(data).getTime());
+        return valor;
+    }
+
+    private Calendar calendarioJdbc() {
+        return fusoJdbc.isEmpty() ? Calendar.getInstance() : Calendar.getInstance(TimeZone.getTimeZone(fusoJdbc));
+    }
+}
@@ -1,17 +1,28 @@
 package com.mottu.visiontracker.repository;
 
+import com.mottu.visiontracker.dto.MotoDTO;
 import com.mottu.visiontracker.entity.Moto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MotoRepository extends JpaRepository<Moto, Long> {
 
+    // Projeção direto no DTO: as colunas viram MotoDTO sem passar por entidade gerenciada
+    String SELECT_DTO = "SELECT new com.mottu.visiontracker.dto.MotoDTO(m.id, m.placa, m.modelo, m.cor, "
+            + "m.proprietario, m.numeroSerie, m.tagRFID, m.status, m.setor, m.posicao, m.coordenadaX, "
+            + "m.coordenadaY, m.createdAt, m.updatedAt, m.versao) FROM Moto m ";
+
     /**
      * Busca uma moto pela placa
      */
@@ -60,6 +71,18 @@ public interface MotoRepository extends JpaRepository<Moto, Long> {
      */
     List<Moto> findAllByOrderByCreatedAtDesc();
 
+    /**
+     * Lista todas as motos como DTO, mais recentes primeiro
+     */
+    @Query(SELECT_DTO + "ORDER BY m.createdAt DESC")
+    List<MotoDTO> listarDTOsPorCriacao();
+
+    /**
+     * Lista as motos com o status como DTO
+     */
+    @Query(SELECT_DTO + "WHERE m.status = :status")
+    List<MotoDTO> listarDTOsPorStatus(@Param("status") Moto.StatusMoto status);
+
     /**
      * Busca motos por múltiplos critérios (placa, modelo, proprietário)
      */
@@ -72,4 +95,30 @@ public interface MotoRepository extends JpaRepository<Moto, Long> {
                                       @Param("modelo") String modelo,
                                       @Param("proprietario") String proprietario,
                                       @Param("status") Moto.StatusMoto status);
+
+    /**
+     * Motos com versão no intervalo (desde, ate], em ordem de versão (usa o índice de versão)
+     */
+    @Query("SELECT m FROM Moto m WHERE m.versao > :desde AND m.versao <= :ate ORDER BY m.versao")
+    List<Moto> findAlteradas(@Param("desde") Long desde, @Param("ate") Long ate, Pageable pagina);
+
+    /**
+     * Primeira página das motos, mais recentes primeiro (índice created_at, id)
+     */
+    @Query("SELECT m FROM Moto m ORDER BY m.createdAt DESC, m.id DESC")
+    List<Moto> findPrimeiraPagina(Pageable pagina);
+
+    /**
+     * Página seguinte ao par (data, id): continua o índice a partir da chave, sem OFFSET
+     */
+    @Query("SELECT m FROM Moto m WHERE m.createdAt <= :data AND (m.createdAt < :data OR m.id < :id) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Moto> findPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id, Pageable pagina);
+
+    /**
+     * Todas as motos em ordem de id, lidas do cursor do banco aos poucos (exige transação aberta)
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT m FROM Moto m ORDER BY m.id")
+    Stream<Moto> streamAll();
 }
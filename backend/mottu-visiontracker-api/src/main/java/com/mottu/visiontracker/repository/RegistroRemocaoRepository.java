@@ -0,0 +1,20 @@
+package com.mottu.visiontracker.repository;
+
+import com.mottu.visiontracker.entity.RegistroRemocao;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RegistroRemocaoRepository extends JpaRepository<RegistroRemocao, Long> {
+
+    /**
+     * Remoções com versão no intervalo (desde, ate], em ordem de versão
+     */
+    @Query("SELECT r FROM RegistroRemocao r WHERE r.versao > :desde AND r.versao <= :ate ORDER BY r.versao")
+    List<RegistroRemocao> findRegistradas(@Param("desde") Long desde, @Param("ate") Long ate, Pageable pagina);
+}
@@ -0,0 +1,82 @@
+package com.mottu.visiontracker.repository;
+
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.entity.MotoAlteracao;
+import com.mottu.visiontracker.entity.SnapshotCheckpoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Log de alterações e checkpoints usados nos snapshots do pátio, via JDBC
+ */
+@Repository
+public class SnapshotJdbcRepository {
+
+    private static final String SQL_INSERT_ALTERACAO =
+            "INSERT INTO motos_alteracoes (moto_id, instante, setor, posicao, status) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SQL_INSERT_CHECKPOINT =
+            "INSERT INTO snapshot_checkpoints (instante, quantidade, dados) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insere as alterações em um único batch (participa da transação corrente)
+     */
+    public void inserirAlteracoes(List<MotoAlteracao> alteracoes) {
+        if (alteracoes.isEmpty()) {
+            return;
+        }
+        List<Object[]> valores = new ArrayList<>(alteracoes.size());
+        for (MotoAlteracao alteracao : alteracoes) {
+            valores.add(new Object[] {
+                    alteracao.getMotoId(), alteracao.getInstante(), alteracao.getSetor(), alteracao.getPosicao(),
+                    alteracao.getStatus() != null ? alteracao.getStatus().name() : null
+            });
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERT_ALTERACAO, valores);
+    }
+
+    /**
+     * Percorre as alterações com instante em (depoisDe, ate], na ordem em que aconteceram
+     */
+    public void percorrerAlteracoes(long depoisDe, long ate, Consumer<MotoAlteracao> consumidor) {
+        jdbcTemplate.query("SELECT moto_id, instante, setor, posicao, status FROM motos_alteracoes "
+                        + "WHERE instante > ? AND instante <= ? ORDER BY instante, id",
+                rs -> {
+                    String status = rs.getString(5);
+                    consumidor.accept(new MotoAlteracao(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4),
+                            status != null ? Moto.StatusMoto.valueOf(status) : null));
+                },
+                depoisDe, ate);
+    }
+
+    public void inserirCheckpoint(SnapshotCheckpoint checkpoint) {
+        jdbcTemplate.update(SQL_INSERT_CHECKPOINT, checkpoint.getInstante(), checkpoint.getQuantidade(), checkpoint.getDados());
+    }
+
+    /**
+     * Checkpoint mais recente com instante menor ou igual ao informado
+     */
+    public Optional<SnapshotCheckpoint> buscarCheckpoint(long ate) {
+        List<SnapshotCheckpoint> checkpoints = jdbcTemplate.query(
+                "SELECT instante, quantidade, dados FROM snapshot_checkpoints WHERE instante <= ? ORDER BY instante DESC LIMIT 1",
+                (rs, i) -> new SnapshotCheckpoint(rs.getLong(1), rs.getInt(2), rs.getBytes(3)),
+                ate);
+        return checkpoints.stream().findFirst();
+    }
+
+    /**
+     * Instante do checkpoint mais recente, se houver algum
+     */
+    public Optional<Long> ultimoInstanteCheckpoint() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("SELECT MAX(instante) FROM snapshot_checkpoints", Long.class));
+    }
+}
@@ -0,0 +1,110 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.entity.Alerta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fila dos alertas gerados pelos detectores automáticos.
+ *
+ * Os detectores rodam na thread do pipeline, em listeners pós-commit ou no relógio do watchdog,
+ * onde não devem esperar pelo banco. Eles só enfileiram o pedido; uma thread própria cria os
+ * alertas pelo AlertaService, cada um em sua transação. A fila é limitada: se encher, o pedido é
+ * descartado e contado, já que o detector voltará a sinalizar no próximo evento da moto.
+ */
+@Service
+public class AlertaAutomaticoService {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertaAutomaticoService.class);
+
+    @Value("${visiontracker.alertas.capacidade-fila:10000}")
+    private int capacidadeFila;
+
+    @Autowired
+    private AlertaService alertaService;
+
+    private BlockingQueue<PedidoAlerta> fila;
+    private Thread consumidor;
+    private volatile boolean ativo;
+
+    private final LongAdder criados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+
+    @PostConstruct
+    public void iniciar() {
+        fila = new ArrayBlockingQueue<>(capacidadeFila);
+        ativo = true;
+        consumidor = new Thread(this::consumir, "alertas-automaticos");
+        consumidor.setDaemon(true);
+        consumidor.start();
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        consumidor.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Enfileira a criação de um alerta. Retorna false se a fila estiver cheia.
+     */
+    public boolean enfileirar(long motoId, Alerta.TipoAlerta tipo, String motivo) {
+        if (fila.offer(new PedidoAlerta(motoId, tipo, motivo))) {
+            return true;
+        }
+        descartados.increment();
+        return false;
+    }
+
+    public long getCriados() {
+        return criados.sum();
+    }
+
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    private void consumir() {
+        while (ativo || !fila.isEmpty()) {
+            PedidoAlerta pedido;
+            try {
+                pedido = fila.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (pedido == null) {
+                continue;
+            }
+            try {
+                if (alertaService.createAutomatico(pedido.motoId, pedido.tipo, pedido.motivo).isPresent()) {
+                    criados.increment();
+                }
+            } catch (RuntimeException e) {
+                log.error("Falha ao gerar alerta {} para a moto {}", pedido.tipo, pedido.motoId, e);
+            }
+        }
+    }
+
+    private static final class PedidoAlerta {
+        final long motoId;
+        final Alerta.TipoAlerta tipo;
+        final String motivo;
+
+        PedidoAlerta(long motoId, Alerta.TipoAlerta tipo, String motivo) {
+            this.motoId = motoId;
+            this.tipo = tipo;
+            this.motivo = motivo;
+        }
+    }
+}
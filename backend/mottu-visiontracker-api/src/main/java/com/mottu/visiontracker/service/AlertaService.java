@@ -1,42 +1,116 @@
 package com.mottu.visiontracker.service;
 
 import com.mottu.visiontracker.dto.AlertaDTO;
+import com.mottu.visiontracker.dto.FiltroAlertasDTO;
+import com.mottu.visiontracker.dto.PaginaDTO;
 import com.mottu.visiontracker.entity.Alerta;
 import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.entity.RegistroRemocao;
+import com.mottu.visiontracker.event.AlertaEvent;
+import com.mottu.visiontracker.repository.AlertaFiltroRepository;
 import com.mottu.visiontracker.repository.AlertaRepository;
 import com.mottu.visiontracker.repository.MotoRepository;
+import com.mottu.visiontracker.util.CursorPagina;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+/**
+ * Escritas rodam na transação da classe; as consultas usam @Transactional(readOnly = true), em que
+ * o Spring deixa a sessão do Hibernate com flush MANUAL e entidades somente leitura (sem cópia para
+ * dirty checking) e a conexão JDBC em read-only. As listagens nem criam entidades: as colunas do
+ * alerta e da moto são projetadas direto em AlertaDTO.
+ */
 @Service
 @Transactional
 public class AlertaService {
 
+    public static final int LIMITE_PAGINA = 500;
+
+    public static final int LIMITE_FILTRO = 5000;
+
     @Autowired
     private AlertaRepository alertaRepository;
 
+    @Autowired
+    private AlertaFiltroRepository alertaFiltroRepository;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
     @Autowired
     private MotoRepository motoRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SincronizacaoService sincronizacaoService;
+
+    @Autowired
+    private VersaoService versaoService;
+
     /**
      * Lista todos os alertas
      */
+    @Transactional(readOnly = true)
     public List<AlertaDTO> findAll() {
-        return alertaRepository.findAllByOrderByTimestampDesc()
-                .stream()
-                .map(AlertaDTO::new)
-                .collect(Collectors.toList());
+        return alertaRepository.listarDTOs();
+    }
+
+    /**
+     * Lista os alertas que atendem a todos os filtros informados, em uma única consulta
+     */
+    @Transactional(readOnly = true)
+    public List<AlertaDTO> filtrar(FiltroAlertasDTO filtro) {
+        if (filtro.getLimite() != null && (filtro.getLimite() < 1 || filtro.getLimite() > LIMITE_FILTRO)) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_FILTRO);
+        }
+        if (filtro.getInicio() != null && filtro.getFim() != null && filtro.getInicio().isAfter(filtro.getFim())) {
+            throw new IllegalArgumentException("Início do período deve ser anterior ao fim");
+        }
+        return alertaFiltroRepository.buscar(filtro);
+    }
+
+    /**
+     * Página de alertas por cursor, mais recentes primeiro: cada página segue o índice a partir da
+     * chave da anterior, então a página N custa o mesmo que a primeira
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<AlertaDTO> findPagina(String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_PAGINA) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_PAGINA);
+        }
+        // Um item a mais indica se há próxima página
+        PageRequest pagina = PageRequest.of(0, limite + 1);
+        List<AlertaDTO> alertas;
+        if (cursor == null || cursor.isBlank()) {
+            alertas = alertaRepository.listarDTOsPrimeiraPagina(pagina);
+        } else {
+            CursorPagina chave = CursorPagina.decodificar(cursor);
+            alertas = alertaRepository.listarDTOsPaginaApos(chave.getData(), chave.getId(), pagina);
+        }
+
+        String proximoCursor = null;
+        if (alertas.size() > limite) {
+            alertas = alertas.subList(0, limite);
+            AlertaDTO ultimo = alertas.get(limite - 1);
+            proximoCursor = CursorPagina.codificar(ultimo.getTimestamp(), ultimo.getId());
+        }
+        return new PaginaDTO<>(alertas, proximoCursor);
     }
 
     /**
      * Busca um alerta por ID
      */
+    @Transactional(readOnly = true)
     public Optional<AlertaDTO> findById(Long id) {
         return alertaRepository.findById(id)
                 .map(AlertaDTO::new);
@@ -45,61 +119,49 @@ public class AlertaService {
     /**
      * Busca alertas não resolvidos
      */
+    @Transactional(readOnly = true)
     public List<AlertaDTO> findUnresolved() {
-        return alertaRepository.findByResolvidoFalseOrderByTimestampDesc()
-                .stream()
-                .map(AlertaDTO::new)
-                .collect(Collectors.toList());
+        return alertaRepository.listarDTOsNaoResolvidos();
     }
 
     /**
      * Busca alertas resolvidos
      */
+    @Transactional(readOnly = true)
     public List<AlertaDTO> findResolved() {
-        return alertaRepository.findByResolvidoTrue()
-                .stream()
-                .map(AlertaDTO::new)
-                .collect(Collectors.toList());
+        return alertaRepository.listarDTOsResolvidos();
     }
 
     /**
      * Busca alertas por moto
      */
+    @Transactional(readOnly = true)
     public List<AlertaDTO> findByMotoId(Long motoId) {
-        return alertaRepository.findByMotoIdAndResolvidoFalse(motoId)
-                .stream()
-                .map(AlertaDTO::new)
-                .collect(Collectors.toList());
+        return alertaRepository.listarDTOsNaoResolvidosPorMoto(motoId);
     }
 
     /**
      * Busca alertas críticos não resolvidos
      */
+    @Transactional(readOnly = true)
     public List<AlertaDTO> findCriticalUnresolved() {
-        return alertaRepository.findCriticalUnresolvedAlerts()
-                .stream()
-                .map(AlertaDTO::new)
-                .collect(Collectors.toList());
+        return alertaRepository.listarDTOsCriticosNaoResolvidos();
     }
 
     /**
      * Busca alertas por tipo
      */
+    @Transactional(readOnly = true)
     public List<AlertaDTO> findByTipo(Alerta.TipoAlerta tipo) {
-        return alertaRepository.findByTipo(tipo)
-                .stream()
-                .map(AlertaDTO::new)
-                .collect(Collectors.toList());
+        return alertaRepository.listarDTOsPorTipo(tipo);
     }
 
     /**
      * Busca alertas por período
      */
+    @Transactional(readOnly = true)
     public List<AlertaDTO> findByPeriod(LocalDateTime inicio, LocalDateTime fim) {
-        return alertaRepository.findByTimestampBetween(inicio, fim)
-                .stream()
-                .map(AlertaDTO::new)
-                .collect(Collectors.toList());
+        return alertaRepository.listarDTOsPorPeriodo(inicio, fim);
     }
 
     /**
@@ -114,7 +176,24 @@ public class AlertaService {
         alerta.setMoto(moto);
 
         Alerta savedAlerta = alertaRepository.save(alerta);
-        return new AlertaDTO(savedAlerta);
+        AlertaDTO criado = new AlertaDTO(savedAlerta);
+        eventPublisher.publishEvent(AlertaEvent.criado(criado));
+        return criado;
+    }
+
+    /**
+     * Cria um alerta gerado automaticamente pelos detectores.
+     * Não duplica: se a moto já tem um alerta do mesmo tipo em aberto (ou foi removida), nada é criado.
+     */
+    public Optional<AlertaDTO> createAutomatico(Long motoId, Alerta.TipoAlerta tipo, String motivo) {
+        if (alertaRepository.existsByMotoIdAndTipoAndResolvidoFalse(motoId, tipo)) {
+            return Optional.empty();
+        }
+        Optional<AlertaDTO> criado = motoRepository.findById(motoId)
+                .map(moto -> new AlertaDTO(alertaRepository.save(
+                        new Alerta(moto, tipo, motivo + " na moto " + moto.getPlaca()))));
+        criado.ifPresent(alerta -> eventPublisher.publishEvent(AlertaEvent.criado(alerta)));
+        return criado;
     }
 
     /**
@@ -128,11 +207,15 @@ public class AlertaService {
             throw new IllegalStateException("Alerta já foi resolvido anteriormente");
         }
 
+        AlertaDTO antes = new AlertaDTO(alerta);
         alerta.setResolvido(true);
         alerta.setResolvedAt(LocalDateTime.now());
 
-        Alerta resolvedAlerta = alertaRepository.save(alerta);
-        return new AlertaDTO(resolvedAlerta);
+        // Flush antes de montar o DTO: a nova versão só é atribuída (@PreUpdate) quando o Hibernate grava
+        Alerta resolvedAlerta = alertaRepository.saveAndFlush(alerta);
+        AlertaDTO resolvido = new AlertaDTO(resolvedAlerta);
+        eventPublisher.publishEvent(AlertaEvent.atualizado(antes, resolvido));
+        return resolvido;
     }
 
     /**
@@ -141,6 +224,7 @@ public class AlertaService {
     public AlertaDTO update(Long id, AlertaDTO alertaDTO) {
         Alerta existingAlerta = alertaRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Alerta não encontrado com ID: " + id));
+        AlertaDTO antes = new AlertaDTO(existingAlerta);
 
         // Verificar se a moto existe (se foi alterada)
         if (!existingAlerta.getMoto().getId().equals(alertaDTO.getMotoId())) {
@@ -160,38 +244,71 @@ public class AlertaService {
             }
         }
 
-        Alerta updatedAlerta = alertaRepository.save(existingAlerta);
-        return new AlertaDTO(updatedAlerta);
+        Alerta updatedAlerta = alertaRepository.saveAndFlush(existingAlerta);
+        AlertaDTO atualizado = new AlertaDTO(updatedAlerta);
+        eventPublisher.publishEvent(AlertaEvent.atualizado(antes, atualizado));
+        return atualizado;
     }
 
     /**
      * Remove um alerta
      */
     public void delete(Long id) {
-        if (!alertaRepository.existsById(id)) {
-            throw new IllegalArgumentException("Alerta não encontrado com ID: " + id);
-        }
-        alertaRepository.deleteById(id);
+        Alerta alerta = alertaRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Alerta não encontrado com ID: " + id));
+        AlertaDTO removido = new AlertaDTO(alerta);
+        alertaRepository.delete(alerta);
+        sincronizacaoService.registrarRemocao(RegistroRemocao.Entidade.ALERTA, id);
+        eventPublisher.publishEvent(AlertaEvent.removido(removido));
+    }
+
+    /**
+     * Versão das listas de alertas: muda a cada escrita confirmada em um alerta ou moto,
+     * já que cada alerta traz os dados da sua moto
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getVersaoLista() {
+        return Math.max(versaoService.getConfirmada(VersaoService.Colecao.ALERTAS),
+                versaoService.getConfirmada(VersaoService.Colecao.MOTOS));
     }
 
     /**
      * Conta alertas não resolvidos
      */
+    @Transactional(readOnly = true)
     public long countUnresolved() {
+        if (estatisticasService.isCarregado()) {
+            return estatisticasService.getAlertasNaoResolvidos();
+        }
         return alertaRepository.countByResolvidoFalse();
     }
 
     /**
      * Conta alertas não resolvidos por tipo
      */
+    @Transactional(readOnly = true)
     public long countUnresolvedByType(Alerta.TipoAlerta tipo) {
+        if (estatisticasService.isCarregado()) {
+            return estatisticasService.getAlertasNaoResolvidos(tipo);
+        }
         return alertaRepository.countByResolvidoFalseAndTipo(tipo);
     }
 
     /**
-     * Obtém estatísticas dos alertas
+     * Obtém estatísticas dos alertas (dos contadores em memória, ou do banco até eles carregarem)
      */
+    @Transactional(readOnly = true)
     public AlertaStats getStats() {
+        if (estatisticasService.isCarregado()) {
+            long naoResolvidos = estatisticasService.getAlertasNaoResolvidos();
+            long resolvidos = estatisticasService.getAlertasResolvidos();
+            return new AlertaStats(naoResolvidos + resolvidos, naoResolvidos, resolvidos,
+                    estatisticasService.getAlertasNaoResolvidos(Alerta.TipoAlerta.MOVIMENTO_NAO_AUTORIZADO),
+                    estatisticasService.getAlertasNaoResolvidos(Alerta.TipoAlerta.MANUTENCAO_NECESSARIA),
+                    estatisticasService.getAlertasNaoResolvidos(Alerta.TipoAlerta.BATERIA_BAIXA),
+                    estatisticasService.getAlertasNaoResolvidos(Alerta.TipoAlerta.FORA_DA_AREA),
+                    estatisticasService.getAlertasNaoResolvidos(Alerta.TipoAlerta.SEM_LEITURA));
+        }
         long total = alertaRepository.count();
         long naoResolvidos = alertaRepository.countByResolvidoFalse();
         long resolvidos = total - naoResolvidos;
@@ -229,7 +346,7 @@ public class AlertaService {
                 alerta.setResolvedAt(LocalDateTime.now().minusHours(i));
             }
 
-            alertaRepository.save(alerta);
+            eventPublisher.publishEvent(AlertaEvent.criado(new AlertaDTO(alertaRepository.save(alerta))));
         }
     }
 
@@ -0,0 +1,111 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.util.IndiceTrigramas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Busca por trecho de placa, modelo e proprietário sem varrer a tabela, com um índice de
+ * trigramas em memória ({@link IndiceTrigramas}). É carregado quando a aplicação sobe e
+ * atualizado a cada escrita confirmada em uma moto; até carregar, quem chama usa o banco.
+ */
+@Service
+public class BuscaMotosService {
+
+    private static final Logger log = LoggerFactory.getLogger(BuscaMotosService.class);
+
+    private static final int PLACA = 0;
+    private static final int MODELO = 1;
+    private static final int PROPRIETARIO = 2;
+
+    private final IndiceTrigramas indice = new IndiceTrigramas(3);
+
+    private volatile boolean carregado;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Indexa todas as motos cadastradas (executa depois do DataInitializer e do replay)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(12)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+        jdbcTemplate.query("SELECT id, placa, modelo, proprietario, status FROM motos",
+                rs -> {
+                    indice.atualizar(Math.toIntExact(rs.getLong(1)), Moto.StatusMoto.valueOf(rs.getString(5)).ordinal(),
+                            rs.getString(2), rs.getString(3), rs.getString(4));
+                });
+        carregado = true;
+        log.info("Índice de busca de motos carregado em {} ms: {} motos, ~{} KB",
+                System.currentTimeMillis() - inicio, indice.tamanho(), indice.memoriaEstimada() / 1024);
+    }
+
+    /**
+     * Atualiza o índice depois que a escrita da moto foi confirmada
+     */
+    @TransactionalEventListener
+    public void onMotoEvent(MotoEvent event) {
+        if (event.getTipo() == MotoEvent.Tipo.REMOVIDA) {
+            indice.remover(Math.toIntExact(event.getMotoId()));
+            return;
+        }
+        MotoDTO moto = event.getDepois();
+        indice.atualizar(Math.toIntExact(moto.getId()), moto.getStatus().ordinal(),
+                moto.getPlaca(), moto.getModelo(), moto.getProprietario());
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    /**
+     * Ids, em ordem crescente, das motos que contêm todos os trechos informados (null ignora o campo)
+     */
+    public List<Long> buscar(String placa, String modelo, String proprietario, Moto.StatusMoto status, int limite) {
+        String[] termos = new String[3];
+        termos[PLACA] = placa;
+        termos[MODELO] = modelo;
+        termos[PROPRIETARIO] = proprietario;
+        List<Long> ids = new ArrayList<>();
+        indice.buscar(termos, status != null ? status.ordinal() : IndiceTrigramas.QUALQUER_CATEGORIA, limite, id -> {
+            ids.add((long) id);
+            return true;
+        });
+        return ids;
+    }
+
+    /**
+     * Ids, em ordem crescente, das motos com o trecho na placa, no modelo ou no proprietário
+     */
+    public List<Long> buscarTexto(String trecho, int limite) {
+        // Cada campo entrega seus primeiros ids; os primeiros da união estão entre eles
+        TreeSet<Long> ids = new TreeSet<>();
+        ids.addAll(buscar(trecho, null, null, null, limite));
+        ids.addAll(buscar(null, trecho, null, null, limite));
+        ids.addAll(buscar(null, null, trecho, null, limite));
+        List<Long> primeiros = new ArrayList<>(Math.min(ids.size(), limite));
+        for (Long id : ids) {
+            if (primeiros.size() == limite) {
+                break;
+            }
+            primeiros.add(id);
+        }
+        return primeiros;
+    }
+}
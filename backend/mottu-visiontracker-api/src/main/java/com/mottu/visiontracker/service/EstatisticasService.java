@@ -0,0 +1,352 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.AlertaDTO;
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.event.AlertaEvent;
+import com.mottu.visiontracker.event.MotoEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Contadores em memória das estatísticas de motos (por status) e alertas (por tipo e resolvido).
+ *
+ * Cada escrita confirmada ajusta um LongAdder, então os /stats não vão ao banco. Periodicamente
+ * os contadores são conferidos com um único GROUP BY por tabela; a conferência só vale quando
+ * nenhuma escrita versionada está em andamento (VersaoService) e segura os eventos durante a troca,
+ * para não contar duas vezes uma escrita que já está no resultado. Divergências são registradas no
+ * log e corrigidas.
+ */
+@Service
+public class EstatisticasService {
+
+    private static final Logger log = LoggerFactory.getLogger(EstatisticasService.class);
+
+    private static final String SQL_MOTOS = "SELECT status, COUNT(*) FROM motos GROUP BY status";
+    private static final String SQL_ALERTAS = "SELECT tipo, resolvido, COUNT(*) FROM alertas GROUP BY tipo, resolvido";
+
+    @Value("${visiontracker.estatisticas.intervalo-reconciliacao-ms:60000}")
+    private long intervaloReconciliacaoMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VersaoService versaoService;
+
+    private final Map<Moto.StatusMoto, LongAdder> motosPorStatus = new EnumMap<>(Moto.StatusMoto.class);
+    private final Map<Alerta.TipoAlerta, LongAdder> abertosPorTipo = new EnumMap<>(Alerta.TipoAlerta.class);
+    private final Map<Alerta.TipoAlerta, LongAdder> resolvidosPorTipo = new EnumMap<>(Alerta.TipoAlerta.class);
+
+    // Eventos ajustam os contadores sob a leitura; a reconciliação os substitui sob a escrita
+    private final ReadWriteLock troca = new ReentrantReadWriteLock();
+
+    private final AtomicLong reconciliacoes = new AtomicLong();
+    private final AtomicLong divergencias = new AtomicLong();
+    private volatile LocalDateTime ultimaReconciliacao;
+    private volatile boolean carregado;
+
+    private Thread reconciliador;
+    private volatile boolean ativo;
+
+    public EstatisticasService() {
+        for (Moto.StatusMoto status : Moto.StatusMoto.values()) {
+            motosPorStatus.put(status, new LongAdder());
+        }
+        for (Alerta.TipoAlerta tipo : Alerta.TipoAlerta.values()) {
+            abertosPorTipo.put(tipo, new LongAdder());
+            resolvidosPorTipo.put(tipo, new LongAdder());
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        reconciliador = new Thread(this::executar, "estatisticas-reconciliacao");
+        reconciliador.setDaemon(true);
+        reconciliador.start();
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        LockSupport.unpark(reconciliador);
+        reconciliador.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Carrega os contadores (executa depois do DataInitializer e do replay)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(13)
+    public void carregar() {
+        troca.writeLock().lock();
+        try {
+            Contagens contagens = contar();
+            aplicar(contagens);
+            carregado = true;
+            ultimaReconciliacao = LocalDateTime.now();
+            log.info("Estatísticas carregadas: {} motos, {} alertas", contagens.totalMotos(), contagens.totalAlertas());
+        } finally {
+            troca.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ajusta o contador do status depois que a escrita da moto foi confirmada
+     */
+    @TransactionalEventListener
+    public void onMotoEvent(MotoEvent event) {
+        MotoDTO antes = event.getAntes();
+        MotoDTO depois = event.getDepois();
+        Moto.StatusMoto statusAntes = antes != null ? antes.getStatus() : null;
+        Moto.StatusMoto statusDepois = event.getTipo() != MotoEvent.Tipo.REMOVIDA && depois != null ? depois.getStatus() : null;
+        if (statusAntes == statusDepois) {
+            return;
+        }
+        troca.readLock().lock();
+        try {
+            if (statusAntes != null) {
+                motosPorStatus.get(statusAntes).decrement();
+            }
+            if (statusDepois != null) {
+                motosPorStatus.get(statusDepois).increment();
+            }
+        } finally {
+            troca.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ajusta os contadores de tipo e resolução depois que a escrita do alerta foi confirmada
+     */
+    @TransactionalEventListener
+    public void onAlertaEvent(AlertaEvent event) {
+        troca.readLock().lock();
+        try {
+            switch (event.getTipo()) {
+                case CRIADO:
+                    contarAlerta(event.getAlerta(), 1);
+                    break;
+                case ATUALIZADO:
+                    contarAlerta(event.getAntes(), -1);
+                    contarAlerta(event.getAlerta(), 1);
+                    break;
+                case REMOVIDO:
+                    contarAlerta(event.getAlerta(), -1);
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            troca.readLock().unlock();
+        }
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    public long getMotos(Moto.StatusMoto status) {
+        return motosPorStatus.get(status).sum();
+    }
+
+    public long getTotalMotos() {
+        long total = 0;
+        for (LongAdder contador : motosPorStatus.values()) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    public long getAlertasNaoResolvidos(Alerta.TipoAlerta tipo) {
+        return abertosPorTipo.get(tipo).sum();
+    }
+
+    public long getAlertasNaoResolvidos() {
+        long total = 0;
+        for (LongAdder contador : abertosPorTipo.values()) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    public long getAlertasResolvidos() {
+        long total = 0;
+        for (LongAdder contador : resolvidosPorTipo.values()) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Confere os contadores com o banco e corrige o que divergir; não é executada se houver escrita
+     * em andamento, já que o resultado do GROUP BY poderia não bater com os eventos aplicados
+     */
+    public Reconciliacao reconciliar() {
+        troca.writeLock().lock();
+        try {
+            long versao = versaoService.getUltima();
+            if (versaoService.getConfirmada() != versao) {
+                return new Reconciliacao(false, 0);
+            }
+            Contagens contagens = contar();
+            if (versaoService.getUltima() != versao) {
+                return new Reconciliacao(false, 0);
+            }
+            long diferenca = diferenca(contagens);
+            if (diferenca != 0) {
+                divergencias.incrementAndGet();
+                log.warn("Estatísticas divergiam do banco em {} registro(s); contadores corrigidos", diferenca);
+                aplicar(contagens);
+            }
+            reconciliacoes.incrementAndGet();
+            ultimaReconciliacao = LocalDateTime.now();
+            return new Reconciliacao(true, diferenca);
+        } finally {
+            troca.writeLock().unlock();
+        }
+    }
+
+    public EstatisticasStats getStats() {
+        return new EstatisticasStats(carregado, reconciliacoes.get(), divergencias.get(), ultimaReconciliacao);
+    }
+
+    private void executar() {
+        while (ativo) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(intervaloReconciliacaoMs));
+            if (!ativo || !carregado) {
+                continue;
+            }
+            try {
+                reconciliar();
+            } catch (Exception e) {
+                log.error("Falha ao reconciliar as estatísticas; nova tentativa no próximo ciclo", e);
+            }
+        }
+    }
+
+    private void contarAlerta(AlertaDTO alerta, int delta) {
+        if (alerta == null || alerta.getTipo() == null) {
+            return;
+        }
+        Map<Alerta.TipoAlerta, LongAdder> contadores = Boolean.TRUE.equals(alerta.getResolvido()) ? resolvidosPorTipo : abertosPorTipo;
+        contadores.get(alerta.getTipo()).add(delta);
+    }
+
+    private Contagens contar() {
+        Contagens contagens = new Contagens();
+        jdbcTemplate.query(SQL_MOTOS, rs -> {
+            contagens.motos.put(Moto.StatusMoto.valueOf(rs.getString(1)), rs.getLong(2));
+        });
+        jdbcTemplate.query(SQL_ALERTAS, rs -> {
+            Alerta.TipoAlerta tipo = Alerta.TipoAlerta.valueOf(rs.getString(1));
+            (rs.getBoolean(2) ? contagens.resolvidos : contagens.abertos).put(tipo, rs.getLong(3));
+        });
+        return contagens;
+    }
+
+    // Soma das diferenças absolutas entre os contadores e o banco
+    private long diferenca(Contagens contagens) {
+        long diferenca = 0;
+        for (Map.Entry<Moto.StatusMoto, LongAdder> contador : motosPorStatus.entrySet()) {
+            diferenca += Math.abs(contador.getValue().sum() - contagens.motos.getOrDefault(contador.getKey(), 0L));
+        }
+        for (Map.Entry<Alerta.TipoAlerta, LongAdder> contador : abertosPorTipo.entrySet()) {
+            diferenca += Math.abs(contador.getValue().sum() - contagens.abertos.getOrDefault(contador.getKey(), 0L));
+        }
+        for (Map.Entry<Alerta.TipoAlerta, LongAdder> contador : resolvidosPorTipo.entrySet()) {
+            diferenca += Math.abs(contador.getValue().sum() - contagens.resolvidos.getOrDefault(contador.getKey(), 0L));
+        }
+        return diferenca;
+    }
+
+    private void aplicar(Contagens contagens) {
+        motosPorStatus.forEach((status, contador) -> {
+            contador.reset();
+            contador.add(contagens.motos.getOrDefault(status, 0L));
+        });
+        abertosPorTipo.forEach((tipo, contador) -> {
+            contador.reset();
+            contador.add(contagens.abertos.getOrDefault(tipo, 0L));
+        });
+        resolvidosPorTipo.forEach((tipo, contador) -> {
+            contador.reset();
+            contador.add(contagens.resolvidos.getOrDefault(tipo, 0L));
+        });
+    }
+
+    // Resultado dos GROUP BY
+    private static class Contagens {
+        private final Map<Moto.StatusMoto, Long> motos = new EnumMap<>(Moto.StatusMoto.class);
+        private final Map<Alerta.TipoAlerta, Long> abertos = new EnumMap<>(Alerta.TipoAlerta.class);
+        private final Map<Alerta.TipoAlerta, Long> resolvidos = new EnumMap<>(Alerta.TipoAlerta.class);
+
+        long totalMotos() {
+            return motos.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        long totalAlertas() {
+            return abertos.values().stream().mapToLong(Long::longValue).sum()
+                    + resolvidos.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    // Classe interna para o resultado de uma reconciliação
+    public static class Reconciliacao {
+        private final boolean executada;
+        private final long diferenca;
+
+        public Reconciliacao(boolean executada, long diferenca) {
+            this.executada = executada;
+            this.diferenca = diferenca;
+        }
+
+        // Getters
+        public boolean isExecutada() { return executada; }
+        public long getDiferenca() { return diferenca; }
+        public boolean isConsistente() { return executada && diferenca == 0; }
+    }
+
+    // Classe interna para o estado dos contadores
+    public static class EstatisticasStats {
+        private final boolean carregado;
+        private final long reconciliacoes;
+        private final long divergencias;
+        private final LocalDateTime ultimaReconciliacao;
+
+        public EstatisticasStats(boolean carregado, long reconciliacoes, long divergencias, LocalDateTime ultimaReconciliacao) {
+            this.carregado = carregado;
+            this.reconciliacoes = reconciliacoes;
+            this.divergencias = divergencias;
+            this.ultimaReconciliacao = ultimaReconciliacao;
+        }
+
+        // Getters
+        public boolean isCarregado() { return carregado; }
+        public long getReconciliacoes() { return reconciliacoes; }
+        public long getDivergencias() { return divergencias; }
+        public LocalDateTime getUltimaReconciliacao() { return ultimaReconciliacao; }
+    }
+}
@@ -0,0 +1,216 @@
+package com.mottu.visiontracker.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mottu.visiontracker.dto.AlertaDTO;
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.repository.AlertaRepository;
+import com.mottu.visiontracker.repository.MotoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportação completa de motos e alertas em NDJSON ou CSV, escrita direto na resposta.
+ *
+ * As linhas vêm de um Stream do repositório (cursor do banco com fetch size), cada entidade é
+ * convertida, escrita e desanexada do contexto de persistência antes da próxima; assim a memória
+ * usada não cresce com o tamanho da frota. Os métodos abrem a própria transação de leitura, já que
+ * rodam na thread assíncrona do StreamingResponseBody.
+ */
+@Service
+public class ExportacaoService {
+
+    private static final String CABECALHO_MOTOS = "id,placa,modelo,cor,proprietario,numeroSerie,tagRFID,status,"
+            + "setor,posicao,coordenadaX,coordenadaY,createdAt,updatedAt";
+
+    private static final String CABECALHO_ALERTAS = "id,motoId,placa,tipo,descricao,resolvido,timestamp,resolvedAt";
+
+    // Enum para o formato da exportação
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+    }
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Escreve todas as motos, em ordem de id; retorna quantas foram exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportarMotos(OutputStream saida, Formato formato) throws IOException {
+        try (Stream<Moto> motos = motoRepository.streamAll()) {
+            Iterator<Moto> iterador = motos.iterator();
+            if (formato == Formato.NDJSON) {
+                return ndjson(saida, iterador, MotoDTO::new);
+            }
+            return csv(saida, CABECALHO_MOTOS, iterador, (moto, linha) -> {
+                linha.campo(moto.getId()).campo(moto.getPlaca()).campo(moto.getModelo()).campo(moto.getCor())
+                        .campo(moto.getProprietario()).campo(moto.getNumeroSerie()).campo(moto.getTagRFID())
+                        .campo(moto.getStatus()).campo(moto.getSetor()).campo(moto.getPosicao())
+                        .campo(moto.getCoordenadaX()).campo(moto.getCoordenadaY())
+                        .campo(moto.getCreatedAt()).campo(moto.getUpdatedAt());
+            });
+        }
+    }
+
+    /**
+     * Escreve todos os alertas com os dados da moto, em ordem de id; retorna quantos foram exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportarAlertas(OutputStream saida, Formato formato) throws IOException {
+        try (Stream<Alerta> alertas = alertaRepository.streamAll()) {
+            Iterator<Alerta> iterador = alertas.iterator();
+            if (formato == Formato.NDJSON) {
+                return ndjson(saida, iterador, AlertaDTO::new);
+            }
+            return csv(saida, CABECALHO_ALERTAS, iterador, (alerta, linha) -> {
+                linha.campo(alerta.getId()).campo(alerta.getMoto().getId()).campo(alerta.getMoto().getPlaca())
+                        .campo(alerta.getTipo()).campo(alerta.getDescricao()).campo(alerta.getResolvido())
+                        .campo(alerta.getTimestamp()).campo(alerta.getResolvedAt());
+            });
+        }
+    }
+
+    private <T> long ndjson(OutputStream saida, Iterator<T> entidades, Conversor<T> conversor) throws IOException {
+        long quantidade = 0;
+        // Sem flush por valor: o buffer da resposta decide quando enviar
+        try (SequenceWriter escritor = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(saida)) {
+            while (entidades.hasNext()) {
+                T entidade = entidades.next();
+                escritor.write(conversor.converter(entidade));
+                desanexar(entidade);
+                quantidade++;
+            }
+        }
+        if (quantidade > 0) {
+            saida.write('\n');
+        }
+        saida.flush();
+        return quantidade;
+    }
+
+    private <T> long csv(OutputStream saida, String cabecalho, Iterator<T> entidades, EscritorCsv<T> escritorCsv)
+            throws IOException {
+        long quantidade = 0;
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        LinhaCsv linha = new LinhaCsv(escritor);
+        escritor.write(cabecalho);
+        escritor.write('\n');
+        try {
+            while (entidades.hasNext()) {
+                T entidade = entidades.next();
+                escritorCsv.escrever(entidade, linha);
+                linha.terminar();
+                desanexar(entidade);
+                quantidade++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        escritor.flush();
+        return quantidade;
+    }
+
+    // Tira a entidade (e a moto do alerta) do contexto para que ele não acumule a exportação inteira
+    private void desanexar(Object entidade) {
+        entityManager.detach(entidade);
+        if (entidade instanceof Alerta) {
+            entityManager.detach(((Alerta) entidade).getMoto());
+        }
+    }
+
+    // Converte uma entidade no objeto escrito como JSON
+    private interface Conversor<T> {
+        Object converter(T entidade);
+    }
+
+    // Escreve os campos de uma entidade na linha CSV
+    private interface EscritorCsv<T> {
+        void escrever(T entidade, LinhaCsv linha);
+    }
+
+    // Linha CSV (RFC 4180): campos entre aspas quando têm vírgula, aspas ou quebra de linha
+    private static class LinhaCsv {
+        private final Writer escritor;
+        private boolean primeiro = true;
+
+        LinhaCsv(Writer escritor) {
+            this.escritor = escritor;
+        }
+
+        LinhaCsv campo(Object valor) {
+            try {
+                if (!primeiro) {
+                    escritor.write(',');
+                }
+                primeiro = false;
+                if (valor == null) {
+                    return this;
+                }
+                String texto = valor.toString();
+                if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+                    escritor.write(texto);
+                } else {
+                    escritor.write('"');
+                    escritor.write(texto.replace("\"", "\"\""));
+                    escritor.write('"');
+                }
+                return this;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void terminar() throws IOException {
+            escritor.write('\n');
+            primeiro = true;
+        }
+    }
+}
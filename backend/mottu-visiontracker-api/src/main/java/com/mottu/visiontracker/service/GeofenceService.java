@@ -0,0 +1,149 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.util.GeometriaPatio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classifica cada evento de posição contra o layout do pátio e gera alertas FORA_DA_AREA.
+ *
+ * Com coordenadas, o ponto precisa cair em algum setor do layout e no setor declarado pela moto.
+ * Sem coordenadas (posição manual ou leitura de portal), o código do setor precisa pertencer ao
+ * layout. A classificação é só aritmética sobre o índice em grade e uma consulta a um cache por
+ * código de setor, sem acesso ao banco.
+ */
+@Service
+public class GeofenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeofenceService.class);
+
+    private static final int MAX_CODIGOS_EM_CACHE = 4096;
+
+    @Value("${visiontracker.patio.largura:100}")
+    private double largura;
+
+    @Value("${visiontracker.patio.altura:60}")
+    private double altura;
+
+    @Value("${visiontracker.patio.tamanho-celula:5}")
+    private double tamanhoCelula;
+
+    @Value("${visiontracker.patio.layout:A:0 0,50 0,50 30,0 30;B:50 0,100 0,100 30,50 30;C:0 30,50 30,50 60,0 60;D:50 30,100 30,100 60,50 60}")
+    private String layout;
+
+    @Value("${visiontracker.patio.intervalo-alertas-ms:60000}")
+    private long intervaloAlertasMs;
+
+    @Autowired
+    private AlertaAutomaticoService alertaAutomaticoService;
+
+    private GeometriaPatio geometria;
+
+    // Setor do layout de cada código já visto (ex.: "A1" → A)
+    private final Map<String, Integer> setoresPorCodigo = new ConcurrentHashMap<>();
+
+    // Último alerta gerado por leitura, por moto, para não repetir a cada agregado
+    private final Map<Long, Long> ultimosAlertasLeitura = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void carregar() {
+        geometria = GeometriaPatio.parse(largura, altura, tamanhoCelula, layout);
+        log.info("Layout do pátio carregado: {} setores em {}x{} m", geometria.getQuantidadeSetores(), largura, altura);
+    }
+
+    /**
+     * Verifica o setor informado pelo portal que leu a moto
+     */
+    public void registrarLeitura(long motoId, String setor) {
+        if (setor == null || resolverCodigo(setor) != GeometriaPatio.FORA) {
+            return;
+        }
+        long agora = System.currentTimeMillis();
+        Long ultimo = ultimosAlertasLeitura.get(motoId);
+        if (ultimo != null && agora - ultimo < intervaloAlertasMs) {
+            return;
+        }
+        ultimosAlertasLeitura.put(motoId, agora);
+        alertaAutomaticoService.enfileirar(motoId, Alerta.TipoAlerta.FORA_DA_AREA,
+                "Leitura em setor fora do layout do pátio (" + setor + ")");
+    }
+
+    /**
+     * Classifica a nova posição depois que a escrita da moto foi confirmada
+     */
+    @TransactionalEventListener
+    public void onMotoEvent(MotoEvent event) {
+        MotoDTO depois = event.getDepois();
+        if (depois == null) {
+            ultimosAlertasLeitura.remove(event.getMotoId());
+            return;
+        }
+        MotoDTO antes = event.getAntes();
+        if (antes != null && !mudouPosicao(antes, depois)) {
+            return;
+        }
+        String motivo = classificar(depois);
+        if (motivo != null) {
+            alertaAutomaticoService.enfileirar(depois.getId(), Alerta.TipoAlerta.FORA_DA_AREA, motivo);
+        }
+    }
+
+    /**
+     * Retorna o motivo do alerta quando a posição está fora da área, ou null
+     */
+    public String classificar(MotoDTO moto) {
+        int setorDeclarado = resolverCodigo(moto.getSetor());
+        if (moto.getCoordenadaX() == null || moto.getCoordenadaY() == null) {
+            return setorDeclarado == GeometriaPatio.FORA
+                    ? "Posição em setor fora do layout do pátio (" + moto.getSetor() + ")"
+                    : null;
+        }
+
+        double x = moto.getCoordenadaX();
+        double y = moto.getCoordenadaY();
+        int setor = geometria.localizar(x, y);
+        if (setor == GeometriaPatio.FORA) {
+            return String.format(Locale.ROOT, "Posição fora das áreas do pátio (x=%.1f, y=%.1f)", x, y);
+        }
+        if (setorDeclarado != GeometriaPatio.FORA && setor != setorDeclarado) {
+            return String.format(Locale.ROOT, "Posição no setor %s (x=%.1f, y=%.1f) diverge do setor declarado %s",
+                    geometria.getNome(setor), x, y, moto.getSetor());
+        }
+        return null;
+    }
+
+    private int resolverCodigo(String codigo) {
+        if (codigo == null) {
+            return GeometriaPatio.FORA;
+        }
+        Integer setor = setoresPorCodigo.get(codigo);
+        if (setor == null) {
+            setor = geometria.resolverCodigo(codigo);
+            // Códigos vêm dos leitores; o limite evita que lixo faça o cache crescer sem fim
+            if (setoresPorCodigo.size() < MAX_CODIGOS_EM_CACHE) {
+                setoresPorCodigo.put(codigo, setor);
+            }
+        }
+        return setor;
+    }
+
+    private static boolean mudouPosicao(MotoDTO antes, MotoDTO depois) {
+        return !Objects.equals(antes.getSetor(), depois.getSetor())
+                || !Objects.equals(antes.getPosicao(), depois.getPosicao())
+                || !Objects.equals(antes.getCoordenadaX(), depois.getCoordenadaX())
+                || !Objects.equals(antes.getCoordenadaY(), depois.getCoordenadaY());
+    }
+}
@@ -0,0 +1,267 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.repository.HistoricoPosicaoJdbcRepository;
+import com.mottu.visiontracker.util.BlocoPosicoes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Histórico de posições das motos, gravado em blocos comprimidos ({@link BlocoPosicoes}) por moto.
+ *
+ * Cada mudança de setor, posição ou coordenadas confirmada (MotoEvent) vira um ponto no bloco aberto
+ * da moto. Blocos cheios são fechados e uma thread grava em batch os fechados e os abertos há mais de
+ * intervalo-flush-ms. A consulta de trajetória lê do banco só os blocos que se sobrepõem ao intervalo
+ * e completa com os que ainda estão em memória. Na subida, o JournalReplay reconstrói o histórico a
+ * partir dos registros de motos do journal.
+ */
+@Service
+public class HistoricoPosicaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoricoPosicaoService.class);
+
+    @Value("${visiontracker.historico.intervalo-flush-ms:30000}")
+    private long intervaloFlushMs;
+
+    @Autowired
+    private HistoricoPosicaoJdbcRepository historicoPosicaoJdbcRepository;
+
+    private final Map<Long, Serie> series = new ConcurrentHashMap<>();
+
+    // A gravação troca blocos da memória para o banco sob a escrita; as consultas leem os dois sob a leitura
+    private final ReadWriteLock gravacao = new ReentrantReadWriteLock();
+
+    private Thread gravador;
+    private volatile boolean ativo;
+
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        gravador = new Thread(this::executar, "historico-posicoes");
+        gravador.setDaemon(true);
+        gravador.start();
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        LockSupport.unpark(gravador);
+        gravador.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Registra a posição da moto depois que a escrita foi confirmada
+     */
+    @TransactionalEventListener
+    public void onMotoEvent(MotoEvent event) {
+        if (event.getTipo() == MotoEvent.Tipo.REMOVIDA) {
+            encerrar(event.getMotoId());
+            return;
+        }
+        // Na primeira mudança vista de uma moto, a posição anterior também entra no histórico
+        if (event.getAntes() != null && !series.containsKey(event.getMotoId())) {
+            registrar(event.getAntes());
+        }
+        registrar(event.getDepois());
+    }
+
+    /**
+     * Acrescenta a posição atual da moto ao histórico, se ela mudou desde o último ponto
+     */
+    public void registrar(MotoDTO moto) {
+        LocalDateTime data = moto.getUpdatedAt() != null ? moto.getUpdatedAt() : moto.getCreatedAt();
+        long instante = data != null ? epochMillis(data) : System.currentTimeMillis();
+        Serie serie = series.computeIfAbsent(moto.getId(), id -> new Serie());
+        synchronized (serie) {
+            serie.registrar(instante, moto.getSetor(), moto.getPosicao(), moto.getCoordenadaX(), moto.getCoordenadaY());
+        }
+    }
+
+    /**
+     * Fecha a série de uma moto removida; o histórico já registrado continua consultável
+     */
+    public void encerrar(Long motoId) {
+        Serie serie = series.get(motoId);
+        if (serie != null) {
+            synchronized (serie) {
+                serie.fechar();
+                serie.removida = true;
+            }
+        }
+    }
+
+    /**
+     * Pontos da moto entre inicio e fim, em ordem de instante
+     */
+    public List<PontoTrajetoria> getTrajetoria(Long motoId, LocalDateTime inicio, LocalDateTime fim) {
+        long de = epochMillis(inicio);
+        long ate = epochMillis(fim);
+        List<PontoTrajetoria> pontos = new ArrayList<>();
+        BlocoPosicoes.Leitor leitor = (instante, setor, posicao, x, y) ->
+                pontos.add(new PontoTrajetoria(dataHora(instante), setor, posicao, x, y));
+
+        gravacao.readLock().lock();
+        try {
+            historicoPosicaoJdbcRepository.buscar(motoId, de, ate, leitor);
+            Serie serie = series.get(motoId);
+            if (serie != null) {
+                synchronized (serie) {
+                    for (BlocoPosicoes bloco : serie.fechados) {
+                        if (bloco.getInicio() <= ate && bloco.getFim() >= de) {
+                            bloco.decodificar(de, ate, leitor);
+                        }
+                    }
+                    if (!serie.aberto.isVazio()) {
+                        serie.aberto.decodificar(de, ate, leitor);
+                    }
+                }
+            }
+        } finally {
+            gravacao.readLock().unlock();
+        }
+        pontos.sort(Comparator.comparing(PontoTrajetoria::getInstante));
+        return pontos;
+    }
+
+    private void executar() {
+        while (ativo) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(intervaloFlushMs, 1000)));
+            try {
+                gravar(ativo ? System.currentTimeMillis() - intervaloFlushMs : Long.MAX_VALUE);
+            } catch (Exception e) {
+                log.error("Falha ao gravar o histórico de posições; nova tentativa no próximo ciclo", e);
+            }
+        }
+    }
+
+    /**
+     * Fecha os blocos abertos antes do limite e grava todos os fechados em um batch
+     */
+    private void gravar(long abertosAntesDe) {
+        Map<Long, List<BlocoPosicoes>> pendentes = new HashMap<>();
+        series.forEach((motoId, serie) -> {
+            synchronized (serie) {
+                if (!serie.aberto.isVazio() && serie.abertoEm <= abertosAntesDe) {
+                    serie.fechar();
+                }
+                if (!serie.fechados.isEmpty()) {
+                    pendentes.put(motoId, new ArrayList<>(serie.fechados));
+                }
+            }
+        });
+        if (pendentes.isEmpty()) {
+            return;
+        }
+
+        gravacao.writeLock().lock();
+        try {
+            historicoPosicaoJdbcRepository.inserir(pendentes);
+            pendentes.forEach((motoId, blocos) -> {
+                Serie serie = series.get(motoId);
+                synchronized (serie) {
+                    serie.fechados.removeAll(blocos);
+                    if (serie.removida && serie.fechados.isEmpty() && serie.aberto.isVazio()) {
+                        series.remove(motoId);
+                    }
+                }
+            });
+        } finally {
+            gravacao.writeLock().unlock();
+        }
+    }
+
+    private static long epochMillis(LocalDateTime data) {
+        return data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime dataHora(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    // Bloco aberto, blocos fechados ainda não gravados e último ponto de uma moto
+    private static class Serie {
+        private BlocoPosicoes aberto = new BlocoPosicoes();
+        private long abertoEm;
+        private final List<BlocoPosicoes> fechados = new ArrayList<>();
+        private boolean removida;
+
+        private boolean temUltimo;
+        private String setor;
+        private String posicao;
+        private Double x;
+        private Double y;
+
+        void registrar(long instante, String setor, String posicao, Double x, Double y) {
+            if (temUltimo && Objects.equals(this.setor, setor) && Objects.equals(this.posicao, posicao)
+                    && Objects.equals(this.x, x) && Objects.equals(this.y, y)) {
+                return;
+            }
+            if (aberto.isVazio()) {
+                abertoEm = System.currentTimeMillis();
+            }
+            if (!aberto.adicionar(instante, setor, posicao, x, y)) {
+                fechar();
+                abertoEm = System.currentTimeMillis();
+                aberto.adicionar(instante, setor, posicao, x, y);
+            }
+            temUltimo = true;
+            this.setor = setor;
+            this.posicao = posicao;
+            this.x = x;
+            this.y = y;
+        }
+
+        void fechar() {
+            if (!aberto.isVazio()) {
+                fechados.add(aberto);
+                aberto = new BlocoPosicoes();
+            }
+        }
+    }
+
+    // Classe interna para um ponto da trajetória
+    public static class PontoTrajetoria {
+        private LocalDateTime instante;
+        private String setor;
+        private String posicao;
+        private Double coordenadaX;
+        private Double coordenadaY;
+
+        public PontoTrajetoria(LocalDateTime instante, String setor, String posicao, Double coordenadaX, Double coordenadaY) {
+            this.instante = instante;
+            this.setor = setor;
+            this.posicao = posicao;
+            this.coordenadaX = coordenadaX;
+            this.coordenadaY = coordenadaY;
+        }
+
+        // Getters
+        public LocalDateTime getInstante() { return instante; }
+        public String getSetor() { return setor; }
+        public String getPosicao() { return posicao; }
+        public Double getCoordenadaX() { return coordenadaX; }
+        public Double getCoordenadaY() { return coordenadaY; }
+    }
+}
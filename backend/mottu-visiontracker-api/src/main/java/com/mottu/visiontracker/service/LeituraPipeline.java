@@ -0,0 +1,443 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.LeituraRfidDTO;
+import com.mottu.visiontracker.journal.EventJournal;
+import com.mottu.visiontracker.protocol.LeituraFrameDecoder;
+import com.mottu.visiontracker.repository.LeituraRfidJdbcRepository;
+import com.mottu.visiontracker.repository.LoteLeituras;
+import com.mottu.visiontracker.util.JanelaDeduplicacao;
+import com.mottu.visiontracker.util.RingBuffer;
+import com.mottu.visiontracker.util.TagIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pipeline assíncrono de ingestão de leituras RFID.
+ *
+ * As threads HTTP apenas copiam as leituras para um ring buffer limitado. Uma única thread
+ * consumidora executa as etapas em ordem (decodificação, resolução da tag, deduplicação por
+ * janela, gravação em lote e, só com o lote gravado, os detectores), então o estado de cada
+ * etapa não precisa de sincronização. Quando o buffer enche, o produtor espera no máximo o timeout
+ * configurado e as leituras restantes são rejeitadas, em vez de acumular threads do Tomcat e
+ * conexões do pool.
+ */
+@Service
+public class LeituraPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(LeituraPipeline.class);
+
+    public static final int MAX_BYTES_TAG = 50;
+    private static final int MAX_DRENAGEM = 256;
+    private static final long ESPERA_PRODUTOR_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long ESPERA_CONSUMIDOR_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Value("${visiontracker.pipeline.capacidade:16384}")
+    private int capacidade;
+
+    @Value("${visiontracker.pipeline.timeout-publicacao-ms:50}")
+    private long timeoutPublicacaoMs;
+
+    @Value("${visiontracker.pipeline.lote-persistencia:500}")
+    private int tamanhoLote;
+
+    @Value("${visiontracker.pipeline.intervalo-flush-ms:200}")
+    private long intervaloFlushMs;
+
+    @Value("${visiontracker.pipeline.janela-dedup-ms:1000}")
+    private long janelaDedupMs;
+
+    @Value("${visiontracker.pipeline.max-chaves-dedup:65536}")
+    private int maxChavesDedup;
+
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    @Autowired
+    private LeituraRfidJdbcRepository leituraRfidJdbcRepository;
+
+    @Autowired
+    private EventJournal eventJournal;
+
+    @Autowired
+    private SemLeituraWatchdog semLeituraWatchdog;
+
+    @Autowired
+    private MovimentoDetector movimentoDetector;
+
+    @Autowired
+    private GeofenceService geofenceService;
+
+    private RingBuffer<Evento> ringBuffer;
+    private LoteLeituras lote;
+    private Thread consumidor;
+    private volatile boolean ativo;
+
+    // Estado da etapa de deduplicação (acessado só pela thread consumidora)
+    private JanelaDeduplicacao janela;
+    private final JanelaDeduplicacao.Saida saidaJanela = this::adicionarAoLote;
+
+    // Contadores expostos em /api/leituras/pipeline
+    private final LongAdder publicadas = new LongAdder();
+    private final LongAdder rejeitadas = new LongAdder();
+    private final LongAdder processadas = new LongAdder();
+    private final LongAdder duplicadas = new LongAdder();
+    private final LongAdder tagsDesconhecidas = new LongAdder();
+    private final LongAdder persistidas = new LongAdder();
+    private final LongAdder lotesPersistidos = new LongAdder();
+    private final LongAdder falhasPersistencia = new LongAdder();
+
+    @PostConstruct
+    public void iniciar() {
+        ringBuffer = new RingBuffer<>(capacidade, Evento::new);
+        lote = new LoteLeituras(tamanhoLote);
+        janela = new JanelaDeduplicacao(janelaDedupMs, maxChavesDedup, MAX_BYTES_TAG);
+        ativo = true;
+        consumidor = new Thread(this::consumir, "leituras-pipeline");
+        consumidor.setDaemon(true);
+        consumidor.start();
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        LockSupport.unpark(consumidor);
+        consumidor.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Publica as leituras no pipeline.
+     * As leituras são aceitas em ordem; se o buffer continuar cheio após o timeout, as restantes são rejeitadas.
+     */
+    public ResultadoPublicacao publicar(List<LeituraRfidDTO> leituras) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutPublicacaoMs);
+        long recebidaEm = System.currentTimeMillis();
+        ZoneId fuso = ZoneId.systemDefault();
+
+        int aceitas = 0;
+        for (LeituraRfidDTO leitura : leituras) {
+            long sequencia = reservar(limite);
+            if (sequencia < 0) {
+                break;
+            }
+            Evento evento = ringBuffer.get(sequencia);
+            try {
+                evento.preencher(leitura.getTagRFID(), leitura.getAntena(), leitura.getSetor(),
+                        LoteLeituras.rssiDecimos(leitura.getRssi()),
+                        leitura.getTimestamp().atZone(fuso).toInstant().toEpochMilli(), recebidaEm);
+            } finally {
+                ringBuffer.publicar(sequencia);
+            }
+            aceitas++;
+        }
+
+        publicadas.add(aceitas);
+        rejeitadas.add(leituras.size() - aceitas);
+        return new ResultadoPublicacao(leituras.size(), aceitas);
+    }
+
+    /**
+     * Publica as leituras de um corpo no formato binário, decodificando frame a frame direto para
+     * as posições do ring buffer. Se a fila continuar cheia após o timeout, o resto do corpo ainda é
+     * lido e validado, mas só contado: as leituras aceitas são sempre as primeiras do corpo, todas as
+     * outras entram como rejeitadas, e o gateway reenvia a partir da seguinte às aceitas.
+     */
+    public ResultadoPublicacao publicar(LeituraFrameDecoder decoder) throws IOException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutPublicacaoMs);
+        long recebidaEm = System.currentTimeMillis();
+
+        int recebidas = 0;
+        int aceitas = 0;
+        boolean cheia = false;
+        try {
+            while (decoder.proximoFrame()) {
+                int quantidade = decoder.getQuantidade();
+                recebidas += quantidade;
+                for (int i = 0; i < quantidade && !cheia; i++) {
+                    long sequencia = reservar(limite);
+                    if (sequencia < 0) {
+                        cheia = true;
+                        break;
+                    }
+                    Evento evento = ringBuffer.get(sequencia);
+                    try {
+                        evento.tamanhoTag = decoder.copiarTag(i, evento.tag);
+                        evento.antena = decoder.getAntena(i);
+                        evento.setor = decoder.getSetor(i);
+                        evento.rssi = decoder.getRssi(i);
+                        evento.lidaEm = decoder.getTimestamp(i);
+                        evento.recebidaEm = recebidaEm;
+                        evento.motoId = LoteLeituras.SEM_MOTO;
+                    } finally {
+                        ringBuffer.publicar(sequencia);
+                    }
+                    aceitas++;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getMessage() + " (" + aceitas + " leituras anteriores foram aceitas)", e);
+        } finally {
+            publicadas.add(aceitas);
+            rejeitadas.add(recebidas - aceitas);
+        }
+        return new ResultadoPublicacao(recebidas, aceitas);
+    }
+
+    private long reservar(long limiteNanos) {
+        long sequencia = ringBuffer.tentarReservar();
+        while (sequencia < 0 && System.nanoTime() < limiteNanos) {
+            LockSupport.parkNanos(ESPERA_PRODUTOR_NANOS);
+            sequencia = ringBuffer.tentarReservar();
+        }
+        return sequencia;
+    }
+
+    // Thread consumidora
+
+    private void consumir() {
+        long ultimoFlush = System.currentTimeMillis();
+        while (ativo || ringBuffer.getOcupacao() > 0) {
+            int drenados = ringBuffer.drenar(this::processar, MAX_DRENAGEM);
+
+            long agora = System.currentTimeMillis();
+            janela.expirar(agora, saidaJanela);
+            if (lote.isCheio() || (!lote.isVazio() && agora - ultimoFlush >= intervaloFlushMs)) {
+                persistir();
+                ultimoFlush = agora;
+            }
+            if (drenados == 0) {
+                LockSupport.parkNanos(ESPERA_CONSUMIDOR_NANOS);
+            }
+        }
+        janela.esvaziar(saidaJanela);
+        persistir();
+        log.info("Pipeline de leituras encerrado");
+    }
+
+    private void processar(Evento evento) {
+        processadas.increment();
+        try {
+            if (!decodificar(evento)) {
+                return;
+            }
+            resolver(evento);
+            if (!deduplicar(evento)) {
+                duplicadas.increment();
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro ao processar leitura no pipeline", e);
+        }
+    }
+
+    /**
+     * Etapa 1: normaliza os campos copiados pelo produtor
+     */
+    private boolean decodificar(Evento evento) {
+        int inicio = 0;
+        int fim = evento.tamanhoTag;
+        while (inicio < fim && evento.tag[inicio] == ' ') {
+            inicio++;
+        }
+        while (fim > inicio && evento.tag[fim - 1] == ' ') {
+            fim--;
+        }
+        if (inicio == fim) {
+            return false;
+        }
+        if (inicio > 0) {
+            System.arraycopy(evento.tag, inicio, evento.tag, 0, fim - inicio);
+        }
+        evento.tamanhoTag = fim - inicio;
+        return true;
+    }
+
+    /**
+     * Etapa 2: resolve a tag pelo índice em memória
+     */
+    private void resolver(Evento evento) {
+        long motoId = tagIndexService.resolver(evento.tag, 0, evento.tamanhoTag);
+        if (motoId == TagIndex.AUSENTE) {
+            evento.motoId = LoteLeituras.SEM_MOTO;
+            tagsDesconhecidas.increment();
+        } else {
+            evento.motoId = motoId;
+        }
+    }
+
+    /**
+     * Etapa 3: agrega a leitura na janela de deduplicação da chave (tag, antena).
+     * Retorna false quando a leitura foi absorvida por um agregado já aberto.
+     */
+    private boolean deduplicar(Evento evento) {
+        return janela.registrar(evento.tag, evento.tamanhoTag, evento.antena, evento.motoId, evento.setor,
+                evento.rssi, evento.lidaEm, evento.recebidaEm, System.currentTimeMillis(), saidaJanela);
+    }
+
+    /**
+     * Etapa 4: acumula o agregado emitido pela janela no lote de gravação
+     */
+    private void adicionarAoLote(JanelaDeduplicacao origem, int entrada) {
+        long motoId = origem.getMotoId(entrada);
+        String tag = new String(origem.getTags(), origem.getOffsetTag(entrada), origem.getTamanhoTag(entrada),
+                StandardCharsets.ISO_8859_1);
+        lote.adicionar(tag, motoId, origem.getAntena(entrada), origem.getSetor(entrada),
+                origem.getRssi(entrada), origem.getPrimeiraLeitura(entrada), origem.getUltimaLeitura(entrada), origem.getContagem(entrada),
+                origem.getRecebidaEm(entrada));
+        if (lote.isCheio()) {
+            persistir();
+        }
+    }
+
+    private void persistir() {
+        if (lote.isVazio()) {
+            return;
+        }
+        try {
+            persistidas.add(leituraRfidJdbcRepository.inserirLote(lote));
+            lotesPersistidos.increment();
+            // Só depois do insert: um lote que falhou não pode ser restaurado pelo replay
+            // nem mover o watchdog e os detectores
+            eventJournal.registrarLeituras(lote);
+            alimentarDetectores();
+        } catch (RuntimeException e) {
+            falhasPersistencia.add(lote.size());
+            log.error("Falha ao gravar lote de {} leituras", lote.size(), e);
+        } finally {
+            lote.limpar();
+        }
+    }
+
+    /**
+     * Etapa 5: alimenta os detectores (watchdog, movimento e área do pátio) com o lote já gravado
+     */
+    private void alimentarDetectores() {
+        for (int i = 0; i < lote.size(); i++) {
+            long motoId = lote.getMotoId(i);
+            if (motoId == LoteLeituras.SEM_MOTO) {
+                continue;
+            }
+            try {
+                semLeituraWatchdog.registrarLeitura(motoId);
+                movimentoDetector.registrarLeitura(motoId, lote.getSetor(i), lote.getUltimaLeitura(i));
+                geofenceService.registrarLeitura(motoId, lote.getSetor(i));
+            } catch (RuntimeException e) {
+                log.error("Erro ao alimentar os detectores com a leitura da moto {}", motoId, e);
+            }
+        }
+    }
+
+    /**
+     * Obtém os contadores do pipeline
+     */
+    public PipelineStats getStats() {
+        return new PipelineStats(ringBuffer.getCapacidade(), ringBuffer.getOcupacao(),
+                publicadas.sum(), rejeitadas.sum(), processadas.sum(), duplicadas.sum(),
+                tagsDesconhecidas.sum(), persistidas.sum(), lotesPersistidos.sum(), falhasPersistencia.sum(),
+                janela.getChavesAtivas(), janela.getExpulsasPorCapacidade());
+    }
+
+    /**
+     * Posição pré-alocada do ring buffer, reutilizada a cada volta
+     */
+    static final class Evento {
+        final byte[] tag = new byte[MAX_BYTES_TAG];
+        int tamanhoTag;
+        int antena;
+        String setor;
+        int rssi;
+        long lidaEm;
+        long recebidaEm;
+        long motoId;
+
+        void preencher(String tagRFID, int antena, String setor, int rssi, long lidaEm, long recebidaEm) {
+            int length = Math.min(tagRFID.length(), MAX_BYTES_TAG);
+            for (int i = 0; i < length; i++) {
+                tag[i] = (byte) tagRFID.charAt(i);
+            }
+            this.tamanhoTag = length;
+            this.antena = antena;
+            this.setor = setor;
+            this.rssi = rssi;
+            this.lidaEm = lidaEm;
+            this.recebidaEm = recebidaEm;
+            this.motoId = LoteLeituras.SEM_MOTO;
+        }
+
+    }
+
+    // Classe interna para o resultado da publicação
+    public static class ResultadoPublicacao {
+        private int recebidas;
+        private int aceitas;
+
+        public ResultadoPublicacao(int recebidas, int aceitas) {
+            this.recebidas = recebidas;
+            this.aceitas = aceitas;
+        }
+
+        // Getters
+        public int getRecebidas() { return recebidas; }
+        public int getAceitas() { return aceitas; }
+        public int getRejeitadas() { return recebidas - aceitas; }
+    }
+
+    // Classe interna para os contadores do pipeline
+    public static class PipelineStats {
+        private int capacidade;
+        private int ocupacao;
+        private long publicadas;
+        private long rejeitadas;
+        private long processadas;
+        private long duplicadas;
+        private long tagsDesconhecidas;
+        private long persistidas;
+        private long lotesPersistidos;
+        private long falhasPersistencia;
+        private int chavesDedupAtivas;
+        private long chavesDedupExpulsas;
+
+        public PipelineStats(int capacidade, int ocupacao, long publicadas, long rejeitadas,
+                             long processadas, long duplicadas, long tagsDesconhecidas,
+                             long persistidas, long lotesPersistidos, long falhasPersistencia,
+                             int chavesDedupAtivas, long chavesDedupExpulsas) {
+            this.capacidade = capacidade;
+            this.ocupacao = ocupacao;
+            this.publicadas = publicadas;
+            this.rejeitadas = rejeitadas;
+            this.processadas = processadas;
+            this.duplicadas = duplicadas;
+            this.tagsDesconhecidas = tagsDesconhecidas;
+            this.persistidas = persistidas;
+            this.lotesPersistidos = lotesPersistidos;
+            this.falhasPersistencia = falhasPersistencia;
+            this.chavesDedupAtivas = chavesDedupAtivas;
+            this.chavesDedupExpulsas = chavesDedupExpulsas;
+        }
+
+        // Getters
+        public int getCapacidade() { return capacidade; }
+        public int getOcupacao() { return ocupacao; }
+        public long getPublicadas() { return publicadas; }
+        public long getRejeitadas() { return rejeitadas; }
+        public long getProcessadas() { return processadas; }
+        public long getDuplicadas() { return duplicadas; }
+        public long getTagsDesconhecidas() { return tagsDesconhecidas; }
+        public long getPersistidas() { return persistidas; }
+        public long getLotesPersistidos() { return lotesPersistidos; }
+        public long getFalhasPersistencia() { return falhasPersistencia; }
+        public int getChavesDedupAtivas() { return chavesDedupAtivas; }
+        public long getChavesDedupExpulsas() { return chavesDedupExpulsas; }
+    }
+}
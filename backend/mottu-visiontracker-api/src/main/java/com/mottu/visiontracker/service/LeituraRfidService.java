@@ -0,0 +1,149 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.LeituraRfidDTO;
+import com.mottu.visiontracker.entity.LeituraRfid;
+import com.mottu.visiontracker.journal.EventJournal;
+import com.mottu.visiontracker.repository.LeituraRfidJdbcRepository;
+import com.mottu.visiontracker.repository.LeituraRfidRepository;
+import com.mottu.visiontracker.repository.LoteLeituras;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class LeituraRfidService {
+
+    @Autowired
+    private LeituraRfidRepository leituraRfidRepository;
+
+    @Autowired
+    private LeituraRfidJdbcRepository leituraRfidJdbcRepository;
+
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    @Autowired
+    private EventJournal eventJournal;
+
+    @Autowired
+    private SemLeituraWatchdog semLeituraWatchdog;
+
+    @Autowired
+    private MovimentoDetector movimentoDetector;
+
+    @Autowired
+    private GeofenceService geofenceService;
+
+    /**
+     * Lista as leituras mais recentes, opcionalmente filtradas por tag
+     */
+    public List<LeituraRfidDTO> findRecentes(String tagRFID) {
+        List<LeituraRfid> leituras = tagRFID != null
+                ? leituraRfidRepository.findTop100ByTagRFIDOrderByTimestampDesc(tagRFID)
+                : leituraRfidRepository.findTop100ByOrderByTimestampDesc();
+
+        return leituras.stream()
+                .map(LeituraRfidDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Registra um lote de leituras em uma única transação.
+     * As tags são resolvidas pelo índice em memória, sem consulta ao banco; os detectores só
+     * recebem as leituras depois do commit.
+     */
+    public ResultadoLote registrarLote(List<LeituraRfidDTO> leiturasDTO) {
+        long recebidaEm = System.currentTimeMillis();
+        ZoneId fuso = ZoneId.systemDefault();
+        LoteLeituras lote = new LoteLeituras(Math.min(leiturasDTO.size(), LeituraRfidJdbcRepository.TAMANHO_LOTE_JDBC));
+
+        long[] motoIds = new long[leiturasDTO.size()];
+        long[] lidasEm = new long[leiturasDTO.size()];
+
+        int gravadas = 0;
+        int semMoto = 0;
+        for (int i = 0; i < leiturasDTO.size(); i++) {
+            LeituraRfidDTO dto = leiturasDTO.get(i);
+            String tag = dto.getTagRFID().trim();
+            Long motoId = tagIndexService.resolver(tag);
+            long lidaEm = dto.getTimestamp().atZone(fuso).toInstant().toEpochMilli();
+            if (motoId == null) {
+                semMoto++;
+            }
+            motoIds[i] = motoId != null ? motoId : LoteLeituras.SEM_MOTO;
+            lidasEm[i] = lidaEm;
+
+            lote.adicionar(tag, motoId != null ? motoId : LoteLeituras.SEM_MOTO, dto.getAntena(), dto.getSetor(),
+                    LoteLeituras.rssiDecimos(dto.getRssi()), lidaEm, recebidaEm);
+            if (lote.isCheio()) {
+                gravadas += gravar(lote);
+                lote.limpar();
+            }
+        }
+        gravadas += gravar(lote);
+
+        alimentarDetectoresAposCommit(leiturasDTO, motoIds, lidasEm);
+        return new ResultadoLote(leiturasDTO.size(), gravadas, semMoto);
+    }
+
+    private int gravar(LoteLeituras lote) {
+        int gravadas = leituraRfidJdbcRepository.inserirLote(lote);
+        // O journal só recebe o lote depois do commit da transação
+        eventJournal.registrarLeituras(lote);
+        return gravadas;
+    }
+
+    /**
+     * Alimenta o watchdog e os detectores de movimento e de área só com leituras gravadas:
+     * num rollback, prazos, setores e alertas não podem ter avançado por leituras que não existem
+     */
+    private void alimentarDetectoresAposCommit(List<LeituraRfidDTO> leiturasDTO, long[] motoIds, long[] lidasEm) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            alimentarDetectores(leiturasDTO, motoIds, lidasEm);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                alimentarDetectores(leiturasDTO, motoIds, lidasEm);
+            }
+        });
+    }
+
+    private void alimentarDetectores(List<LeituraRfidDTO> leiturasDTO, long[] motoIds, long[] lidasEm) {
+        for (int i = 0; i < motoIds.length; i++) {
+            if (motoIds[i] == LoteLeituras.SEM_MOTO) {
+                continue;
+            }
+            String setor = leiturasDTO.get(i).getSetor();
+            semLeituraWatchdog.registrarLeitura(motoIds[i]);
+            movimentoDetector.registrarLeitura(motoIds[i], setor, lidasEm[i]);
+            geofenceService.registrarLeitura(motoIds[i], setor);
+        }
+    }
+
+    // Classe interna para o resultado do lote
+    public static class ResultadoLote {
+        private int recebidas;
+        private int gravadas;
+        private int tagsDesconhecidas;
+
+        public ResultadoLote(int recebidas, int gravadas, int tagsDesconhecidas) {
+            this.recebidas = recebidas;
+            this.gravadas = gravadas;
+            this.tagsDesconhecidas = tagsDesconhecidas;
+        }
+
+        // Getters
+        public int getRecebidas() { return recebidas; }
+        public int getGravadas() { return gravadas; }
+        public int getTagsDesconhecidas() { return tagsDesconhecidas; }
+    }
+}
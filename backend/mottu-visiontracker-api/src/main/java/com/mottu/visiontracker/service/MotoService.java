@@ -1,37 +1,114 @@
 package com.mottu.visiontracker.service;
 
+import com.mottu.visiontracker.dto.AtualizacaoMotoDTO;
 import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.dto.PaginaDTO;
 import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.entity.RegistroRemocao;
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.repository.MotoJdbcRepository;
 import com.mottu.visiontracker.repository.MotoRepository;
+import com.mottu.visiontracker.util.CursorPagina;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Escritas rodam na transação da classe; as consultas usam @Transactional(readOnly = true), em que
+ * o Spring deixa a sessão do Hibernate com flush MANUAL e entidades somente leitura (sem cópia para
+ * dirty checking) e a conexão JDBC em read-only.
+ */
 @Service
 @Transactional
 public class MotoService {
 
+    public static final int LIMITE_PAGINA = 500;
+
+    private static final int TAMANHO_BLOCO_IDS = 1000;
+
     @Autowired
     private MotoRepository motoRepository;
 
+    @Autowired
+    private MotoJdbcRepository motoJdbcRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OcupacaoService ocupacaoService;
+
+    @Autowired
+    private VersaoService versaoService;
+
+    @Autowired
+    private SincronizacaoService sincronizacaoService;
+
+    @Autowired
+    private BuscaMotosService buscaMotosService;
+
+    @Autowired
+    private PlacaService placaService;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
     /**
      * Lista todas as motos
      */
+    @Transactional(readOnly = true)
     public List<MotoDTO> findAll() {
-        return motoRepository.findAllByOrderByCreatedAtDesc()
-                .stream()
+        return motoRepository.listarDTOsPorCriacao();
+    }
+
+    /**
+     * Página de motos por cursor, mais recentes primeiro: cada página segue o índice a partir da
+     * chave da anterior, então a página N custa o mesmo que a primeira
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<MotoDTO> findPagina(String cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_PAGINA) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_PAGINA);
+        }
+        // Um item a mais indica se há próxima página
+        PageRequest pagina = PageRequest.of(0, limite + 1);
+        List<Moto> motos;
+        if (cursor == null || cursor.isBlank()) {
+            motos = motoRepository.findPrimeiraPagina(pagina);
+        } else {
+            CursorPagina chave = CursorPagina.decodificar(cursor);
+            motos = motoRepository.findPaginaApos(chave.getData(), chave.getId(), pagina);
+        }
+
+        String proximoCursor = null;
+        if (motos.size() > limite) {
+            motos = motos.subList(0, limite);
+            Moto ultimo = motos.get(limite - 1);
+            proximoCursor = CursorPagina.codificar(ultimo.getCreatedAt(), ultimo.getId());
+        }
+        return new PaginaDTO<>(motos.stream()
                 .map(MotoDTO::new)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), proximoCursor);
     }
 
     /**
      * Busca uma moto por ID
      */
+    @Transactional(readOnly = true)
     public Optional<MotoDTO> findById(Long id) {
         return motoRepository.findById(id)
                 .map(MotoDTO::new);
@@ -40,42 +117,80 @@ public class MotoService {
     /**
      * Busca uma moto por placa
      */
+    @Transactional(readOnly = true)
     public Optional<MotoDTO> findByPlaca(String placa) {
-        return motoRepository.findByPlaca(placa.toUpperCase())
-                .map(MotoDTO::new);
+        if (!placaService.isCarregado()) {
+            return motoRepository.findByPlaca(placa.toUpperCase())
+                    .map(MotoDTO::new);
+        }
+        // Placa desconhecida responde direto da memória; a conhecida é lida pela chave primária
+        Long id = placaService.resolver(placa.toUpperCase());
+        return id != null ? motoRepository.findById(id).map(MotoDTO::new) : Optional.empty();
     }
 
     /**
      * Busca motos por status
      */
+    @Transactional(readOnly = true)
     public List<MotoDTO> findByStatus(Moto.StatusMoto status) {
-        return motoRepository.findByStatus(status)
-                .stream()
-                .map(MotoDTO::new)
-                .collect(Collectors.toList());
+        return motoRepository.listarDTOsPorStatus(status);
     }
 
     /**
      * Busca motos por múltiplos critérios
      */
+    @Transactional(readOnly = true)
     public List<MotoDTO> findByMultipleCriteria(String placa, String modelo, String proprietario, Moto.StatusMoto status) {
-        return motoRepository.findByMultipleCriteria(placa, modelo, proprietario, status)
-                .stream()
-                .map(MotoDTO::new)
+        if (!buscaMotosService.isCarregado()) {
+            return motoRepository.findByMultipleCriteria(placa, modelo, proprietario, status)
+                    .stream()
+                    .map(MotoDTO::new)
+                    .collect(Collectors.toList());
+        }
+        // O índice de trigramas escolhe as motos; o banco só é lido por id
+        List<Long> ids = buscaMotosService.buscar(placa, modelo, proprietario, status, Integer.MAX_VALUE);
+        return carregarPorIds(ids).stream()
+                .filter(moto -> contemTrecho(moto.getPlaca(), placa) && contemTrecho(moto.getModelo(), modelo)
+                        && contemTrecho(moto.getProprietario(), proprietario)
+                        && (status == null || moto.getStatus() == status))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Cria uma nova moto
+     * Busca enquanto o usuário digita: motos com o trecho na placa, no modelo ou no proprietário
      */
-    public MotoDTO create(MotoDTO motoDTO) {
-        // Validar se a placa já existe
-        if (motoRepository.existsByPlaca(motoDTO.getPlaca().toUpperCase())) {
-            throw new IllegalArgumentException("Já existe uma moto cadastrada com a placa: " + motoDTO.getPlaca());
+    @Transactional(readOnly = true)
+    public List<MotoDTO> buscar(String trecho, int limite) {
+        if (trecho == null || trecho.isBlank()) {
+            throw new IllegalArgumentException("Informe o trecho a buscar");
+        }
+        if (limite < 1 || limite > LIMITE_PAGINA) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_PAGINA);
         }
+        String termo = trecho.trim();
+        if (!buscaMotosService.isCarregado()) {
+            return motoRepository.findAll().stream()
+                    .filter(moto -> contemTrecho(moto.getPlaca(), termo) || contemTrecho(moto.getModelo(), termo)
+                            || contemTrecho(moto.getProprietario(), termo))
+                    .limit(limite)
+                    .map(MotoDTO::new)
+                    .collect(Collectors.toList());
+        }
+        return carregarPorIds(buscaMotosService.buscarTexto(termo, limite)).stream()
+                .filter(moto -> contemTrecho(moto.getPlaca(), termo) || contemTrecho(moto.getModelo(), termo)
+                        || contemTrecho(moto.getProprietario(), termo))
+                .collect(Collectors.toList());
+    }
 
+    /**
+     * Cria uma nova moto
+     */
+    public MotoDTO create(MotoDTO motoDTO) {
         Moto moto = motoDTO.toEntity();
         moto.setPlaca(moto.getPlaca().toUpperCase());
+
+        // Reserva a placa de forma atômica; desfeita se o cadastro não confirmar
+        placaService.reservar(moto.getPlaca());
         
         // Gerar número de série e tag RFID se não fornecidos
         if (moto.getNumeroSerie() == null || moto.getNumeroSerie().isEmpty()) {
@@ -85,13 +200,18 @@ public class MotoService {
             moto.setTagRFID("RF" + System.currentTimeMillis());
         }
 
-        // Definir posição aleatória se não fornecida
-        if (moto.getPosicao() == null || moto.getPosicao().isEmpty()) {
-            moto.setPosicao(String.valueOf((int) (Math.random() * 10) + 1));
+        // Reservar a posição informada ou a próxima vaga livre do setor
+        if (motoDTO.getPosicao() == null || motoDTO.getPosicao().isBlank()) {
+            moto.setPosicao(ocupacaoService.alocar(moto.getSetor()));
+        } else {
+            ocupacaoService.reservar(moto.getSetor(), moto.getPosicao());
         }
 
         Moto savedMoto = motoRepository.save(moto);
-        return new MotoDTO(savedMoto);
+        placaService.associar(savedMoto.getPlaca(), savedMoto.getId());
+        MotoDTO criada = new MotoDTO(savedMoto);
+        eventPublisher.publishEvent(MotoEvent.criada(criada));
+        return criada;
     }
 
     /**
@@ -100,12 +220,13 @@ public class MotoService {
     public MotoDTO update(Long id, MotoDTO motoDTO) {
         Moto existingMoto = motoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Moto não encontrada com ID: " + id));
+        MotoDTO antes = new MotoDTO(existingMoto);
 
-        // Verificar se a nova placa já existe em outra moto
-        if (!existingMoto.getPlaca().equalsIgnoreCase(motoDTO.getPlaca())) {
-            if (motoRepository.existsByPlaca(motoDTO.getPlaca().toUpperCase())) {
-                throw new IllegalArgumentException("Já existe uma moto cadastrada com a placa: " + motoDTO.getPlaca());
-            }
+        // Reservar a nova placa, se mudou; a antiga é liberada após o commit
+        boolean placaMudou = !existingMoto.getPlaca().equalsIgnoreCase(motoDTO.getPlaca());
+        if (placaMudou) {
+            placaService.reservar(motoDTO.getPlaca().toUpperCase());
+            placaService.liberar(existingMoto.getPlaca());
         }
 
         // Atualizar campos
@@ -123,32 +244,51 @@ public class MotoService {
         if (motoDTO.getStatus() != null) {
             existingMoto.setStatus(motoDTO.getStatus());
         }
-        if (motoDTO.getSetor() != null) {
-            existingMoto.setSetor(motoDTO.getSetor());
-        }
-        if (motoDTO.getPosicao() != null) {
-            existingMoto.setPosicao(motoDTO.getPosicao());
+        String setor = motoDTO.getSetor() != null ? motoDTO.getSetor() : existingMoto.getSetor();
+        String posicao = motoDTO.getPosicao() != null ? motoDTO.getPosicao() : existingMoto.getPosicao();
+        moverVaga(existingMoto, setor, posicao);
+        existingMoto.setSetor(setor);
+        existingMoto.setPosicao(posicao);
+        if (motoDTO.getCoordenadaX() != null && motoDTO.getCoordenadaY() != null) {
+            existingMoto.setCoordenadaX(motoDTO.getCoordenadaX());
+            existingMoto.setCoordenadaY(motoDTO.getCoordenadaY());
         }
 
         existingMoto.setUpdatedAt(LocalDateTime.now());
 
-        Moto updatedMoto = motoRepository.save(existingMoto);
-        return new MotoDTO(updatedMoto);
+        // A versão vem do @PreUpdate, que só roda no flush: sem ele o DTO e o evento sairiam com a anterior
+        Moto updatedMoto = motoRepository.saveAndFlush(existingMoto);
+        if (placaMudou) {
+            placaService.associar(updatedMoto.getPlaca(), updatedMoto.getId());
+        }
+        MotoDTO depois = new MotoDTO(updatedMoto);
+        eventPublisher.publishEvent(MotoEvent.atualizada(antes, depois));
+        return depois;
     }
 
     /**
      * Atualiza a posição de uma moto
      */
-    public MotoDTO updatePosition(Long id, String setor, String posicao) {
+    public MotoDTO updatePosition(Long id, String setor, String posicao, Double x, Double y) {
+        if ((x == null) != (y == null)) {
+            throw new IllegalArgumentException("Informe as duas coordenadas (x e y) ou nenhuma");
+        }
         Moto moto = motoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Moto não encontrada com ID: " + id));
+        MotoDTO antes = new MotoDTO(moto);
 
+        moverVaga(moto, setor, posicao);
         moto.setSetor(setor);
         moto.setPosicao(posicao);
+        // Sem coordenadas, as anteriores deixam de valer para a nova posição
+        moto.setCoordenadaX(x);
+        moto.setCoordenadaY(y);
         moto.setUpdatedAt(LocalDateTime.now());
 
-        Moto updatedMoto = motoRepository.save(moto);
-        return new MotoDTO(updatedMoto);
+        Moto updatedMoto = motoRepository.saveAndFlush(moto);
+        MotoDTO depois = new MotoDTO(updatedMoto);
+        eventPublisher.publishEvent(MotoEvent.atualizada(antes, depois));
+        return depois;
     }
 
     /**
@@ -157,35 +297,226 @@ public class MotoService {
     public MotoDTO updateStatus(Long id, Moto.StatusMoto status) {
         Moto moto = motoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Moto não encontrada com ID: " + id));
+        MotoDTO antes = new MotoDTO(moto);
 
         moto.setStatus(status);
         moto.setUpdatedAt(LocalDateTime.now());
 
-        Moto updatedMoto = motoRepository.save(moto);
-        return new MotoDTO(updatedMoto);
+        Moto updatedMoto = motoRepository.saveAndFlush(moto);
+        MotoDTO depois = new MotoDTO(updatedMoto);
+        eventPublisher.publishEvent(MotoEvent.atualizada(antes, depois));
+        return depois;
+    }
+
+    /**
+     * Aplica várias mudanças de setor, posição e status em uma única transação, sem carregar entidades:
+     * uma consulta traz o estado atual de todas as motos do lote e as alterações vão em um só batch.
+     * Cada item é validado isoladamente; os que falham não impedem os demais.
+     */
+    public ResultadoLote updateLote(List<AtualizacaoMotoDTO> itens) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (AtualizacaoMotoDTO item : itens) {
+            if (item != null && item.getId() != null) {
+                ids.add(item.getId());
+            }
+        }
+        Map<Long, MotoDTO> atuais = motoJdbcRepository.findByIds(ids);
+
+        List<ResultadoItem> resultados = new ArrayList<>(itens.size());
+        List<MotoDTO> antes = new ArrayList<>();
+        List<MotoDTO> alteradas = new ArrayList<>();
+        List<ResultadoItem> resultadosAlterados = new ArrayList<>();
+        List<OcupacaoService.Movimento> movimentos = new ArrayList<>();
+        List<Integer> alteradasComMovimento = new ArrayList<>();
+        Set<Long> vistos = new HashSet<>();
+        LocalDateTime agora = LocalDateTime.now();
+
+        for (AtualizacaoMotoDTO item : itens) {
+            Long id = item != null ? item.getId() : null;
+            ResultadoItem resultado = new ResultadoItem(id);
+            resultados.add(resultado);
+            if (id == null) {
+                resultado.falhar("ID da moto é obrigatório");
+                continue;
+            }
+            if (!vistos.add(id)) {
+                resultado.falhar("Moto repetida no lote: " + id);
+                continue;
+            }
+            MotoDTO atual = atuais.get(id);
+            if (atual == null) {
+                resultado.falhar("Moto não encontrada com ID: " + id);
+                continue;
+            }
+            if (item.getSetor() == null && item.getPosicao() == null && item.getStatus() == null) {
+                resultado.falhar("Informe setor, posição ou status");
+                continue;
+            }
+
+            String setor = item.getSetor() != null ? item.getSetor() : atual.getSetor();
+            String posicao = item.getPosicao() != null ? item.getPosicao() : atual.getPosicao();
+            if (setor == null || setor.isBlank() || posicao == null || posicao.isBlank()) {
+                resultado.falhar("Setor e posição não podem ficar em branco");
+                continue;
+            }
+            Moto.StatusMoto status = item.getStatus() != null ? item.getStatus() : atual.getStatus();
+            boolean mesmaVaga = mesmaVaga(atual.getSetor(), atual.getPosicao(), setor, posicao);
+            if (mesmaVaga && status == atual.getStatus()) {
+                resultado.concluir(atual, "Sem alterações");
+                continue;
+            }
+
+            MotoDTO depois = copiar(atual);
+            depois.setSetor(setor);
+            depois.setPosicao(posicao);
+            depois.setStatus(status);
+            if (!mesmaVaga) {
+                // Como em updatePosition, as coordenadas anteriores deixam de valer para a nova posição
+                depois.setCoordenadaX(null);
+                depois.setCoordenadaY(null);
+                movimentos.add(new OcupacaoService.Movimento(atual.getSetor(), atual.getPosicao(), setor, posicao));
+                alteradasComMovimento.add(alteradas.size());
+            }
+            depois.setUpdatedAt(agora);
+            depois.setVersao(versaoService.proxima(VersaoService.Colecao.MOTOS));
+            antes.add(atual);
+            alteradas.add(depois);
+            resultadosAlterados.add(resultado);
+        }
+
+        // Reserva as vagas de todo o lote de uma vez, permitindo trocas entre as motos do lote
+        boolean[] recusadas = new boolean[alteradas.size()];
+        String[] falhas = ocupacaoService.moverLote(movimentos);
+        for (int i = 0; i < falhas.length; i++) {
+            if (falhas[i] != null) {
+                int indice = alteradasComMovimento.get(i);
+                recusadas[indice] = true;
+                resultadosAlterados.get(indice).falhar(falhas[i]);
+            }
+        }
+
+        List<MotoDTO> gravadas = new ArrayList<>(alteradas.size());
+        List<Integer> indicesGravados = new ArrayList<>(alteradas.size());
+        for (int i = 0; i < alteradas.size(); i++) {
+            if (!recusadas[i]) {
+                gravadas.add(alteradas.get(i));
+                indicesGravados.add(i);
+            }
+        }
+        if (!gravadas.isEmpty()) {
+            motoJdbcRepository.atualizarPosicoes(gravadas);
+        }
+        for (int indice : indicesGravados) {
+            MotoDTO depois = alteradas.get(indice);
+            resultadosAlterados.get(indice).concluir(depois, "Moto atualizada");
+            eventPublisher.publishEvent(MotoEvent.atualizada(antes.get(indice), depois));
+        }
+
+        return new ResultadoLote(resultados);
     }
 
     /**
      * Remove uma moto
      */
     public void delete(Long id) {
-        if (!motoRepository.existsById(id)) {
-            throw new IllegalArgumentException("Moto não encontrada com ID: " + id);
+        Moto moto = motoRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Moto não encontrada com ID: " + id));
+        MotoDTO antes = new MotoDTO(moto);
+
+        motoRepository.delete(moto);
+        placaService.liberar(moto.getPlaca());
+        sincronizacaoService.registrarRemocao(RegistroRemocao.Entidade.MOTO, id);
+        ocupacaoService.liberar(moto.getSetor(), moto.getPosicao());
+        eventPublisher.publishEvent(MotoEvent.removida(antes));
+    }
+
+    /**
+     * Reserva a nova vaga (falha se ocupada) e libera a atual após o commit, se a posição mudou
+     */
+    private void moverVaga(Moto moto, String setor, String posicao) {
+        if (!mesmaVaga(moto.getSetor(), moto.getPosicao(), setor, posicao)) {
+            ocupacaoService.reservar(setor, posicao);
+            ocupacaoService.liberar(moto.getSetor(), moto.getPosicao());
+        }
+    }
+
+    // Lê as motos em blocos de ids, mantendo a ordem recebida
+    private List<MotoDTO> carregarPorIds(List<Long> ids) {
+        List<MotoDTO> motos = new ArrayList<>(ids.size());
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO_IDS) {
+            List<Long> bloco = ids.subList(inicio, Math.min(ids.size(), inicio + TAMANHO_BLOCO_IDS));
+            Map<Long, MotoDTO> porId = motoJdbcRepository.findByIds(bloco);
+            for (Long id : bloco) {
+                MotoDTO moto = porId.get(id);
+                if (moto != null) {
+                    motos.add(moto);
+                }
+            }
         }
-        motoRepository.deleteById(id);
+        return motos;
+    }
+
+    // Mesma regra do LOWER(x) LIKE '%trecho%' da consulta; o índice pode estar um commit atrás
+    private static boolean contemTrecho(String valor, String trecho) {
+        return trecho == null || trecho.isEmpty()
+                || (valor != null && valor.toLowerCase(Locale.ROOT).contains(trecho.toLowerCase(Locale.ROOT)));
+    }
+
+    private static boolean mesmaVaga(String setorAtual, String posicaoAtual, String setor, String posicao) {
+        return setor.trim().equalsIgnoreCase(String.valueOf(setorAtual).trim())
+                && posicao.trim().equals(String.valueOf(posicaoAtual).trim());
+    }
+
+    private static MotoDTO copiar(MotoDTO origem) {
+        MotoDTO copia = new MotoDTO();
+        copia.setId(origem.getId());
+        copia.setPlaca(origem.getPlaca());
+        copia.setModelo(origem.getModelo());
+        copia.setCor(origem.getCor());
+        copia.setProprietario(origem.getProprietario());
+        copia.setNumeroSerie(origem.getNumeroSerie());
+        copia.setTagRFID(origem.getTagRFID());
+        copia.setStatus(origem.getStatus());
+        copia.setSetor(origem.getSetor());
+        copia.setPosicao(origem.getPosicao());
+        copia.setCoordenadaX(origem.getCoordenadaX());
+        copia.setCoordenadaY(origem.getCoordenadaY());
+        copia.setCreatedAt(origem.getCreatedAt());
+        copia.setUpdatedAt(origem.getUpdatedAt());
+        return copia;
+    }
+
+    /**
+     * Versão das listas de motos: muda a cada escrita confirmada em uma moto.
+     * Não abre transação, para que o 304 não chegue a pegar uma conexão.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getVersaoLista() {
+        return versaoService.getConfirmada(VersaoService.Colecao.MOTOS);
     }
 
     /**
      * Conta motos por status
      */
+    @Transactional(readOnly = true)
     public long countByStatus(Moto.StatusMoto status) {
+        if (estatisticasService.isCarregado()) {
+            return estatisticasService.getMotos(status);
+        }
         return motoRepository.countByStatus(status);
     }
 
     /**
-     * Obtém estatísticas das motos
+     * Obtém estatísticas das motos (dos contadores em memória, ou do banco até eles carregarem)
      */
+    @Transactional(readOnly = true)
     public MotoStats getStats() {
+        if (estatisticasService.isCarregado()) {
+            return new MotoStats(estatisticasService.getTotalMotos(),
+                    estatisticasService.getMotos(Moto.StatusMoto.ATIVA),
+                    estatisticasService.getMotos(Moto.StatusMoto.MANUTENCAO),
+                    estatisticasService.getMotos(Moto.StatusMoto.INATIVA));
+        }
         long total = motoRepository.count();
         long ativas = motoRepository.countByStatus(Moto.StatusMoto.ATIVA);
         long manutencao = motoRepository.countByStatus(Moto.StatusMoto.MANUTENCAO);
@@ -194,6 +525,55 @@ public class MotoService {
         return new MotoStats(total, ativas, manutencao, inativas);
     }
 
+    // Classe interna para o resultado de um item da atualização em lote
+    public static class ResultadoItem {
+        private Long id;
+        private boolean sucesso;
+        private String mensagem;
+        private MotoDTO moto;
+
+        public ResultadoItem(Long id) {
+            this.id = id;
+        }
+
+        void concluir(MotoDTO moto, String mensagem) {
+            this.sucesso = true;
+            this.moto = moto;
+            this.mensagem = mensagem;
+        }
+
+        void falhar(String mensagem) {
+            this.sucesso = false;
+            this.moto = null;
+            this.mensagem = mensagem;
+        }
+
+        // Getters
+        public Long getId() { return id; }
+        public boolean isSucesso() { return sucesso; }
+        public String getMensagem() { return mensagem; }
+        public MotoDTO getMoto() { return moto; }
+    }
+
+    // Classe interna para o resultado da atualização em lote
+    public static class ResultadoLote {
+        private int total;
+        private int sucessos;
+        private List<ResultadoItem> itens;
+
+        public ResultadoLote(List<ResultadoItem> itens) {
+            this.total = itens.size();
+            this.sucessos = (int) itens.stream().filter(ResultadoItem::isSucesso).count();
+            this.itens = itens;
+        }
+
+        // Getters
+        public int getTotal() { return total; }
+        public int getSucessos() { return sucessos; }
+        public int getFalhas() { return total - sucessos; }
+        public List<ResultadoItem> getItens() { return itens; }
+    }
+
     // Classe interna para estatísticas
     public static class MotoStats {
         private long total;
@@ -0,0 +1,188 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.event.MotoEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detecta movimentos não autorizados de forma incremental.
+ *
+ * Mantém em memória o último estado conhecido de cada moto: status, setor/posição confirmados no banco
+ * e, à parte, o último setor informado pelos leitores. Um movimento é uma mudança de setor/posição
+ * confirmada pelo MotoService ou uma leitura RFID em um setor diferente do último em que a moto foi
+ * vista. Cada evento é avaliado em tempo constante contra o estado em memória: o movimento é suspeito
+ * se a moto está em MANUTENCAO/INATIVA ou se acontece fora do horário permitido. Os alertas vão para a
+ * fila do AlertaAutomaticoService, no máximo um por moto a cada intervalo configurado, medido no
+ * relógio do servidor (o relógio dos leitores só decide o horário do movimento).
+ */
+@Service
+public class MovimentoDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(MovimentoDetector.class);
+
+    @Value("${visiontracker.movimento.horario-inicio:06:00}")
+    private String horarioInicioConfig;
+
+    @Value("${visiontracker.movimento.horario-fim:22:00}")
+    private String horarioFimConfig;
+
+    @Value("${visiontracker.movimento.intervalo-alertas-ms:60000}")
+    private long intervaloAlertasMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AlertaAutomaticoService alertaAutomaticoService;
+
+    private final Map<Long, EstadoMoto> estados = new ConcurrentHashMap<>();
+    private LocalTime horarioInicio;
+    private LocalTime horarioFim;
+
+    @PostConstruct
+    public void configurar() {
+        horarioInicio = LocalTime.parse(horarioInicioConfig);
+        horarioFim = LocalTime.parse(horarioFimConfig);
+    }
+
+    /**
+     * Carrega o estado de todas as motos (executa depois do DataInitializer)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(30)
+    public void carregar() {
+        estados.clear();
+        jdbcTemplate.query("SELECT id, status, setor, posicao FROM motos",
+                rs -> {
+                    estados.put(rs.getLong(1), new EstadoMoto(Moto.StatusMoto.valueOf(rs.getString(2)),
+                            rs.getString(3), rs.getString(4)));
+                });
+        log.info("Detector de movimento carregado com {} motos (horário permitido {}-{})",
+                estados.size(), horarioInicio, horarioFim);
+    }
+
+    /**
+     * Avalia uma leitura RFID: se o portal fica em outro setor, a moto se moveu
+     */
+    public void registrarLeitura(long motoId, String setor, long lidaEm) {
+        if (setor == null) {
+            return;
+        }
+        EstadoMoto estado = estados.get(motoId);
+        if (estado == null) {
+            return;
+        }
+        synchronized (estado) {
+            String ultimoVisto = estado.setorLido != null ? estado.setorLido : estado.setor;
+            estado.setorLido = setor;
+            if (setor.equals(ultimoVisto)) {
+                return;
+            }
+            avaliar(motoId, estado, lidaEm, "lida no setor " + setor);
+        }
+    }
+
+    /**
+     * Avalia escritas confirmadas pelo MotoService e atualiza o estado em memória
+     */
+    @TransactionalEventListener
+    public void onMotoEvent(MotoEvent event) {
+        MotoDTO depois = event.getDepois();
+        if (depois == null) {
+            estados.remove(event.getMotoId());
+            return;
+        }
+
+        EstadoMoto estado = estados.computeIfAbsent(depois.getId(),
+                id -> new EstadoMoto(depois.getStatus(), depois.getSetor(), depois.getPosicao()));
+        synchronized (estado) {
+            boolean moveu = !Objects.equals(estado.setor, depois.getSetor())
+                    || !Objects.equals(estado.posicao, depois.getPosicao());
+            if (moveu && event.getTipo() == MotoEvent.Tipo.ATUALIZADA) {
+                // Vale o status de antes da escrita: mover e liberar a moto ao mesmo tempo ainda é suspeito
+                avaliar(depois.getId(), estado, System.currentTimeMillis(),
+                        "movida para " + depois.getSetor() + "/" + depois.getPosicao());
+            }
+            estado.status = depois.getStatus();
+            if (moveu) {
+                // Leituras anteriores à mudança não dizem mais onde a moto está
+                estado.setorLido = null;
+            }
+            estado.setor = depois.getSetor();
+            estado.posicao = depois.getPosicao();
+        }
+    }
+
+    /**
+     * O instante do movimento decide o horário; o intervalo entre alertas usa sempre o relógio do servidor
+     */
+    private void avaliar(long motoId, EstadoMoto estado, long instante, String movimento) {
+        String motivo;
+        if (estado.status == Moto.StatusMoto.MANUTENCAO) {
+            motivo = "Movimento detectado com a moto em manutenção";
+        } else if (estado.status == Moto.StatusMoto.INATIVA) {
+            motivo = "Movimento detectado com a moto inativa";
+        } else if (!dentroDoHorario(instante)) {
+            motivo = "Movimento detectado fora do horário permitido";
+        } else {
+            return;
+        }
+
+        long agora = System.currentTimeMillis();
+        if (agora - estado.ultimoAlerta < intervaloAlertasMs) {
+            return;
+        }
+        estado.ultimoAlerta = agora;
+        alertaAutomaticoService.enfileirar(motoId, Alerta.TipoAlerta.MOVIMENTO_NAO_AUTORIZADO,
+                motivo + " (" + movimento + ")");
+    }
+
+    private boolean dentroDoHorario(long instante) {
+        if (horarioInicio.equals(horarioFim)) {
+            return true;
+        }
+        LocalTime hora = LocalTime.ofInstant(Instant.ofEpochMilli(instante), ZoneId.systemDefault());
+        if (horarioInicio.isBefore(horarioFim)) {
+            return !hora.isBefore(horarioInicio) && hora.isBefore(horarioFim);
+        }
+        // Janela que atravessa a meia-noite (ex.: 22:00-06:00)
+        return !hora.isBefore(horarioInicio) || hora.isBefore(horarioFim);
+    }
+
+    /**
+     * Último estado conhecido de uma moto (protegido pelo próprio monitor)
+     */
+    private static final class EstadoMoto {
+        Moto.StatusMoto status;
+        String setor;
+        String posicao;
+        // Último setor informado por um leitor (null até a primeira leitura depois da última mudança confirmada)
+        String setorLido;
+        long ultimoAlerta = Long.MIN_VALUE / 2;
+
+        EstadoMoto(Moto.StatusMoto status, String setor, String posicao) {
+            this.status = status;
+            this.setor = setor;
+            this.posicao = posicao;
+        }
+    }
+}
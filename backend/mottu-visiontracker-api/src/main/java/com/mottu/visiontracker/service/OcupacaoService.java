@@ -0,0 +1,365 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.util.BitmapVagas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Ocupação das vagas (posições) de cada setor, mantida em memória com um {@link BitmapVagas} por setor.
+ *
+ * O MotoService reserva a vaga nova antes de gravar, o que detecta colisões e impede que duas
+ * requisições concorrentes fiquem com a mesma vaga. Se a transação não confirmar, a reserva é
+ * desfeita; a vaga antiga só é liberada depois do commit. As posições são números de 1 até
+ * a capacidade configurada por setor.
+ */
+@Service
+public class OcupacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(OcupacaoService.class);
+
+    @Value("${visiontracker.ocupacao.vagas-por-setor:100}")
+    private int vagasPorSetor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, BitmapVagas> setores = new ConcurrentHashMap<>();
+
+    /**
+     * Marca as vagas das motos cadastradas (executa depois do DataInitializer)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(15)
+    public void carregar() {
+        setores.clear();
+        int[] colisoes = new int[1];
+        jdbcTemplate.query("SELECT id, setor, posicao FROM motos",
+                rs -> {
+                    try {
+                        BitmapVagas vagas = setor(rs.getString(2));
+                        synchronized (vagas) {
+                            if (!vagas.ocupar(vaga(rs.getString(3)))) {
+                                colisoes[0]++;
+                                log.warn("Moto {} ocupa a mesma vaga de outra moto: {}/{}", rs.getLong(1), rs.getString(2), rs.getString(3));
+                            }
+                        }
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Moto {} com posição fora do mapa de vagas: {}", rs.getLong(1), e.getMessage());
+                    }
+                });
+        log.info("Ocupação carregada: {} setores, {} colisões", setores.size(), colisoes[0]);
+    }
+
+    /**
+     * Reserva a próxima vaga livre do setor e retorna a posição correspondente
+     */
+    public String alocar(String setor) {
+        BitmapVagas vagas = setor(setor);
+        int vaga;
+        synchronized (vagas) {
+            vaga = vagas.proximaLivre();
+            if (vaga == BitmapVagas.NENHUMA) {
+                throw new IllegalArgumentException("Não há vagas livres no setor " + setor);
+            }
+            vagas.ocupar(vaga);
+        }
+        desfazerSeNaoConfirmar(vagas, vaga);
+        return String.valueOf(vaga + 1);
+    }
+
+    /**
+     * Reserva uma posição específica, falhando se ela já estiver ocupada
+     */
+    public void reservar(String setor, String posicao) {
+        BitmapVagas vagas = setor(setor);
+        int vaga = vaga(posicao);
+        synchronized (vagas) {
+            if (!vagas.ocupar(vaga)) {
+                throw new IllegalArgumentException("A posição " + posicao + " do setor " + setor + " já está ocupada");
+            }
+        }
+        desfazerSeNaoConfirmar(vagas, vaga);
+    }
+
+    /**
+     * Libera a posição depois que a transação corrente confirmar (ou imediatamente, fora de transação)
+     */
+    public void liberar(String setor, String posicao) {
+        if (setor == null || setor.isBlank()) {
+            return;
+        }
+        int vaga;
+        try {
+            vaga = vaga(posicao);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        BitmapVagas vagas = setor(setor);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            liberarVaga(vagas, vaga);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                liberarVaga(vagas, vaga);
+            }
+        });
+    }
+
+    /**
+     * Move várias motos de vaga de uma vez. As vagas de origem do lote contam como livres para os
+     * demais itens, o que permite trocas e rodízios no mesmo lote; se algum destino estiver ocupado,
+     * o item falha, sua origem volta a contar como ocupada e a rodada é refeita até estabilizar.
+     * Retorna, por movimento, null se o destino foi reservado ou a mensagem de falha.
+     * Como em {@link #reservar} e {@link #liberar}, as origens só são liberadas após o commit
+     * e os destinos são devolvidos se a transação não confirmar.
+     */
+    public String[] moverLote(List<Movimento> movimentos) {
+        int n = movimentos.size();
+        String[] falhas = new String[n];
+        BitmapVagas[] origens = new BitmapVagas[n];
+        int[] vagasOrigem = new int[n];
+        BitmapVagas[] destinos = new BitmapVagas[n];
+        int[] vagasDestino = new int[n];
+        // Travas adquiridas sempre na ordem do nome do setor; as demais operações seguram só uma por vez
+        Map<String, BitmapVagas> envolvidos = new TreeMap<>();
+
+        for (int i = 0; i < n; i++) {
+            Movimento movimento = movimentos.get(i);
+            try {
+                destinos[i] = setor(movimento.getSetorDestino());
+                vagasDestino[i] = vaga(movimento.getPosicaoDestino());
+                envolvidos.put(chave(movimento.getSetorDestino()), destinos[i]);
+            } catch (IllegalArgumentException e) {
+                falhas[i] = e.getMessage();
+                continue;
+            }
+            try {
+                origens[i] = setor(movimento.getSetorOrigem());
+                vagasOrigem[i] = vaga(movimento.getPosicaoOrigem());
+                envolvidos.put(chave(movimento.getSetorOrigem()), origens[i]);
+            } catch (IllegalArgumentException e) {
+                // Origem fora do mapa de vagas: não há o que liberar
+                origens[i] = null;
+            }
+        }
+
+        List<BitmapVagas> travas = new ArrayList<>(envolvidos.values());
+        boolean[] movidos = new boolean[n];
+        boolean[] origemMantida = new boolean[n];
+        comTravas(travas, 0, () -> {
+            boolean[] liberou = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                movidos[i] = falhas[i] == null;
+            }
+            while (true) {
+                for (int i = 0; i < n; i++) {
+                    liberou[i] = movidos[i] && origens[i] != null && origens[i].liberar(vagasOrigem[i]);
+                }
+                boolean[] ocupou = new boolean[n];
+                boolean estavel = true;
+                for (int i = 0; i < n; i++) {
+                    if (!movidos[i]) {
+                        continue;
+                    }
+                    if (destinos[i].ocupar(vagasDestino[i])) {
+                        ocupou[i] = true;
+                    } else {
+                        Movimento movimento = movimentos.get(i);
+                        falhas[i] = "A posição " + movimento.getPosicaoDestino() + " do setor "
+                                + movimento.getSetorDestino() + " já está ocupada";
+                        movidos[i] = false;
+                        estavel = false;
+                    }
+                }
+                if (estavel) {
+                    break;
+                }
+                // Desfaz a rodada: os itens que falharam voltam a ocupar a origem
+                for (int i = 0; i < n; i++) {
+                    if (ocupou[i]) {
+                        destinos[i].liberar(vagasDestino[i]);
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    if (liberou[i]) {
+                        origens[i].ocupar(vagasOrigem[i]);
+                    }
+                }
+            }
+            // Origens que nenhum item do lote ocupou seguem reservadas até o commit
+            for (int i = 0; i < n; i++) {
+                origemMantida[i] = liberou[i] && origens[i].ocupar(vagasOrigem[i]);
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    comTravas(travas, 0, () -> {
+                        for (int i = 0; i < n; i++) {
+                            if (!movidos[i]) {
+                                continue;
+                            }
+                            if (status == STATUS_COMMITTED) {
+                                if (origemMantida[i]) {
+                                    origens[i].liberar(vagasOrigem[i]);
+                                }
+                            } else {
+                                destinos[i].liberar(vagasDestino[i]);
+                            }
+                        }
+                        if (status != STATUS_COMMITTED) {
+                            for (int i = 0; i < n; i++) {
+                                if (movidos[i] && origens[i] != null) {
+                                    origens[i].ocupar(vagasOrigem[i]);
+                                }
+                            }
+                        }
+                    });
+                }
+            });
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (origemMantida[i]) {
+                    liberarVaga(origens[i], vagasOrigem[i]);
+                }
+            }
+        }
+        return falhas;
+    }
+
+    /**
+     * Ocupação de todos os setores conhecidos, sem acessar o banco
+     */
+    public List<OcupacaoSetor> getOcupacao() {
+        return setores.entrySet().stream()
+                .map(entry -> {
+                    BitmapVagas vagas = entry.getValue();
+                    synchronized (vagas) {
+                        int proxima = vagas.proximaLivre();
+                        return new OcupacaoSetor(entry.getKey(), vagas.getCapacidade(), vagas.getOcupadas(),
+                                proxima != BitmapVagas.NENHUMA ? String.valueOf(proxima + 1) : null);
+                    }
+                })
+                .sorted((a, b) -> a.getSetor().compareTo(b.getSetor()))
+                .collect(Collectors.toList());
+    }
+
+    private void desfazerSeNaoConfirmar(BitmapVagas vagas, int vaga) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    liberarVaga(vagas, vaga);
+                }
+            }
+        });
+    }
+
+    private static void comTravas(List<BitmapVagas> travas, int indice, Runnable acao) {
+        if (indice == travas.size()) {
+            acao.run();
+            return;
+        }
+        synchronized (travas.get(indice)) {
+            comTravas(travas, indice + 1, acao);
+        }
+    }
+
+    private static void liberarVaga(BitmapVagas vagas, int vaga) {
+        synchronized (vagas) {
+            vagas.liberar(vaga);
+        }
+    }
+
+    private BitmapVagas setor(String setor) {
+        if (setor == null || setor.isBlank()) {
+            throw new IllegalArgumentException("Setor é obrigatório");
+        }
+        return setores.computeIfAbsent(chave(setor), s -> new BitmapVagas(vagasPorSetor));
+    }
+
+    private static String chave(String setor) {
+        return setor.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private int vaga(String posicao) {
+        if (posicao != null) {
+            try {
+                int numero = Integer.parseInt(posicao.trim());
+                if (numero >= 1 && numero <= vagasPorSetor) {
+                    return numero - 1;
+                }
+            } catch (NumberFormatException e) {
+                // tratado abaixo
+            }
+        }
+        throw new IllegalArgumentException("Posição deve ser um número entre 1 e " + vagasPorSetor + ": " + posicao);
+    }
+
+    // Classe interna para uma troca de vaga da atualização em lote
+    public static class Movimento {
+        private String setorOrigem;
+        private String posicaoOrigem;
+        private String setorDestino;
+        private String posicaoDestino;
+
+        public Movimento(String setorOrigem, String posicaoOrigem, String setorDestino, String posicaoDestino) {
+            this.setorOrigem = setorOrigem;
+            this.posicaoOrigem = posicaoOrigem;
+            this.setorDestino = setorDestino;
+            this.posicaoDestino = posicaoDestino;
+        }
+
+        // Getters
+        public String getSetorOrigem() { return setorOrigem; }
+        public String getPosicaoOrigem() { return posicaoOrigem; }
+        public String getSetorDestino() { return setorDestino; }
+        public String getPosicaoDestino() { return posicaoDestino; }
+    }
+
+    // Classe interna para a ocupação de um setor
+    public static class OcupacaoSetor {
+        private String setor;
+        private int capacidade;
+        private int ocupadas;
+        private String proximaLivre;
+
+        public OcupacaoSetor(String setor, int capacidade, int ocupadas, String proximaLivre) {
+            this.setor = setor;
+            this.capacidade = capacidade;
+            this.ocupadas = ocupadas;
+            this.proximaLivre = proximaLivre;
+        }
+
+        // Getters
+        public String getSetor() { return setor; }
+        public int getCapacidade() { return capacidade; }
+        public int getOcupadas() { return ocupadas; }
+        public int getLivres() { return capacidade - ocupadas; }
+        public String getProximaLivre() { return proximaLivre; }
+    }
+}
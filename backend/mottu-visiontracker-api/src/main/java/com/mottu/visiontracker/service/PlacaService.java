@@ -0,0 +1,125 @@
+package com.mottu.visiontracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapa placa → id de todas as motos, residente em memória.
+ *
+ * Resolve as buscas por placa sem ir ao banco e garante a unicidade no cadastro: a placa é
+ * reservada de forma atômica (putIfAbsent) antes do save, o que fecha a janela entre o
+ * existsByPlaca e o save de dois cadastros concorrentes. Como no OcupacaoService, a reserva é
+ * desfeita se a transação não confirmar e a placa antiga só é liberada depois do commit.
+ * A constraint unique da coluna continua valendo como última garantia.
+ */
+@Service
+public class PlacaService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlacaService.class);
+
+    // Placa reservada por um cadastro ainda não confirmado
+    private static final long RESERVADA = 0L;
+
+    private final Map<String, Long> placas = new ConcurrentHashMap<>();
+
+    private volatile boolean carregado;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Carrega as placas cadastradas (executa depois do DataInitializer e do replay)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(11)
+    public void carregar() {
+        jdbcTemplate.query("SELECT placa, id FROM motos",
+                rs -> {
+                    placas.putIfAbsent(rs.getString(1), rs.getLong(2));
+                });
+        carregado = true;
+        log.info("Placas carregadas: {}", placas.size());
+    }
+
+    /**
+     * Reserva a placa para a transação corrente, falhando se ela já pertence a outra moto
+     */
+    public void reservar(String placa) {
+        if (placas.putIfAbsent(placa, RESERVADA) != null || (!carregado && existeNoBanco(placa))) {
+            throw new IllegalArgumentException("Já existe uma moto cadastrada com a placa: " + placa);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    placas.remove(placa);
+                }
+            }
+        });
+    }
+
+    /**
+     * Associa a placa reservada ao id gerado no save
+     */
+    public void associar(String placa, Long id) {
+        placas.put(placa, id);
+    }
+
+    /**
+     * Libera a placa depois que a transação corrente confirmar (ou imediatamente, fora de transação)
+     */
+    public void liberar(String placa) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            placas.remove(placa);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                placas.remove(placa);
+            }
+        });
+    }
+
+    /**
+     * Id da moto com a placa, ou null se não houver (ou se o cadastro ainda não foi confirmado)
+     */
+    public Long resolver(String placa) {
+        Long id = placas.get(placa);
+        return id != null && id != RESERVADA ? id : null;
+    }
+
+    /**
+     * Enquanto for false, o mapa ainda não tem as motos do banco e as buscas devem ir ao banco
+     */
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    public int getQuantidadePlacas() {
+        return placas.size();
+    }
+
+    private boolean existeNoBanco(String placa) {
+        Integer quantidade = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM motos WHERE placa = ?", Integer.class, placa);
+        boolean existe = quantidade != null && quantidade > 0;
+        if (existe) {
+            placas.remove(placa, RESERVADA);
+        }
+        return existe;
+    }
+}
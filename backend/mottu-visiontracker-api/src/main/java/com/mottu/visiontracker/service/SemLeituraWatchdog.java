@@ -0,0 +1,154 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.util.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Detecta motos que pararam de ser lidas pelos portais e gera alertas SEM_LEITURA.
+ *
+ * Cada moto monitorada tem um prazo em uma {@link TimingWheel}, rearmado a cada leitura resolvida
+ * para ela. Uma única thread avança a roda a cada tick; as motos cujo prazo venceu recebem o alerta
+ * pela fila do AlertaAutomaticoService e deixam de ser monitoradas até a próxima leitura, então uma moto parada gera
+ * um alerta só. Motos sem tag ou INATIVAS não são monitoradas.
+ */
+@Service
+public class SemLeituraWatchdog {
+
+    private static final Logger log = LoggerFactory.getLogger(SemLeituraWatchdog.class);
+
+    @Value("${visiontracker.watchdog.sem-leitura-ms:300000}")
+    private long timeoutMs;
+
+    @Value("${visiontracker.watchdog.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${visiontracker.watchdog.slots:512}")
+    private int slots;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AlertaAutomaticoService alertaAutomaticoService;
+
+    private TimingWheel roda;
+    private Thread relogio;
+    private volatile boolean ativo;
+
+    // Buffer das motos expiradas em um tick (acessado só pela thread do relógio)
+    private long[] expiradas = new long[256];
+    private int quantidadeExpiradas;
+
+    @PostConstruct
+    public void iniciar() {
+        roda = new TimingWheel(tickMs, slots, 1024, System.currentTimeMillis());
+        ativo = true;
+        relogio = new Thread(this::executar, "watchdog-sem-leitura");
+        relogio.setDaemon(true);
+        relogio.start();
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        LockSupport.unpark(relogio);
+        relogio.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Arma o prazo de todas as motos monitoráveis (executa depois do DataInitializer)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(20)
+    public void carregar() {
+        long prazo = System.currentTimeMillis() + timeoutMs;
+        int[] quantidade = new int[1];
+        synchronized (roda) {
+            jdbcTemplate.query("SELECT id FROM motos WHERE tag_rfid IS NOT NULL AND status <> ?",
+                    rs -> {
+                        roda.agendar(rs.getLong(1), prazo);
+                        quantidade[0]++;
+                    },
+                    Moto.StatusMoto.INATIVA.name());
+        }
+        log.info("Watchdog de leituras monitorando {} motos (timeout de {} s)", quantidade[0], timeoutMs / 1000);
+    }
+
+    /**
+     * Rearma o prazo da moto após uma leitura
+     */
+    public void registrarLeitura(long motoId) {
+        long prazo = System.currentTimeMillis() + timeoutMs;
+        synchronized (roda) {
+            roda.agendar(motoId, prazo);
+        }
+    }
+
+    /**
+     * Ajusta o monitoramento depois que a escrita da moto foi confirmada
+     */
+    @TransactionalEventListener
+    public void onMotoEvent(MotoEvent event) {
+        MotoDTO depois = event.getDepois();
+        long motoId = event.getMotoId();
+        synchronized (roda) {
+            if (depois == null || depois.getTagRFID() == null || depois.getStatus() == Moto.StatusMoto.INATIVA) {
+                roda.cancelar(motoId);
+            } else if (!roda.contem(motoId)) {
+                roda.agendar(motoId, System.currentTimeMillis() + timeoutMs);
+            }
+        }
+    }
+
+    public int getMotosMonitoradas() {
+        synchronized (roda) {
+            return roda.size();
+        }
+    }
+
+    private void executar() {
+        while (ativo) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(tickMs));
+
+            quantidadeExpiradas = 0;
+            synchronized (roda) {
+                roda.avancar(System.currentTimeMillis(), this::coletar);
+            }
+            for (int i = 0; i < quantidadeExpiradas; i++) {
+                alertaAutomaticoService.enfileirar(expiradas[i], Alerta.TipoAlerta.SEM_LEITURA,
+                        "Nenhuma leitura RFID há mais de " + descreverTimeout());
+            }
+        }
+    }
+
+    private void coletar(long motoId) {
+        if (quantidadeExpiradas == expiradas.length) {
+            expiradas = Arrays.copyOf(expiradas, expiradas.length * 2);
+        }
+        expiradas[quantidadeExpiradas++] = motoId;
+    }
+
+    private String descreverTimeout() {
+        long segundos = timeoutMs / 1000;
+        return segundos % 60 == 0 ? segundos / 60 + " min" : segundos + " s";
+    }
+}
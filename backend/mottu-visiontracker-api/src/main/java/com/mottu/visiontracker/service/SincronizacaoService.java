@@ -0,0 +1,145 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.AlertaDTO;
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.entity.RegistroRemocao;
+import com.mottu.visiontracker.repository.AlertaRepository;
+import com.mottu.visiontracker.repository.MotoRepository;
+import com.mottu.visiontracker.repository.RegistroRemocaoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sincronização incremental por cursor: devolve as motos e alertas gravados e as remoções
+ * registradas com versão maior que o cursor do cliente, em ordem de versão.
+ *
+ * Cada tabela é lida pelo índice de versão, então o custo acompanha o tamanho da mudança e não o da
+ * frota. A consulta só vai até a versão confirmada ({@link VersaoService#getConfirmada()}), e o
+ * próximo cursor é a última versão entregue, ou a confirmada quando não há mais nada.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SincronizacaoService {
+
+    public static final int LIMITE_MAXIMO = 5000;
+
+    @Autowired
+    private VersaoService versaoService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private RegistroRemocaoRepository registroRemocaoRepository;
+
+    /**
+     * Alterações depois do cursor, no máximo limite itens somando motos, alertas e remoções.
+     * Cursor 0, ou de outra execução, recebe a carga completa, que substitui o que o cliente tem.
+     */
+    public Alteracoes getAlteracoes(long desde, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + LIMITE_MAXIMO);
+        }
+        // Lida antes das consultas: tudo até ela já terminou e não muda mais
+        long ate = versaoService.getConfirmada();
+        boolean completo = desde < versaoService.getInicio() || desde > versaoService.getUltima();
+        long inicio = completo ? 0 : desde;
+
+        PageRequest pagina = PageRequest.of(0, limite);
+        List<Moto> motos = motoRepository.findAlteradas(inicio, ate, pagina);
+        List<Alerta> alertas = alertaRepository.findAlterados(inicio, ate, pagina);
+        List<RegistroRemocao> remocoes = registroRemocaoRepository.findRegistradas(inicio, ate, pagina);
+
+        // Junta as três listas em ordem de versão e corta no limite
+        Alteracoes alteracoes = new Alteracoes(completo);
+        int m = 0;
+        int a = 0;
+        int r = 0;
+        long ultima = inicio;
+        while (m + a + r < limite) {
+            long versaoMoto = m < motos.size() ? motos.get(m).getVersao() : Long.MAX_VALUE;
+            long versaoAlerta = a < alertas.size() ? alertas.get(a).getVersao() : Long.MAX_VALUE;
+            long versaoRemocao = r < remocoes.size() ? remocoes.get(r).getVersao() : Long.MAX_VALUE;
+            long menor = Math.min(versaoMoto, Math.min(versaoAlerta, versaoRemocao));
+            if (menor == Long.MAX_VALUE) {
+                break;
+            }
+            if (menor == versaoMoto) {
+                alteracoes.motos.add(new MotoDTO(motos.get(m++)));
+            } else if (menor == versaoAlerta) {
+                alteracoes.alertas.add(new AlertaDTO(alertas.get(a++)));
+            } else {
+                alteracoes.remocoes.add(new Remocao(remocoes.get(r++)));
+            }
+            ultima = menor;
+        }
+
+        // Uma lista cheia ou sobras na junção indicam que pode haver mais depois da última versão
+        alteracoes.temMais = m < motos.size() || a < alertas.size() || r < remocoes.size()
+                || motos.size() == limite || alertas.size() == limite || remocoes.size() == limite;
+        alteracoes.cursor = alteracoes.temMais ? ultima : Math.max(ate, inicio);
+        return alteracoes;
+    }
+
+    /**
+     * Registra a remoção de uma moto ou alerta na transação corrente
+     */
+    @Transactional
+    public void registrarRemocao(RegistroRemocao.Entidade entidade, Long id) {
+        registroRemocaoRepository.save(new RegistroRemocao(entidade, id));
+    }
+
+    // Classe interna para uma remoção entregue ao cliente
+    public static class Remocao {
+        private RegistroRemocao.Entidade entidade;
+        private Long id;
+        private Long versao;
+        private LocalDateTime removidoEm;
+
+        public Remocao(RegistroRemocao registro) {
+            this.entidade = registro.getEntidade();
+            this.id = registro.getEntidadeId();
+            this.versao = registro.getVersao();
+            this.removidoEm = registro.getRemovidoEm();
+        }
+
+        // Getters
+        public RegistroRemocao.Entidade getEntidade() { return entidade; }
+        public Long getId() { return id; }
+        public Long getVersao() { return versao; }
+        public LocalDateTime getRemovidoEm() { return removidoEm; }
+    }
+
+    // Classe interna para o resultado de uma sincronização
+    public static class Alteracoes {
+        private long cursor;
+        private boolean completo;
+        private boolean temMais;
+        private final List<MotoDTO> motos = new ArrayList<>();
+        private final List<AlertaDTO> alertas = new ArrayList<>();
+        private final List<Remocao> remocoes = new ArrayList<>();
+
+        public Alteracoes(boolean completo) {
+            this.completo = completo;
+        }
+
+        // Getters
+        public long getCursor() { return cursor; }
+        public boolean isCompleto() { return completo; }
+        public boolean isTemMais() { return temMais; }
+        public List<MotoDTO> getMotos() { return motos; }
+        public List<AlertaDTO> getAlertas() { return alertas; }
+        public List<Remocao> getRemocoes() { return remocoes; }
+    }
+}
@@ -0,0 +1,303 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.dto.MotoSnapshotDTO;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.entity.MotoAlteracao;
+import com.mottu.visiontracker.entity.SnapshotCheckpoint;
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.repository.SnapshotJdbcRepository;
+import com.mottu.visiontracker.util.CheckpointFrota;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshots do pátio em um instante passado ("onde estava cada moto às 14h?").
+ *
+ * Toda escrita em moto grava uma linha em motos_alteracoes na mesma transação. Uma thread grava
+ * checkpoints periódicos com o estado completo da frota, montados a partir do checkpoint anterior e
+ * das alterações seguintes. Um snapshot decodifica o checkpoint mais recente anterior ao instante e
+ * aplica só as alterações desde então, então o custo depende do intervalo entre checkpoints e não
+ * do tamanho do histórico.
+ *
+ * O primeiro checkpoint, no instante zero, guarda o estado dos dados iniciais; o JournalReplay o
+ * cria antes de reaplicar o journal e registra as alterações reaplicadas com os instantes originais.
+ */
+@Service
+public class SnapshotFrotaService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotFrotaService.class);
+
+    private static final Moto.StatusMoto[] STATUS = Moto.StatusMoto.values();
+
+    @Value("${visiontracker.snapshot.intervalo-checkpoint-ms:3600000}")
+    private long intervaloCheckpointMs;
+
+    @Value("${visiontracker.snapshot.alteracoes-por-checkpoint:50000}")
+    private long alteracoesPorCheckpoint;
+
+    // Margem para transações que gravaram a alteração mas ainda não confirmaram
+    @Value("${visiontracker.snapshot.atraso-checkpoint-ms:60000}")
+    private long atrasoCheckpointMs;
+
+    @Autowired
+    private SnapshotJdbcRepository snapshotJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LongAdder alteracoesDesdeCheckpoint = new LongAdder();
+    private volatile long ultimoCheckpoint = -1;
+
+    private Thread checkpointer;
+    private volatile boolean ativo;
+
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        checkpointer = new Thread(this::executar, "snapshot-checkpoints");
+        checkpointer.setDaemon(true);
+        checkpointer.start();
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        LockSupport.unpark(checkpointer);
+        checkpointer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Cria o checkpoint inicial se ainda não houver nenhum (executa depois do DataInitializer e do replay)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(5)
+    public void carregar() {
+        criarCheckpointInicial();
+        ultimoCheckpoint = snapshotJdbcRepository.ultimoInstanteCheckpoint().orElse(0L);
+    }
+
+    /**
+     * Guarda o estado atual da tabela de motos como checkpoint do instante zero, se não houver checkpoints
+     */
+    public synchronized void criarCheckpointInicial() {
+        if (snapshotJdbcRepository.ultimoInstanteCheckpoint().isPresent()) {
+            return;
+        }
+        Map<Long, MotoSnapshotDTO> estado = new HashMap<>();
+        jdbcTemplate.query("SELECT id, setor, posicao, status FROM motos",
+                rs -> {
+                    String status = rs.getString(4);
+                    estado.put(rs.getLong(1), new MotoSnapshotDTO(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            status != null ? Moto.StatusMoto.valueOf(status) : null));
+                });
+        gravarCheckpoint(0, estado);
+    }
+
+    /**
+     * Acumula a alteração na transação do MotoService; o batch é gravado antes do commit,
+     * então a linha do log confirma (ou não) junto com a escrita na moto
+     */
+    @EventListener
+    public void onMotoEvent(MotoEvent event) {
+        MotoAlteracao alteracao = alteracao(event.getMotoId(), event.getInstante(), event.getDepois());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registrarAlteracoes(Collections.singletonList(alteracao));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<MotoAlteracao> pendentes = (List<MotoAlteracao>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            List<MotoAlteracao> lista = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, lista);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    snapshotJdbcRepository.inserirAlteracoes(lista);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SnapshotFrotaService.this);
+                    if (status == STATUS_COMMITTED) {
+                        alteracoesDesdeCheckpoint.add(lista.size());
+                    }
+                }
+            });
+            pendentes = lista;
+        }
+        pendentes.add(alteracao);
+    }
+
+    /**
+     * Grava alterações fora do fluxo do MotoService (replay do journal)
+     */
+    public void registrarAlteracoes(List<MotoAlteracao> alteracoes) {
+        snapshotJdbcRepository.inserirAlteracoes(alteracoes);
+        alteracoesDesdeCheckpoint.add(alteracoes.size());
+    }
+
+    /**
+     * Alteração correspondente ao estado depois da escrita (null quando a moto foi removida)
+     */
+    public static MotoAlteracao alteracao(Long motoId, LocalDateTime instante, MotoDTO depois) {
+        long epoch = instante != null ? epochMillis(instante) : System.currentTimeMillis();
+        if (depois == null) {
+            return new MotoAlteracao(motoId, epoch, null, null, null);
+        }
+        return new MotoAlteracao(motoId, epoch, depois.getSetor(), depois.getPosicao(), depois.getStatus());
+    }
+
+    /**
+     * Setor, posição e status de todas as motos no instante (opcionalmente só de um setor)
+     */
+    public SnapshotFrota getSnapshot(LocalDateTime instante, String setor) {
+        long ate = epochMillis(instante);
+        Reconstrucao reconstrucao = reconstruir(ate);
+        String filtro = setor != null && !setor.isBlank() ? setor.trim().toUpperCase(Locale.ROOT) : null;
+        List<MotoSnapshotDTO> motos = reconstrucao.estado.values().stream()
+                .filter(moto -> filtro == null || (moto.getSetor() != null && moto.getSetor().trim().toUpperCase(Locale.ROOT).equals(filtro)))
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .collect(Collectors.toList());
+        return new SnapshotFrota(instante, dataHora(reconstrucao.checkpoint), reconstrucao.alteracoes, motos);
+    }
+
+    private Reconstrucao reconstruir(long ate) {
+        SnapshotCheckpoint checkpoint = snapshotJdbcRepository.buscarCheckpoint(ate)
+                .orElseThrow(() -> new IllegalArgumentException("Não há checkpoint anterior a " + dataHora(ate)));
+
+        Map<Long, MotoSnapshotDTO> estado = new HashMap<>(Math.max(16, checkpoint.getQuantidade() * 4 / 3 + 1));
+        CheckpointFrota.decodificar(checkpoint.getDados(), (id, setor, posicao, status) ->
+                estado.put(id, new MotoSnapshotDTO(id, setor, posicao, status > 0 ? STATUS[status - 1] : null)));
+
+        long[] aplicadas = new long[1];
+        snapshotJdbcRepository.percorrerAlteracoes(checkpoint.getInstante(), ate, alteracao -> {
+            aplicadas[0]++;
+            if (alteracao.isRemocao()) {
+                estado.remove(alteracao.getMotoId());
+            } else {
+                estado.put(alteracao.getMotoId(), new MotoSnapshotDTO(alteracao.getMotoId(),
+                        alteracao.getSetor(), alteracao.getPosicao(), alteracao.getStatus()));
+            }
+        });
+        return new Reconstrucao(checkpoint.getInstante(), aplicadas[0], estado);
+    }
+
+    private void executar() {
+        while (ativo) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(intervaloCheckpointMs, 1000)));
+            long instante = System.currentTimeMillis() - atrasoCheckpointMs;
+            long ultimo = ultimoCheckpoint;
+            if (!ativo || ultimo < 0 || instante <= ultimo) {
+                continue;
+            }
+            if (instante - ultimo < intervaloCheckpointMs && alteracoesDesdeCheckpoint.sum() < alteracoesPorCheckpoint) {
+                continue;
+            }
+            try {
+                criarCheckpoint(instante);
+            } catch (Exception e) {
+                log.error("Falha ao criar checkpoint do pátio; nova tentativa no próximo ciclo", e);
+            }
+        }
+    }
+
+    private synchronized void criarCheckpoint(long instante) {
+        long inicio = System.currentTimeMillis();
+        Reconstrucao reconstrucao = reconstruir(instante);
+        alteracoesDesdeCheckpoint.reset();
+        gravarCheckpoint(instante, reconstrucao.estado);
+        ultimoCheckpoint = instante;
+        log.info("Checkpoint do pátio em {}: {} motos, {} alterações desde o anterior ({} ms)",
+                dataHora(instante), reconstrucao.estado.size(), reconstrucao.alteracoes, System.currentTimeMillis() - inicio);
+    }
+
+    private void gravarCheckpoint(long instante, Map<Long, MotoSnapshotDTO> estado) {
+        long[] ids = new long[estado.size()];
+        int n = 0;
+        for (Long id : estado.keySet()) {
+            ids[n++] = id;
+        }
+        Arrays.sort(ids);
+        String[] setores = new String[n];
+        String[] posicoes = new String[n];
+        byte[] status = new byte[n];
+        for (int i = 0; i < n; i++) {
+            MotoSnapshotDTO moto = estado.get(ids[i]);
+            setores[i] = moto.getSetor();
+            posicoes[i] = moto.getPosicao();
+            status[i] = (byte) (moto.getStatus() != null ? moto.getStatus().ordinal() + 1 : 0);
+        }
+        snapshotJdbcRepository.inserirCheckpoint(
+                new SnapshotCheckpoint(instante, n, CheckpointFrota.codificar(ids, setores, posicoes, status, n)));
+    }
+
+    private static long epochMillis(LocalDateTime data) {
+        return data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime dataHora(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    // Estado reconstruído, com o checkpoint de partida e a quantidade de alterações aplicadas
+    private static class Reconstrucao {
+        private final long checkpoint;
+        private final long alteracoes;
+        private final Map<Long, MotoSnapshotDTO> estado;
+
+        Reconstrucao(long checkpoint, long alteracoes, Map<Long, MotoSnapshotDTO> estado) {
+            this.checkpoint = checkpoint;
+            this.alteracoes = alteracoes;
+            this.estado = estado;
+        }
+    }
+
+    // Classe interna para o snapshot do pátio
+    public static class SnapshotFrota {
+        private LocalDateTime instante;
+        private LocalDateTime checkpoint;
+        private long alteracoesAplicadas;
+        private List<MotoSnapshotDTO> motos;
+
+        public SnapshotFrota(LocalDateTime instante, LocalDateTime checkpoint, long alteracoesAplicadas, List<MotoSnapshotDTO> motos) {
+            this.instante = instante;
+            this.checkpoint = checkpoint;
+            this.alteracoesAplicadas = alteracoesAplicadas;
+            this.motos = motos;
+        }
+
+        // Getters
+        public LocalDateTime getInstante() { return instante; }
+        public LocalDateTime getCheckpoint() { return checkpoint; }
+        public long getAlteracoesAplicadas() { return alteracoesAplicadas; }
+        public int getTotal() { return motos.size(); }
+        public List<MotoSnapshotDTO> getMotos() { return motos; }
+    }
+}
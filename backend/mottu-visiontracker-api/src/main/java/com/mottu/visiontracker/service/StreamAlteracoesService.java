@@ -0,0 +1,355 @@
+package com.mottu.visiontracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mottu.visiontracker.dto.AlertaDTO;
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.event.AlertaEvent;
+import com.mottu.visiontracker.event.MotoEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Envio por Server-Sent Events das motos e alertas alterados, no lugar do polling das listas completas.
+ *
+ * Os MotoEvent e AlertaEvent confirmados são serializados uma vez e entregues a cada assinante cujo
+ * filtro aceita a alteração. Cada assinante tem uma fila limitada, drenada por um pool pequeno de threads
+ * de envio; quem deixa a fila encher é desconectado (o EventSource reconecta e recarrega a lista).
+ * O envio nunca acontece na thread que confirmou a escrita. Um comentário de heartbeat periódico
+ * detecta conexões mortas.
+ */
+@Service
+public class StreamAlteracoesService {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamAlteracoesService.class);
+
+    private static final Mensagem HEARTBEAT = new Mensagem(null, null, null);
+
+    @Value("${visiontracker.stream.capacidade-fila:256}")
+    private int capacidadeFila;
+
+    @Value("${visiontracker.stream.max-assinantes:1000}")
+    private int maxAssinantes;
+
+    @Value("${visiontracker.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${visiontracker.stream.intervalo-heartbeat-ms:15000}")
+    private long intervaloHeartbeatMs;
+
+    @Value("${visiontracker.stream.threads-envio:4}")
+    private int threadsEnvio;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final LongAdder enviadas = new LongAdder();
+    private final LongAdder desconectadosPorLentidao = new LongAdder();
+
+    private ExecutorService envio;
+    private Thread heartbeat;
+    private volatile boolean ativo;
+
+    @PostConstruct
+    public void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        envio = Executors.newFixedThreadPool(threadsEnvio, tarefa -> {
+            Thread thread = new Thread(tarefa, "stream-envio-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ativo = true;
+        heartbeat = new Thread(this::enviarHeartbeats, "stream-heartbeat");
+        heartbeat.setDaemon(true);
+        heartbeat.start();
+    }
+
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        LockSupport.unpark(heartbeat);
+        heartbeat.join(TimeUnit.SECONDS.toMillis(5));
+        for (Assinante assinante : assinantes) {
+            assinante.encerrar(false);
+        }
+        envio.shutdown();
+        envio.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Registra um assinante com o filtro informado
+     */
+    public SseEmitter assinar(Filtro filtro) {
+        if (assinantes.size() >= maxAssinantes) {
+            throw new IllegalStateException("Limite de " + maxAssinantes + " conexões de stream atingido");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Assinante assinante = new Assinante(emitter, filtro, capacidadeFila);
+        emitter.onCompletion(() -> assinantes.remove(assinante));
+        emitter.onTimeout(() -> assinante.encerrar(false));
+        emitter.onError(erro -> assinante.encerrar(false));
+        assinantes.add(assinante);
+        // Envia os cabeçalhos de imediato, para o cliente saber que a conexão foi aceita
+        assinante.publicar(HEARTBEAT);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMotoEvent(MotoEvent event) {
+        Mensagem mensagem = null;
+        for (Assinante assinante : assinantes) {
+            if (assinante.filtro.aceitaMoto(event.getAntes(), event.getDepois())) {
+                if (mensagem == null) {
+                    MotoDTO moto = event.getDepois() != null ? event.getDepois() : event.getAntes();
+                    mensagem = mensagem("moto", new AlteracaoMoto(event.getTipo(), moto));
+                }
+                assinante.publicar(mensagem);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertaEvent(AlertaEvent event) {
+        Mensagem mensagem = null;
+        for (Assinante assinante : assinantes) {
+            if (assinante.filtro.aceitaAlerta(event.getAlerta())) {
+                if (mensagem == null) {
+                    mensagem = mensagem("alerta", new AlteracaoAlerta(event.getTipo(), event.getAlerta()));
+                }
+                assinante.publicar(mensagem);
+            }
+        }
+    }
+
+    public StreamStats getStats() {
+        return new StreamStats(assinantes.size(), enviadas.sum(), desconectadosPorLentidao.sum());
+    }
+
+    private Mensagem mensagem(String nome, Object dados) {
+        try {
+            return new Mensagem(nome, Long.toString(sequencia.incrementAndGet()), objectMapper.writeValueAsString(dados));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar alteração para o stream", e);
+        }
+    }
+
+    private void enviarHeartbeats() {
+        while (ativo) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(intervaloHeartbeatMs));
+            for (Assinante assinante : assinantes) {
+                if (assinante.fila.isEmpty()) {
+                    assinante.publicar(HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    // Conexão de um cliente: fila limitada e envio serializado no pool
+    private class Assinante {
+        private final SseEmitter emitter;
+        private final Filtro filtro;
+        private final ArrayBlockingQueue<Mensagem> fila;
+        private final AtomicBoolean agendado = new AtomicBoolean();
+        private volatile boolean encerrado;
+
+        Assinante(SseEmitter emitter, Filtro filtro, int capacidade) {
+            this.emitter = emitter;
+            this.filtro = filtro;
+            this.fila = new ArrayBlockingQueue<>(capacidade);
+        }
+
+        void publicar(Mensagem mensagem) {
+            if (encerrado) {
+                return;
+            }
+            if (!fila.offer(mensagem)) {
+                desconectadosPorLentidao.increment();
+                log.info("Assinante do stream desconectado por não acompanhar as alterações ({} pendentes)", fila.size());
+                encerrar(true);
+                return;
+            }
+            agendar();
+        }
+
+        /**
+         * Remove o assinante; o complete do emitter roda no pool, porque pode esperar um envio bloqueado
+         */
+        void encerrar(boolean completar) {
+            if (encerrado) {
+                return;
+            }
+            encerrado = true;
+            assinantes.remove(this);
+            fila.clear();
+            if (completar) {
+                agendar();
+            }
+        }
+
+        private void agendar() {
+            if (agendado.compareAndSet(false, true)) {
+                try {
+                    envio.execute(this::drenar);
+                } catch (RuntimeException e) {
+                    // Pool encerrado
+                    agendado.set(false);
+                }
+            }
+        }
+
+        private void drenar() {
+            try {
+                Mensagem mensagem;
+                while (!encerrado && (mensagem = fila.poll()) != null) {
+                    if (mensagem == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name(mensagem.nome).id(mensagem.id).data(mensagem.dados));
+                        enviadas.increment();
+                    }
+                }
+                if (encerrado) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectou
+                encerrar(false);
+            } finally {
+                agendado.set(false);
+            }
+            if (!encerrado && !fila.isEmpty()) {
+                agendar();
+            }
+        }
+    }
+
+    // Alteração já serializada, compartilhada entre os assinantes
+    private static class Mensagem {
+        private final String nome;
+        private final String id;
+        private final String dados;
+
+        Mensagem(String nome, String id, String dados) {
+            this.nome = nome;
+            this.id = id;
+            this.dados = dados;
+        }
+    }
+
+    /**
+     * Filtros de uma conexão; conjuntos vazios aceitam tudo.
+     * Setor e status se aplicam às motos (antes ou depois da alteração, para o cliente ver a moto sair
+     * do filtro); setor também se aplica aos alertas, pela moto do alerta, e tipo só aos alertas.
+     */
+    public static class Filtro {
+        private final boolean motos;
+        private final boolean alertas;
+        private final Set<String> setores;
+        private final Set<Moto.StatusMoto> status;
+        private final Set<Alerta.TipoAlerta> tipos;
+
+        public Filtro(boolean motos, boolean alertas, Set<String> setores,
+                      Set<Moto.StatusMoto> status, Set<Alerta.TipoAlerta> tipos) {
+            this.motos = motos;
+            this.alertas = alertas;
+            this.setores = setores.stream().map(Filtro::normalizar).collect(Collectors.toSet());
+            this.status = status;
+            this.tipos = tipos;
+        }
+
+        boolean aceitaMoto(MotoDTO antes, MotoDTO depois) {
+            return motos && (aceita(antes) || aceita(depois));
+        }
+
+        boolean aceitaAlerta(AlertaDTO alerta) {
+            if (!alertas || (!tipos.isEmpty() && !tipos.contains(alerta.getTipo()))) {
+                return false;
+            }
+            return setores.isEmpty() || (alerta.getMoto() != null && setores.contains(normalizar(alerta.getMoto().getSetor())));
+        }
+
+        private boolean aceita(MotoDTO moto) {
+            return moto != null
+                    && (setores.isEmpty() || setores.contains(normalizar(moto.getSetor())))
+                    && (status.isEmpty() || status.contains(moto.getStatus()));
+        }
+
+        private static String normalizar(String setor) {
+            return setor != null ? setor.trim().toUpperCase(Locale.ROOT) : null;
+        }
+    }
+
+    // Classe interna para o evento "moto" enviado no stream
+    public static class AlteracaoMoto {
+        private MotoEvent.Tipo tipo;
+        private MotoDTO moto;
+
+        public AlteracaoMoto(MotoEvent.Tipo tipo, MotoDTO moto) {
+            this.tipo = tipo;
+            this.moto = moto;
+        }
+
+        // Getters
+        public MotoEvent.Tipo getTipo() { return tipo; }
+        public MotoDTO getMoto() { return moto; }
+    }
+
+    // Classe interna para o evento "alerta" enviado no stream
+    public static class AlteracaoAlerta {
+        private AlertaEvent.Tipo tipo;
+        private AlertaDTO alerta;
+
+        public AlteracaoAlerta(AlertaEvent.Tipo tipo, AlertaDTO alerta) {
+            this.tipo = tipo;
+            this.alerta = alerta;
+        }
+
+        // Getters
+        public AlertaEvent.Tipo getTipo() { return tipo; }
+        public AlertaDTO getAlerta() { return alerta; }
+    }
+
+    // Classe interna para estatísticas do stream
+    public static class StreamStats {
+        private int assinantes;
+        private long enviadas;
+        private long desconectadosPorLentidao;
+
+        public StreamStats(int assinantes, long enviadas, long desconectadosPorLentidao) {
+            this.assinantes = assinantes;
+            this.enviadas = enviadas;
+            this.desconectadosPorLentidao = desconectadosPorLentidao;
+        }
+
+        // Getters
+        public int getAssinantes() { return assinantes; }
+        public long getEnviadas() { return enviadas; }
+        public long getDesconectadosPorLentidao() { return desconectadosPorLentidao; }
+    }
+}
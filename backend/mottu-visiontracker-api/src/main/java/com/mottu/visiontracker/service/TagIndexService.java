@@ -0,0 +1,82 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.util.TagIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * Mantém em memória o índice tag RFID → moto usado para resolver leituras sem ir ao banco.
+ * É carregado quando a aplicação sobe e atualizado a cada escrita confirmada no MotoService.
+ */
+@Service
+public class TagIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(TagIndexService.class);
+
+    private final TagIndex index = new TagIndex();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Carrega todas as tags cadastradas (executa depois do DataInitializer)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public void carregar() {
+        index.clear();
+        jdbcTemplate.query("SELECT id, tag_rfid FROM motos WHERE tag_rfid IS NOT NULL",
+                rs -> {
+                    index.put(rs.getString(2), rs.getLong(1));
+                });
+        log.info("Índice de tags RFID carregado: {} tags, ~{} KB", index.size(), index.memoriaEstimada() / 1024);
+    }
+
+    /**
+     * Atualiza o índice depois que a escrita da moto foi confirmada
+     */
+    @TransactionalEventListener
+    public void onMotoEvent(MotoEvent event) {
+        MotoDTO antes = event.getAntes();
+        MotoDTO depois = event.getDepois();
+        String tagAntes = antes != null ? antes.getTagRFID() : null;
+        String tagDepois = depois != null ? depois.getTagRFID() : null;
+
+        if (tagAntes != null && !Objects.equals(tagAntes, tagDepois)) {
+            index.remove(tagAntes, antes.getId());
+        }
+        if (tagDepois != null) {
+            index.put(tagDepois, depois.getId());
+        }
+    }
+
+    /**
+     * Resolve a tag para o id da moto, ou null quando a tag não está cadastrada
+     */
+    public Long resolver(String tagRFID) {
+        long motoId = index.get(tagRFID);
+        return motoId != TagIndex.AUSENTE ? motoId : null;
+    }
+
+    /**
+     * Versão sem alocação de resolver, para tags já em bytes ASCII. Retorna TagIndex.AUSENTE se não houver moto.
+     */
+    public long resolver(byte[] tag, int offset, int length) {
+        return index.get(tag, offset, length);
+    }
+
+    public int getQuantidadeTags() {
+        return index.size();
+    }
+}
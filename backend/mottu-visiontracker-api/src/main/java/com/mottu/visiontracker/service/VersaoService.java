@@ -0,0 +1,118 @@
+package com.mottu.visiontracker.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Sequência monotônica das versões de sincronização de motos, alertas e remoções.
+ *
+ * A sequência começa no relógio da subida (ms × 1000): como o banco é recriado a cada execução,
+ * qualquer cursor de uma execução anterior fica abaixo do início e o cliente recebe a carga completa.
+ * Versões alocadas dentro de uma transação ficam "em aberto" até ela terminar; o cursor confirmado
+ * para logo antes da menor versão em aberto, para que uma transação lenta não tenha sua alteração
+ * pulada por um cliente que já leu versões maiores, confirmadas antes dela. Cada coleção guarda
+ * ainda a versão da sua última escrita confirmada, base dos ETags das listagens.
+ */
+@Service
+public class VersaoService {
+
+    private static final long VERSOES_POR_MS = 1000;
+
+    // Coleções com versão de lista própria, usada nos ETags
+    public enum Colecao {
+        MOTOS, ALERTAS
+    }
+
+    private final long inicio = System.currentTimeMillis() * VERSOES_POR_MS;
+    private long ultima = inicio;
+    private final TreeSet<Long> emAberto = new TreeSet<>();
+    private final Map<Colecao, Long> confirmadasPorColecao = new EnumMap<>(Colecao.class);
+
+    public VersaoService() {
+        for (Colecao colecao : Colecao.values()) {
+            confirmadasPorColecao.put(colecao, inicio);
+        }
+    }
+
+    /**
+     * Próxima versão para uma escrita na coleção; dentro de uma transação, fica em aberto até o commit ou rollback
+     */
+    public synchronized long proxima(Colecao colecao) {
+        long versao = ++ultima;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            confirmadasPorColecao.put(colecao, versao);
+            return versao;
+        }
+        emAberto.add(versao);
+        Pendentes pendentes = (Pendentes) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            Pendentes daTransacao = new Pendentes();
+            TransactionSynchronizationManager.bindResource(this, daTransacao);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(VersaoService.this);
+                    liberar(daTransacao, status == STATUS_COMMITTED);
+                }
+            });
+            pendentes = daTransacao;
+        }
+        pendentes.versoes.add(versao);
+        pendentes.colecoes.add(colecao);
+        return versao;
+    }
+
+    /**
+     * Maior versão abaixo da qual todas as transações já terminaram
+     */
+    public synchronized long getConfirmada() {
+        return emAberto.isEmpty() ? ultima : emAberto.first() - 1;
+    }
+
+    /**
+     * Maior versão já alocada
+     */
+    public synchronized long getUltima() {
+        return ultima;
+    }
+
+    /**
+     * Primeira versão desta execução (exclusiva): cursores abaixo dela vêm de outra execução
+     */
+    public long getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Versão da última escrita confirmada na coleção; muda só depois do commit, então serve de ETag
+     * para as listas: lida antes da consulta, nunca fica à frente dos dados devolvidos
+     */
+    public synchronized long getConfirmada(Colecao colecao) {
+        return confirmadasPorColecao.get(colecao);
+    }
+
+    private synchronized void liberar(Pendentes pendentes, boolean confirmada) {
+        emAberto.removeAll(pendentes.versoes);
+        if (confirmada) {
+            long maior = pendentes.versoes.get(pendentes.versoes.size() - 1);
+            for (Colecao colecao : pendentes.colecoes) {
+                confirmadasPorColecao.put(colecao, Math.max(confirmadasPorColecao.get(colecao), maior));
+            }
+        }
+    }
+
+    // Versões e coleções alocadas por uma transação
+    private static class Pendentes {
+        private final List<Long> versoes = new ArrayList<>();
+        private final Set<Colecao> colecoes = EnumSet.noneOf(Colecao.class);
+    }
+}
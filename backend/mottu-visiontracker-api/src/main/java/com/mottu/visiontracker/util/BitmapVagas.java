@@ -0,0 +1,99 @@
+package com.mottu.visiontracker.util;
+
+/**
+ * Mapa de ocupação das vagas de um setor em dois níveis de bits.
+ *
+ * Cada bit de {@code palavras} indica uma vaga ocupada; cada bit de {@code resumo} indica uma
+ * palavra que ainda tem vaga livre. A próxima vaga livre sai de dois numberOfTrailingZeros, em
+ * tempo constante, para até 64 x 64 = 4096 vagas.
+ *
+ * Não é thread-safe.
+ */
+public class BitmapVagas {
+
+    public static final int MAX_VAGAS = 64 * 64;
+    public static final int NENHUMA = -1;
+
+    private final int capacidade;
+    private final long[] palavras;
+    private long resumo;
+    private int ocupadas;
+
+    public BitmapVagas(int capacidade) {
+        if (capacidade < 1 || capacidade > MAX_VAGAS) {
+            throw new IllegalArgumentException("Capacidade do setor deve estar entre 1 e " + MAX_VAGAS);
+        }
+        this.capacidade = capacidade;
+        this.palavras = new long[(capacidade + 63) >>> 6];
+        // Bits além da capacidade ficam marcados como ocupados para nunca serem alocados
+        int resto = capacidade & 63;
+        if (resto != 0) {
+            palavras[palavras.length - 1] = -1L << resto;
+        }
+        this.resumo = palavras.length == 64 ? -1L : (1L << palavras.length) - 1;
+    }
+
+    /**
+     * Retorna a menor vaga livre (base 0), ou {@link #NENHUMA} se o setor estiver cheio
+     */
+    public int proximaLivre() {
+        if (resumo == 0) {
+            return NENHUMA;
+        }
+        int palavra = Long.numberOfTrailingZeros(resumo);
+        return (palavra << 6) | Long.numberOfTrailingZeros(~palavras[palavra]);
+    }
+
+    /**
+     * Marca a vaga como ocupada. Retorna false se ela já estava ocupada.
+     */
+    public boolean ocupar(int vaga) {
+        verificar(vaga);
+        int palavra = vaga >>> 6;
+        long bit = 1L << vaga;
+        if ((palavras[palavra] & bit) != 0) {
+            return false;
+        }
+        palavras[palavra] |= bit;
+        if (palavras[palavra] == -1L) {
+            resumo &= ~(1L << palavra);
+        }
+        ocupadas++;
+        return true;
+    }
+
+    /**
+     * Libera a vaga. Retorna false se ela já estava livre.
+     */
+    public boolean liberar(int vaga) {
+        verificar(vaga);
+        int palavra = vaga >>> 6;
+        long bit = 1L << vaga;
+        if ((palavras[palavra] & bit) == 0) {
+            return false;
+        }
+        palavras[palavra] &= ~bit;
+        resumo |= 1L << palavra;
+        ocupadas--;
+        return true;
+    }
+
+    public boolean isOcupada(int vaga) {
+        verificar(vaga);
+        return (palavras[vaga >>> 6] & (1L << vaga)) != 0;
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    public int getOcupadas() {
+        return ocupadas;
+    }
+
+    private void verificar(int vaga) {
+        if (vaga < 0 || vaga >= capacidade) {
+            throw new IllegalArgumentException("Vaga fora do setor: " + (vaga + 1));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.mottu.visiontracker.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bloco comprimido com a sequência de posições de uma moto.
+ *
+ * Cada ponto é gravado como diferença em relação ao anterior, em varints:
+ * <pre>
+ *   zigzag(instante - instante anterior)   ms; o primeiro ponto é relativo ao início do bloco
+ *   flags                                  1 byte (SETOR, POSICAO_NUMERO, POSICAO_TEXTO, COORDENADAS)
+ *   setor                                  só quando mudou: tamanho + UTF-8
+ *   posição                                zigzag(número - número anterior) ou tamanho + UTF-8
+ *   x, y                                   zigzag(centímetros - anteriores), quando presentes
+ * </pre>
+ * Sem a flag de posição, a posição é nula. Uma mudança típica de vaga ocupa 4 a 6 bytes.
+ * Um bloco fechado é decodificado do início; a consulta pula os blocos fora do intervalo.
+ */
+public class BlocoPosicoes {
+
+    public static final int MAX_PONTOS = 256;
+    public static final int MAX_BYTES = 4096;
+
+    private static final int SETOR = 1;
+    private static final int POSICAO_NUMERO = 2;
+    private static final int POSICAO_TEXTO = 4;
+    private static final int COORDENADAS = 8;
+
+    // Quando não há posição numérica anterior
+    private static final long SEM_NUMERO = 0;
+
+    private byte[] dados = new byte[256];
+    private int tamanho;
+    private int quantidade;
+    private long inicio;
+    private long fim;
+
+    // Último ponto gravado, base dos deltas do próximo
+    private long ultimoInstante;
+    private String ultimoSetor;
+    private long ultimoNumero = SEM_NUMERO;
+    private long ultimoX;
+    private long ultimoY;
+
+    /**
+     * Acrescenta um ponto ao bloco. Retorna false, sem alterar o bloco, se ele estiver cheio.
+     */
+    public boolean adicionar(long instante, String setor, String posicao, Double x, Double y) {
+        if (quantidade >= MAX_PONTOS) {
+            return false;
+        }
+        byte[] bytesSetor = setor != null && !setor.equals(ultimoSetor) ? setor.getBytes(StandardCharsets.UTF_8) : null;
+        long numero = numero(posicao);
+        byte[] bytesPosicao = posicao != null && numero == SEM_NUMERO ? posicao.getBytes(StandardCharsets.UTF_8) : null;
+        int pior = 10 + 1 + (bytesSetor != null ? 5 + bytesSetor.length : 0)
+                + (bytesPosicao != null ? 5 + bytesPosicao.length : 10) + 20;
+        if (quantidade > 0 && tamanho + pior > MAX_BYTES) {
+            return false;
+        }
+        garantir(pior);
+
+        if (quantidade == 0) {
+            inicio = instante;
+            ultimoInstante = instante;
+        }
+        // Os instantes podem chegar fora de ordem (commits concorrentes), por isso o delta tem sinal
+        int flags = (bytesSetor != null ? SETOR : 0)
+                | (numero != SEM_NUMERO ? POSICAO_NUMERO : 0)
+                | (bytesPosicao != null ? POSICAO_TEXTO : 0)
+                | (x != null && y != null ? COORDENADAS : 0);
+        escreverVarint(Varint.zigzag(instante - ultimoInstante));
+        dados[tamanho++] = (byte) flags;
+        if (bytesSetor != null) {
+            escreverTexto(bytesSetor);
+            ultimoSetor = setor;
+        }
+        if (numero != SEM_NUMERO) {
+            escreverVarint(Varint.zigzag(numero - ultimoNumero));
+            ultimoNumero = numero;
+        } else if (bytesPosicao != null) {
+            escreverTexto(bytesPosicao);
+        }
+        if ((flags & COORDENADAS) != 0) {
+            long cx = Math.round(x * 100);
+            long cy = Math.round(y * 100);
+            escreverVarint(Varint.zigzag(cx - ultimoX));
+            escreverVarint(Varint.zigzag(cy - ultimoY));
+            ultimoX = cx;
+            ultimoY = cy;
+        }
+
+        ultimoInstante = instante;
+        fim = quantidade == 0 ? instante : Math.max(fim, instante);
+        quantidade++;
+        return true;
+    }
+
+    /**
+     * Decodifica os pontos com instante entre de e ate (inclusive)
+     */
+    public static void decodificar(byte[] dados, int tamanho, long inicio, long de, long ate, Leitor leitor) {
+        int[] pos = {0};
+        long instante = inicio;
+        String setor = null;
+        long numero = SEM_NUMERO;
+        long cx = 0;
+        long cy = 0;
+        while (pos[0] < tamanho) {
+            instante += Varint.unzigzag(Varint.ler(dados, pos));
+            int flags = dados[pos[0]++] & 0xFF;
+            if ((flags & SETOR) != 0) {
+                setor = lerTexto(dados, pos);
+            }
+            String posicao = null;
+            if ((flags & POSICAO_NUMERO) != 0) {
+                numero += Varint.unzigzag(Varint.ler(dados, pos));
+                posicao = Long.toString(numero);
+            } else if ((flags & POSICAO_TEXTO) != 0) {
+                posicao = lerTexto(dados, pos);
+            }
+            Double x = null;
+            Double y = null;
+            if ((flags & COORDENADAS) != 0) {
+                cx += Varint.unzigzag(Varint.ler(dados, pos));
+                cy += Varint.unzigzag(Varint.ler(dados, pos));
+                x = cx / 100.0;
+                y = cy / 100.0;
+            }
+            if (instante >= de && instante <= ate) {
+                leitor.ponto(instante, setor, posicao, x, y);
+            }
+        }
+    }
+
+    /**
+     * Decodifica os pontos deste bloco (ainda aberto) no intervalo
+     */
+    public void decodificar(long de, long ate, Leitor leitor) {
+        decodificar(dados, tamanho, inicio, de, ate, leitor);
+    }
+
+    /**
+     * Cópia dos bytes gravados, para persistir o bloco
+     */
+    public byte[] getBytes() {
+        return Arrays.copyOf(dados, tamanho);
+    }
+
+    public boolean isVazio() {
+        return quantidade == 0;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public long getInicio() {
+        return inicio;
+    }
+
+    public long getFim() {
+        return fim;
+    }
+
+    // Posição "1".."N" sem zeros à esquerda vira número; o resto é gravado como texto
+    private static long numero(String posicao) {
+        if (posicao == null || posicao.isEmpty() || posicao.length() > 9 || posicao.charAt(0) == '0') {
+            return SEM_NUMERO;
+        }
+        long numero = 0;
+        for (int i = 0; i < posicao.length(); i++) {
+            char c = posicao.charAt(i);
+            if (c < '0' || c > '9') {
+                return SEM_NUMERO;
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        return numero;
+    }
+
+    private void garantir(int bytes) {
+        if (tamanho + bytes > dados.length) {
+            dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + bytes));
+        }
+    }
+
+    private void escreverTexto(byte[] texto) {
+        escreverVarint(texto.length);
+        System.arraycopy(texto, 0, dados, tamanho, texto.length);
+        tamanho += texto.length;
+    }
+
+    private void escreverVarint(long valor) {
+        tamanho = Varint.escrever(dados, tamanho, valor);
+    }
+
+    private static String lerTexto(byte[] dados, int[] pos) {
+        int tamanho = (int) Varint.ler(dados, pos);
+        String texto = new String(dados, pos[0], tamanho, StandardCharsets.UTF_8);
+        pos[0] += tamanho;
+        return texto;
+    }
+
+    /**
+     * Recebe os pontos decodificados
+     */
+    public interface Leitor {
+        void ponto(long instante, String setor, String posicao, Double x, Double y);
+    }
+}
@@ -0,0 +1,166 @@
+package com.mottu.visiontracker.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codificação compacta do estado de toda a frota em um instante.
+ *
+ * <pre>
+ *   quantidade de motos, quantidade de setores      varints
+ *   setores distintos                               tamanho + UTF-8 cada
+ *   por moto, em ordem crescente de id:
+ *     id - id anterior                              varint
+ *     índice do setor + 1 (0 = nulo)                varint
+ *     posição: número &lt;&lt; 1, ou (tamanho &lt;&lt; 1) | 1 + UTF-8 (0 = nula)
+ *     status                                        1 byte, código definido por quem chama
+ * </pre>
+ * Com ids sequenciais e posições numéricas, cada moto ocupa uns 5 bytes: 100 mil motos cabem em ~500 KB.
+ */
+public final class CheckpointFrota {
+
+    private CheckpointFrota() {
+    }
+
+    /**
+     * Codifica as n primeiras motos; os ids devem estar em ordem crescente
+     */
+    public static byte[] codificar(long[] ids, String[] setores, String[] posicoes, byte[] status, int n) {
+        Map<String, Integer> indices = new HashMap<>();
+        String[] distintos = new String[16];
+        int quantidadeSetores = 0;
+        int[] indiceSetor = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (setores[i] == null) {
+                continue;
+            }
+            Integer indice = indices.get(setores[i]);
+            if (indice == null) {
+                indice = quantidadeSetores++;
+                indices.put(setores[i], indice);
+                if (indice == distintos.length) {
+                    distintos = Arrays.copyOf(distintos, distintos.length * 2);
+                }
+                distintos[indice] = setores[i];
+            }
+            indiceSetor[i] = indice + 1;
+        }
+
+        Buffer out = new Buffer(16 + n * 6);
+        out.varint(n);
+        out.varint(quantidadeSetores);
+        for (int i = 0; i < quantidadeSetores; i++) {
+            out.texto(distintos[i].getBytes(StandardCharsets.UTF_8));
+        }
+        long anterior = 0;
+        for (int i = 0; i < n; i++) {
+            out.varint(ids[i] - anterior);
+            anterior = ids[i];
+            out.varint(indiceSetor[i]);
+            long numero = numero(posicoes[i]);
+            if (posicoes[i] == null) {
+                out.varint(0);
+            } else if (numero > 0) {
+                out.varint(numero << 1);
+            } else {
+                byte[] bytes = posicoes[i].getBytes(StandardCharsets.UTF_8);
+                out.varint(((long) bytes.length << 1) | 1);
+                out.bytes(bytes);
+            }
+            out.garantir(1);
+            out.dados[out.tamanho++] = status[i];
+        }
+        return Arrays.copyOf(out.dados, out.tamanho);
+    }
+
+    /**
+     * Entrega cada moto do checkpoint, em ordem de id
+     */
+    public static void decodificar(byte[] dados, Leitor leitor) {
+        int[] pos = {0};
+        int quantidade = (int) Varint.ler(dados, pos);
+        String[] setores = new String[(int) Varint.ler(dados, pos)];
+        for (int i = 0; i < setores.length; i++) {
+            setores[i] = texto(dados, pos, (int) Varint.ler(dados, pos));
+        }
+        long id = 0;
+        for (int i = 0; i < quantidade; i++) {
+            id += Varint.ler(dados, pos);
+            int indiceSetor = (int) Varint.ler(dados, pos);
+            long posicao = Varint.ler(dados, pos);
+            String textoPosicao;
+            if (posicao == 0) {
+                textoPosicao = null;
+            } else if ((posicao & 1) == 0) {
+                textoPosicao = Long.toString(posicao >>> 1);
+            } else {
+                textoPosicao = texto(dados, pos, (int) (posicao >>> 1));
+            }
+            int status = dados[pos[0]++];
+            leitor.moto(id, indiceSetor > 0 ? setores[indiceSetor - 1] : null, textoPosicao, status);
+        }
+    }
+
+    // Mesma regra do BlocoPosicoes: só "1".."N" sem zeros à esquerda é gravado como número
+    private static long numero(String posicao) {
+        if (posicao == null || posicao.isEmpty() || posicao.length() > 9 || posicao.charAt(0) == '0') {
+            return 0;
+        }
+        long numero = 0;
+        for (int i = 0; i < posicao.length(); i++) {
+            char c = posicao.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        return numero;
+    }
+
+    private static String texto(byte[] dados, int[] pos, int tamanho) {
+        String texto = new String(dados, pos[0], tamanho, StandardCharsets.UTF_8);
+        pos[0] += tamanho;
+        return texto;
+    }
+
+    // Array que cresce conforme a escrita
+    private static class Buffer {
+        private byte[] dados;
+        private int tamanho;
+
+        Buffer(int capacidade) {
+            dados = new byte[capacidade];
+        }
+
+        void garantir(int bytes) {
+            if (tamanho + bytes > dados.length) {
+                dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + bytes));
+            }
+        }
+
+        void varint(long valor) {
+            garantir(Varint.MAX_BYTES);
+            tamanho = Varint.escrever(dados, tamanho, valor);
+        }
+
+        void bytes(byte[] valor) {
+            garantir(valor.length);
+            System.arraycopy(valor, 0, dados, tamanho, valor.length);
+            tamanho += valor.length;
+        }
+
+        void texto(byte[] valor) {
+            varint(valor.length);
+            bytes(valor);
+        }
+    }
+
+    /**
+     * Recebe as motos decodificadas
+     */
+    public interface Leitor {
+        void moto(long id, String setor, String posicao, int status);
+    }
+}
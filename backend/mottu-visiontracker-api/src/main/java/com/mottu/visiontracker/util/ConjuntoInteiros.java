@@ -0,0 +1,226 @@
+package com.mottu.visiontracker.util;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Conjunto de inteiros não negativos comprimido por faixas de 65536 valores, no estilo Roaring.
+ *
+ * Cada faixa (16 bits altos) guarda os 16 bits baixos de seus valores em um array ordenado de char
+ * enquanto tiver até 4096 valores (2 bytes por valor) e, acima disso, em um bitmap de 8 KB. Assim
+ * listas esparsas e densas ocupam pouco e a consulta de pertinência é uma busca binária curta ou
+ * um teste de bit.
+ *
+ * Não é thread-safe.
+ */
+public class ConjuntoInteiros {
+
+    // Acima disso, o bitmap (1024 longs) ocupa menos que o array
+    private static final int LIMITE_ARRAY = 4096;
+
+    private char[] chaves = new char[2];
+    private Faixa[] faixas = new Faixa[2];
+    private int quantidadeFaixas;
+    private int tamanho;
+
+    /**
+     * Adiciona o valor; retorna false se ele já estava no conjunto
+     */
+    public boolean adicionar(int valor) {
+        checar(valor);
+        char chave = (char) (valor >>> 16);
+        int indice = Arrays.binarySearch(chaves, 0, quantidadeFaixas, chave);
+        if (indice < 0) {
+            indice = -indice - 1;
+            if (quantidadeFaixas == chaves.length) {
+                chaves = Arrays.copyOf(chaves, quantidadeFaixas * 2);
+                faixas = Arrays.copyOf(faixas, quantidadeFaixas * 2);
+            }
+            System.arraycopy(chaves, indice, chaves, indice + 1, quantidadeFaixas - indice);
+            System.arraycopy(faixas, indice, faixas, indice + 1, quantidadeFaixas - indice);
+            chaves[indice] = chave;
+            faixas[indice] = new Faixa();
+            quantidadeFaixas++;
+        }
+        if (faixas[indice].adicionar((char) valor)) {
+            tamanho++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove o valor; retorna false se ele não estava no conjunto
+     */
+    public boolean remover(int valor) {
+        if (valor < 0) {
+            return false;
+        }
+        int indice = Arrays.binarySearch(chaves, 0, quantidadeFaixas, (char) (valor >>> 16));
+        if (indice < 0 || !faixas[indice].remover((char) valor)) {
+            return false;
+        }
+        tamanho--;
+        if (faixas[indice].tamanho == 0) {
+            System.arraycopy(chaves, indice + 1, chaves, indice, quantidadeFaixas - indice - 1);
+            System.arraycopy(faixas, indice + 1, faixas, indice, quantidadeFaixas - indice - 1);
+            quantidadeFaixas--;
+            faixas[quantidadeFaixas] = null;
+        }
+        return true;
+    }
+
+    public boolean contem(int valor) {
+        if (valor < 0) {
+            return false;
+        }
+        int indice = Arrays.binarySearch(chaves, 0, quantidadeFaixas, (char) (valor >>> 16));
+        return indice >= 0 && faixas[indice].contem((char) valor);
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    /**
+     * Percorre os valores em ordem crescente até o consumidor retornar false
+     */
+    public void percorrer(IntPredicate consumidor) {
+        for (int i = 0; i < quantidadeFaixas; i++) {
+            if (!faixas[i].percorrer(chaves[i] << 16, consumidor)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Bytes aproximados ocupados pelo conjunto
+     */
+    public long memoriaEstimada() {
+        long bytes = 32 + chaves.length * 2L + faixas.length * 4L;
+        for (int i = 0; i < quantidadeFaixas; i++) {
+            Faixa faixa = faixas[i];
+            bytes += 32 + (faixa.bits != null ? faixa.bits.length * 8L : faixa.valores.length * 2L);
+        }
+        return bytes;
+    }
+
+    private static void checar(int valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("Valor negativo: " + valor);
+        }
+    }
+
+    // Os valores de uma faixa: array ordenado ou bitmap
+    private static class Faixa {
+        private char[] valores = new char[4];
+        private long[] bits;
+        private int tamanho;
+
+        boolean adicionar(char valor) {
+            if (bits != null) {
+                long mascara = 1L << valor;
+                if ((bits[valor >>> 6] & mascara) != 0) {
+                    return false;
+                }
+                bits[valor >>> 6] |= mascara;
+                tamanho++;
+                return true;
+            }
+            int indice = Arrays.binarySearch(valores, 0, tamanho, valor);
+            if (indice >= 0) {
+                return false;
+            }
+            if (tamanho == LIMITE_ARRAY) {
+                paraBitmap();
+                return adicionar(valor);
+            }
+            indice = -indice - 1;
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(tamanho * 2, LIMITE_ARRAY));
+            }
+            System.arraycopy(valores, indice, valores, indice + 1, tamanho - indice);
+            valores[indice] = valor;
+            tamanho++;
+            return true;
+        }
+
+        boolean remover(char valor) {
+            if (bits != null) {
+                long mascara = 1L << valor;
+                if ((bits[valor >>> 6] & mascara) == 0) {
+                    return false;
+                }
+                bits[valor >>> 6] &= ~mascara;
+                tamanho--;
+                // Volta para array só bem abaixo do limite, para não alternar a cada escrita
+                if (tamanho <= LIMITE_ARRAY / 2) {
+                    paraArray();
+                }
+                return true;
+            }
+            int indice = Arrays.binarySearch(valores, 0, tamanho, valor);
+            if (indice < 0) {
+                return false;
+            }
+            System.arraycopy(valores, indice + 1, valores, indice, tamanho - indice - 1);
+            tamanho--;
+            return true;
+        }
+
+        boolean contem(char valor) {
+            if (bits != null) {
+                return (bits[valor >>> 6] & (1L << valor)) != 0;
+            }
+            return Arrays.binarySearch(valores, 0, tamanho, valor) >= 0;
+        }
+
+        boolean percorrer(int base, IntPredicate consumidor) {
+            if (bits == null) {
+                for (int i = 0; i < tamanho; i++) {
+                    if (!consumidor.test(base | valores[i])) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            for (int palavra = 0; palavra < bits.length; palavra++) {
+                long restante = bits[palavra];
+                while (restante != 0) {
+                    int bit = Long.numberOfTrailingZeros(restante);
+                    if (!consumidor.test(base | (palavra << 6) | bit)) {
+                        return false;
+                    }
+                    restante &= restante - 1;
+                }
+            }
+            return true;
+        }
+
+        private void paraBitmap() {
+            bits = new long[1024];
+            for (int i = 0; i < tamanho; i++) {
+                bits[valores[i] >>> 6] |= 1L << valores[i];
+            }
+            valores = null;
+        }
+
+        private void paraArray() {
+            char[] array = new char[Math.max(4, tamanho)];
+            int n = 0;
+            for (int palavra = 0; palavra < bits.length; palavra++) {
+                long restante = bits[palavra];
+                while (restante != 0) {
+                    array[n++] = (char) ((palavra << 6) | Long.numberOfTrailingZeros(restante));
+                    restante &= restante - 1;
+                }
+            }
+            valores = array;
+            bits = null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.mottu.visiontracker.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco da paginação por chave: data e id do último item entregue, em Base64 URL.
+ * A próxima página começa logo depois desse par na ordem (data desc, id desc).
+ */
+public final class CursorPagina {
+
+    private final LocalDateTime data;
+    private final long id;
+
+    private CursorPagina(LocalDateTime data, long id) {
+        this.data = data;
+        this.id = id;
+    }
+
+    public static String codificar(LocalDateTime data, long id) {
+        String texto = data + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lê um cursor recebido do cliente; IllegalArgumentException se ele não veio desta API
+     */
+    public static CursorPagina decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int virgula = texto.lastIndexOf(',');
+            return new CursorPagina(LocalDateTime.parse(texto.substring(0, virgula)),
+                    Long.parseLong(texto.substring(virgula + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    public LocalDateTime getData() {
+        return data;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,17 @@
+package com.mottu.visiontracker.util;
+
+import java.util.Arrays;
+
+/**
+ * ETag forte das listagens: coleção, versão da última escrita confirmada e os filtros da consulta.
+ * A mesma versão com filtros diferentes gera ETags diferentes.
+ */
+public final class EtagLista {
+
+    private EtagLista() {
+    }
+
+    public static String de(String colecao, long versao, Object... filtros) {
+        return colecao + "-" + Long.toString(versao, 36) + "-" + Integer.toHexString(Arrays.hashCode(filtros));
+    }
+}
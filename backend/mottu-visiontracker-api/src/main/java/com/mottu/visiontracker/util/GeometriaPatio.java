@@ -0,0 +1,178 @@
+package com.mottu.visiontracker.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Layout do pátio: setores como polígonos em metros, com um índice em grade para localizar pontos.
+ *
+ * Cada célula da grade guarda os setores cujo retângulo envolvente a toca, então localizar um ponto
+ * é calcular a célula e testar só esses poucos polígonos. A instância é imutável e pode ser
+ * compartilhada entre threads.
+ *
+ * O layout é descrito como {@code NOME:x y,x y,...;NOME:...}, por exemplo o padrão com as zonas
+ * A–D da tela de mapa do pátio: {@code A:0 0,50 0,50 30,0 30;B:50 0,100 0,100 30,50 30;...}.
+ */
+public class GeometriaPatio {
+
+    public static final int FORA = -1;
+
+    private static final int[] VAZIO = new int[0];
+
+    private final double largura;
+    private final double altura;
+    private final String[] nomes;
+    private final double[][] xs;
+    private final double[][] ys;
+
+    private final double tamanhoCelula;
+    private final int colunas;
+    private final int linhas;
+    private final int[][] celulas;
+
+    public GeometriaPatio(double largura, double altura, double tamanhoCelula,
+                          List<String> nomes, List<double[]> xs, List<double[]> ys) {
+        if (largura <= 0 || altura <= 0 || tamanhoCelula <= 0) {
+            throw new IllegalArgumentException("Dimensões do pátio e da célula devem ser positivas");
+        }
+        this.largura = largura;
+        this.altura = altura;
+        this.nomes = nomes.toArray(new String[0]);
+        this.xs = xs.toArray(new double[0][]);
+        this.ys = ys.toArray(new double[0][]);
+
+        this.tamanhoCelula = tamanhoCelula;
+        this.colunas = (int) Math.ceil(largura / tamanhoCelula);
+        this.linhas = (int) Math.ceil(altura / tamanhoCelula);
+        this.celulas = indexar();
+    }
+
+    /**
+     * Lê o layout no formato {@code NOME:x y,x y,...;NOME:...}
+     */
+    public static GeometriaPatio parse(double largura, double altura, double tamanhoCelula, String layout) {
+        List<String> nomes = new ArrayList<>();
+        List<double[]> xs = new ArrayList<>();
+        List<double[]> ys = new ArrayList<>();
+        for (String setor : layout.split(";")) {
+            if (setor.isBlank()) {
+                continue;
+            }
+            String[] partes = setor.split(":");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Setor inválido no layout do pátio: " + setor);
+            }
+            String[] vertices = partes[1].split(",");
+            if (vertices.length < 3) {
+                throw new IllegalArgumentException("Setor " + partes[0].trim() + " precisa de pelo menos 3 vértices");
+            }
+            double[] x = new double[vertices.length];
+            double[] y = new double[vertices.length];
+            for (int i = 0; i < vertices.length; i++) {
+                String[] ponto = vertices[i].trim().split("\\s+");
+                if (ponto.length != 2) {
+                    throw new IllegalArgumentException("Vértice inválido no setor " + partes[0].trim() + ": " + vertices[i]);
+                }
+                x[i] = Double.parseDouble(ponto[0]);
+                y[i] = Double.parseDouble(ponto[1]);
+            }
+            nomes.add(partes[0].trim().toUpperCase(Locale.ROOT));
+            xs.add(x);
+            ys.add(y);
+        }
+        return new GeometriaPatio(largura, altura, tamanhoCelula, nomes, xs, ys);
+    }
+
+    /**
+     * Retorna o índice do setor que contém o ponto, ou {@link #FORA}
+     */
+    public int localizar(double x, double y) {
+        if (!(x >= 0 && x < largura && y >= 0 && y < altura)) {
+            return FORA;
+        }
+        int coluna = Math.min((int) (x / tamanhoCelula), colunas - 1);
+        int linha = Math.min((int) (y / tamanhoCelula), linhas - 1);
+        for (int setor : celulas[linha * colunas + coluna]) {
+            if (contem(setor, x, y)) {
+                return setor;
+            }
+        }
+        return FORA;
+    }
+
+    /**
+     * Retorna o setor do layout a que um código de setor da moto pertence (ex.: "A1" → A), ou {@link #FORA}.
+     * Vale o nome mais longo que seja prefixo do código.
+     */
+    public int resolverCodigo(String codigo) {
+        if (codigo == null) {
+            return FORA;
+        }
+        String normalizado = codigo.trim().toUpperCase(Locale.ROOT);
+        int encontrado = FORA;
+        for (int i = 0; i < nomes.length; i++) {
+            if (normalizado.startsWith(nomes[i])
+                    && (encontrado == FORA || nomes[i].length() > nomes[encontrado].length())) {
+                encontrado = i;
+            }
+        }
+        return encontrado;
+    }
+
+    public String getNome(int setor) {
+        return nomes[setor];
+    }
+
+    public int getQuantidadeSetores() {
+        return nomes.length;
+    }
+
+    /**
+     * Teste de ponto em polígono por contagem de cruzamentos do raio horizontal
+     */
+    private boolean contem(int setor, double x, double y) {
+        double[] px = xs[setor];
+        double[] py = ys[setor];
+        boolean dentro = false;
+        for (int i = 0, j = px.length - 1; i < px.length; j = i++) {
+            if ((py[i] > y) != (py[j] > y)
+                    && x < (px[j] - px[i]) * (y - py[i]) / (py[j] - py[i]) + px[i]) {
+                dentro = !dentro;
+            }
+        }
+        return dentro;
+    }
+
+    private int[][] indexar() {
+        List<List<Integer>> porCelula = new ArrayList<>(colunas * linhas);
+        for (int i = 0; i < colunas * linhas; i++) {
+            porCelula.add(new ArrayList<>());
+        }
+        for (int setor = 0; setor < nomes.length; setor++) {
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (int i = 0; i < xs[setor].length; i++) {
+                minX = Math.min(minX, xs[setor][i]);
+                maxX = Math.max(maxX, xs[setor][i]);
+                minY = Math.min(minY, ys[setor][i]);
+                maxY = Math.max(maxY, ys[setor][i]);
+            }
+            int colunaInicial = Math.max(0, (int) (minX / tamanhoCelula));
+            int colunaFinal = Math.min(colunas - 1, (int) (maxX / tamanhoCelula));
+            int linhaInicial = Math.max(0, (int) (minY / tamanhoCelula));
+            int linhaFinal = Math.min(linhas - 1, (int) (maxY / tamanhoCelula));
+            for (int linha = linhaInicial; linha <= linhaFinal; linha++) {
+                for (int coluna = colunaInicial; coluna <= colunaFinal; coluna++) {
+                    porCelula.get(linha * colunas + coluna).add(setor);
+                }
+            }
+        }
+
+        int[][] resultado = new int[colunas * linhas][];
+        for (int i = 0; i < resultado.length; i++) {
+            List<Integer> setores = porCelula.get(i);
+            resultado[i] = setores.isEmpty() ? VAZIO : setores.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return resultado;
+    }
+}
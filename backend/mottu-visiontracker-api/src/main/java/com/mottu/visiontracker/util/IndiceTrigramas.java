@@ -0,0 +1,224 @@
+package com.mottu.visiontracker.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Índice de trigramas para busca por substring em alguns campos de texto de cada registro.
+ *
+ * Cada campo tem seu mapa trigrama → {@link ConjuntoInteiros} com os ids que contêm o trigrama.
+ * Um termo com 3 ou mais caracteres só pode estar em registros que tenham todos os seus trigramas:
+ * a busca percorre a menor dessas listas, testa a pertinência nas demais e confirma cada candidato
+ * com um contains no valor guardado (trigramas em comum não garantem a substring). Termos de 1 ou
+ * 2 caracteres não filtram pelo índice; se nenhum termo da busca tiver 3 caracteres, os valores
+ * guardados são percorridos em sequência. A comparação ignora maiúsculas, como LOWER(x) LIKE.
+ *
+ * Cada registro também tem uma categoria (um int), usada como filtro exato.
+ * Leituras são concorrentes; escritas são serializadas por um lock de escrita.
+ */
+public class IndiceTrigramas {
+
+    public static final int QUALQUER_CATEGORIA = -1;
+
+    private final int quantidadeCampos;
+    private final List<Map<Long, ConjuntoInteiros>> trigramas = new ArrayList<>();
+
+    // Valores normalizados e categoria por id; null quando o id não está no índice
+    private String[][] valores;
+    private int[] categorias;
+    private int tamanho;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IndiceTrigramas(int quantidadeCampos) {
+        this.quantidadeCampos = quantidadeCampos;
+        for (int i = 0; i < quantidadeCampos; i++) {
+            trigramas.add(new HashMap<>());
+        }
+        this.valores = new String[1024][];
+        this.categorias = new int[1024];
+    }
+
+    /**
+     * Indexa (ou reindexa) o registro com os valores dos campos, na ordem do construtor
+     */
+    public void atualizar(int id, int categoria, String... campos) {
+        if (campos.length != quantidadeCampos) {
+            throw new IllegalArgumentException("Esperados " + quantidadeCampos + " campos, recebidos " + campos.length);
+        }
+        String[] novos = new String[quantidadeCampos];
+        for (int i = 0; i < quantidadeCampos; i++) {
+            novos[i] = normalizar(campos[i]);
+        }
+        lock.writeLock().lock();
+        try {
+            if (id >= valores.length) {
+                int capacidade = Math.max(valores.length * 2, id + 1);
+                valores = Arrays.copyOf(valores, capacidade);
+                categorias = Arrays.copyOf(categorias, capacidade);
+            }
+            String[] antigos = valores[id];
+            if (antigos == null) {
+                tamanho++;
+            }
+            for (int campo = 0; campo < quantidadeCampos; campo++) {
+                String antigo = antigos != null ? antigos[campo] : null;
+                if (!novos[campo].equals(antigo)) {
+                    if (antigo != null) {
+                        removerTrigramas(campo, id, antigo);
+                    }
+                    adicionarTrigramas(campo, id, novos[campo]);
+                }
+            }
+            valores[id] = novos;
+            categorias[id] = categoria;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(int id) {
+        lock.writeLock().lock();
+        try {
+            if (id >= valores.length || valores[id] == null) {
+                return;
+            }
+            for (int campo = 0; campo < quantidadeCampos; campo++) {
+                removerTrigramas(campo, id, valores[id][campo]);
+            }
+            valores[id] = null;
+            tamanho--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids, em ordem crescente, cujos campos contêm todos os termos informados (null ignora o campo)
+     * e que estão na categoria; entrega no máximo limite ids ao consumidor
+     */
+    public void buscar(String[] termos, int categoria, int limite, IntPredicate consumidor) {
+        String[] normalizados = new String[quantidadeCampos];
+        for (int i = 0; i < quantidadeCampos; i++) {
+            normalizados[i] = termos[i] != null && !termos[i].isEmpty() ? normalizar(termos[i]) : null;
+        }
+
+        lock.readLock().lock();
+        try {
+            // Listas de todos os trigramas dos termos; qualquer uma vazia (ou ausente) já zera a busca
+            List<ConjuntoInteiros> listas = new ArrayList<>();
+            for (int campo = 0; campo < quantidadeCampos; campo++) {
+                String termo = normalizados[campo];
+                if (termo == null || termo.length() < 3) {
+                    continue;
+                }
+                for (int i = 0; i + 3 <= termo.length(); i++) {
+                    ConjuntoInteiros lista = trigramas.get(campo).get(trigrama(termo, i));
+                    if (lista == null) {
+                        return;
+                    }
+                    listas.add(lista);
+                }
+            }
+
+            int[] entregues = {0};
+            IntPredicate candidato = id -> {
+                if (!confere(id, normalizados, categoria)) {
+                    return true;
+                }
+                entregues[0]++;
+                return consumidor.test(id) && entregues[0] < limite;
+            };
+            if (listas.isEmpty()) {
+                for (int id = 0; id < valores.length; id++) {
+                    if (valores[id] != null && !candidato.test(id)) {
+                        return;
+                    }
+                }
+                return;
+            }
+
+            listas.sort((a, b) -> Integer.compare(a.tamanho(), b.tamanho()));
+            ConjuntoInteiros menor = listas.get(0);
+            menor.percorrer(id -> {
+                for (int i = 1; i < listas.size(); i++) {
+                    if (!listas.get(i).contem(id)) {
+                        return true;
+                    }
+                }
+                return candidato.test(id);
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Bytes aproximados das listas de trigramas (sem contar os valores guardados)
+     */
+    public long memoriaEstimada() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Map<Long, ConjuntoInteiros> mapa : trigramas) {
+                for (ConjuntoInteiros lista : mapa.values()) {
+                    bytes += 64 + lista.memoriaEstimada();
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean confere(int id, String[] termos, int categoria) {
+        if (categoria != QUALQUER_CATEGORIA && categorias[id] != categoria) {
+            return false;
+        }
+        String[] campos = valores[id];
+        for (int i = 0; i < quantidadeCampos; i++) {
+            if (termos[i] != null && !campos[i].contains(termos[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void adicionarTrigramas(int campo, int id, String valor) {
+        Map<Long, ConjuntoInteiros> mapa = trigramas.get(campo);
+        for (int i = 0; i + 3 <= valor.length(); i++) {
+            mapa.computeIfAbsent(trigrama(valor, i), t -> new ConjuntoInteiros()).adicionar(id);
+        }
+    }
+
+    private void removerTrigramas(int campo, int id, String valor) {
+        Map<Long, ConjuntoInteiros> mapa = trigramas.get(campo);
+        for (int i = 0; i + 3 <= valor.length(); i++) {
+            long chave = trigrama(valor, i);
+            ConjuntoInteiros lista = mapa.get(chave);
+            // O mesmo trigrama pode aparecer mais de uma vez no valor
+            if (lista != null && lista.remover(id) && lista.isVazio()) {
+                mapa.remove(chave);
+            }
+        }
+    }
+
+    // Três chars de 16 bits em um long
+    private static long trigrama(String texto, int inicio) {
+        return ((long) texto.charAt(inicio) << 32) | ((long) texto.charAt(inicio + 1) << 16) | texto.charAt(inicio + 2);
+    }
+
+    private static String normalizar(String valor) {
+        return valor != null ? valor.toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,240 @@
+package com.mottu.visiontracker.util;
+
+import java.util.Arrays;
+
+/**
+ * Supressão de leituras repetidas por chave (tag, antena) dentro de uma janela de tempo.
+ *
+ * A primeira leitura de uma chave abre um agregado; as leituras seguintes da mesma chave dentro
+ * da janela só incrementam a contagem e atualizam o horário da última leitura. Quando a janela
+ * fecha, o agregado é emitido uma única vez com contagem, primeira/última leitura e o maior RSSI.
+ *
+ * O estado fica em arrays primitivos pré-alocados (tabela hash com sondagem linear + pool de
+ * entradas), sem objeto por chave. As janelas são abertas em ordem de chegada, então uma fila
+ * circular de entradas permite expirar apenas as que venceram. Quando o pool enche, o agregado
+ * mais antigo é emitido antes da hora, o que mantém a memória limitada a {@code maxChaves}.
+ *
+ * Não é thread-safe: deve ser usado pela thread consumidora do pipeline.
+ */
+public class JanelaDeduplicacao {
+
+    /**
+     * Recebe o índice de um agregado fechado; os getters só são válidos durante a chamada
+     */
+    public interface Saida {
+        void emitir(JanelaDeduplicacao janela, int entrada);
+    }
+
+    private final long janelaMs;
+    private final int maxChaves;
+    private final int maxBytesTag;
+
+    // Tabela hash: guarda índice da entrada + 1 (0 = vazio)
+    private final int[] tabela;
+    private final int mascara;
+
+    // Pool de entradas em arrays paralelos
+    private final byte[] tags;
+    private final int[] tamanhosTag;
+    private final int[] antenas;
+    private final int[] hashes;
+    private final long[] motoIds;
+    private final String[] setores;
+    private final int[] rssis;
+    private final long[] primeiras;
+    private final long[] ultimas;
+    private final long[] recebidasEm;
+    private final int[] contagens;
+    private final long[] aberturas;
+
+    private final int[] livres;
+    private int quantidadeLivres;
+
+    // Fila circular das entradas em ordem de abertura
+    private final int[] fila;
+    private int inicioFila;
+    private int tamanhoFila;
+
+    private long expulsasPorCapacidade;
+
+    public JanelaDeduplicacao(long janelaMs, int maxChaves, int maxBytesTag) {
+        this.janelaMs = janelaMs;
+        this.maxChaves = maxChaves;
+        this.maxBytesTag = maxBytesTag;
+
+        int capacidadeTabela = Integer.highestOneBit(Math.max(2, maxChaves) * 2 - 1) << 1;
+        this.tabela = new int[capacidadeTabela];
+        this.mascara = capacidadeTabela - 1;
+
+        this.tags = new byte[maxChaves * maxBytesTag];
+        this.tamanhosTag = new int[maxChaves];
+        this.antenas = new int[maxChaves];
+        this.hashes = new int[maxChaves];
+        this.motoIds = new long[maxChaves];
+        this.setores = new String[maxChaves];
+        this.rssis = new int[maxChaves];
+        this.primeiras = new long[maxChaves];
+        this.ultimas = new long[maxChaves];
+        this.recebidasEm = new long[maxChaves];
+        this.contagens = new int[maxChaves];
+        this.aberturas = new long[maxChaves];
+
+        this.livres = new int[maxChaves];
+        for (int i = 0; i < maxChaves; i++) {
+            livres[i] = maxChaves - 1 - i;
+        }
+        this.quantidadeLivres = maxChaves;
+        this.fila = new int[maxChaves];
+    }
+
+    /**
+     * Registra uma leitura. Retorna true se ela abriu um novo agregado e false se foi
+     * absorvida como repetição de um agregado já aberto.
+     */
+    public boolean registrar(byte[] tag, int tamanhoTag, int antena, long motoId, String setor, int rssi,
+                             long lidaEm, long recebidaEm, long agora, Saida saida) {
+        int h = hash(tag, tamanhoTag, antena);
+        int slot = h & mascara;
+        while (tabela[slot] != 0) {
+            int entrada = tabela[slot] - 1;
+            if (hashes[entrada] == h && mesmaChave(entrada, tag, tamanhoTag, antena)) {
+                contagens[entrada]++;
+                primeiras[entrada] = Math.min(primeiras[entrada], lidaEm);
+                ultimas[entrada] = Math.max(ultimas[entrada], lidaEm);
+                setores[entrada] = setor;
+                rssis[entrada] = Math.max(rssis[entrada], rssi);
+                return false;
+            }
+            slot = (slot + 1) & mascara;
+        }
+
+        if (quantidadeLivres == 0) {
+            expulsasPorCapacidade++;
+            fecharMaisAntiga(saida);
+            // A remoção pode ter deslocado entradas da tabela; procura o slot livre de novo
+            slot = h & mascara;
+            while (tabela[slot] != 0) {
+                slot = (slot + 1) & mascara;
+            }
+        }
+
+        int entrada = livres[--quantidadeLivres];
+        System.arraycopy(tag, 0, tags, entrada * maxBytesTag, tamanhoTag);
+        tamanhosTag[entrada] = tamanhoTag;
+        antenas[entrada] = antena;
+        hashes[entrada] = h;
+        motoIds[entrada] = motoId;
+        setores[entrada] = setor;
+        rssis[entrada] = rssi;
+        primeiras[entrada] = lidaEm;
+        ultimas[entrada] = lidaEm;
+        recebidasEm[entrada] = recebidaEm;
+        contagens[entrada] = 1;
+        aberturas[entrada] = agora;
+        tabela[slot] = entrada + 1;
+
+        fila[(inicioFila + tamanhoFila) % maxChaves] = entrada;
+        tamanhoFila++;
+        return true;
+    }
+
+    /**
+     * Emite e remove os agregados cuja janela já fechou. Retorna a quantidade emitida.
+     */
+    public int expirar(long agora, Saida saida) {
+        int emitidos = 0;
+        while (tamanhoFila > 0 && agora - aberturas[fila[inicioFila]] >= janelaMs) {
+            fecharMaisAntiga(saida);
+            emitidos++;
+        }
+        return emitidos;
+    }
+
+    /**
+     * Emite todos os agregados abertos (usado no encerramento)
+     */
+    public void esvaziar(Saida saida) {
+        while (tamanhoFila > 0) {
+            fecharMaisAntiga(saida);
+        }
+    }
+
+    private void fecharMaisAntiga(Saida saida) {
+        int entrada = fila[inicioFila];
+        inicioFila = (inicioFila + 1) % maxChaves;
+        tamanhoFila--;
+        try {
+            saida.emitir(this, entrada);
+        } finally {
+            removerDaTabela(entrada);
+            setores[entrada] = null;
+            livres[quantidadeLivres++] = entrada;
+        }
+    }
+
+    /**
+     * Remoção por deslocamento para trás, sem lápides
+     */
+    private void removerDaTabela(int entrada) {
+        int vazio = hashes[entrada] & mascara;
+        while (tabela[vazio] != entrada + 1) {
+            vazio = (vazio + 1) & mascara;
+        }
+        int atual = vazio;
+        while (true) {
+            atual = (atual + 1) & mascara;
+            if (tabela[atual] == 0) {
+                break;
+            }
+            int ideal = hashes[tabela[atual] - 1] & mascara;
+            boolean noIntervalo = vazio <= atual
+                    ? vazio < ideal && ideal <= atual
+                    : vazio < ideal || ideal <= atual;
+            if (!noIntervalo) {
+                tabela[vazio] = tabela[atual];
+                vazio = atual;
+            }
+        }
+        tabela[vazio] = 0;
+    }
+
+    private boolean mesmaChave(int entrada, byte[] tag, int tamanhoTag, int antena) {
+        if (antenas[entrada] != antena || tamanhosTag[entrada] != tamanhoTag) {
+            return false;
+        }
+        int offset = entrada * maxBytesTag;
+        return Arrays.equals(tags, offset, offset + tamanhoTag, tag, 0, tamanhoTag);
+    }
+
+    private static int hash(byte[] tag, int tamanhoTag, int antena) {
+        int h = antena;
+        for (int i = 0; i < tamanhoTag; i++) {
+            h = 31 * h + tag[i];
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    // Getters de um agregado (válidos dentro de Saida.emitir)
+    public byte[] getTags() { return tags; }
+    public int getOffsetTag(int entrada) { return entrada * maxBytesTag; }
+    public int getTamanhoTag(int entrada) { return tamanhosTag[entrada]; }
+    public int getAntena(int entrada) { return antenas[entrada]; }
+    public long getMotoId(int entrada) { return motoIds[entrada]; }
+    public String getSetor(int entrada) { return setores[entrada]; }
+    public int getRssi(int entrada) { return rssis[entrada]; }
+    public long getPrimeiraLeitura(int entrada) { return primeiras[entrada]; }
+    public long getUltimaLeitura(int entrada) { return ultimas[entrada]; }
+    public long getRecebidaEm(int entrada) { return recebidasEm[entrada]; }
+    public int getContagem(int entrada) { return contagens[entrada]; }
+
+    public int getChavesAtivas() {
+        return tamanhoFila;
+    }
+
+    public long getExpulsasPorCapacidade() {
+        return expulsasPorCapacidade;
+    }
+}
@@ -0,0 +1,117 @@
+package com.mottu.visiontracker.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Ring buffer limitado com vários produtores e um único consumidor.
+ *
+ * Os eventos são pré-alocados e reutilizados: o produtor reserva uma posição, preenche o evento
+ * e publica; o consumidor processa em ordem e devolve a posição. Cada posição tem um número de
+ * sequência (algoritmo de Vyukov), então não há lock nem alocação por evento.
+ * Quando o buffer está cheio, {@link #tentarReservar()} retorna -1 em vez de bloquear.
+ */
+public class RingBuffer<E> {
+
+    /**
+     * Processa um evento publicado; o evento não pode ser guardado após o retorno
+     */
+    public interface Consumidor<E> {
+        void processar(E evento);
+    }
+
+    private final Object[] eventos;
+    private final AtomicLongArray sequencias;
+    private final int capacidade;
+    private final int mascara;
+
+    private final AtomicLong cauda = new AtomicLong();
+    private volatile long cabeca;
+
+    public RingBuffer(int capacidade, Supplier<E> fabrica) {
+        if (capacidade < 2 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("Capacidade do ring buffer deve ser potência de 2: " + capacidade);
+        }
+        this.capacidade = capacidade;
+        this.mascara = capacidade - 1;
+        this.eventos = new Object[capacidade];
+        this.sequencias = new AtomicLongArray(capacidade);
+        for (int i = 0; i < capacidade; i++) {
+            eventos[i] = fabrica.get();
+            sequencias.set(i, i);
+        }
+    }
+
+    /**
+     * Reserva uma posição para escrita. Retorna a sequência reservada ou -1 se o buffer estiver cheio.
+     * Toda sequência reservada deve ser publicada com {@link #publicar(long)}.
+     */
+    public long tentarReservar() {
+        long posicao = cauda.get();
+        while (true) {
+            long diferenca = sequencias.get((int) posicao & mascara) - posicao;
+            if (diferenca == 0) {
+                if (cauda.compareAndSet(posicao, posicao + 1)) {
+                    return posicao;
+                }
+                posicao = cauda.get();
+            } else if (diferenca < 0) {
+                return -1;
+            } else {
+                posicao = cauda.get();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long sequencia) {
+        return (E) eventos[(int) sequencia & mascara];
+    }
+
+    /**
+     * Torna o evento da sequência visível para o consumidor
+     */
+    public void publicar(long sequencia) {
+        sequencias.set((int) sequencia & mascara, sequencia + 1);
+    }
+
+    /**
+     * Consome até {@code maximo} eventos publicados, em ordem. Deve ser chamado por uma única thread.
+     */
+    public int drenar(Consumidor<E> consumidor, int maximo) {
+        long posicao = cabeca;
+        int processados = 0;
+        try {
+            while (processados < maximo) {
+                int indice = (int) posicao & mascara;
+                if (sequencias.get(indice) != posicao + 1) {
+                    break;
+                }
+                @SuppressWarnings("unchecked")
+                E evento = (E) eventos[indice];
+                try {
+                    consumidor.processar(evento);
+                } finally {
+                    sequencias.set(indice, posicao + capacidade);
+                    posicao++;
+                    processados++;
+                }
+            }
+        } finally {
+            cabeca = posicao;
+        }
+        return processados;
+    }
+
+    /**
+     * Quantidade de posições reservadas e ainda não consumidas
+     */
+    public int getOcupacao() {
+        return (int) Math.max(0, cauda.get() - cabeca);
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+}
@@ -0,0 +1,340 @@
+package com.mottu.visiontracker.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice tag RFID → id da moto com endereçamento aberto (sondagem linear).
+ *
+ * As chaves ficam em uma única arena de bytes (Latin-1) e os valores em arrays primitivos paralelos,
+ * sem um objeto por entrada. Cada entrada custa cerca de 17 bytes de slot mais os bytes da tag,
+ * contra mais de 100 bytes de um HashMap&lt;String, Long&gt;. Tags com caracteres fora do Latin-1
+ * (raras, pois tags EPC são hexadecimais) vão para um mapa auxiliar.
+ *
+ * Leituras são concorrentes; escritas são serializadas por um lock de escrita.
+ */
+public class TagIndex {
+
+    public static final long AUSENTE = -1L;
+
+    private static final int CAPACIDADE_MINIMA = 16;
+    private static final int MAX_BYTES_TAG = 255;
+
+    private int[] hashes;
+    private long[] motoIds;
+    private int[] offsets;
+    private byte[] tamanhos;
+    private int mascara;
+    private int tamanho;
+
+    private byte[] arena;
+    private int arenaUsada;
+    private int arenaLixo;
+
+    private final Map<String, Long> tagsEstendidas = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TagIndex() {
+        this(CAPACIDADE_MINIMA);
+    }
+
+    public TagIndex(int capacidadeEsperada) {
+        alocar(capacidadePara(capacidadeEsperada));
+        this.arena = new byte[Math.max(64, capacidadeEsperada * 8)];
+    }
+
+    /**
+     * Retorna o id da moto associada à tag, ou AUSENTE
+     */
+    public long get(String tag) {
+        lock.readLock().lock();
+        try {
+            if (!compacta(tag)) {
+                Long motoId = tagsEstendidas.get(tag);
+                return motoId != null ? motoId : AUSENTE;
+            }
+            int slot = localizar(tag, hash(tag));
+            return slot >= 0 ? motoIds[slot] : AUSENTE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Versão sem alocação para tags já codificadas em Latin-1/ASCII
+     */
+    public long get(byte[] buffer, int offset, int length) {
+        lock.readLock().lock();
+        try {
+            int h = hash(buffer, offset, length);
+            int slot = h & mascara;
+            while (motoIds[slot] != 0) {
+                if (hashes[slot] == h && igual(slot, buffer, offset, length)) {
+                    return motoIds[slot];
+                }
+                slot = (slot + 1) & mascara;
+            }
+            return AUSENTE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Associa a tag à moto, substituindo uma associação anterior
+     */
+    public void put(String tag, long motoId) {
+        if (motoId <= 0) {
+            throw new IllegalArgumentException("Id de moto inválido: " + motoId);
+        }
+        lock.writeLock().lock();
+        try {
+            if (!compacta(tag)) {
+                tagsEstendidas.put(tag, motoId);
+                return;
+            }
+            int h = hash(tag);
+            int slot = localizar(tag, h);
+            if (slot >= 0) {
+                motoIds[slot] = motoId;
+                return;
+            }
+            if ((tamanho + 1) * 2 > hashes.length) {
+                realocar(hashes.length * 2);
+            }
+            inserir(h, motoId, gravarNaArena(tag), tag.length());
+            tamanho++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a tag apenas se ela ainda aponta para a moto informada
+     */
+    public boolean remove(String tag, long motoId) {
+        lock.writeLock().lock();
+        try {
+            if (!compacta(tag)) {
+                return tagsEstendidas.remove(tag, motoId);
+            }
+            int slot = localizar(tag, hash(tag));
+            if (slot < 0 || motoIds[slot] != motoId) {
+                return false;
+            }
+            arenaLixo += tamanhos[slot] & 0xFF;
+            liberar(slot);
+            tamanho--;
+            if (arenaLixo > arenaUsada / 2 && arenaLixo > 4096) {
+                realocar(hashes.length);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            alocar(CAPACIDADE_MINIMA);
+            arenaUsada = 0;
+            arenaLixo = 0;
+            tagsEstendidas.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tamanho + tagsEstendidas.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Memória aproximada ocupada pelos arrays do índice, em bytes
+     */
+    public long memoriaEstimada() {
+        lock.readLock().lock();
+        try {
+            return (long) hashes.length * (4 + 8 + 4 + 1) + arena.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Métodos auxiliares (chamados com o lock adquirido)
+
+    private int localizar(String tag, int h) {
+        int slot = h & mascara;
+        while (motoIds[slot] != 0) {
+            if (hashes[slot] == h && igual(slot, tag)) {
+                return slot;
+            }
+            slot = (slot + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void inserir(int h, long motoId, int offset, int length) {
+        int slot = h & mascara;
+        while (motoIds[slot] != 0) {
+            slot = (slot + 1) & mascara;
+        }
+        hashes[slot] = h;
+        motoIds[slot] = motoId;
+        offsets[slot] = offset;
+        tamanhos[slot] = (byte) length;
+    }
+
+    /**
+     * Remoção por deslocamento para trás: mantém as cadeias de sondagem sem precisar de lápides
+     */
+    private void liberar(int slot) {
+        int vazio = slot;
+        int atual = slot;
+        while (true) {
+            atual = (atual + 1) & mascara;
+            if (motoIds[atual] == 0) {
+                break;
+            }
+            int ideal = hashes[atual] & mascara;
+            boolean noIntervalo = vazio <= atual
+                    ? vazio < ideal && ideal <= atual
+                    : vazio < ideal || ideal <= atual;
+            if (noIntervalo) {
+                continue;
+            }
+            hashes[vazio] = hashes[atual];
+            motoIds[vazio] = motoIds[atual];
+            offsets[vazio] = offsets[atual];
+            tamanhos[vazio] = tamanhos[atual];
+            vazio = atual;
+        }
+        motoIds[vazio] = 0;
+    }
+
+    private int gravarNaArena(String tag) {
+        int length = tag.length();
+        if (arenaUsada + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaUsada + length));
+        }
+        int offset = arenaUsada;
+        for (int i = 0; i < length; i++) {
+            arena[offset + i] = (byte) tag.charAt(i);
+        }
+        arenaUsada += length;
+        return offset;
+    }
+
+    /**
+     * Redimensiona a tabela e compacta a arena, descartando os bytes de tags removidas
+     */
+    private void realocar(int novaCapacidade) {
+        int[] hashesAntigos = hashes;
+        long[] idsAntigos = motoIds;
+        int[] offsetsAntigos = offsets;
+        byte[] tamanhosAntigos = tamanhos;
+        byte[] arenaAntiga = arena;
+        int quantidade = tamanho;
+
+        alocar(novaCapacidade);
+        arena = new byte[Math.max(64, (arenaUsada - arenaLixo) * 2)];
+        arenaUsada = 0;
+        arenaLixo = 0;
+
+        for (int i = 0; i < idsAntigos.length; i++) {
+            if (idsAntigos[i] != 0) {
+                int length = tamanhosAntigos[i] & 0xFF;
+                int offset = arenaUsada;
+                System.arraycopy(arenaAntiga, offsetsAntigos[i], arena, offset, length);
+                arenaUsada += length;
+                inserir(hashesAntigos[i], idsAntigos[i], offset, length);
+            }
+        }
+        tamanho = quantidade;
+    }
+
+    private void alocar(int capacidade) {
+        hashes = new int[capacidade];
+        motoIds = new long[capacidade];
+        offsets = new int[capacidade];
+        tamanhos = new byte[capacidade];
+        mascara = capacidade - 1;
+        tamanho = 0;
+    }
+
+    private boolean igual(int slot, String tag) {
+        int length = tamanhos[slot] & 0xFF;
+        if (length != tag.length()) {
+            return false;
+        }
+        int offset = offsets[slot];
+        for (int i = 0; i < length; i++) {
+            if ((arena[offset + i] & 0xFF) != tag.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean igual(int slot, byte[] buffer, int offsetBuffer, int length) {
+        if ((tamanhos[slot] & 0xFF) != length) {
+            return false;
+        }
+        return Arrays.equals(arena, offsets[slot], offsets[slot] + length, buffer, offsetBuffer, offsetBuffer + length);
+    }
+
+    private static boolean compacta(String tag) {
+        int length = tag.length();
+        if (length == 0 || length > MAX_BYTES_TAG) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (tag.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(String tag) {
+        int h = 0;
+        for (int i = 0; i < tag.length(); i++) {
+            h = 31 * h + tag.charAt(i);
+        }
+        return misturar(h);
+    }
+
+    private static int hash(byte[] buffer, int offset, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + (buffer[offset + i] & 0xFF);
+        }
+        return misturar(h);
+    }
+
+    // Finalizador do MurmurHash3, espalha os bits baixos usados pela máscara
+    private static int misturar(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int capacidadePara(int esperado) {
+        int capacidade = CAPACIDADE_MINIMA;
+        while (capacidade < esperado * 2) {
+            capacidade <<= 1;
+        }
+        return capacidade;
+    }
+}
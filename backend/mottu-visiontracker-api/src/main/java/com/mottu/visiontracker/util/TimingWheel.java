@@ -0,0 +1,267 @@
+package com.mottu.visiontracker.util;
+
+import java.util.Arrays;
+
+/**
+ * Roda de tempo com hash (hashed timing wheel) para prazos identificados por uma chave long.
+ *
+ * Cada chave tem no máximo um prazo. Reagendar, cancelar e expirar custam O(1): o prazo fica em uma
+ * lista duplamente encadeada no slot {@code (prazo / tickMs) % slots}, e cada tick percorre só o
+ * slot corrente. Prazos além de uma volta completa continuam no slot até o tick certo chegar.
+ *
+ * As entradas ficam em arrays primitivos que crescem sob demanda, e o mapa chave → entrada é uma
+ * tabela de endereçamento aberto, então não há objeto por chave agendada.
+ *
+ * Não é thread-safe.
+ */
+public class TimingWheel {
+
+    /**
+     * Recebe a chave de um prazo vencido; não deve alterar a roda durante a chamada
+     */
+    public interface Expirado {
+        void expirar(long chave);
+    }
+
+    private static final int NENHUMA = -1;
+
+    private final long tickMs;
+    private final int mascaraSlots;
+    private final int[] cabecas;
+    private long tickAtual;
+
+    // Pool de entradas em arrays paralelos; livres são encadeadas por "proximas"
+    private long[] chaves;
+    private long[] prazos;
+    private int[] proximas;
+    private int[] anteriores;
+    private int[] slotsEntrada;
+    private int primeiraLivre;
+    private int tamanho;
+
+    // Mapa chave → entrada + 1 (0 = vazio), com sondagem linear
+    private long[] mapaChaves;
+    private int[] mapaEntradas;
+    private int mascaraMapa;
+
+    public TimingWheel(long tickMs, int slots, int capacidadeInicial, long agora) {
+        if (tickMs <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("Tick e quantidade de slots devem ser positivos");
+        }
+        this.tickMs = tickMs;
+        int quantidadeSlots = Integer.highestOneBit(slots * 2 - 1);
+        this.mascaraSlots = quantidadeSlots - 1;
+        this.cabecas = new int[quantidadeSlots];
+        Arrays.fill(cabecas, NENHUMA);
+        this.tickAtual = agora / tickMs;
+
+        alocarEntradas(Math.max(16, capacidadeInicial));
+    }
+
+    /**
+     * Agenda (ou reagenda) o prazo da chave
+     */
+    public void agendar(long chave, long prazo) {
+        int entrada = buscar(chave);
+        if (entrada == NENHUMA) {
+            if (primeiraLivre == NENHUMA) {
+                crescer();
+            }
+            entrada = primeiraLivre;
+            primeiraLivre = proximas[entrada];
+            chaves[entrada] = chave;
+            inserirNoMapa(chave, entrada);
+            tamanho++;
+        } else {
+            desencadear(entrada);
+        }
+
+        prazos[entrada] = prazo;
+        // Prazos já vencidos entram no próximo tick
+        long tick = Math.max(prazo / tickMs, tickAtual + 1);
+        encadear(entrada, (int) (tick & mascaraSlots));
+    }
+
+    /**
+     * Remove o prazo da chave. Retorna false se ela não estava agendada.
+     */
+    public boolean cancelar(long chave) {
+        int entrada = buscar(chave);
+        if (entrada == NENHUMA) {
+            return false;
+        }
+        remover(entrada);
+        return true;
+    }
+
+    public boolean contem(long chave) {
+        return buscar(chave) != NENHUMA;
+    }
+
+    /**
+     * Avança a roda até {@code agora}, removendo e entregando as chaves com prazo vencido.
+     * Retorna a quantidade de chaves expiradas.
+     */
+    public int avancar(long agora, Expirado saida) {
+        long tickAlvo = agora / tickMs;
+        if (tickAlvo <= tickAtual) {
+            return 0;
+        }
+        // Depois de uma volta completa todos os slots já foram visitados
+        long ultimoTick = Math.min(tickAlvo, tickAtual + cabecas.length);
+        int expirados = 0;
+        for (long tick = tickAtual + 1; tick <= ultimoTick; tick++) {
+            int entrada = cabecas[(int) (tick & mascaraSlots)];
+            while (entrada != NENHUMA) {
+                int proxima = proximas[entrada];
+                if (prazos[entrada] / tickMs <= tickAlvo) {
+                    long chave = chaves[entrada];
+                    remover(entrada);
+                    saida.expirar(chave);
+                    expirados++;
+                }
+                entrada = proxima;
+            }
+        }
+        tickAtual = tickAlvo;
+        return expirados;
+    }
+
+    public int size() {
+        return tamanho;
+    }
+
+    private void remover(int entrada) {
+        desencadear(entrada);
+        removerDoMapa(chaves[entrada]);
+        proximas[entrada] = primeiraLivre;
+        primeiraLivre = entrada;
+        tamanho--;
+    }
+
+    private void encadear(int entrada, int slot) {
+        int cabeca = cabecas[slot];
+        slotsEntrada[entrada] = slot;
+        anteriores[entrada] = NENHUMA;
+        proximas[entrada] = cabeca;
+        if (cabeca != NENHUMA) {
+            anteriores[cabeca] = entrada;
+        }
+        cabecas[slot] = entrada;
+    }
+
+    private void desencadear(int entrada) {
+        int anterior = anteriores[entrada];
+        int proxima = proximas[entrada];
+        if (anterior != NENHUMA) {
+            proximas[anterior] = proxima;
+        } else {
+            cabecas[slotsEntrada[entrada]] = proxima;
+        }
+        if (proxima != NENHUMA) {
+            anteriores[proxima] = anterior;
+        }
+    }
+
+    // Mapa chave → entrada
+
+    private int buscar(long chave) {
+        int slot = hash(chave) & mascaraMapa;
+        while (mapaEntradas[slot] != 0) {
+            if (mapaChaves[slot] == chave) {
+                return mapaEntradas[slot] - 1;
+            }
+            slot = (slot + 1) & mascaraMapa;
+        }
+        return NENHUMA;
+    }
+
+    private void inserirNoMapa(long chave, int entrada) {
+        int slot = hash(chave) & mascaraMapa;
+        while (mapaEntradas[slot] != 0) {
+            slot = (slot + 1) & mascaraMapa;
+        }
+        mapaChaves[slot] = chave;
+        mapaEntradas[slot] = entrada + 1;
+    }
+
+    /**
+     * Remoção por deslocamento para trás, sem lápides
+     */
+    private void removerDoMapa(long chave) {
+        int vazio = hash(chave) & mascaraMapa;
+        while (mapaChaves[vazio] != chave || mapaEntradas[vazio] == 0) {
+            vazio = (vazio + 1) & mascaraMapa;
+        }
+        int atual = vazio;
+        while (true) {
+            atual = (atual + 1) & mascaraMapa;
+            if (mapaEntradas[atual] == 0) {
+                break;
+            }
+            int ideal = hash(mapaChaves[atual]) & mascaraMapa;
+            boolean noIntervalo = vazio <= atual
+                    ? vazio < ideal && ideal <= atual
+                    : vazio < ideal || ideal <= atual;
+            if (!noIntervalo) {
+                mapaChaves[vazio] = mapaChaves[atual];
+                mapaEntradas[vazio] = mapaEntradas[atual];
+                vazio = atual;
+            }
+        }
+        mapaEntradas[vazio] = 0;
+    }
+
+    private static int hash(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Crescimento do pool
+
+    private void alocarEntradas(int capacidade) {
+        chaves = new long[capacidade];
+        prazos = new long[capacidade];
+        proximas = new int[capacidade];
+        anteriores = new int[capacidade];
+        slotsEntrada = new int[capacidade];
+        encadearLivres(0, capacidade);
+
+        int capacidadeMapa = Integer.highestOneBit(capacidade * 4 - 1);
+        mapaChaves = new long[capacidadeMapa];
+        mapaEntradas = new int[capacidadeMapa];
+        mascaraMapa = capacidadeMapa - 1;
+    }
+
+    private void crescer() {
+        int antiga = chaves.length;
+        int nova = antiga * 2;
+        chaves = Arrays.copyOf(chaves, nova);
+        prazos = Arrays.copyOf(prazos, nova);
+        proximas = Arrays.copyOf(proximas, nova);
+        anteriores = Arrays.copyOf(anteriores, nova);
+        slotsEntrada = Arrays.copyOf(slotsEntrada, nova);
+        encadearLivres(antiga, nova);
+
+        // Os índices das entradas não mudam, então basta redistribuir o mapa
+        long[] chavesAntigas = mapaChaves;
+        int[] entradasAntigas = mapaEntradas;
+        int capacidadeMapa = mapaChaves.length * 2;
+        mapaChaves = new long[capacidadeMapa];
+        mapaEntradas = new int[capacidadeMapa];
+        mascaraMapa = capacidadeMapa - 1;
+        for (int i = 0; i < entradasAntigas.length; i++) {
+            if (entradasAntigas[i] != 0) {
+                inserirNoMapa(chavesAntigas[i], entradasAntigas[i] - 1);
+            }
+        }
+    }
+
+    private void encadearLivres(int inicio, int fim) {
+        for (int i = inicio; i < fim - 1; i++) {
+            proximas[i] = i + 1;
+        }
+        proximas[fim - 1] = NENHUMA;
+        primeiraLivre = inicio;
+    }
+}
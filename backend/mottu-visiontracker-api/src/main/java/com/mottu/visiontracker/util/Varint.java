@@ -0,0 +1,51 @@
+package com.mottu.visiontracker.util;
+
+/**
+ * Inteiros de tamanho variável (7 bits por byte, bit alto indica continuação) e codificação zigzag,
+ * que leva valores com sinal pequenos para varints curtos
+ */
+public final class Varint {
+
+    /**
+     * Maior quantidade de bytes de um long codificado
+     */
+    public static final int MAX_BYTES = 10;
+
+    private Varint() {
+    }
+
+    /**
+     * Escreve o valor a partir de pos e retorna a posição seguinte; o array deve ter MAX_BYTES livres
+     */
+    public static int escrever(byte[] dados, int pos, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            dados[pos++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        dados[pos++] = (byte) valor;
+        return pos;
+    }
+
+    /**
+     * Lê o valor em pos[0] e avança a posição
+     */
+    public static long ler(byte[] dados, int[] pos) {
+        long valor = 0;
+        int deslocamento = 0;
+        byte b;
+        do {
+            b = dados[pos[0]++];
+            valor |= (long) (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while ((b & 0x80) != 0);
+        return valor;
+    }
+
+    public static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    public static long unzigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+}
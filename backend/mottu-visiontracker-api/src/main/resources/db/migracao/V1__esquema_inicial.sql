@@ -0,0 +1,101 @@
+-- Esquema inicial: as tabelas e índices que o Hibernate gerava com ddl-auto=create-drop.
+-- Os índices (created_at, id) já são DESC: a paginação por chave anda de trás para frente e o H2
+-- não percorre um índice ascendente nesse sentido.
+
+CREATE TABLE motos (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    placa VARCHAR(8) NOT NULL,
+    modelo VARCHAR(50) NOT NULL,
+    cor VARCHAR(30) NOT NULL,
+    proprietario VARCHAR(100) NOT NULL,
+    numero_serie VARCHAR(50),
+    tag_rfid VARCHAR(50),
+    status VARCHAR(255) NOT NULL,
+    setor VARCHAR(10),
+    posicao VARCHAR(10),
+    coordenada_x DOUBLE,
+    coordenada_y DOUBLE,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    versao BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_motos_placa UNIQUE (placa)
+);
+
+CREATE INDEX idx_motos_versao ON motos (versao);
+CREATE INDEX idx_motos_created_id ON motos (created_at DESC, id DESC);
+
+CREATE TABLE alertas (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    moto_id BIGINT NOT NULL,
+    tipo VARCHAR(255) NOT NULL,
+    descricao VARCHAR(500) NOT NULL,
+    resolvido BOOLEAN NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    resolved_at TIMESTAMP,
+    versao BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_alertas_moto FOREIGN KEY (moto_id) REFERENCES motos (id)
+);
+
+CREATE INDEX idx_alertas_versao ON alertas (versao);
+CREATE INDEX idx_alertas_created_id ON alertas (created_at DESC, id DESC);
+
+CREATE TABLE leituras_rfid (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    tag_rfid VARCHAR(50) NOT NULL,
+    moto_id BIGINT,
+    antena INTEGER NOT NULL,
+    setor VARCHAR(10),
+    rssi DOUBLE,
+    lida_em TIMESTAMP NOT NULL,
+    ultima_leitura TIMESTAMP NOT NULL,
+    quantidade INTEGER NOT NULL,
+    recebida_em TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE historico_posicoes_blocos (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    moto_id BIGINT NOT NULL,
+    inicio BIGINT NOT NULL,
+    fim BIGINT NOT NULL,
+    quantidade INTEGER NOT NULL,
+    dados VARBINARY(4096) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_historico_moto_inicio ON historico_posicoes_blocos (moto_id, inicio);
+
+CREATE TABLE motos_alteracoes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    moto_id BIGINT NOT NULL,
+    instante BIGINT NOT NULL,
+    setor VARCHAR(10),
+    posicao VARCHAR(10),
+    status VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_alteracoes_instante ON motos_alteracoes (instante);
+
+CREATE TABLE snapshot_checkpoints (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    instante BIGINT NOT NULL,
+    quantidade INTEGER NOT NULL,
+    dados BLOB NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_checkpoints_instante ON snapshot_checkpoints (instante);
+
+CREATE TABLE registros_remocao (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    entidade VARCHAR(10) NOT NULL,
+    entidade_id BIGINT NOT NULL,
+    versao BIGINT NOT NULL,
+    removido_em TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_remocao_versao ON registros_remocao (versao);
@@ -0,0 +1,25 @@
+-- Índices para as consultas dos repositórios que filtram por colunas sem índice.
+-- O H2 não percorre um índice ascendente de trás para frente: as consultas ORDER BY ... DESC
+-- só dispensam a ordenação com o índice declarado DESC.
+
+-- findByResolvidoFalse(OrderByTimestampDesc), countByResolvidoFalse, findByTimestampBetweenAndResolvidoFalse
+CREATE INDEX idx_alertas_resolvido_created ON alertas (resolvido, created_at DESC);
+
+-- findByMotoIdAndResolvidoFalse, existsByMotoIdAndTipoAndResolvidoFalse, findByMotoId (também cobre a FK)
+CREATE INDEX idx_alertas_moto_resolvido ON alertas (moto_id, resolvido);
+
+-- findCriticalUnresolvedAlerts, countByResolvidoFalseAndTipo, findByTipo
+CREATE INDEX idx_alertas_tipo_resolvido ON alertas (tipo, resolvido);
+
+-- findByStatus, countByStatus
+CREATE INDEX idx_motos_status ON motos (status);
+
+-- findBySetor, findBySetorAndPosicao
+CREATE INDEX idx_motos_setor_posicao ON motos (setor, posicao);
+
+-- Motos por tag RFID (carga do TagIndexService e do watchdog de leituras)
+CREATE INDEX idx_motos_tag_rfid ON motos (tag_rfid);
+
+-- findTop100ByTagRFIDOrderByTimestampDesc e findTop100ByOrderByTimestampDesc
+CREATE INDEX idx_leituras_tag_lida ON leituras_rfid (tag_rfid, lida_em DESC);
+CREATE INDEX idx_leituras_lida ON leituras_rfid (lida_em DESC);
@@ -0,0 +1,73 @@
+package com.mottu.visiontracker;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Envolve o DataSource para registrar o SQL que a thread do teste envia ao banco, venha ele do
+ * Hibernate ou do JdbcTemplate. Só a thread entre {@link #iniciar()} e {@link #parar()} é registrada,
+ * então as threads de fundo da aplicação não interferem.
+ */
+@TestConfiguration
+public class CapturaSql {
+
+    private static final ThreadLocal<List<String>> CAPTURADOS = new ThreadLocal<>();
+
+    public static void iniciar() {
+        CAPTURADOS.set(new ArrayList<>());
+    }
+
+    /**
+     * Encerra a captura e retorna os comandos, na ordem em que foram preparados
+     */
+    public static List<String> parar() {
+        List<String> capturados = CAPTURADOS.get();
+        CAPTURADOS.remove();
+        return capturados != null ? capturados : new ArrayList<>();
+    }
+
+    @Bean
+    public static BeanPostProcessor capturaSqlPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nome) {
+                return bean instanceof DataSource ? envolver(DataSource.class, bean) : bean;
+            }
+        };
+    }
+
+    private static <T> T envolver(Class<T> tipo, Object alvo) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, (proxy, metodo, args) -> {
+            String nome = metodo.getName();
+            if (args != null && args.length > 0 && args[0] instanceof String
+                    && (nome.startsWith("prepare") || nome.startsWith("execute"))) {
+                List<String> capturados = CAPTURADOS.get();
+                if (capturados != null) {
+                    capturados.add((String) args[0]);
+                }
+            }
+            Object resultado;
+            try {
+                resultado = metodo.invoke(alvo, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (resultado instanceof Connection && nome.equals("getConnection")) {
+                return envolver(Connection.class, resultado);
+            }
+            if (resultado instanceof Statement && nome.equals("createStatement")) {
+                return envolver(Statement.class, resultado);
+            }
+            return resultado;
+        }));
+    }
+}
@@ -0,0 +1,134 @@
+package com.mottu.visiontracker.journal;
+
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.event.MotoEvent;
+import com.mottu.visiontracker.repository.LoteLeituras;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ciclo entre subidas: o que foi anexado volta no replay (passando por segmentos rolados), e depois
+ * de um checkpoint a subida seguinte reaplica o checkpoint e o que veio depois dele, com os
+ * segmentos cobertos já apagados.
+ */
+class EventJournalTest {
+
+    private static final int LEITURAS_POR_LOTE = 20;
+    // Lotes suficientes para rolar o segmento de 1 MB
+    private static final int LOTES = 1500;
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void replayDepoisDoCheckpointTrazOCheckpointEOQueVeioDepois() throws IOException, InterruptedException {
+        EventJournal primeira = abrir();
+        List<String> esperados = new ArrayList<>();
+        for (int i = 0; i < LOTES; i++) {
+            primeira.registrarLeituras(lote("T" + i));
+            esperados.add("leituras:T" + i);
+        }
+        primeira.onMotoEvent(MotoEvent.criada(moto("ABC1234")));
+        esperados.add("moto:ABC1234");
+        primeira.fechar();
+        assertTrue(segmentos(pasta).size() > 1, "O journal deveria ter rolado de segmento");
+
+        EventJournal segunda = abrir();
+        assertEquals(esperados, reproduzir(segunda));
+        EventJournal.Checkpoint checkpoint = segunda.iniciarCheckpoint();
+        segunda.reproduzir(checkpoint::anexar);
+        assertTrue(checkpoint.concluir());
+        assertEquals(esperados.size(), checkpoint.getRegistros());
+        // Só resta o segmento desta execução; os anteriores estão no checkpoint
+        assertEquals(1, segmentos(pasta).size());
+
+        segunda.registrarLeituras(lote("depois"));
+        esperados.add("leituras:depois");
+        segunda.fechar();
+
+        EventJournal terceira = abrir();
+        assertEquals(esperados, reproduzir(terceira));
+        terceira.fechar();
+    }
+
+    @Test
+    void checkpointInterrompidoMantemOsSegmentos() throws IOException, InterruptedException {
+        EventJournal primeira = abrir();
+        primeira.registrarLeituras(lote("antes"));
+        primeira.fechar();
+
+        // Queda no meio do checkpoint: o diretório .tmp fica para trás
+        EventJournal segunda = abrir();
+        EventJournal.Checkpoint checkpoint = segunda.iniciarCheckpoint();
+        segunda.reproduzir(checkpoint::anexar);
+        segunda.fechar();
+
+        EventJournal terceira = abrir();
+        assertEquals(List.of("leituras:antes"), reproduzir(terceira));
+        terceira.fechar();
+    }
+
+    private EventJournal abrir() throws IOException {
+        EventJournal journal = new EventJournal();
+        ReflectionTestUtils.setField(journal, "habilitado", true);
+        ReflectionTestUtils.setField(journal, "diretorio", pasta.toString());
+        ReflectionTestUtils.setField(journal, "tamanhoSegmentoMb", 1);
+        ReflectionTestUtils.setField(journal, "intervaloSyncMs", 50L);
+        ReflectionTestUtils.setField(journal, "retencaoHoras", 0L);
+        journal.abrir();
+        return journal;
+    }
+
+    private static List<String> reproduzir(EventJournal journal) throws IOException {
+        List<String> registros = new ArrayList<>();
+        journal.reproduzir((tipo, payload) -> {
+            if (tipo == JournalCodec.TIPO_LEITURAS) {
+                LoteLeituras lote = JournalCodec.decodificarLeituras(payload);
+                assertEquals(LEITURAS_POR_LOTE, lote.size());
+                registros.add("leituras:" + lote.getTag(0));
+            } else {
+                registros.add("moto:" + JournalCodec.decodificarMoto(payload).getPlaca());
+            }
+        });
+        return registros;
+    }
+
+    private static LoteLeituras lote(String tag) {
+        LoteLeituras lote = new LoteLeituras(LEITURAS_POR_LOTE);
+        for (int i = 0; i < LEITURAS_POR_LOTE; i++) {
+            lote.adicionar(tag, 1, 1, "A1", -500, 1_000_000L + i, 2_000_000L);
+        }
+        return lote;
+    }
+
+    private static MotoDTO moto(String placa) {
+        MotoDTO moto = new MotoDTO();
+        moto.setId(1L);
+        moto.setPlaca(placa);
+        moto.setModelo("Honda CG 160");
+        moto.setCor("Preta");
+        moto.setProprietario("Teste");
+        moto.setStatus(Moto.StatusMoto.ATIVA);
+        return moto;
+    }
+
+    private static List<Path> segmentos(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().endsWith(".journal"))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.mottu.visiontracker.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Formato do segmento: registros anexados voltam na reabertura, e um registro interrompido
+ * (CRC inválido ou arquivo truncado) encerra a leitura sem perder os anteriores.
+ */
+class JournalSegmentoTest {
+
+    private static final int TAMANHO = 4096;
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void registrosAnexadosVoltamNaReabertura() throws IOException {
+        Path arquivo = pasta.resolve("0.journal");
+        JournalSegmento segmento = JournalSegmento.criar(arquivo, 0, TAMANHO);
+        assertTrue(segmento.anexar((byte) 1, payload("primeiro")));
+        assertTrue(segmento.anexar((byte) 2, payload("segundo")));
+        int fim = segmento.getPosicaoEscrita();
+        segmento.fechar();
+
+        JournalSegmento reaberto = JournalSegmento.abrir(arquivo, 0);
+        assertEquals(List.of("1:primeiro", "2:segundo"), ler(reaberto));
+        assertEquals(fim, reaberto.getPosicaoEscrita());
+
+        // A escrita continua depois do último registro
+        assertTrue(reaberto.anexar((byte) 1, payload("terceiro")));
+        reaberto.fechar();
+        assertEquals(List.of("1:primeiro", "2:segundo", "1:terceiro"), lerArquivo(arquivo));
+    }
+
+    @Test
+    void registroComCrcInvalidoEncerraALeitura() throws IOException {
+        Path arquivo = pasta.resolve("0.journal");
+        JournalSegmento segmento = JournalSegmento.criar(arquivo, 0, TAMANHO);
+        segmento.anexar((byte) 1, payload("inteiro"));
+        int inicioSegundo = segmento.getPosicaoEscrita();
+        segmento.anexar((byte) 1, payload("pela metade"));
+        segmento.fechar();
+
+        // Simula a queda no meio da cópia: o fim do payload não chegou ao disco
+        try (RandomAccessFile raf = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            raf.seek(inicioSegundo + JournalSegmento.TAMANHO_CABECALHO_REGISTRO + 5);
+            raf.write(new byte[6]);
+        }
+
+        JournalSegmento reaberto = JournalSegmento.abrir(arquivo, 0);
+        assertEquals(List.of("1:inteiro"), ler(reaberto));
+        assertEquals(inicioSegundo, reaberto.getPosicaoEscrita());
+
+        // O próximo registro sobrescreve o interrompido
+        reaberto.anexar((byte) 2, payload("depois da queda"));
+        reaberto.fechar();
+        assertEquals(List.of("1:inteiro", "2:depois da queda"), lerArquivo(arquivo));
+    }
+
+    @Test
+    void arquivoTruncadoNoMeioDoRegistroMantemOsAnteriores() throws IOException {
+        Path arquivo = pasta.resolve("0.journal");
+        JournalSegmento segmento = JournalSegmento.criar(arquivo, 0, TAMANHO);
+        segmento.anexar((byte) 1, payload("inteiro"));
+        int inicioSegundo = segmento.getPosicaoEscrita();
+        segmento.anexar((byte) 1, payload("cortado pelo truncamento"));
+        segmento.fechar();
+
+        try (RandomAccessFile raf = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            raf.setLength(inicioSegundo + JournalSegmento.TAMANHO_CABECALHO_REGISTRO + 3);
+        }
+
+        assertEquals(List.of("1:inteiro"), lerArquivo(arquivo));
+    }
+
+    @Test
+    void registroQueNaoCabePedeOutroSegmento() throws IOException {
+        JournalSegmento segmento = JournalSegmento.criar(pasta.resolve("0.journal"), 0, 64);
+        assertTrue(segmento.anexar((byte) 1, payload("cabe")));
+        assertFalse(segmento.anexar((byte) 1, ByteBuffer.allocate(64)));
+        segmento.fechar();
+    }
+
+    @Test
+    void arquivoSemCabecalhoNaoEhAberto() throws IOException {
+        Path arquivo = pasta.resolve("0.journal");
+        Files.write(arquivo, new byte[TAMANHO]);
+        assertThrows(IOException.class, () -> JournalSegmento.abrir(arquivo, 0));
+    }
+
+    private static ByteBuffer payload(String texto) {
+        return ByteBuffer.wrap(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> ler(JournalSegmento segmento) {
+        List<String> registros = new ArrayList<>();
+        segmento.percorrer(segmento.capacidade(), (tipo, payload) -> {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            registros.add(tipo + ":" + new String(bytes, StandardCharsets.UTF_8));
+        });
+        return registros;
+    }
+
+    private static List<String> lerArquivo(Path arquivo) throws IOException {
+        JournalSegmento segmento = JournalSegmento.abrir(arquivo, 0);
+        try {
+            return ler(segmento);
+        } finally {
+            segmento.fechar();
+        }
+    }
+}
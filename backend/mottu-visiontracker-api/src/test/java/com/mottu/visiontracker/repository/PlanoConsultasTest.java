@@ -0,0 +1,173 @@
+package com.mottu.visiontracker.repository;
+
+import com.mottu.visiontracker.CapturaSql;
+import com.mottu.visiontracker.dto.FiltroAlertasDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Confere com EXPLAIN que as consultas dos repositórios usam índice.
+ *
+ * Cada método é chamado de verdade e o SQL que ele envia ao banco (gerado pelo Hibernate ou escrito
+ * no JdbcTemplate) é capturado pelo {@link CapturaSql}, então o teste acompanha JOIN FETCH, @EntityGraph
+ * e paginação sem manter uma cópia das consultas. Os índices vêm das migrações em db/migracao.
+ * Listagens completas (findAll, streamAll, carga dos índices em memória) leem a tabela inteira de
+ * propósito e ficam de fora.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(CapturaSql.class)
+class PlanoConsultasTest {
+
+    private static final Pageable PAGINA = PageRequest.of(0, 50);
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private AlertaFiltroRepository alertaFiltroRepository;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private LeituraRfidRepository leituraRfidRepository;
+
+    @Autowired
+    private RegistroRemocaoRepository registroRemocaoRepository;
+
+    @Autowired
+    private MotoJdbcRepository motoJdbcRepository;
+
+    @Autowired
+    private HistoricoPosicaoJdbcRepository historicoPosicaoJdbcRepository;
+
+    @Autowired
+    private SnapshotJdbcRepository snapshotJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void consultasDosRepositoriosUsamIndice() {
+        LocalDateTime agora = LocalDateTime.now();
+        long agoraMs = System.currentTimeMillis();
+        Moto moto = motoRepository.findAll().get(0);
+
+        Map<String, Runnable> consultas = new LinkedHashMap<>();
+
+        // AlertaRepository
+        consultas.put("alertas.findById", () -> alertaRepository.findById(1L));
+        consultas.put("alertas.findByMotoId", () -> alertaRepository.findByMotoId(moto.getId()));
+        consultas.put("alertas.findByMotoOrderByTimestampDesc", () -> alertaRepository.findByMotoOrderByTimestampDesc(moto));
+        consultas.put("alertas.findByTipo", () -> alertaRepository.findByTipo(Alerta.TipoAlerta.SEM_LEITURA));
+        consultas.put("alertas.findByResolvidoTrue", () -> alertaRepository.findByResolvidoTrue());
+        consultas.put("alertas.findByMotoIdAndResolvidoFalse", () -> alertaRepository.findByMotoIdAndResolvidoFalse(moto.getId()));
+        consultas.put("alertas.existsByMotoIdAndTipoAndResolvidoFalse",
+                () -> alertaRepository.existsByMotoIdAndTipoAndResolvidoFalse(moto.getId(), Alerta.TipoAlerta.SEM_LEITURA));
+        consultas.put("alertas.findByTimestampBetween", () -> alertaRepository.findByTimestampBetween(agora.minusDays(1), agora));
+        consultas.put("alertas.findByTimestampBetweenAndResolvidoFalse",
+                () -> alertaRepository.findByTimestampBetweenAndResolvidoFalse(agora.minusDays(1), agora));
+        consultas.put("alertas.countByResolvidoFalse", () -> alertaRepository.countByResolvidoFalse());
+        consultas.put("alertas.countByResolvidoFalseAndTipo",
+                () -> alertaRepository.countByResolvidoFalseAndTipo(Alerta.TipoAlerta.SEM_LEITURA));
+        consultas.put("alertas.findAllByOrderByTimestampDesc", () -> alertaRepository.findAllByOrderByTimestampDesc());
+        consultas.put("alertas.findByResolvidoFalseOrderByTimestampDesc", () -> alertaRepository.findByResolvidoFalseOrderByTimestampDesc());
+        consultas.put("alertas.findCriticalUnresolvedAlerts", () -> alertaRepository.findCriticalUnresolvedAlerts());
+        consultas.put("alertas.findAlterados", () -> alertaRepository.findAlterados(0L, 10L, PAGINA));
+        consultas.put("alertas.findPrimeiraPagina", () -> alertaRepository.findPrimeiraPagina(PAGINA));
+        consultas.put("alertas.findPaginaApos", () -> alertaRepository.findPaginaApos(agora, 10L, PAGINA));
+
+        consultas.put("alertas.listarDTOsNaoResolvidos", () -> alertaRepository.listarDTOsNaoResolvidos());
+        consultas.put("alertas.listarDTOsResolvidos", () -> alertaRepository.listarDTOsResolvidos());
+        consultas.put("alertas.listarDTOsNaoResolvidosPorMoto", () -> alertaRepository.listarDTOsNaoResolvidosPorMoto(moto.getId()));
+        consultas.put("alertas.listarDTOsPorTipo", () -> alertaRepository.listarDTOsPorTipo(Alerta.TipoAlerta.SEM_LEITURA));
+        consultas.put("alertas.listarDTOsPorPeriodo", () -> alertaRepository.listarDTOsPorPeriodo(agora.minusDays(1), agora));
+        consultas.put("alertas.listarDTOsCriticosNaoResolvidos", () -> alertaRepository.listarDTOsCriticosNaoResolvidos());
+        consultas.put("alertas.listarDTOsPrimeiraPagina", () -> alertaRepository.listarDTOsPrimeiraPagina(PAGINA));
+        consultas.put("alertas.listarDTOsPaginaApos", () -> alertaRepository.listarDTOsPaginaApos(agora, 10L, PAGINA));
+
+        // AlertaFiltroRepository (combinações de filtros do GET /api/alertas)
+        consultas.put("filtro.resolvidoTipo", () -> alertaFiltroRepository.buscar(
+                new FiltroAlertasDTO(false, Alerta.TipoAlerta.FORA_DA_AREA, null, null, null, null, 50, null)));
+        consultas.put("filtro.motoResolvido", () -> alertaFiltroRepository.buscar(
+                new FiltroAlertasDTO(false, null, moto.getId(), null, null, null, 50, null)));
+        consultas.put("filtro.setorPeriodo", () -> alertaFiltroRepository.buscar(
+                new FiltroAlertasDTO(null, null, null, "A1", agora.minusDays(1), null, 50, null)));
+        consultas.put("filtro.periodo", () -> alertaFiltroRepository.buscar(
+                new FiltroAlertasDTO(null, null, null, null, agora.minusDays(1), agora, 50, null)));
+
+        // MotoRepository
+        consultas.put("motos.findByPlaca", () -> motoRepository.findByPlaca("ABC1234"));
+        consultas.put("motos.existsByPlaca", () -> motoRepository.existsByPlaca("ABC1234"));
+        consultas.put("motos.findByStatus", () -> motoRepository.findByStatus(Moto.StatusMoto.ATIVA));
+        consultas.put("motos.countByStatus", () -> motoRepository.countByStatus(Moto.StatusMoto.ATIVA));
+        consultas.put("motos.listarDTOsPorStatus", () -> motoRepository.listarDTOsPorStatus(Moto.StatusMoto.ATIVA));
+        consultas.put("motos.findBySetor", () -> motoRepository.findBySetor("A1"));
+        consultas.put("motos.findBySetorAndPosicao", () -> motoRepository.findBySetorAndPosicao("A1", "1"));
+        consultas.put("motos.findAlteradas", () -> motoRepository.findAlteradas(0L, 10L, PAGINA));
+        consultas.put("motos.findPrimeiraPagina", () -> motoRepository.findPrimeiraPagina(PAGINA));
+        consultas.put("motos.findPaginaApos", () -> motoRepository.findPaginaApos(agora, 10L, PAGINA));
+
+        // LeituraRfidRepository e RegistroRemocaoRepository
+        consultas.put("leituras.findTop100ByTagRFIDOrderByTimestampDesc",
+                () -> leituraRfidRepository.findTop100ByTagRFIDOrderByTimestampDesc("RF001"));
+        consultas.put("leituras.findTop100ByOrderByTimestampDesc", () -> leituraRfidRepository.findTop100ByOrderByTimestampDesc());
+        consultas.put("remocoes.findRegistradas", () -> registroRemocaoRepository.findRegistradas(0L, 10L, PAGINA));
+
+        // Repositórios JDBC
+        consultas.put("motosJdbc.findByIds", () -> motoJdbcRepository.findByIds(Arrays.asList(1L, 2L)));
+        consultas.put("historico.buscar", () -> historicoPosicaoJdbcRepository.buscar(1L, 0L, agoraMs,
+                (instante, setor, posicao, x, y) -> { }));
+        consultas.put("snapshot.percorrerAlteracoes", () -> snapshotJdbcRepository.percorrerAlteracoes(0L, agoraMs, alteracao -> { }));
+        consultas.put("snapshot.buscarCheckpoint", () -> snapshotJdbcRepository.buscarCheckpoint(agoraMs));
+        consultas.put("snapshot.ultimoInstanteCheckpoint", () -> snapshotJdbcRepository.ultimoInstanteCheckpoint());
+
+        List<String> semIndice = new ArrayList<>();
+        for (Map.Entry<String, Runnable> consulta : consultas.entrySet()) {
+            List<String> selects = capturarSelects(consulta.getValue());
+            assertFalse(selects.isEmpty(), consulta.getKey() + " não enviou nenhum SELECT ao banco");
+            for (String sql : selects) {
+                String plano = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+                if (plano == null || plano.contains(".tableScan")) {
+                    semIndice.add(consulta.getKey() + " varre a tabela:\n" + plano);
+                }
+            }
+        }
+        assertTrue(semIndice.isEmpty(), String.join("\n\n", semIndice));
+    }
+
+    private static List<String> capturarSelects(Runnable consulta) {
+        CapturaSql.iniciar();
+        try {
+            consulta.run();
+        } finally {
+            List<String> selects = new ArrayList<>();
+            for (String sql : CapturaSql.parar()) {
+                if (sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                    selects.add(sql);
+                }
+            }
+            return selects;
+        }
+    }
+}
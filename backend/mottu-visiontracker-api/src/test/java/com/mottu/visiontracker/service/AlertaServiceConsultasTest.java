@@ -0,0 +1,119 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.CapturaSql;
+import com.mottu.visiontracker.dto.FiltroAlertasDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.repository.AlertaRepository;
+import com.mottu.visiontracker.repository.MotoRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Garante que as listagens de alertas trazem a moto no mesmo SELECT: a quantidade de comandos
+ * preparados pelo Hibernate é a mesma com poucos e com muitos alertas (de motos diferentes).
+ * Um SELECT por moto ao converter, ou uma listagem que volte a carregar entidades em vez de
+ * projetar as colunas no AlertaDTO, faz o teste falhar.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(CapturaSql.class)
+class AlertaServiceConsultasTest {
+
+    private static final int POUCAS_MOTOS = 2;
+    private static final int MUITAS_MOTOS = 20;
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private int placas;
+
+    @Test
+    void listasDeAlertasUsamQuantidadeFixaDeComandos() {
+        Moto primeira = semear(POUCAS_MOTOS).get(0);
+        Map<String, Long> comPoucos = contarComandos(primeira.getId());
+        int totalComPoucos = alertaService.findAll().size();
+
+        semear(MUITAS_MOTOS);
+        Map<String, Long> comMuitos = contarComandos(primeira.getId());
+        int totalComMuitos = alertaService.findAll().size();
+
+        assertTrue(totalComMuitos >= totalComPoucos + MUITAS_MOTOS * Alerta.TipoAlerta.values().length,
+                "Os alertas semeados deveriam aparecer na listagem");
+        assertEquals(comPoucos, comMuitos, "Quantidade de comandos por listagem mudou com o número de alertas");
+    }
+
+    /**
+     * Comandos preparados por cada listagem do AlertaService
+     */
+    private Map<String, Long> contarComandos(Long motoId) {
+        LocalDateTime agora = LocalDateTime.now();
+        Map<String, Supplier<?>> listagens = new LinkedHashMap<>();
+        listagens.put("findAll", alertaService::findAll);
+        listagens.put("findUnresolved", alertaService::findUnresolved);
+        listagens.put("findResolved", alertaService::findResolved);
+        listagens.put("findCriticalUnresolved", alertaService::findCriticalUnresolved);
+        listagens.put("findByTipo", () -> alertaService.findByTipo(Alerta.TipoAlerta.FORA_DA_AREA));
+        listagens.put("findByMotoId", () -> alertaService.findByMotoId(motoId));
+        listagens.put("findByPeriod", () -> alertaService.findByPeriod(agora.minusDays(1), agora.plusDays(1)));
+        listagens.put("findPagina", () -> alertaService.findPagina(null, AlertaService.LIMITE_PAGINA));
+        listagens.put("filtrar", () -> alertaService.filtrar(new FiltroAlertasDTO()));
+        listagens.put("filtrar.setor", () -> alertaService.filtrar(
+                new FiltroAlertasDTO(false, null, null, "A1", agora.minusDays(1), null, null, null)));
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Long> comandos = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<?>> listagem : listagens.entrySet()) {
+            estatisticas.clear();
+            listagem.getValue().get();
+            comandos.put(listagem.getKey(), estatisticas.getPrepareStatementCount());
+            assertEquals(0, estatisticas.getEntityLoadCount(),
+                    listagem.getKey() + " carregou entidades em vez de projetar as colunas no DTO");
+        }
+        return comandos;
+    }
+
+    /**
+     * Cria motos novas com um alerta de cada tipo, metade deles já resolvidos
+     */
+    private List<Moto> semear(int quantidade) {
+        List<Moto> motos = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            Moto moto = motoRepository.save(new Moto(String.format("TST%04d", ++placas), "Honda CG 160", "Preta", "Teste"));
+            boolean resolvido = false;
+            for (Alerta.TipoAlerta tipo : Alerta.TipoAlerta.values()) {
+                Alerta alerta = new Alerta(moto, tipo, "Alerta de teste " + tipo);
+                alerta.setResolvido(resolvido);
+                alertaRepository.save(alerta);
+                resolvido = !resolvido;
+            }
+            motos.add(moto);
+        }
+        return motos;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.protocol.LeituraFrameDecoder;
+import com.mottu.visiontracker.protocol.LeituraFrameEncoder;
+import com.mottu.visiontracker.util.JanelaDeduplicacao;
+import com.mottu.visiontracker.util.RingBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Publicação do formato binário com a fila cheia: o que não coube é contado como rejeitado,
+ * inclusive os frames que ainda estavam no corpo quando a fila encheu.
+ */
+class LeituraPipelineTest {
+
+    private static final int CAPACIDADE = 4;
+
+    @Test
+    void filaCheiaContaORestoDoCorpoComoRejeitado() throws IOException {
+        LeituraPipeline pipeline = pipelineSemConsumidor();
+        // 3 frames de 3 leituras em uma fila de 4: a fila enche no meio do segundo frame
+        LeituraPipeline.ResultadoPublicacao resultado = pipeline.publicar(decoder(9, 3, -1));
+
+        assertEquals(9, resultado.getRecebidas());
+        assertEquals(CAPACIDADE, resultado.getAceitas());
+        assertEquals(5, resultado.getRejeitadas());
+        LeituraPipeline.PipelineStats stats = pipeline.getStats();
+        assertEquals(CAPACIDADE, stats.getPublicadas());
+        assertEquals(5, stats.getRejeitadas());
+    }
+
+    @Test
+    void corpoQueCabeNaoRejeitaNada() throws IOException {
+        LeituraPipeline pipeline = pipelineSemConsumidor();
+        LeituraPipeline.ResultadoPublicacao resultado = pipeline.publicar(decoder(CAPACIDADE, 3, -1));
+        assertEquals(CAPACIDADE, resultado.getAceitas());
+        assertEquals(0, resultado.getRejeitadas());
+    }
+
+    @Test
+    void frameInvalidoDepoisDaFilaCheiaAindaEhRecusado() throws IOException {
+        LeituraPipeline pipeline = pipelineSemConsumidor();
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> pipeline.publicar(decoder(9, 3, 7)));
+        assertTrue(erro.getMessage().contains("4 leituras anteriores foram aceitas"), erro.getMessage());
+        assertEquals(CAPACIDADE, pipeline.getStats().getPublicadas());
+    }
+
+    private static LeituraPipeline pipelineSemConsumidor() {
+        LeituraPipeline pipeline = new LeituraPipeline();
+        ReflectionTestUtils.setField(pipeline, "timeoutPublicacaoMs", 0L);
+        ReflectionTestUtils.setField(pipeline, "ringBuffer", new RingBuffer<>(CAPACIDADE, LeituraPipeline.Evento::new));
+        ReflectionTestUtils.setField(pipeline, "janela", new JanelaDeduplicacao(1000, 16, LeituraPipeline.MAX_BYTES_TAG));
+        return pipeline;
+    }
+
+    /**
+     * Corpo com {@code quantidade} leituras em frames de {@code porFrame}; a leitura {@code invalida}
+     * (se >= 0) tem um espaço na tag
+     */
+    private static LeituraFrameDecoder decoder(int quantidade, int porFrame, int invalida) throws IOException {
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+        try (LeituraFrameEncoder encoder = new LeituraFrameEncoder(corpo, porFrame)) {
+            for (int i = 0; i < quantidade; i++) {
+                encoder.adicionar(i == invalida ? "RF 00" + i : "RF00" + i, 1, "A1", 1_000L + i, (short) -500);
+            }
+        }
+        return new LeituraFrameDecoder(new ByteArrayInputStream(corpo.toByteArray()));
+    }
+}
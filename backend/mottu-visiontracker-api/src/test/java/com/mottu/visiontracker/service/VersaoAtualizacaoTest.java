@@ -0,0 +1,79 @@
+package com.mottu.visiontracker.service;
+
+import com.mottu.visiontracker.CapturaSql;
+import com.mottu.visiontracker.dto.AlertaDTO;
+import com.mottu.visiontracker.dto.MotoDTO;
+import com.mottu.visiontracker.entity.Alerta;
+import com.mottu.visiontracker.entity.Moto;
+import com.mottu.visiontracker.repository.AlertaRepository;
+import com.mottu.visiontracker.repository.MotoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A versão devolvida por uma atualização (e levada no evento do SSE) precisa ser a gravada no banco:
+ * o cliente usa esse valor como cursor do próximo sync e, com a versão anterior, recebe de volta
+ * a própria escrita.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(CapturaSql.class)
+class VersaoAtualizacaoTest {
+
+    @Autowired
+    private MotoService motoService;
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private MotoRepository motoRepository;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void atualizacoesDeMotoDevolvemAVersaoGravada() {
+        Moto moto = motoRepository.save(new Moto("VER0001", "Honda CG 160", "Preta", "Teste"));
+
+        MotoDTO comStatus = motoService.updateStatus(moto.getId(), Moto.StatusMoto.MANUTENCAO);
+        assertVersaoGravada("motos", comStatus.getId(), comStatus.getVersao(), moto.getVersao());
+
+        MotoDTO comPosicao = motoService.updatePosition(moto.getId(), "Z9", "1", 3.0, 4.0);
+        assertVersaoGravada("motos", comPosicao.getId(), comPosicao.getVersao(), comStatus.getVersao());
+
+        comPosicao.setCor("Vermelha");
+        MotoDTO editada = motoService.update(moto.getId(), comPosicao);
+        assertVersaoGravada("motos", editada.getId(), editada.getVersao(), comPosicao.getVersao());
+    }
+
+    @Test
+    void atualizacoesDeAlertaDevolvemAVersaoGravada() {
+        Moto moto = motoRepository.save(new Moto("VER0002", "Honda CG 160", "Preta", "Teste"));
+        Alerta alerta = alertaRepository.save(new Alerta(moto, Alerta.TipoAlerta.BATERIA_BAIXA, "Alerta de teste"));
+
+        AlertaDTO editado = alertaService.findById(alerta.getId()).orElseThrow();
+        editado.setDescricao("Alerta de teste editado");
+        editado = alertaService.update(alerta.getId(), editado);
+        assertVersaoGravada("alertas", editado.getId(), editado.getVersao(), alerta.getVersao());
+
+        AlertaDTO resolvido = alertaService.resolve(alerta.getId());
+        assertVersaoGravada("alertas", resolvido.getId(), resolvido.getVersao(), editado.getVersao());
+    }
+
+    private void assertVersaoGravada(String tabela, Long id, Long devolvida, Long anterior) {
+        Long gravada = jdbcTemplate.queryForObject("SELECT versao FROM " + tabela + " WHERE id = ?", Long.class, id);
+        assertEquals(gravada, devolvida, "Versão devolvida difere da gravada em " + tabela + " " + id);
+        assertTrue(devolvida > anterior, "A atualização deveria avançar a versão de " + tabela + " " + id);
+    }
+}
@@ -0,0 +1,70 @@
+package com.mottu.visiontracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitmapVagasTest {
+
+    @Test
+    void proximaLivreAtravessaAsPalavras() {
+        BitmapVagas vagas = new BitmapVagas(200);
+        for (int vaga = 0; vaga < 64; vaga++) {
+            assertEquals(vaga, vagas.proximaLivre());
+            assertTrue(vagas.ocupar(vaga));
+        }
+        // Primeira palavra cheia: a busca passa para a segunda
+        assertEquals(64, vagas.proximaLivre());
+        for (int vaga = 64; vaga < 128; vaga++) {
+            vagas.ocupar(vaga);
+        }
+        assertEquals(128, vagas.proximaLivre());
+
+        // Liberar uma vaga em uma palavra cheia volta a marcá-la no resumo
+        assertTrue(vagas.liberar(70));
+        assertEquals(70, vagas.proximaLivre());
+        assertTrue(vagas.liberar(3));
+        assertEquals(3, vagas.proximaLivre());
+        assertEquals(126, vagas.getOcupadas());
+    }
+
+    @Test
+    void vagasAlemDaCapacidadeNuncaSaoAlocadas() {
+        BitmapVagas vagas = new BitmapVagas(70);
+        for (int i = 0; i < 70; i++) {
+            int vaga = vagas.proximaLivre();
+            assertTrue(vaga < 70, "Alocou vaga fora do setor: " + vaga);
+            vagas.ocupar(vaga);
+        }
+        assertEquals(BitmapVagas.NENHUMA, vagas.proximaLivre());
+        assertThrows(IllegalArgumentException.class, () -> vagas.ocupar(70));
+    }
+
+    @Test
+    void capacidadeMaximaEnchePorCompleto() {
+        BitmapVagas vagas = new BitmapVagas(BitmapVagas.MAX_VAGAS);
+        for (int i = 0; i < BitmapVagas.MAX_VAGAS; i++) {
+            assertEquals(i, vagas.proximaLivre());
+            vagas.ocupar(i);
+        }
+        assertEquals(BitmapVagas.NENHUMA, vagas.proximaLivre());
+        vagas.liberar(BitmapVagas.MAX_VAGAS - 1);
+        assertEquals(BitmapVagas.MAX_VAGAS - 1, vagas.proximaLivre());
+    }
+
+    @Test
+    void ocuparELiberarSaoIdempotentes() {
+        BitmapVagas vagas = new BitmapVagas(64);
+        assertTrue(vagas.ocupar(10));
+        assertFalse(vagas.ocupar(10));
+        assertTrue(vagas.isOcupada(10));
+        assertTrue(vagas.liberar(10));
+        assertFalse(vagas.liberar(10));
+        assertEquals(0, vagas.getOcupadas());
+        assertThrows(IllegalArgumentException.class, () -> vagas.liberar(-1));
+        assertThrows(IllegalArgumentException.class, () -> new BitmapVagas(BitmapVagas.MAX_VAGAS + 1));
+    }
+}
@@ -0,0 +1,91 @@
+package com.mottu.visiontracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlocoPosicoesTest {
+
+    @Test
+    void idaEVoltaComDeltasNegativos() {
+        BlocoPosicoes bloco = new BlocoPosicoes();
+        List<String> pontos = new ArrayList<>();
+        // Instantes fora de ordem, vaga diminuindo, coordenadas negativas e posições em texto
+        adicionar(bloco, pontos, 10_000, "A1", "12", 10.5, 3.25);
+        adicionar(bloco, pontos, 9_000, "A1", "3", -2.75, -100.0);
+        adicionar(bloco, pontos, 9_500, "B2", "3", null, null);
+        adicionar(bloco, pontos, 20_000, "B2", "ENTRADA", 0.01, -0.01);
+        adicionar(bloco, pontos, 19_999, null, null, null, null);
+        adicionar(bloco, pontos, 30_000, "A1", "100", -1000.5, 2000.0);
+        adicionar(bloco, pontos, 30_001, "A1", "07", null, null);
+
+        assertEquals(pontos, decodificar(bloco.getBytes(), bloco, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(10_000, bloco.getInicio());
+        assertEquals(30_001, bloco.getFim());
+    }
+
+    @Test
+    void filtraPeloIntervalo() {
+        BlocoPosicoes bloco = new BlocoPosicoes();
+        List<String> pontos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            adicionar(bloco, pontos, 1_000 + i * 100, "A1", Integer.toString(10 - i), null, null);
+        }
+        assertEquals(pontos.subList(2, 5), decodificar(bloco.getBytes(), bloco, 1_200, 1_400));
+        List<String> abertos = new ArrayList<>();
+        bloco.decodificar(1_200, 1_400, (instante, setor, posicao, x, y) -> abertos.add(ponto(instante, setor, posicao, x, y)));
+        assertEquals(pontos.subList(2, 5), abertos);
+    }
+
+    @Test
+    void blocoCheioRecusaSemAlterar() {
+        BlocoPosicoes bloco = new BlocoPosicoes();
+        for (int i = 0; i < BlocoPosicoes.MAX_PONTOS; i++) {
+            assertTrue(bloco.adicionar(i, "A1", Integer.toString(i % 50 + 1), null, null));
+        }
+        int tamanho = bloco.getTamanho();
+        assertFalse(bloco.adicionar(BlocoPosicoes.MAX_PONTOS, "A1", "1", null, null));
+        assertEquals(tamanho, bloco.getTamanho());
+        assertEquals(BlocoPosicoes.MAX_PONTOS, bloco.getQuantidade());
+    }
+
+    @Test
+    void blocoNaoPassaDoLimiteDeBytes() {
+        BlocoPosicoes bloco = new BlocoPosicoes();
+        String texto = "X".repeat(200);
+        int aceitos = 0;
+        while (bloco.adicionar(aceitos, "S" + aceitos, texto, null, null)) {
+            aceitos++;
+        }
+        assertTrue(aceitos > 1 && aceitos < BlocoPosicoes.MAX_PONTOS);
+        assertTrue(bloco.getTamanho() <= BlocoPosicoes.MAX_BYTES);
+    }
+
+    private static void adicionar(BlocoPosicoes bloco, List<String> pontos, long instante, String setor, String posicao,
+                                  Double x, Double y) {
+        assertTrue(bloco.adicionar(instante, setor, posicao, x, y));
+        // Sem setor, vale o último informado
+        String setorEsperado = setor;
+        if (setor == null && !pontos.isEmpty()) {
+            String anterior = pontos.get(pontos.size() - 1);
+            setorEsperado = anterior.split(" ")[1];
+        }
+        pontos.add(ponto(instante, setorEsperado, posicao, x, y));
+    }
+
+    private static List<String> decodificar(byte[] dados, BlocoPosicoes bloco, long de, long ate) {
+        List<String> pontos = new ArrayList<>();
+        BlocoPosicoes.decodificar(dados, dados.length, bloco.getInicio(), de, ate,
+                (instante, setor, posicao, x, y) -> pontos.add(ponto(instante, setor, posicao, x, y)));
+        return pontos;
+    }
+
+    private static String ponto(long instante, String setor, String posicao, Double x, Double y) {
+        return instante + " " + setor + " " + posicao + " " + x + " " + y;
+    }
+}
@@ -0,0 +1,82 @@
+package com.mottu.visiontracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndiceTrigramasTest {
+
+    private static final int ATIVA = 0;
+    private static final int MANUTENCAO = 1;
+
+    @Test
+    void buscaPorSubstringIgnorandoMaiusculas() {
+        IndiceTrigramas indice = indice();
+        assertEquals(List.of(1, 3), buscar(indice, "bc", null, null, IndiceTrigramas.QUALQUER_CATEGORIA));
+        assertEquals(List.of(1, 3), buscar(indice, null, "CG 1", null, IndiceTrigramas.QUALQUER_CATEGORIA));
+        assertEquals(List.of(2), buscar(indice, null, null, "maria", IndiceTrigramas.QUALQUER_CATEGORIA));
+        // Trigramas em comum sem a substring: "abc" e "bcd" aparecem, "abcd" não
+        assertEquals(List.of(), buscar(indice, "abcd", null, null, IndiceTrigramas.QUALQUER_CATEGORIA));
+    }
+
+    @Test
+    void combinaCamposECategoria() {
+        IndiceTrigramas indice = indice();
+        assertEquals(List.of(1, 3), buscar(indice, null, "cg 160", "silva", IndiceTrigramas.QUALQUER_CATEGORIA));
+        assertEquals(List.of(3), buscar(indice, null, "cg 160", "pedro", IndiceTrigramas.QUALQUER_CATEGORIA));
+        assertEquals(List.of(1), buscar(indice, null, "cg 160", null, ATIVA));
+        assertEquals(List.of(3), buscar(indice, null, "cg", null, MANUTENCAO));
+        // Termo curto sem nenhum de 3 caracteres: percorre os valores
+        assertEquals(List.of(2), buscar(indice, null, "fa", null, IndiceTrigramas.QUALQUER_CATEGORIA));
+    }
+
+    @Test
+    void reindexarERemoverAtualizamAsListas() {
+        IndiceTrigramas indice = indice();
+        indice.atualizar(1, ATIVA, "ABC1234", "Biz 125", "João Silva");
+        assertEquals(List.of(3), buscar(indice, null, "cg 160", null, IndiceTrigramas.QUALQUER_CATEGORIA));
+        assertEquals(List.of(1), buscar(indice, null, "biz", null, IndiceTrigramas.QUALQUER_CATEGORIA));
+
+        indice.remover(3);
+        indice.remover(3);
+        assertEquals(List.of(), buscar(indice, null, "cg 160", null, IndiceTrigramas.QUALQUER_CATEGORIA));
+        assertEquals(List.of(1), buscar(indice, null, null, "silva", IndiceTrigramas.QUALQUER_CATEGORIA));
+        assertEquals(2, indice.tamanho());
+    }
+
+    @Test
+    void respeitaOLimiteEAOrdemDosIds() {
+        IndiceTrigramas indice = new IndiceTrigramas(1);
+        // Acima de 4096 ids a lista do trigrama passa de array para bitmap
+        for (int id = 5_000; id >= 1; id--) {
+            indice.atualizar(id, ATIVA, "MOTO" + id);
+        }
+        List<Integer> ids = new ArrayList<>();
+        indice.buscar(new String[]{"moto"}, IndiceTrigramas.QUALQUER_CATEGORIA, 10, id -> ids.add(id));
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), ids);
+
+        ids.clear();
+        indice.buscar(new String[]{"to49"}, IndiceTrigramas.QUALQUER_CATEGORIA, 1_000, id -> ids.add(id));
+        assertEquals(111, ids.size());
+        assertEquals(49, ids.get(0));
+        assertEquals(4999, ids.get(ids.size() - 1));
+    }
+
+    private static IndiceTrigramas indice() {
+        IndiceTrigramas indice = new IndiceTrigramas(3);
+        indice.atualizar(1, ATIVA, "ABC1234", "CG 160", "João Silva");
+        indice.atualizar(2, ATIVA, "DEF5678", "Factor 125", "Maria Santos");
+        indice.atualizar(3, MANUTENCAO, "BCD9012", "CG 160 Titan", "Pedro Silva");
+        return indice;
+    }
+
+    private static List<Integer> buscar(IndiceTrigramas indice, String placa, String modelo, String proprietario,
+                                        int categoria) {
+        List<Integer> ids = new ArrayList<>();
+        indice.buscar(new String[]{placa, modelo, proprietario}, categoria, 100, id -> ids.add(id));
+        return ids;
+    }
+}
@@ -0,0 +1,103 @@
+package com.mottu.visiontracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JanelaDeduplicacaoTest {
+
+    private static final long JANELA_MS = 1000;
+
+    private final List<String> emitidos = new ArrayList<>();
+    private final JanelaDeduplicacao.Saida saida = (janela, entrada) -> emitidos.add(
+            new String(janela.getTags(), janela.getOffsetTag(entrada), janela.getTamanhoTag(entrada), StandardCharsets.ISO_8859_1)
+                    + "/" + janela.getAntena(entrada)
+                    + " x" + janela.getContagem(entrada)
+                    + " " + janela.getPrimeiraLeitura(entrada) + "-" + janela.getUltimaLeitura(entrada)
+                    + " rssi " + janela.getRssi(entrada)
+                    + " " + janela.getSetor(entrada));
+
+    @Test
+    void repeticoesDentroDaJanelaViramUmAgregado() {
+        JanelaDeduplicacao janela = new JanelaDeduplicacao(JANELA_MS, 16, 32);
+        assertTrue(registrar(janela, "RF001", 1, "A1", -700, 5_000, 0));
+        assertFalse(registrar(janela, "RF001", 1, "A1", -600, 4_900, 100));
+        assertFalse(registrar(janela, "RF001", 1, "A2", -650, 5_200, 200));
+        // Mesma tag em outra antena é outra chave
+        assertTrue(registrar(janela, "RF001", 2, "A1", -500, 5_000, 300));
+        assertEquals(2, janela.getChavesAtivas());
+
+        janela.esvaziar(saida);
+        assertEquals(List.of("RF001/1 x3 4900-5200 rssi -600 A2", "RF001/2 x1 5000-5000 rssi -500 A1"), emitidos);
+        assertEquals(0, janela.getChavesAtivas());
+    }
+
+    @Test
+    void expiraSoDepoisDaJanelaEEmOrdemDeAbertura() {
+        JanelaDeduplicacao janela = new JanelaDeduplicacao(JANELA_MS, 16, 32);
+        registrar(janela, "RF001", 1, "A1", -500, 10, 0);
+        registrar(janela, "RF002", 1, "A1", -500, 20, 400);
+
+        assertEquals(0, janela.expirar(JANELA_MS - 1, saida));
+        assertEquals(1, janela.expirar(JANELA_MS, saida));
+        assertEquals(1, janela.getChavesAtivas());
+        // Depois de expirar, a mesma chave abre um agregado novo
+        assertTrue(registrar(janela, "RF001", 1, "A1", -500, 30, JANELA_MS + 1));
+        assertEquals(1, janela.expirar(400 + JANELA_MS, saida));
+        assertEquals(1, janela.expirar(2 * JANELA_MS + 1, saida));
+        assertEquals(List.of("RF001/1 x1 10-10 rssi -500 A1", "RF002/1 x1 20-20 rssi -500 A1",
+                "RF001/1 x1 30-30 rssi -500 A1"), emitidos);
+    }
+
+    @Test
+    void poolCheioEmiteOAgregadoMaisAntigoAntesDaHora() {
+        JanelaDeduplicacao janela = new JanelaDeduplicacao(JANELA_MS, 2, 32);
+        registrar(janela, "RF001", 1, "A1", -500, 1, 0);
+        registrar(janela, "RF002", 1, "A1", -500, 2, 1);
+        assertTrue(registrar(janela, "RF003", 1, "A1", -500, 3, 2));
+
+        assertEquals(List.of("RF001/1 x1 1-1 rssi -500 A1"), emitidos);
+        assertEquals(1, janela.getExpulsasPorCapacidade());
+        assertEquals(2, janela.getChavesAtivas());
+        // As chaves que ficaram continuam absorvendo repetições
+        assertFalse(registrar(janela, "RF002", 1, "A1", -500, 4, 3));
+        assertFalse(registrar(janela, "RF003", 1, "A1", -500, 5, 4));
+    }
+
+    @Test
+    void expulsoesERemocoesMantemATabelaConsistente() {
+        JanelaDeduplicacao janela = new JanelaDeduplicacao(JANELA_MS, 8, 32);
+        Random random = new Random(42);
+        int registradas = 0;
+        long agora = 0;
+        for (int i = 0; i < 20_000; i++) {
+            agora += random.nextInt(50);
+            registrar(janela, "RF" + random.nextInt(12), 1 + random.nextInt(2), "A1", -500, agora, agora);
+            registradas++;
+            if (random.nextInt(10) == 0) {
+                janela.expirar(agora, saida);
+            }
+        }
+        janela.esvaziar(saida);
+
+        int contadas = 0;
+        for (String emitido : emitidos) {
+            contadas += Integer.parseInt(emitido.substring(emitido.indexOf(" x") + 2, emitido.indexOf(' ', emitido.indexOf(" x") + 1)));
+        }
+        assertEquals(registradas, contadas, "Cada leitura deve aparecer em exatamente um agregado emitido");
+        assertEquals(0, janela.getChavesAtivas());
+    }
+
+    private boolean registrar(JanelaDeduplicacao janela, String tag, int antena, String setor, int rssi,
+                              long lidaEm, long agora) {
+        byte[] bytes = tag.getBytes(StandardCharsets.ISO_8859_1);
+        return janela.registrar(bytes, bytes.length, antena, 1, setor, rssi, lidaEm, agora, agora, saida);
+    }
+}
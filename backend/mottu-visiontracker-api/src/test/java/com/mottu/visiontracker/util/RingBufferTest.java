@@ -0,0 +1,137 @@
+package com.mottu.visiontracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferTest {
+
+    // Evento mínimo: só o valor publicado
+    private static final class Valor {
+        long valor;
+    }
+
+    @Test
+    void mantemAOrdemAoDarVariasVoltas() {
+        RingBuffer<Valor> ring = new RingBuffer<>(4, Valor::new);
+        List<Long> consumidos = new ArrayList<>();
+        long proximo = 0;
+        for (int volta = 0; volta < 10; volta++) {
+            // 3 por volta: as posições não coincidem com o início do array a cada volta
+            for (int i = 0; i < 3; i++) {
+                publicar(ring, proximo++);
+            }
+            assertEquals(3, ring.drenar(evento -> consumidos.add(evento.valor), Integer.MAX_VALUE));
+        }
+        assertEquals(30, consumidos.size());
+        for (int i = 0; i < consumidos.size(); i++) {
+            assertEquals(i, consumidos.get(i));
+        }
+        assertEquals(0, ring.getOcupacao());
+    }
+
+    @Test
+    void bufferCheioRecusaAteOConsumidorLiberar() {
+        RingBuffer<Valor> ring = new RingBuffer<>(4, Valor::new);
+        for (int i = 0; i < 4; i++) {
+            publicar(ring, i);
+        }
+        assertEquals(4, ring.getOcupacao());
+        assertEquals(-1, ring.tentarReservar());
+
+        assertEquals(1, ring.drenar(evento -> { }, 1));
+        long sequencia = ring.tentarReservar();
+        assertEquals(4, sequencia);
+        // Posição reservada e ainda não publicada: o consumidor para nela
+        assertEquals(3, ring.drenar(evento -> { }, Integer.MAX_VALUE));
+        assertEquals(0, ring.drenar(evento -> { }, Integer.MAX_VALUE));
+        ring.publicar(sequencia);
+        assertEquals(1, ring.drenar(evento -> { }, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void falhaNoConsumidorNaoPrendeAPosicao() {
+        RingBuffer<Valor> ring = new RingBuffer<>(2, Valor::new);
+        publicar(ring, 1);
+        publicar(ring, 2);
+        assertThrows(IllegalStateException.class, () -> ring.drenar(evento -> {
+            throw new IllegalStateException("falha");
+        }, Integer.MAX_VALUE));
+        assertEquals(1, ring.getOcupacao());
+        publicar(ring, 3);
+        List<Long> consumidos = new ArrayList<>();
+        ring.drenar(evento -> consumidos.add(evento.valor), Integer.MAX_VALUE);
+        assertEquals(List.of(2L, 3L), consumidos);
+    }
+
+    @Test
+    void variosProdutoresEntregamTudoUmaVezEmOrdemPorProdutor() throws InterruptedException {
+        int produtores = 4;
+        int porProdutor = 20_000;
+        RingBuffer<Valor> ring = new RingBuffer<>(64, Valor::new);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < produtores; p++) {
+            long base = (long) p << 32;
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < porProdutor; i++) {
+                    long sequencia;
+                    while ((sequencia = ring.tentarReservar()) < 0) {
+                        Thread.onSpinWait();
+                    }
+                    ring.get(sequencia).valor = base | i;
+                    ring.publicar(sequencia);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        int[] proximoPorProdutor = new int[produtores];
+        int[] esperado = new int[produtores];
+        Arrays.fill(esperado, porProdutor);
+        largada.countDown();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        int total = 0;
+        while (total < produtores * porProdutor && System.nanoTime() < limite) {
+            total += ring.drenar(evento -> {
+                int produtor = (int) (evento.valor >>> 32);
+                int indice = (int) evento.valor;
+                assertEquals(proximoPorProdutor[produtor], indice, "Fora de ordem no produtor " + produtor);
+                proximoPorProdutor[produtor]++;
+            }, 256);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertArrayEquals(esperado, proximoPorProdutor);
+        assertEquals(0, ring.getOcupacao());
+    }
+
+    @Test
+    void capacidadePrecisaSerPotenciaDeDois() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(6, Valor::new));
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(1, Valor::new));
+    }
+
+    private static void publicar(RingBuffer<Valor> ring, long valor) {
+        long sequencia = ring.tentarReservar();
+        assertTrue(sequencia >= 0, "Buffer cheio inesperado");
+        ring.get(sequencia).valor = valor;
+        ring.publicar(sequencia);
+    }
+}
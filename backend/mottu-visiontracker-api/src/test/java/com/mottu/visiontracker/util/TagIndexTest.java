@@ -0,0 +1,120 @@
+package com.mottu.visiontracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TagIndexTest {
+
+    @Test
+    void resolveStringEBytesDaMesmaForma() {
+        TagIndex indice = new TagIndex();
+        indice.put("E200341201B802", 7);
+        indice.put("RF001", 1);
+
+        assertEquals(7, indice.get("E200341201B802"));
+        byte[] buffer = "xxRF001yy".getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals(1, indice.get(buffer, 2, 5));
+        assertEquals(TagIndex.AUSENTE, indice.get(buffer, 2, 4));
+        assertEquals(TagIndex.AUSENTE, indice.get("RF002"));
+    }
+
+    @Test
+    void putSubstituiEAssociacaoNaoDuplica() {
+        TagIndex indice = new TagIndex();
+        indice.put("RF001", 1);
+        indice.put("RF001", 2);
+        assertEquals(2, indice.get("RF001"));
+        assertEquals(1, indice.size());
+    }
+
+    @Test
+    void removeSoQuandoAindaApontaParaAMoto() {
+        TagIndex indice = new TagIndex();
+        indice.put("RF001", 2);
+        assertFalse(indice.remove("RF001", 1));
+        assertEquals(2, indice.get("RF001"));
+        assertTrue(indice.remove("RF001", 2));
+        assertEquals(TagIndex.AUSENTE, indice.get("RF001"));
+        assertFalse(indice.remove("RF001", 2));
+        assertEquals(0, indice.size());
+    }
+
+    @Test
+    void remocoesMantemAsCadeiasDeSondagemEOsSlotsSaoReaproveitados() {
+        // Capacidade fixa com metade ocupada: colisões garantem cadeias longas
+        TagIndex indice = new TagIndex(64);
+        for (int i = 1; i <= 60; i++) {
+            indice.put("TAG" + i, i);
+        }
+        for (int rodada = 0; rodada < 20; rodada++) {
+            for (int i = 1; i <= 60; i += 2) {
+                assertTrue(indice.remove("TAG" + i, i));
+            }
+            for (int i = 1; i <= 60; i++) {
+                assertEquals(i % 2 == 0 ? i : TagIndex.AUSENTE, indice.get("TAG" + i), "TAG" + i);
+            }
+            for (int i = 1; i <= 60; i += 2) {
+                indice.put("TAG" + i, i);
+            }
+            assertEquals(60, indice.size());
+        }
+        for (int i = 1; i <= 60; i++) {
+            assertEquals(i, indice.get("TAG" + i));
+        }
+    }
+
+    @Test
+    void cresceAPartirDaCapacidadeMinimaSemPerderChaves() {
+        TagIndex indice = new TagIndex();
+        long inicial = indice.memoriaEstimada();
+        for (int i = 1; i <= 10_000; i++) {
+            indice.put(String.format("E2003412%08X", i), i);
+        }
+        assertEquals(10_000, indice.size());
+        assertTrue(indice.memoriaEstimada() > inicial);
+        for (int i = 1; i <= 10_000; i++) {
+            assertEquals(i, indice.get(String.format("E2003412%08X", i)));
+        }
+    }
+
+    @Test
+    void compactaAArenaDepoisDeMuitasRemocoes() {
+        TagIndex indice = new TagIndex();
+        for (int i = 1; i <= 2_000; i++) {
+            indice.put(String.format("E2003412%08X", i), i);
+        }
+        // Mais de 4 KB de tags removidas dispara a compactação
+        for (int i = 1; i <= 2_000; i++) {
+            if (i % 4 != 0) {
+                assertTrue(indice.remove(String.format("E2003412%08X", i), i));
+            }
+        }
+        assertEquals(500, indice.size());
+        for (int i = 1; i <= 2_000; i++) {
+            assertEquals(i % 4 == 0 ? i : TagIndex.AUSENTE, indice.get(String.format("E2003412%08X", i)));
+        }
+        byte[] tag = String.format("E2003412%08X", 2_000).getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals(2_000, indice.get(tag, 0, tag.length));
+    }
+
+    @Test
+    void tagsForaDoLatin1VaoParaOMapaAuxiliar() {
+        TagIndex indice = new TagIndex();
+        indice.put("TAG一", 3);
+        assertEquals(3, indice.get("TAG一"));
+        assertEquals(1, indice.size());
+        assertTrue(indice.remove("TAG一", 3));
+        assertEquals(0, indice.size());
+    }
+
+    @Test
+    void recusaIdDeMotoInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new TagIndex().put("RF001", 0));
+    }
+}
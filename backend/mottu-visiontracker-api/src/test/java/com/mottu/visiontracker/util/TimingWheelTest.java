@@ -0,0 +1,96 @@
+package com.mottu.visiontracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long TICK_MS = 100;
+
+    private final List<Long> expiradas = new ArrayList<>();
+
+    @Test
+    void expiraNoTickDoPrazo() {
+        TimingWheel roda = new TimingWheel(TICK_MS, 8, 16, 0);
+        roda.agendar(1, 350);
+        roda.agendar(2, 520);
+
+        assertEquals(0, roda.avancar(299, expiradas::add));
+        assertEquals(1, roda.avancar(300, expiradas::add));
+        assertEquals(List.of(1L), expiradas);
+        assertEquals(1, roda.avancar(500, expiradas::add));
+        assertEquals(List.of(1L, 2L), expiradas);
+        assertEquals(0, roda.size());
+    }
+
+    @Test
+    void reagendarSubstituiOPrazoECancelarRemove() {
+        TimingWheel roda = new TimingWheel(TICK_MS, 8, 16, 0);
+        roda.agendar(1, 200);
+        roda.agendar(2, 200);
+        roda.agendar(1, 600);
+        assertTrue(roda.cancelar(2));
+        assertFalse(roda.cancelar(2));
+        assertEquals(1, roda.size());
+
+        assertEquals(0, roda.avancar(500, expiradas::add));
+        assertTrue(roda.contem(1));
+        assertEquals(1, roda.avancar(600, expiradas::add));
+        assertEquals(List.of(1L), expiradas);
+        assertFalse(roda.contem(1));
+    }
+
+    @Test
+    void prazoAlemDeUmaVoltaEsperaOTickCerto() {
+        // 8 slots de 100 ms: 2500 ms cai no mesmo slot de 100, 900, 1700...
+        TimingWheel roda = new TimingWheel(TICK_MS, 8, 16, 0);
+        roda.agendar(1, 2_500);
+        for (long agora = 100; agora < 2_500; agora += 100) {
+            assertEquals(0, roda.avancar(agora, expiradas::add), "Expirou cedo em " + agora);
+        }
+        assertEquals(1, roda.avancar(2_500, expiradas::add));
+    }
+
+    @Test
+    void prazoJaVencidoEntraNoProximoTick() {
+        TimingWheel roda = new TimingWheel(TICK_MS, 8, 16, 1_000);
+        roda.agendar(1, 200);
+        assertEquals(0, roda.avancar(1_050, expiradas::add));
+        assertEquals(1, roda.avancar(1_100, expiradas::add));
+    }
+
+    @Test
+    void saltoMaiorQueUmaVoltaExpiraTudoQueVenceu() {
+        TimingWheel roda = new TimingWheel(TICK_MS, 8, 16, 0);
+        for (long chave = 1; chave <= 20; chave++) {
+            roda.agendar(chave, chave * 150);
+        }
+        roda.agendar(99, 100_000);
+        assertEquals(20, roda.avancar(10_000, expiradas::add));
+        assertEquals(1, roda.size());
+        assertTrue(roda.contem(99));
+    }
+
+    @Test
+    void poolCresceSemPerderPrazos() {
+        TimingWheel roda = new TimingWheel(TICK_MS, 64, 16, 0);
+        for (long chave = 1; chave <= 5_000; chave++) {
+            roda.agendar(chave * 7919, 100 + chave % 50 * TICK_MS);
+        }
+        assertEquals(5_000, roda.size());
+        for (long chave = 1; chave <= 5_000; chave += 2) {
+            assertTrue(roda.cancelar(chave * 7919));
+        }
+        assertEquals(2_500, roda.avancar(100 + 50 * TICK_MS, expiradas::add));
+        assertEquals(0, roda.size());
+        for (Long chave : expiradas) {
+            assertEquals(0, (chave / 7919) % 2, "Chave cancelada expirou: " + chave);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mottu.visiontracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VarintTest {
+
+    @Test
+    void idaEVoltaComValoresNegativosEExtremos() {
+        long[] valores = {0, 1, -1, 63, -64, 64, -65, 300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE};
+        byte[] dados = new byte[valores.length * Varint.MAX_BYTES];
+        int pos = 0;
+        for (long valor : valores) {
+            pos = Varint.escrever(dados, pos, Varint.zigzag(valor));
+        }
+        int[] leitura = {0};
+        for (long valor : valores) {
+            assertEquals(valor, Varint.unzigzag(Varint.ler(dados, leitura)));
+        }
+        assertEquals(pos, leitura[0]);
+    }
+
+    @Test
+    void zigzagDeixaDeltasPequenosCurtos() {
+        byte[] dados = new byte[Varint.MAX_BYTES];
+        assertEquals(1, Varint.escrever(dados, 0, Varint.zigzag(-64)));
+        assertEquals(2, Varint.escrever(dados, 0, Varint.zigzag(-65)));
+        assertEquals(Varint.MAX_BYTES, Varint.escrever(dados, 0, Varint.zigzag(Long.MIN_VALUE)));
+        assertEquals(Varint.MAX_BYTES, Varint.escrever(dados, 0, -1L));
+    }
+}